@@ -0,0 +1,95 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+
+import feign.Capability;
+import feign.Client;
+import feign.Request;
+import feign.Response;
+
+/**
+ * Limits the concurrent requests of a Feign client with an
+ * {@link AdaptiveConcurrencyLimiter}. The round-trip time of a request is measured until
+ * its response has been received, so reading the response body does not hold a permit.
+ *
+ * @since 3.1.6
+ */
+public class AdaptiveConcurrencyLimitCapability implements Capability {
+
+	private final AdaptiveConcurrencyLimiter limiter;
+
+	public AdaptiveConcurrencyLimitCapability(AdaptiveConcurrencyLimiter limiter) {
+		this.limiter = limiter;
+	}
+
+	@Override
+	public Client enrich(Client client) {
+		return new ConcurrencyLimitedClient(client, limiter);
+	}
+
+	static final class ConcurrencyLimitedClient implements Client {
+
+		private final Client delegate;
+
+		private final AdaptiveConcurrencyLimiter limiter;
+
+		ConcurrencyLimitedClient(Client delegate, AdaptiveConcurrencyLimiter limiter) {
+			this.delegate = delegate;
+			this.limiter = limiter;
+		}
+
+		@Override
+		public Response execute(Request request, Request.Options options) throws IOException {
+			AdaptiveConcurrencyLimiter.Permit permit;
+			try {
+				permit = limiter.acquire();
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("Interrupted while waiting for a concurrency limit permit");
+			}
+			if (permit == null) {
+				throw new ConcurrencyLimitExceededException(limiter.getContextId(), limiter.getLimit(), request);
+			}
+			Response response;
+			try {
+				response = delegate.execute(request, options);
+			}
+			catch (SocketTimeoutException e) {
+				permit.onDropped();
+				throw e;
+			}
+			catch (IOException | RuntimeException | Error e) {
+				permit.onIgnore();
+				throw e;
+			}
+			if (response.status() == 429 || response.status() == 503) {
+				permit.onDropped();
+			}
+			else {
+				permit.onSuccess();
+			}
+			return response;
+		}
+
+	}
+
+}
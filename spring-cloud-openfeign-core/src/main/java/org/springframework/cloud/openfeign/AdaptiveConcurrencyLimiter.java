@@ -0,0 +1,281 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+import org.springframework.util.Assert;
+
+/**
+ * A limit on the number of concurrent requests of a Feign client that adapts to the
+ * observed round-trip times. Following the gradient algorithm, the limit is multiplied by
+ * the ratio of the long-term average round-trip time to the latest one, bounded to
+ * {@code [0.5, 1]}, and a headroom of the square root of the limit is added. As long as
+ * latencies stay within the configured tolerance of the average the limit grows; when the
+ * service starts queueing requests the limit shrinks. Timeouts and responses with status
+ * {@code 429} or {@code 503} reduce the limit by 10%.
+ * <p>
+ * A request over the limit is rejected, or waits for a permit for up to the configured
+ * maximum wait time.
+ *
+ * @since 3.1.6
+ * @see FeignClientProperties.ConcurrencyLimitProperties
+ */
+public class AdaptiveConcurrencyLimiter {
+
+	private static final int LONG_WINDOW = 600;
+
+	private static final int WARMUP_SAMPLES = 10;
+
+	private static final double BACKOFF_RATIO = 0.9;
+
+	private final String contextId;
+
+	private final LongSupplier nanoClock;
+
+	private final AtomicInteger inFlight = new AtomicInteger();
+
+	private final LongAdder rejected = new LongAdder();
+
+	private final ReentrantLock lock = new ReentrantLock();
+
+	private final Condition permitReleased = lock.newCondition();
+
+	// Written under lock, read without it so that releasing a permit is lock-free when
+	// no request is waiting
+	private volatile int waiting;
+
+	private volatile FeignClientProperties.ConcurrencyLimitProperties properties;
+
+	private volatile int limit;
+
+	// Guarded by this
+	private double estimatedLimit;
+
+	private double longRttNanos;
+
+	private long samples;
+
+	public AdaptiveConcurrencyLimiter(String contextId, FeignClientProperties.ConcurrencyLimitProperties properties) {
+		this(contextId, properties, System::nanoTime);
+	}
+
+	AdaptiveConcurrencyLimiter(String contextId, FeignClientProperties.ConcurrencyLimitProperties properties,
+			LongSupplier nanoClock) {
+		this.contextId = contextId;
+		this.nanoClock = nanoClock;
+		this.properties = properties;
+		estimatedLimit = clamp(properties.getInitialLimit(), properties);
+		limit = (int) estimatedLimit;
+	}
+
+	/**
+	 * Applies new properties, keeping the current limit within the new bounds.
+	 * @param properties the concurrency limit properties
+	 */
+	public synchronized void configure(FeignClientProperties.ConcurrencyLimitProperties properties) {
+		Assert.notNull(properties, "Properties must not be null");
+		this.properties = properties;
+		setEstimatedLimit(clamp(estimatedLimit, properties));
+	}
+
+	/**
+	 * Acquires a permit for a request, waiting for up to the configured maximum wait time
+	 * if the limit has been reached.
+	 * @return the permit, or {@code null} if the request is rejected
+	 * @throws InterruptedException if interrupted while waiting for a permit
+	 */
+	public Permit acquire() throws InterruptedException {
+		if (!tryIncrement()) {
+			Integer maxWait = properties.getMaxWait();
+			if (maxWait == null || maxWait <= 0 || !awaitPermit(TimeUnit.MILLISECONDS.toNanos(maxWait))) {
+				rejected.increment();
+				return null;
+			}
+		}
+		return new Permit(nanoClock.getAsLong(), inFlight.get());
+	}
+
+	private boolean tryIncrement() {
+		for (;;) {
+			int current = inFlight.get();
+			if (current >= limit) {
+				return false;
+			}
+			if (inFlight.compareAndSet(current, current + 1)) {
+				return true;
+			}
+		}
+	}
+
+	private boolean awaitPermit(long timeoutNanos) throws InterruptedException {
+		long remainingNanos = timeoutNanos;
+		lock.lockInterruptibly();
+		try {
+			waiting++;
+			try {
+				while (!tryIncrement()) {
+					if (remainingNanos <= 0) {
+						return false;
+					}
+					remainingNanos = permitReleased.awaitNanos(remainingNanos);
+				}
+				return true;
+			}
+			finally {
+				waiting--;
+			}
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	private void release(boolean limitIncreased) {
+		inFlight.decrementAndGet();
+		if (waiting == 0) {
+			return;
+		}
+		lock.lock();
+		try {
+			if (limitIncreased) {
+				permitReleased.signalAll();
+			}
+			else {
+				permitReleased.signal();
+			}
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	private synchronized boolean onSample(long rttNanos, int inFlightAtStart) {
+		FeignClientProperties.ConcurrencyLimitProperties properties = this.properties;
+		samples++;
+		if (samples <= WARMUP_SAMPLES) {
+			longRttNanos += (rttNanos - longRttNanos) / samples;
+			return false;
+		}
+		longRttNanos += (rttNanos - longRttNanos) * 2 / (LONG_WINDOW + 1);
+		// Let the average recover quickly once latencies have dropped back
+		if (longRttNanos / Math.max(rttNanos, 1) > 2) {
+			longRttNanos *= 0.95;
+		}
+		// Latencies do not tell anything about the limit if it is not being used
+		if (inFlightAtStart < estimatedLimit / 2) {
+			return false;
+		}
+		double tolerance = properties.getRttTolerance() != null ? properties.getRttTolerance() : 1.5;
+		double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRttNanos / Math.max(rttNanos, 1)));
+		double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+		double smoothing = properties.getSmoothing() != null ? properties.getSmoothing() : 0.2;
+		return setEstimatedLimit(clamp(estimatedLimit * (1 - smoothing) + newLimit * smoothing, properties));
+	}
+
+	private synchronized void onDropped() {
+		setEstimatedLimit(clamp(estimatedLimit * BACKOFF_RATIO, properties));
+	}
+
+	private boolean setEstimatedLimit(double newLimit) {
+		int previousLimit = limit;
+		estimatedLimit = newLimit;
+		limit = (int) newLimit;
+		return limit > previousLimit;
+	}
+
+	private static double clamp(double limit, FeignClientProperties.ConcurrencyLimitProperties properties) {
+		int minLimit = properties.getMinLimit() != null ? Math.max(properties.getMinLimit(), 1) : 1;
+		int maxLimit = properties.getMaxLimit() != null ? Math.max(properties.getMaxLimit(), minLimit)
+				: Integer.MAX_VALUE;
+		return Math.min(Math.max(limit, minLimit), maxLimit);
+	}
+
+	public String getContextId() {
+		return contextId;
+	}
+
+	/**
+	 * Returns the current limit of concurrent requests.
+	 * @return the limit
+	 */
+	public int getLimit() {
+		return limit;
+	}
+
+	/**
+	 * Returns the number of requests currently holding a permit.
+	 * @return the number of in-flight requests
+	 */
+	public int getInFlight() {
+		return inFlight.get();
+	}
+
+	/**
+	 * Returns the number of requests rejected so far.
+	 * @return the number of rejected requests
+	 */
+	public long getRejectedCount() {
+		return rejected.sum();
+	}
+
+	/**
+	 * A permit for a single request. Exactly one of the {@code on*} methods must be
+	 * called once the response has been received or the request has failed.
+	 */
+	public final class Permit {
+
+		private final long startNanos;
+
+		private final int inFlightAtStart;
+
+		private Permit(long startNanos, int inFlightAtStart) {
+			this.startNanos = startNanos;
+			this.inFlightAtStart = inFlightAtStart;
+		}
+
+		/**
+		 * Releases the permit and records the round-trip time of the request.
+		 */
+		public void onSuccess() {
+			release(onSample(nanoClock.getAsLong() - startNanos, inFlightAtStart));
+		}
+
+		/**
+		 * Releases the permit and reduces the limit, for a request that timed out or was
+		 * rejected by the service because of overload.
+		 */
+		public void onDropped() {
+			AdaptiveConcurrencyLimiter.this.onDropped();
+			release(false);
+		}
+
+		/**
+		 * Releases the permit without taking the request into account.
+		 */
+		public void onIgnore() {
+			release(false);
+		}
+
+	}
+
+}
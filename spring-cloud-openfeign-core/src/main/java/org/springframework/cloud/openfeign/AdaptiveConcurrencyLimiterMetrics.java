@@ -0,0 +1,57 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Exposes the state of the {@link AdaptiveConcurrencyLimiter}s as Micrometer meters,
+ * tagged with the {@code contextId} of the Feign client.
+ *
+ * @since 3.1.6
+ */
+public class AdaptiveConcurrencyLimiterMetrics implements MeterBinder {
+
+	private static final String METRIC_PREFIX = "feign.client.concurrency";
+
+	private final AdaptiveConcurrencyLimiters limiters;
+
+	public AdaptiveConcurrencyLimiterMetrics(AdaptiveConcurrencyLimiters limiters) {
+		this.limiters = limiters;
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		limiters.addListener(limiter -> bindTo(registry, limiter));
+	}
+
+	private void bindTo(MeterRegistry registry, AdaptiveConcurrencyLimiter limiter) {
+		Tags tags = Tags.of("contextId", limiter.getContextId());
+		Gauge.builder(METRIC_PREFIX + ".limit", limiter, AdaptiveConcurrencyLimiter::getLimit).tags(tags)
+				.description("Current limit of concurrent requests").register(registry);
+		Gauge.builder(METRIC_PREFIX + ".inflight", limiter, AdaptiveConcurrencyLimiter::getInFlight).tags(tags)
+				.description("Requests currently holding a concurrency limit permit").register(registry);
+		FunctionCounter.builder(METRIC_PREFIX + ".rejected", limiter, AdaptiveConcurrencyLimiter::getRejectedCount)
+				.tags(tags).description("Requests rejected because the concurrency limit was reached")
+				.register(registry);
+	}
+
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Holds the {@link AdaptiveConcurrencyLimiter} of each Feign client, so that all proxies
+ * created for the same {@code contextId} share one limit.
+ *
+ * @since 3.1.6
+ */
+public class AdaptiveConcurrencyLimiters {
+
+	private final Map<String, AdaptiveConcurrencyLimiter> limiters = new ConcurrentHashMap<>();
+
+	private final List<Consumer<AdaptiveConcurrencyLimiter>> listeners = new CopyOnWriteArrayList<>();
+
+	/**
+	 * Returns the limiter of the given Feign client, creating it if needed. An existing
+	 * limiter is reconfigured with the given properties.
+	 * @param contextId the id of the Feign client
+	 * @param properties the concurrency limit properties
+	 * @return the limiter
+	 */
+	public AdaptiveConcurrencyLimiter getLimiter(String contextId,
+			FeignClientProperties.ConcurrencyLimitProperties properties) {
+		AdaptiveConcurrencyLimiter limiter = limiters.get(contextId);
+		if (limiter != null) {
+			limiter.configure(properties);
+			return limiter;
+		}
+		limiter = new AdaptiveConcurrencyLimiter(contextId, properties);
+		AdaptiveConcurrencyLimiter existing = limiters.putIfAbsent(contextId, limiter);
+		if (existing != null) {
+			existing.configure(properties);
+			return existing;
+		}
+		for (Consumer<AdaptiveConcurrencyLimiter> listener : listeners) {
+			listener.accept(limiter);
+		}
+		return limiter;
+	}
+
+	/**
+	 * Returns the limiters created so far.
+	 * @return the limiters by contextId
+	 */
+	public Map<String, AdaptiveConcurrencyLimiter> getLimiters() {
+		return Collections.unmodifiableMap(limiters);
+	}
+
+	/**
+	 * Registers a listener that is called with each newly created limiter, and
+	 * immediately with the existing ones.
+	 * @param listener the listener
+	 */
+	public void addListener(Consumer<AdaptiveConcurrencyLimiter> listener) {
+		listeners.add(listener);
+		limiters.values().forEach(listener);
+	}
+
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+
+import feign.AsyncClient;
+import feign.AsyncFeign;
+import feign.Feign;
+
+/**
+ * A {@link Feign.Builder} that builds an {@link AsyncFeign} instance on top of an
+ * {@link AsyncClient}, so that methods returning a {@link CompletableFuture} complete
+ * without blocking the calling thread. Everything configured on the builder is passed on,
+ * except the {@link feign.Retryer} and the {@link feign.Client}, which {@link AsyncFeign}
+ * does not support.
+ *
+ * @param <C> the type of the request context of the client
+ * @since 3.1.6
+ */
+class AsyncFeignBuilder<C> extends Feign.Builder {
+
+	private AsyncClient<C> asyncClient;
+
+	AsyncFeignBuilder(AsyncClient<C> asyncClient) {
+		this.asyncClient = asyncClient;
+	}
+
+	AsyncClient<C> getAsyncClient() {
+		return asyncClient;
+	}
+
+	AsyncFeignBuilder<C> asyncClient(AsyncClient<C> asyncClient) {
+		this.asyncClient = asyncClient;
+		return this;
+	}
+
+	@Override
+	public Feign build() {
+		AsyncFeign.AsyncBuilder<C> builder = AsyncFeign.<C>asyncBuilder().client(asyncClient).logLevel(logLevel)
+				.logger(logger).contract(contract).encoder(encoder).decoder(decoder).errorDecoder(errorDecoder)
+				.queryMapEncoder(queryMapEncoder).options(options).requestInterceptors(requestInterceptors)
+				.responseInterceptor(responseInterceptor).invocationHandlerFactory(invocationHandlerFactory)
+				.exceptionPropagationPolicy(propagationPolicy);
+		if (dismiss404) {
+			builder.dismiss404();
+		}
+		if (!closeAfterDecode) {
+			builder.doNotCloseAfterDecode();
+		}
+		capabilities.forEach(builder::addCapability);
+		return builder.build();
+	}
+
+	/**
+	 * Returns whether the given Feign client interface has a method returning a
+	 * {@link CompletableFuture}.
+	 * @param type the Feign client interface
+	 * @return {@code true} if the client should be built asynchronously
+	 */
+	static boolean isAsync(Class<?> type) {
+		for (Method method : type.getMethods()) {
+			if (CompletableFuture.class.isAssignableFrom(method.getReturnType())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+}
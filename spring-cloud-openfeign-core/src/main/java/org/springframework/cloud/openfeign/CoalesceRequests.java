@@ -0,0 +1,48 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Indicates that concurrent identical calls of the annotated {@code GET} method share a
+ * single request: while a request is in flight, callers issuing the same request wait for
+ * it and each receive a buffered copy of its response. Requests are identical when they
+ * have the same URL and the same headers, apart from the {@link #ignoredHeaders()
+ * ignored} ones.
+ *
+ * @since 3.1.6
+ * @see CoalescingClient
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface CoalesceRequests {
+
+	/**
+	 * Names of headers that do not make requests different, typically because they are
+	 * set per call by tracing instrumentation. Header names are case-insensitive.
+	 * @return the names of the ignored headers
+	 */
+	String[] ignoredHeaders() default { "traceparent", "tracestate", "b3", "X-B3-TraceId", "X-B3-SpanId",
+			"X-B3-ParentSpanId", "X-B3-Sampled", "X-B3-Flags" };
+
+}
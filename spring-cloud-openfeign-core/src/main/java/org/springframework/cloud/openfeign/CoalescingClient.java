@@ -0,0 +1,192 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+import feign.Client;
+import feign.MethodMetadata;
+import feign.Request;
+import feign.RequestTemplate;
+import feign.Response;
+import feign.Util;
+
+import org.springframework.core.annotation.AnnotatedElementUtils;
+
+/**
+ * A {@link Client} that lets concurrent identical {@code GET} requests of methods
+ * annotated with {@link CoalesceRequests} share one call to its delegate. The first
+ * request is sent; requests arriving while it is in flight wait for it. Its response body
+ * is buffered, and every caller receives its own copy of the response. Requests of other
+ * methods are passed to the delegate unchanged.
+ *
+ * @since 3.1.6
+ */
+public class CoalescingClient implements Client {
+
+	private static final Object NOT_COALESCED = new Object();
+
+	private final Client delegate;
+
+	private final Map<Method, Object> ignoredHeadersByMethod = new ConcurrentHashMap<>();
+
+	private final Map<CoalescingKey, CompletableFuture<Response>> inFlight = new ConcurrentHashMap<>();
+
+	public CoalescingClient(Client delegate) {
+		this.delegate = delegate;
+	}
+
+	/**
+	 * Returns whether any method of the given Feign client interface coalesces requests.
+	 * @param type the Feign client interface
+	 * @return {@code true} if a method is annotated with {@link CoalesceRequests}
+	 */
+	public static boolean isCoalescing(Class<?> type) {
+		return Arrays.stream(type.getMethods())
+				.anyMatch(method -> AnnotatedElementUtils.hasAnnotation(method, CoalesceRequests.class));
+	}
+
+	@Override
+	public Response execute(Request request, Request.Options options) throws IOException {
+		Set<String> ignoredHeaders = getIgnoredHeaders(request);
+		if (ignoredHeaders == null || request.httpMethod() != Request.HttpMethod.GET) {
+			return delegate.execute(request, options);
+		}
+		CoalescingKey key = new CoalescingKey(request, ignoredHeaders);
+		CompletableFuture<Response> future = new CompletableFuture<>();
+		CompletableFuture<Response> existing = inFlight.putIfAbsent(key, future);
+		if (existing != null) {
+			return copy(await(existing), request);
+		}
+		try {
+			future.complete(buffer(delegate.execute(request, options)));
+		}
+		catch (IOException | RuntimeException | Error e) {
+			future.completeExceptionally(e);
+		}
+		finally {
+			inFlight.remove(key, future);
+		}
+		return copy(await(future), request);
+	}
+
+	@SuppressWarnings("unchecked")
+	private Set<String> getIgnoredHeaders(Request request) {
+		RequestTemplate template = request.requestTemplate();
+		MethodMetadata metadata = template != null ? template.methodMetadata() : null;
+		Method method = metadata != null ? metadata.method() : null;
+		if (method == null) {
+			return null;
+		}
+		Object ignoredHeaders = ignoredHeadersByMethod.computeIfAbsent(method, key -> {
+			CoalesceRequests annotation = AnnotatedElementUtils.findMergedAnnotation(key, CoalesceRequests.class);
+			if (annotation == null) {
+				return NOT_COALESCED;
+			}
+			Set<String> headers = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+			headers.addAll(Arrays.asList(annotation.ignoredHeaders()));
+			return headers;
+		});
+		return ignoredHeaders != NOT_COALESCED ? (Set<String>) ignoredHeaders : null;
+	}
+
+	private static Response await(CompletableFuture<Response> future) throws IOException {
+		try {
+			return future.get();
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for a coalesced request");
+		}
+		catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			throw (Error) cause;
+		}
+	}
+
+	private static Response buffer(Response response) throws IOException {
+		if (response.body() == null) {
+			return response;
+		}
+		try (InputStream body = response.body().asInputStream()) {
+			return response.toBuilder().body(Util.toByteArray(body)).build();
+		}
+	}
+
+	private static Response copy(Response response, Request request) {
+		return response.toBuilder().request(request).build();
+	}
+
+	public Client getDelegate() {
+		return delegate;
+	}
+
+	private static final class CoalescingKey {
+
+		private final String url;
+
+		private final Map<String, List<String>> headers = new TreeMap<>();
+
+		private CoalescingKey(Request request, Set<String> ignoredHeaders) {
+			url = request.url();
+			request.headers().forEach((name, values) -> {
+				if (!ignoredHeaders.contains(name)) {
+					headers.put(name.toLowerCase(Locale.ROOT), new ArrayList<>(values));
+				}
+			});
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) {
+				return true;
+			}
+			if (o == null || getClass() != o.getClass()) {
+				return false;
+			}
+			CoalescingKey that = (CoalescingKey) o;
+			return url.equals(that.url) && headers.equals(that.headers);
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * url.hashCode() + headers.hashCode();
+		}
+
+	}
+
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign;
+
+import feign.FeignException;
+import feign.Request;
+
+/**
+ * Thrown when a request of a Feign client is rejected by its
+ * {@link AdaptiveConcurrencyLimiter}. The request has not been sent, so it is safe to
+ * retry it later or to fall back.
+ *
+ * @since 3.1.6
+ */
+public class ConcurrencyLimitExceededException extends FeignException {
+
+	private final String contextId;
+
+	private final int limit;
+
+	public ConcurrencyLimitExceededException(String contextId, int limit, Request request) {
+		super(-1, "Concurrency limit of " + limit + " reached for Feign client " + contextId, request);
+		this.contextId = contextId;
+		this.limit = limit;
+	}
+
+	public String getContextId() {
+		return contextId;
+	}
+
+	public int getLimit() {
+		return limit;
+	}
+
+}
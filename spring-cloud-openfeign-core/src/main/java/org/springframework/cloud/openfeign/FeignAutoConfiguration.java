@@ -20,31 +20,38 @@ import java.io.IOException;
 import java.lang.reflect.Method;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
-import java.util.Timer;
-import java.util.TimerTask;
 import java.util.concurrent.TimeUnit;
 
 import javax.annotation.PreDestroy;
 
 import com.fasterxml.jackson.databind.Module;
+import feign.AsyncClient;
 import feign.Capability;
 import feign.Client;
 import feign.Feign;
 import feign.RequestInterceptor;
 import feign.Target;
 import feign.hc5.ApacheHttp5Client;
+import feign.hc5.AsyncApacheHttp5Client;
 import feign.httpclient.ApacheHttpClient;
 import feign.okhttp.OkHttpClient;
 import okhttp3.ConnectionPool;
+import okhttp3.Protocol;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
 import org.apache.http.client.HttpClient;
 import org.apache.http.client.config.RequestConfig;
 import org.apache.http.config.RegistryBuilder;
 import org.apache.http.conn.HttpClientConnectionManager;
 import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
@@ -62,6 +69,25 @@ import org.springframework.cloud.commons.httpclient.ApacheHttpClientConnectionMa
 import org.springframework.cloud.commons.httpclient.ApacheHttpClientFactory;
 import org.springframework.cloud.commons.httpclient.OkHttpClientConnectionPoolFactory;
 import org.springframework.cloud.commons.httpclient.OkHttpClientFactory;
+import org.springframework.cloud.openfeign.clientconfig.FeignApacheHttpClientConnectionManagerFactory;
+import org.springframework.cloud.openfeign.clientconfig.FeignConnectionEvictor;
+import org.springframework.cloud.openfeign.clientconfig.FeignConnectionEvictorMetrics;
+import org.springframework.cloud.openfeign.clientconfig.FeignConnectionPoolMetrics;
+import org.springframework.cloud.openfeign.clientconfig.FeignConnectionPoolMonitor;
+import org.springframework.cloud.openfeign.clientconfig.FeignConnectionPoolRegistration;
+import org.springframework.cloud.openfeign.clientconfig.FeignConnectionWarmer;
+import org.springframework.cloud.openfeign.clientconfig.FeignDnsCache;
+import org.springframework.cloud.openfeign.clientconfig.FeignSslContextProvider;
+import org.springframework.cloud.openfeign.clientconfig.FeignSslMetrics;
+import org.springframework.cloud.openfeign.clientconfig.Http2StreamLimitingAsyncClient;
+import org.springframework.cloud.openfeign.clientconfig.HttpClientEvictablePool;
+import org.springframework.cloud.openfeign.clientconfig.HttpClientHostPolicy;
+import org.springframework.cloud.openfeign.clientconfig.HttpClientWarmablePool;
+import org.springframework.cloud.openfeign.clientconfig.InstrumentedHttpClientConnectionManager;
+import org.springframework.cloud.openfeign.clientconfig.JdkHttpClientImportSelector;
+import org.springframework.cloud.openfeign.clientconfig.OkHttpConnectionAcquisitionListener;
+import org.springframework.cloud.openfeign.clientconfig.OkHttpDns;
+import org.springframework.cloud.openfeign.clientconfig.OkHttpEvictablePool;
 import org.springframework.cloud.openfeign.security.OAuth2AccessTokenInterceptor;
 import org.springframework.cloud.openfeign.security.OAuth2FeignRequestInterceptor;
 import org.springframework.cloud.openfeign.security.OAuth2FeignRequestInterceptorConfigurer;
@@ -128,6 +154,103 @@ public class FeignAutoConfiguration {
 		return new CachingCapability(cacheInterceptor);
 	}
 
+	@Bean
+	@ConditionalOnMissingBean
+	public AdaptiveConcurrencyLimiters adaptiveConcurrencyLimiters() {
+		return new AdaptiveConcurrencyLimiters();
+	}
+
+	@Bean
+	@ConditionalOnMissingBean
+	public FeignConnectionEvictor feignConnectionEvictor(FeignHttpClientProperties httpClientProperties) {
+		return new FeignConnectionEvictor(httpClientProperties);
+	}
+
+	@Bean
+	@ConditionalOnMissingBean
+	public FeignConnectionPoolMonitor feignConnectionPoolMonitor() {
+		return new FeignConnectionPoolMonitor();
+	}
+
+	@Bean
+	@ConditionalOnMissingBean
+	public FeignConnectionWarmer feignConnectionWarmer() {
+		return new FeignConnectionWarmer();
+	}
+
+	@Bean
+	@ConditionalOnMissingBean
+	@ConditionalOnProperty("feign.httpclient.dns.enabled")
+	public FeignDnsCache feignDnsCache(FeignHttpClientProperties httpClientProperties) {
+		return new FeignDnsCache(httpClientProperties.getDns());
+	}
+
+	@Bean
+	@ConditionalOnMissingBean
+	@ConditionalOnProperty("feign.httpclient.ssl.shared-context")
+	public FeignSslContextProvider feignSslContextProvider(FeignHttpClientProperties httpClientProperties) {
+		return new FeignSslContextProvider(httpClientProperties);
+	}
+
+	@Bean
+	@ConditionalOnMissingBean
+	public FeignClientWarmUp feignClientWarmUp(FeignClientProperties feignClientProperties,
+			FeignConnectionWarmer feignConnectionWarmer) {
+		return new FeignClientWarmUp(feignClientProperties, feignConnectionWarmer);
+	}
+
+	@Configuration(proxyBeanMethods = false)
+	@ConditionalOnClass(name = "io.micrometer.core.instrument.binder.MeterBinder")
+	protected static class ConnectionEvictorMetricsConfiguration {
+
+		@Bean
+		@ConditionalOnMissingBean
+		public FeignConnectionEvictorMetrics feignConnectionEvictorMetrics(
+				FeignConnectionEvictor feignConnectionEvictor) {
+			return new FeignConnectionEvictorMetrics(feignConnectionEvictor);
+		}
+
+	}
+
+	@Configuration(proxyBeanMethods = false)
+	@ConditionalOnClass(name = "io.micrometer.core.instrument.binder.MeterBinder")
+	@ConditionalOnProperty("feign.httpclient.ssl.shared-context")
+	protected static class SslMetricsConfiguration {
+
+		@Bean
+		@ConditionalOnMissingBean
+		public FeignSslMetrics feignSslMetrics(FeignSslContextProvider feignSslContextProvider) {
+			return new FeignSslMetrics(feignSslContextProvider);
+		}
+
+	}
+
+	@Configuration(proxyBeanMethods = false)
+	@ConditionalOnClass(name = "io.micrometer.core.instrument.binder.MeterBinder")
+	protected static class ConnectionPoolMetricsConfiguration {
+
+		@Bean
+		@ConditionalOnMissingBean
+		public FeignConnectionPoolMetrics feignConnectionPoolMetrics(
+				FeignConnectionPoolMonitor feignConnectionPoolMonitor) {
+			return new FeignConnectionPoolMetrics(feignConnectionPoolMonitor);
+		}
+
+	}
+
+	@Configuration(proxyBeanMethods = false)
+	@ConditionalOnClass(name = "io.micrometer.core.instrument.binder.MeterBinder")
+	protected static class ConcurrencyLimiterMetricsConfiguration {
+
+		@Bean
+		@ConditionalOnMissingBean
+		public AdaptiveConcurrencyLimiterMetrics adaptiveConcurrencyLimiterMetrics(
+				AdaptiveConcurrencyLimiters adaptiveConcurrencyLimiters) {
+			return new AdaptiveConcurrencyLimiterMetrics(adaptiveConcurrencyLimiters);
+		}
+
+	}
+
 	@Configuration(proxyBeanMethods = false)
 	@ConditionalOnClass({ Module.class, Page.class, Sort.class })
 	@ConditionalOnProperty(value = "feign.autoconfiguration.jackson.enabled", havingValue = "true")
@@ -226,29 +349,39 @@ public class FeignAutoConfiguration {
 	@Conditional(HttpClient5DisabledConditions.class)
 	protected static class HttpClientFeignConfiguration {
 
-		private final Timer connectionManagerTimer = new Timer(
-				"FeignApacheHttpClientConfiguration.connectionManagerTimer", true);
+		private static final String CONNECTION_POOL_NAME = "httpclient";
 
 		@Autowired(required = false)
 		private RegistryBuilder registryBuilder;
 
+		private final FeignConnectionPoolRegistration connectionPoolRegistration = new FeignConnectionPoolRegistration(
+				CONNECTION_POOL_NAME);
+
 		private CloseableHttpClient httpClient;
 
+		private FeignConnectionPoolMonitor connectionPoolMonitor;
+
 		@Bean
 		@ConditionalOnMissingBean(HttpClientConnectionManager.class)
 		public HttpClientConnectionManager connectionManager(
 				ApacheHttpClientConnectionManagerFactory connectionManagerFactory,
-				FeignHttpClientProperties httpClientProperties) {
+				FeignHttpClientProperties httpClientProperties,
+				ObjectProvider<FeignConnectionEvictor> connectionEvictor,
+				ObjectProvider<FeignConnectionPoolMonitor> connectionPoolMonitor,
+				ObjectProvider<FeignConnectionWarmer> connectionWarmer, ObjectProvider<FeignDnsCache> dnsCache,
+				ObjectProvider<FeignSslContextProvider> sslContextProvider) {
+			connectionManagerFactory = FeignApacheHttpClientConnectionManagerFactory.of(connectionManagerFactory,
+					dnsCache.getIfAvailable(), sslContextProvider.getIfAvailable());
 			final HttpClientConnectionManager connectionManager = connectionManagerFactory.newConnectionManager(
 					httpClientProperties.isDisableSslValidation(), httpClientProperties.getMaxConnections(),
 					httpClientProperties.getMaxConnectionsPerRoute(), httpClientProperties.getTimeToLive(),
 					httpClientProperties.getTimeToLiveUnit(), this.registryBuilder);
-			this.connectionManagerTimer.schedule(new TimerTask() {
-				@Override
-				public void run() {
-					connectionManager.closeExpiredConnections();
-				}
-			}, 30000, httpClientProperties.getConnectionTimerRepeat());
+			HttpClientEvictablePool pool = new HttpClientEvictablePool(connectionManager);
+			this.connectionPoolRegistration.registerEvictablePool(connectionEvictor, pool);
+			this.connectionPoolMonitor = this.connectionPoolRegistration.registerMonitoredPool(connectionPoolMonitor,
+					pool);
+			this.connectionPoolRegistration.registerWarmablePool(connectionWarmer,
+					new HttpClientWarmablePool(connectionManager, httpClientProperties.getConnectionTimeout()));
 			return connectionManager;
 		}
 
@@ -259,7 +392,17 @@ public class FeignAutoConfiguration {
 			RequestConfig defaultRequestConfig = RequestConfig.custom()
 					.setConnectTimeout(httpClientProperties.getConnectionTimeout())
 					.setRedirectsEnabled(httpClientProperties.isFollowRedirects()).build();
-			this.httpClient = httpClientFactory.createBuilder().setConnectionManager(httpClientConnectionManager)
+			HttpClientConnectionManager connectionManager = this.connectionPoolMonitor != null
+					? new InstrumentedHttpClientConnectionManager(httpClientConnectionManager,
+							this.connectionPoolMonitor, CONNECTION_POOL_NAME)
+					: httpClientConnectionManager;
+			HttpClientBuilder builder = httpClientFactory.createBuilder();
+			if (HttpClientHostPolicy.isRequired(httpClientProperties)) {
+				HttpClientHostPolicy hostPolicy = new HttpClientHostPolicy(httpClientProperties,
+						httpClientConnectionManager);
+				builder.setKeepAliveStrategy(hostPolicy).setRoutePlanner(hostPolicy);
+			}
+			this.httpClient = builder.setConnectionManager(connectionManager)
 					.setDefaultRequestConfig(defaultRequestConfig).build();
 			return this.httpClient;
 		}
@@ -272,7 +415,7 @@ public class FeignAutoConfiguration {
 
 		@PreDestroy
 		public void destroy() {
-			this.connectionManagerTimer.cancel();
+			this.connectionPoolRegistration.unregister();
 			if (this.httpClient != null) {
 				try {
 					this.httpClient.close();
@@ -293,33 +436,67 @@ public class FeignAutoConfiguration {
 	@ConditionalOnProperty("feign.okhttp.enabled")
 	protected static class OkHttpFeignConfiguration {
 
+		private static final String CONNECTION_POOL_NAME = "okhttp";
+
+		private final FeignConnectionPoolRegistration connectionPoolRegistration = new FeignConnectionPoolRegistration(
+				CONNECTION_POOL_NAME);
+
 		private okhttp3.OkHttpClient okHttpClient;
 
 		@Bean
 		@ConditionalOnMissingBean(ConnectionPool.class)
 		public ConnectionPool httpClientConnectionPool(FeignHttpClientProperties httpClientProperties,
-				OkHttpClientConnectionPoolFactory connectionPoolFactory) {
+				OkHttpClientConnectionPoolFactory connectionPoolFactory,
+				ObjectProvider<FeignConnectionEvictor> connectionEvictor,
+				ObjectProvider<FeignConnectionPoolMonitor> connectionPoolMonitor) {
 			int maxTotalConnections = httpClientProperties.getMaxConnections();
 			long timeToLive = httpClientProperties.getTimeToLive();
 			TimeUnit ttlUnit = httpClientProperties.getTimeToLiveUnit();
-			return connectionPoolFactory.create(maxTotalConnections, timeToLive, ttlUnit);
+			ConnectionPool connectionPool = connectionPoolFactory.create(maxTotalConnections, timeToLive, ttlUnit);
+			OkHttpEvictablePool pool = new OkHttpEvictablePool(connectionPool);
+			this.connectionPoolRegistration.registerEvictablePool(connectionEvictor, pool);
+			this.connectionPoolRegistration.registerMonitoredPool(connectionPoolMonitor, pool);
+			return connectionPool;
 		}
 
 		@Bean
 		public okhttp3.OkHttpClient client(OkHttpClientFactory httpClientFactory, ConnectionPool connectionPool,
-				FeignHttpClientProperties httpClientProperties) {
+				FeignHttpClientProperties httpClientProperties,
+				ObjectProvider<FeignConnectionPoolMonitor> connectionPoolMonitor,
+				ObjectProvider<FeignDnsCache> dnsCache, ObjectProvider<FeignSslContextProvider> sslContextProvider) {
 			boolean followRedirects = httpClientProperties.isFollowRedirects();
 			int connectTimeout = httpClientProperties.getConnectionTimeout();
 			boolean disableSslValidation = httpClientProperties.isDisableSslValidation();
 			Duration readTimeout = httpClientProperties.getOkHttp().getReadTimeout();
-			this.okHttpClient = httpClientFactory.createBuilder(disableSslValidation)
+			okhttp3.OkHttpClient.Builder builder = httpClientFactory.createBuilder(disableSslValidation)
 					.connectTimeout(connectTimeout, TimeUnit.MILLISECONDS).followRedirects(followRedirects)
-					.readTimeout(readTimeout).connectionPool(connectionPool).build();
+					.readTimeout(readTimeout).connectionPool(connectionPool);
+			FeignHttpClientProperties.Http2 http2 = httpClientProperties.getHttp2();
+			if (http2.isEnabled()) {
+				builder.protocols(http2.isPriorKnowledge() ? Collections.singletonList(Protocol.H2_PRIOR_KNOWLEDGE)
+						: Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1));
+			}
+			FeignDnsCache feignDnsCache = dnsCache.getIfAvailable();
+			if (feignDnsCache != null) {
+				builder.dns(new OkHttpDns(feignDnsCache));
+			}
+			FeignSslContextProvider feignSslContextProvider = sslContextProvider.getIfAvailable();
+			if (feignSslContextProvider != null) {
+				builder.sslSocketFactory(feignSslContextProvider.getSocketFactory(),
+						feignSslContextProvider.getTrustManager());
+			}
+			FeignConnectionPoolMonitor monitor = connectionPoolMonitor.getIfAvailable();
+			if (monitor != null) {
+				builder.eventListenerFactory(
+						OkHttpConnectionAcquisitionListener.factory(monitor, CONNECTION_POOL_NAME));
+			}
+			this.okHttpClient = builder.build();
 			return this.okHttpClient;
 		}
 
 		@PreDestroy
 		public void destroy() {
+			this.connectionPoolRegistration.unregister();
 			if (this.okHttpClient != null) {
 				this.okHttpClient.dispatcher().executorService().shutdown();
 				this.okHttpClient.connectionPool().evictAll();
@@ -349,6 +526,31 @@ public class FeignAutoConfiguration {
 
 	}
 
+	@Configuration(proxyBeanMethods = false)
+	@ConditionalOnClass(AsyncApacheHttp5Client.class)
+	@ConditionalOnProperty(value = "feign.httpclient.hc5.async.enabled", havingValue = "true")
+	@Import(org.springframework.cloud.openfeign.clientconfig.HttpAsyncClient5FeignConfiguration.class)
+	protected static class HttpAsyncClient5FeignConfiguration {
+
+		@Bean
+		@ConditionalOnMissingBean(AsyncClient.class)
+		public AsyncClient<HttpClientContext> feignAsyncClient(CloseableHttpAsyncClient httpAsyncClient5,
+				FeignHttpClientProperties httpClientProperties) {
+			AsyncClient<HttpClientContext> client = new AsyncApacheHttp5Client(httpAsyncClient5);
+			FeignHttpClientProperties.Http2 http2 = httpClientProperties.getHttp2();
+			return http2.isEnabled() ? new Http2StreamLimitingAsyncClient<>(client, http2) : client;
+		}
+
+	}
+
+	@Configuration(proxyBeanMethods = false)
+	@ConditionalOnClass(name = "java.net.http.HttpClient")
+	@ConditionalOnProperty("feign.httpclient.jdk.enabled")
+	@Import(JdkHttpClientImportSelector.NonLoadBalanced.class)
+	protected static class JdkHttpClientFeignConfiguration {
+
+	}
+
 	@Configuration(proxyBeanMethods = false)
 	@ConditionalOnClass(OAuth2ClientContext.class)
 	@ConditionalOnProperty("feign.oauth2.enabled")
@@ -23,6 +23,7 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.TimeUnit;
 
+import feign.AsyncClient;
 import feign.Capability;
 import feign.Client;
 import feign.Contract;
@@ -48,6 +49,8 @@ import org.springframework.beans.factory.FactoryBean;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.NoSuchBeanDefinitionException;
 import org.springframework.cloud.openfeign.clientconfig.FeignClientConfigurer;
+import org.springframework.cloud.openfeign.clientconfig.FeignClientConnectionPool;
+import org.springframework.cloud.openfeign.loadbalancer.FeignAsyncLoadBalancerClient;
 import org.springframework.cloud.openfeign.loadbalancer.FeignBlockingLoadBalancerClient;
 import org.springframework.cloud.openfeign.loadbalancer.RetryableFeignBlockingLoadBalancerClient;
 import org.springframework.context.ApplicationContext;
@@ -111,6 +114,12 @@ public class FeignClientFactoryBean
 
 	private boolean refreshableClient = false;
 
+	private boolean loadBalanced;
+
+	private FeignClientProperties.ConcurrencyLimitProperties concurrencyLimit;
+
+	private FeignClientProperties.ConnectionPoolProperties connectionPool;
+
 	private final List<FeignBuilderCustomizer> additionalCustomizers = new ArrayList<>();
 
 	@Override
@@ -124,7 +133,7 @@ public class FeignClientFactoryBean
 		Logger logger = loggerFactory.create(type);
 
 		// @formatter:off
-		Feign.Builder builder = get(context, Feign.Builder.class)
+		Feign.Builder builder = builder(context)
 				// required values
 				.logger(logger)
 				.encoder(get(context, Encoder.class))
@@ -145,6 +154,17 @@ public class FeignClientFactoryBean
 		return builder;
 	}
 
+	@SuppressWarnings("unchecked")
+	private Feign.Builder builder(FeignContext context) {
+		if (AsyncFeignBuilder.isAsync(type)) {
+			AsyncClient<Object> asyncClient = getOptional(context, AsyncClient.class);
+			if (asyncClient != null) {
+				return new AsyncFeignBuilder<>(asyncClient);
+			}
+		}
+		return get(context, Feign.Builder.class);
+	}
+
 	private void applyBuildCustomizers(FeignContext context, Feign.Builder builder) {
 		Map<String, FeignBuilderCustomizer> customizerMap = context.getInstances(contextId,
 				FeignBuilderCustomizer.class);
@@ -187,6 +207,7 @@ public class FeignClientFactoryBean
 		else {
 			configureUsingConfiguration(context, builder);
 		}
+		configureConcurrencyLimit(builder);
 	}
 
 	protected void configureUsingConfiguration(FeignContext context, Feign.Builder builder) {
@@ -318,6 +339,26 @@ public class FeignClientFactoryBean
 		if (config.getQueryMapEncoder() != null) {
 			builder.queryMapEncoder(getOrInstantiate(config.getQueryMapEncoder()));
 		}
+
+		if (config.getConcurrencyLimit() != null) {
+			concurrencyLimit = config.getConcurrencyLimit();
+		}
+
+		if (config.getConnectionPool() != null) {
+			connectionPool = config.getConnectionPool();
+		}
+	}
+
+	private void configureConcurrencyLimit(Feign.Builder builder) {
+		if (concurrencyLimit == null || !Boolean.TRUE.equals(concurrencyLimit.getEnabled())) {
+			return;
+		}
+		AdaptiveConcurrencyLimiters limiters = beanFactory != null
+				? beanFactory.getBeanProvider(AdaptiveConcurrencyLimiters.class).getIfAvailable()
+				: applicationContext.getBeanProvider(AdaptiveConcurrencyLimiters.class).getIfAvailable();
+		AdaptiveConcurrencyLimiter limiter = limiters != null ? limiters.getLimiter(contextId, concurrencyLimit)
+				: new AdaptiveConcurrencyLimiter(contextId, concurrencyLimit);
+		builder.addCapability(new AdaptiveConcurrencyLimitCapability(limiter));
 	}
 
 	private void addDefaultQueryParams(FeignClientProperties.FeignClientConfiguration config, Feign.Builder builder) {
@@ -397,7 +438,7 @@ public class FeignClientFactoryBean
 	protected <T> T loadBalance(Feign.Builder builder, FeignContext context, HardCodedTarget<T> target) {
 		Client client = getOptional(context, Client.class);
 		if (client != null) {
-			builder.client(client);
+			builder.client(coalescingIfRequired(withDedicatedConnectionPool(context, client)));
 			applyBuildCustomizers(context, builder);
 			Targeter targeter = get(context, Targeter.class);
 			return targeter.target(this, builder, context, target);
@@ -407,6 +448,36 @@ public class FeignClientFactoryBean
 				"No Feign Client for loadBalancing defined. Did you forget to include spring-cloud-starter-loadbalancer?");
 	}
 
+	/**
+	 * Replaces the client sending the requests by one with a dedicated connection pool, if
+	 * the Feign client has one enabled. A load-balancing client is kept, sending its
+	 * requests through the dedicated client.
+	 */
+	private Client withDedicatedConnectionPool(FeignContext context, Client client) {
+		if (connectionPool == null || !Boolean.TRUE.equals(connectionPool.getEnabled())) {
+			return client;
+		}
+		FeignClientConnectionPool pool = getOptional(context, FeignClientConnectionPool.class);
+		if (pool == null) {
+			if (LOG.isWarnEnabled()) {
+				LOG.warn("No dedicated connection pool available for the HTTP client of " + contextId
+						+ ", using the shared one.");
+			}
+			return client;
+		}
+		if (client instanceof FeignBlockingLoadBalancerClient) {
+			return ((FeignBlockingLoadBalancerClient) client).withDelegate(pool.getClient());
+		}
+		if (client instanceof RetryableFeignBlockingLoadBalancerClient) {
+			return ((RetryableFeignBlockingLoadBalancerClient) client).withDelegate(pool.getClient());
+		}
+		return pool.getClient();
+	}
+
+	private Client coalescingIfRequired(Client client) {
+		return CoalescingClient.isCoalescing(type) ? new CoalescingClient(client) : client;
+	}
+
 	/**
 	 * Meant to get Options bean from context with bean name.
 	 * @param context context of Feign client
@@ -463,6 +534,7 @@ public class FeignClientFactoryBean
 				url = name;
 			}
 			url += cleanPath();
+			loadBalanced = true;
 			// 从容器中获取 Targeter 实例，执行接口方法得到 type 的实现类
 			return (T) loadBalance(builder, context, new HardCodedTarget<>(type, name, url));
 		}
@@ -488,7 +560,10 @@ public class FeignClientFactoryBean
 				// but Spring Cloud LoadBalancer is on the classpath, so unwrap
 				client = ((RetryableFeignBlockingLoadBalancerClient) client).getDelegate();
 			}
-			builder.client(client);
+			builder.client(coalescingIfRequired(withDedicatedConnectionPool(context, client)));
+		}
+		if (builder instanceof AsyncFeignBuilder) {
+			unwrapAsyncLoadBalancerClient((AsyncFeignBuilder<?>) builder);
 		}
 		/**
 		 * 根据 contextId 从 FeignContext 获取 FeignBuilderCustomizer 用来加工 builder
@@ -503,6 +578,15 @@ public class FeignClientFactoryBean
 		return (T) targeter.target(this, builder, context, new HardCodedTarget<>(type, name, url));
 	}
 
+	@SuppressWarnings("unchecked")
+	private <C> void unwrapAsyncLoadBalancerClient(AsyncFeignBuilder<C> builder) {
+		if (builder.getAsyncClient() instanceof FeignAsyncLoadBalancerClient) {
+			// not load balancing because we have a url,
+			// but Spring Cloud LoadBalancer is on the classpath, so unwrap
+			builder.asyncClient(((FeignAsyncLoadBalancerClient<C>) builder.getAsyncClient()).getDelegate());
+		}
+	}
+
 	private String cleanPath() {
 		if (path == null) {
 			return "";
@@ -553,6 +637,15 @@ public class FeignClientFactoryBean
 		this.contextId = contextId;
 	}
 
+	/**
+	 * Returns whether the created client picks an instance of its service through the
+	 * load balancer, in which case {@link #getUrl()} holds the name of the service.
+	 * @return {@code true} once a load-balanced client has been created
+	 */
+	boolean isLoadBalanced() {
+		return loadBalanced;
+	}
+
 	public String getUrl() {
 		return url;
 	}
@@ -147,6 +147,12 @@ public class FeignClientProperties {
 
 		private Boolean followRedirects;
 
+		private ConcurrencyLimitProperties concurrencyLimit;
+
+		private WarmUpProperties warmUp;
+
+		private ConnectionPoolProperties connectionPool;
+
 		public Logger.Level getLoggerLevel() {
 			return loggerLevel;
 		}
@@ -283,6 +289,30 @@ public class FeignClientProperties {
 			this.followRedirects = followRedirects;
 		}
 
+		public ConcurrencyLimitProperties getConcurrencyLimit() {
+			return concurrencyLimit;
+		}
+
+		public void setConcurrencyLimit(ConcurrencyLimitProperties concurrencyLimit) {
+			this.concurrencyLimit = concurrencyLimit;
+		}
+
+		public WarmUpProperties getWarmUp() {
+			return warmUp;
+		}
+
+		public void setWarmUp(WarmUpProperties warmUp) {
+			this.warmUp = warmUp;
+		}
+
+		public ConnectionPoolProperties getConnectionPool() {
+			return connectionPool;
+		}
+
+		public void setConnectionPool(ConnectionPoolProperties connectionPool) {
+			this.connectionPool = connectionPool;
+		}
+
 		@Override
 		public boolean equals(Object o) {
 			if (this == o) {
@@ -303,14 +333,17 @@ public class FeignClientProperties {
 					&& Objects.equals(defaultQueryParameters, that.defaultQueryParameters)
 					&& Objects.equals(capabilities, that.capabilities)
 					&& Objects.equals(queryMapEncoder, that.queryMapEncoder) && Objects.equals(metrics, that.metrics)
-					&& Objects.equals(followRedirects, that.followRedirects);
+					&& Objects.equals(followRedirects, that.followRedirects)
+					&& Objects.equals(concurrencyLimit, that.concurrencyLimit) && Objects.equals(warmUp, that.warmUp)
+					&& Objects.equals(connectionPool, that.connectionPool);
 		}
 
 		@Override
 		public int hashCode() {
 			return Objects.hash(loggerLevel, connectTimeout, readTimeout, retryer, errorDecoder, requestInterceptors,
 					decode404, encoder, decoder, contract, exceptionPropagationPolicy, defaultQueryParameters,
-					defaultRequestHeaders, capabilities, queryMapEncoder, metrics, followRedirects);
+					defaultRequestHeaders, capabilities, queryMapEncoder, metrics, followRedirects, concurrencyLimit,
+					warmUp, connectionPool);
 		}
 
 	}
@@ -350,4 +383,207 @@ public class FeignClientProperties {
 
 	}
 
+	/**
+	 * Adaptive concurrency limit configuration for Feign Client. The limit of concurrent
+	 * requests is adjusted from the observed round-trip times: it grows while they stay
+	 * close to the long-term average and shrinks when they rise above it.
+	 */
+	public static class ConcurrencyLimitProperties {
+
+		private Boolean enabled = false;
+
+		private Integer initialLimit = 20;
+
+		private Integer minLimit = 1;
+
+		private Integer maxLimit = 200;
+
+		private Double smoothing = 0.2;
+
+		private Double rttTolerance = 1.5;
+
+		private Integer maxWait = 0;
+
+		public Boolean getEnabled() {
+			return enabled;
+		}
+
+		public void setEnabled(Boolean enabled) {
+			this.enabled = enabled;
+		}
+
+		public Integer getInitialLimit() {
+			return initialLimit;
+		}
+
+		public void setInitialLimit(Integer initialLimit) {
+			this.initialLimit = initialLimit;
+		}
+
+		public Integer getMinLimit() {
+			return minLimit;
+		}
+
+		public void setMinLimit(Integer minLimit) {
+			this.minLimit = minLimit;
+		}
+
+		public Integer getMaxLimit() {
+			return maxLimit;
+		}
+
+		public void setMaxLimit(Integer maxLimit) {
+			this.maxLimit = maxLimit;
+		}
+
+		public Double getSmoothing() {
+			return smoothing;
+		}
+
+		public void setSmoothing(Double smoothing) {
+			this.smoothing = smoothing;
+		}
+
+		public Double getRttTolerance() {
+			return rttTolerance;
+		}
+
+		public void setRttTolerance(Double rttTolerance) {
+			this.rttTolerance = rttTolerance;
+		}
+
+		public Integer getMaxWait() {
+			return maxWait;
+		}
+
+		public void setMaxWait(Integer maxWait) {
+			this.maxWait = maxWait;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) {
+				return true;
+			}
+			if (o == null || getClass() != o.getClass()) {
+				return false;
+			}
+			ConcurrencyLimitProperties that = (ConcurrencyLimitProperties) o;
+			return Objects.equals(enabled, that.enabled) && Objects.equals(initialLimit, that.initialLimit)
+					&& Objects.equals(minLimit, that.minLimit) && Objects.equals(maxLimit, that.maxLimit)
+					&& Objects.equals(smoothing, that.smoothing) && Objects.equals(rttTolerance, that.rttTolerance)
+					&& Objects.equals(maxWait, that.maxWait);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(enabled, initialLimit, minLimit, maxLimit, smoothing, rttTolerance, maxWait);
+		}
+
+	}
+
+	/**
+	 * Connection warm-up configuration for Feign Client. On startup, connections are
+	 * opened to the url of the client, or to each instance of its service if it is
+	 * load-balanced, so that the first requests do not pay for connecting.
+	 */
+	public static class WarmUpProperties {
+
+		private Boolean enabled = false;
+
+		private Integer connections = 1;
+
+		public Boolean getEnabled() {
+			return enabled;
+		}
+
+		public void setEnabled(Boolean enabled) {
+			this.enabled = enabled;
+		}
+
+		public Integer getConnections() {
+			return connections;
+		}
+
+		public void setConnections(Integer connections) {
+			this.connections = connections;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) {
+				return true;
+			}
+			if (o == null || getClass() != o.getClass()) {
+				return false;
+			}
+			WarmUpProperties that = (WarmUpProperties) o;
+			return Objects.equals(enabled, that.enabled) && Objects.equals(connections, that.connections);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(enabled, connections);
+		}
+
+	}
+
+	/**
+	 * Dedicated connection pool configuration for Feign Client. A client with a dedicated
+	 * pool does not share connections with the other clients, so that a slow upstream
+	 * cannot take the connections they need. Unset sizes default to the ones of the
+	 * shared pool, configured under {@code feign.httpclient}.
+	 */
+	public static class ConnectionPoolProperties {
+
+		private Boolean enabled = false;
+
+		private Integer maxConnections;
+
+		private Integer maxConnectionsPerRoute;
+
+		public Boolean getEnabled() {
+			return enabled;
+		}
+
+		public void setEnabled(Boolean enabled) {
+			this.enabled = enabled;
+		}
+
+		public Integer getMaxConnections() {
+			return maxConnections;
+		}
+
+		public void setMaxConnections(Integer maxConnections) {
+			this.maxConnections = maxConnections;
+		}
+
+		public Integer getMaxConnectionsPerRoute() {
+			return maxConnectionsPerRoute;
+		}
+
+		public void setMaxConnectionsPerRoute(Integer maxConnectionsPerRoute) {
+			this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) {
+				return true;
+			}
+			if (o == null || getClass() != o.getClass()) {
+				return false;
+			}
+			ConnectionPoolProperties that = (ConnectionPoolProperties) o;
+			return Objects.equals(enabled, that.enabled) && Objects.equals(maxConnections, that.maxConnections)
+					&& Objects.equals(maxConnectionsPerRoute, that.maxConnectionsPerRoute);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(enabled, maxConnections, maxConnectionsPerRoute);
+		}
+
+	}
+
 }
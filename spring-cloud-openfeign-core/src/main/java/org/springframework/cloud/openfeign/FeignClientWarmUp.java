@@ -0,0 +1,138 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.openfeign.clientconfig.FeignConnectionWarmer;
+import org.springframework.util.StringUtils;
+
+/**
+ * Opens connections for the Feign clients that have warm-up enabled through
+ * {@link FeignClientProperties.WarmUpProperties}, once all singletons are created and
+ * therefore before the application reports itself ready. Url-based clients get
+ * connections to the host of their url, load-balanced clients to each instance of their
+ * service known to the {@link DiscoveryClient}.
+ *
+ * @since 3.1.6
+ */
+public class FeignClientWarmUp implements SmartInitializingSingleton, BeanFactoryAware {
+
+	private static final Log LOG = LogFactory.getLog(FeignClientWarmUp.class);
+
+	private final FeignClientProperties properties;
+
+	private final FeignConnectionWarmer connectionWarmer;
+
+	private ConfigurableListableBeanFactory beanFactory;
+
+	public FeignClientWarmUp(FeignClientProperties properties, FeignConnectionWarmer connectionWarmer) {
+		this.properties = properties;
+		this.connectionWarmer = connectionWarmer;
+	}
+
+	@Override
+	public void setBeanFactory(BeanFactory beanFactory) throws BeansException {
+		if (beanFactory instanceof ConfigurableListableBeanFactory) {
+			this.beanFactory = (ConfigurableListableBeanFactory) beanFactory;
+		}
+	}
+
+	@Override
+	public void afterSingletonsInstantiated() {
+		if (beanFactory == null || !connectionWarmer.hasPools()) {
+			return;
+		}
+		for (String beanName : beanFactory.getBeanDefinitionNames()) {
+			BeanDefinition beanDefinition = beanFactory.getBeanDefinition(beanName);
+			Object factoryBean = beanDefinition.getAttribute("feignClientsRegistrarFactoryBean");
+			if (factoryBean instanceof FeignClientFactoryBean) {
+				warmUp(beanName, (FeignClientFactoryBean) factoryBean);
+			}
+		}
+	}
+
+	private void warmUp(String beanName, FeignClientFactoryBean factoryBean) {
+		FeignClientProperties.WarmUpProperties warmUp = getWarmUpProperties(factoryBean.getContextId());
+		if (warmUp == null || !Boolean.TRUE.equals(warmUp.getEnabled()) || warmUp.getConnections() == null
+				|| warmUp.getConnections() <= 0) {
+			return;
+		}
+		try {
+			// The client is lazy, creating it resolves its url
+			beanFactory.getBean(beanName);
+		}
+		catch (BeansException e) {
+			LOG.warn("Could not create Feign client " + beanName + " to warm up its connections: " + e);
+			return;
+		}
+		int opened = 0;
+		List<URI> targets = resolveTargets(factoryBean);
+		for (URI target : targets) {
+			opened += connectionWarmer.warmUp(target, warmUp.getConnections());
+		}
+		if (LOG.isDebugEnabled()) {
+			LOG.debug("Opened " + opened + " connections to " + targets + " for Feign client "
+					+ factoryBean.getContextId());
+		}
+	}
+
+	private FeignClientProperties.WarmUpProperties getWarmUpProperties(String contextId) {
+		FeignClientProperties.FeignClientConfiguration config = properties.getConfig().get(contextId);
+		if (config != null && config.getWarmUp() != null) {
+			return config.getWarmUp();
+		}
+		FeignClientProperties.FeignClientConfiguration defaultConfig = properties.getConfig()
+				.get(properties.getDefaultConfig());
+		return defaultConfig != null ? defaultConfig.getWarmUp() : null;
+	}
+
+	private List<URI> resolveTargets(FeignClientFactoryBean factoryBean) {
+		if (!factoryBean.isLoadBalanced() && StringUtils.hasText(factoryBean.getUrl())) {
+			return Collections.singletonList(URI.create(factoryBean.getUrl()));
+		}
+		DiscoveryClient discoveryClient = beanFactory.getBeanProvider(DiscoveryClient.class).getIfUnique();
+		if (discoveryClient == null) {
+			LOG.warn("No DiscoveryClient to resolve the instances of " + factoryBean.getName()
+					+ ", not warming up its connections");
+			return Collections.emptyList();
+		}
+		try {
+			return discoveryClient.getInstances(factoryBean.getName()).stream().map(ServiceInstance::getUri)
+					.collect(Collectors.toList());
+		}
+		catch (RuntimeException e) {
+			LOG.warn("Could not resolve the instances of " + factoryBean.getName() + ": " + e);
+			return Collections.emptyList();
+		}
+	}
+
+}
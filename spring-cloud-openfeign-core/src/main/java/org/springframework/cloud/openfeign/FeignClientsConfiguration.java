@@ -45,6 +45,7 @@ import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
 import org.springframework.cloud.client.circuitbreaker.CircuitBreaker;
 import org.springframework.cloud.client.circuitbreaker.CircuitBreakerFactory;
 import org.springframework.cloud.openfeign.clientconfig.FeignClientConfigurer;
+import org.springframework.cloud.openfeign.clientconfig.FeignClientConnectionPoolConfiguration;
 import org.springframework.cloud.openfeign.support.AbstractFormWriter;
 import org.springframework.cloud.openfeign.support.FeignEncoderProperties;
 import org.springframework.cloud.openfeign.support.HttpMessageConverterCustomizer;
@@ -57,6 +58,7 @@ import org.springframework.cloud.openfeign.support.SpringMvcContract;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Conditional;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
 import org.springframework.context.annotation.Scope;
 import org.springframework.core.convert.ConversionService;
 import org.springframework.format.support.DefaultFormattingConversionService;
@@ -74,6 +76,7 @@ import static feign.form.ContentType.MULTIPART;
  * @author Yanming Zhou
  */
 @Configuration(proxyBeanMethods = false)
+@Import(FeignClientConnectionPoolConfiguration.class)
 public class FeignClientsConfiguration {
 
 	@Autowired
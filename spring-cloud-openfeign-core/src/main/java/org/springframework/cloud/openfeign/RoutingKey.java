@@ -0,0 +1,51 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a Feign method parameter as the routing key of the request. The value of the
+ * parameter is sent in a request header, which the Feign load-balancing clients use to
+ * send requests with the same key to the same instance when consistent-hash routing is
+ * enabled for the service. A {@code null} value sends no header, so the request is
+ * load-balanced as usual.
+ *
+ * @since 3.1.6
+ * @see org.springframework.cloud.openfeign.annotation.RoutingKeyParameterProcessor
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.PARAMETER)
+public @interface RoutingKey {
+
+	/**
+	 * Name of the header used by default to carry the routing key.
+	 */
+	String DEFAULT_HEADER_NAME = "X-Routing-Key";
+
+	/**
+	 * @return the name of the header carrying the routing key; it has to match the header
+	 * name configured for consistent-hash routing of the service
+	 */
+	String headerName() default DEFAULT_HEADER_NAME;
+
+}
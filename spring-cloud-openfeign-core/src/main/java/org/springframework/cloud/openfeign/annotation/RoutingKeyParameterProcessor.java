@@ -0,0 +1,62 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign.annotation;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.Collection;
+
+import feign.MethodMetadata;
+
+import org.springframework.cloud.openfeign.AnnotatedParameterProcessor;
+import org.springframework.cloud.openfeign.RoutingKey;
+
+import static feign.Util.checkState;
+import static feign.Util.emptyToNull;
+
+/**
+ * {@link RoutingKey} parameter processor. Sends the value of the parameter in the routing
+ * key header.
+ *
+ * @since 3.1.6
+ * @see AnnotatedParameterProcessor
+ */
+public class RoutingKeyParameterProcessor implements AnnotatedParameterProcessor {
+
+	private static final Class<RoutingKey> ANNOTATION = RoutingKey.class;
+
+	@Override
+	public Class<? extends Annotation> getAnnotationType() {
+		return ANNOTATION;
+	}
+
+	@Override
+	public boolean processArgument(AnnotatedParameterContext context, Annotation annotation, Method method) {
+		int parameterIndex = context.getParameterIndex();
+		MethodMetadata data = context.getMethodMetadata();
+		String name = ANNOTATION.cast(annotation).headerName().trim();
+		checkState(emptyToNull(name) != null, "RoutingKey.headerName() was empty on parameter %s", parameterIndex);
+		checkState(!data.template().headers().containsKey(name), "Routing key header %s is already defined on %s", name,
+				method.getName());
+		context.setParameterName(name);
+
+		Collection<String> header = context.setTemplateParameter(name, null);
+		data.template().header(name, header);
+		return true;
+	}
+
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign.clientconfig;
+
+import java.util.Set;
+
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.core5.pool.ConnPoolControl;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.util.TimeValue;
+
+/**
+ * A {@link ConnPoolControl} that delegates to the pool of a wrapped Apache HttpClient 5
+ * connection manager, so that the client builder still evicts its idle connections.
+ *
+ * @since 3.1.6
+ */
+interface DelegatingHttpClient5PoolControl extends ConnPoolControl<HttpRoute> {
+
+	ConnPoolControl<HttpRoute> getPoolControl();
+
+	@Override
+	default void setMaxTotal(int max) {
+		getPoolControl().setMaxTotal(max);
+	}
+
+	@Override
+	default int getMaxTotal() {
+		return getPoolControl().getMaxTotal();
+	}
+
+	@Override
+	default void setDefaultMaxPerRoute(int max) {
+		getPoolControl().setDefaultMaxPerRoute(max);
+	}
+
+	@Override
+	default int getDefaultMaxPerRoute() {
+		return getPoolControl().getDefaultMaxPerRoute();
+	}
+
+	@Override
+	default void setMaxPerRoute(HttpRoute route, int max) {
+		getPoolControl().setMaxPerRoute(route, max);
+	}
+
+	@Override
+	default int getMaxPerRoute(HttpRoute route) {
+		return getPoolControl().getMaxPerRoute(route);
+	}
+
+	@Override
+	default void closeIdle(TimeValue idleTime) {
+		getPoolControl().closeIdle(idleTime);
+	}
+
+	@Override
+	default void closeExpired() {
+		getPoolControl().closeExpired();
+	}
+
+	@Override
+	default Set<HttpRoute> getRoutes() {
+		return getPoolControl().getRoutes();
+	}
+
+	@Override
+	default PoolStats getTotalStats() {
+		return getPoolControl().getTotalStats();
+	}
+
+	@Override
+	default PoolStats getStats(HttpRoute route) {
+		return getPoolControl().getStats(route);
+	}
+
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign.clientconfig;
+
+import java.security.KeyManagementException;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManager;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.HttpClientConnectionManager;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.NoopHostnameVerifier;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+
+import org.springframework.cloud.commons.httpclient.ApacheHttpClientConnectionManagerFactory;
+
+/**
+ * An {@link ApacheHttpClientConnectionManagerFactory} creating the same connection
+ * managers as the default one, except that they resolve hosts through a
+ * {@link FeignDnsCache} and open TLS connections through the shared context of a
+ * {@link FeignSslContextProvider}, if given. The Apache HttpClient only accepts these
+ * when its connection manager is created.
+ *
+ * @since 3.1.6
+ */
+public class FeignApacheHttpClientConnectionManagerFactory implements ApacheHttpClientConnectionManagerFactory {
+
+	private static final Log LOG = LogFactory.getLog(FeignApacheHttpClientConnectionManagerFactory.class);
+
+	private final FeignDnsCache dnsCache;
+
+	private final FeignSslContextProvider sslContextProvider;
+
+	/**
+	 * Creates a factory.
+	 * @param dnsCache the DNS cache, or {@code null} to use the JVM resolver
+	 * @param sslContextProvider the shared SSL context, or {@code null} to create one per
+	 * connection manager
+	 */
+	public FeignApacheHttpClientConnectionManagerFactory(FeignDnsCache dnsCache,
+			FeignSslContextProvider sslContextProvider) {
+		this.dnsCache = dnsCache;
+		this.sslContextProvider = sslContextProvider;
+	}
+
+	/**
+	 * Returns the factory to use for the given DNS cache and shared SSL context.
+	 * @param connectionManagerFactory the configured factory
+	 * @param dnsCache the DNS cache, can be {@code null}
+	 * @param sslContextProvider the shared SSL context, can be {@code null}
+	 * @return the configured factory if neither is given, else a factory using them
+	 */
+	public static ApacheHttpClientConnectionManagerFactory of(
+			ApacheHttpClientConnectionManagerFactory connectionManagerFactory, FeignDnsCache dnsCache,
+			FeignSslContextProvider sslContextProvider) {
+		if (dnsCache == null && sslContextProvider == null) {
+			return connectionManagerFactory;
+		}
+		return new FeignApacheHttpClientConnectionManagerFactory(dnsCache, sslContextProvider);
+	}
+
+	@Override
+	public HttpClientConnectionManager newConnectionManager(boolean disableSslValidation, int maxTotalConnections,
+			int maxConnectionsPerRoute, long timeToLive, TimeUnit timeUnit, RegistryBuilder registryBuilder) {
+		if (registryBuilder == null) {
+			registryBuilder = RegistryBuilder.<ConnectionSocketFactory>create().register(HTTP_SCHEME,
+					PlainConnectionSocketFactory.INSTANCE);
+		}
+		if (sslContextProvider != null) {
+			registryBuilder.register(HTTPS_SCHEME,
+					new SSLConnectionSocketFactory(sslContextProvider.getSocketFactory(), disableSslValidation
+							? NoopHostnameVerifier.INSTANCE : SSLConnectionSocketFactory.getDefaultHostnameVerifier()));
+		}
+		else if (disableSslValidation) {
+			try {
+				SSLContext sslContext = SSLContext.getInstance("SSL");
+				sslContext.init(null,
+						new TrustManager[] { new HttpClient5FeignConfiguration.DisabledValidationTrustManager() },
+						new SecureRandom());
+				registryBuilder.register(HTTPS_SCHEME,
+						new SSLConnectionSocketFactory(sslContext, NoopHostnameVerifier.INSTANCE));
+			}
+			catch (NoSuchAlgorithmException | KeyManagementException e) {
+				LOG.warn("Error creating SSLContext", e);
+			}
+		}
+		else {
+			registryBuilder.register(HTTPS_SCHEME, SSLConnectionSocketFactory.getSocketFactory());
+		}
+		@SuppressWarnings("unchecked")
+		Registry<ConnectionSocketFactory> registry = registryBuilder.build();
+		PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager(registry, null,
+				null, dnsCache != null ? new HttpClientDnsResolver(dnsCache) : null, timeToLive, timeUnit);
+		connectionManager.setMaxTotal(maxTotalConnections);
+		connectionManager.setDefaultMaxPerRoute(maxConnectionsPerRoute);
+		return connectionManager;
+	}
+
+}
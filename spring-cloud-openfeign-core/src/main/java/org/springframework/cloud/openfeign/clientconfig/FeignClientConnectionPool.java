@@ -0,0 +1,51 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign.clientconfig;
+
+import feign.Client;
+
+/**
+ * A {@link Client} with its own connection pool, created in the {@code FeignContext}
+ * child context of a Feign client that has a dedicated connection pool enabled.
+ *
+ * @since 3.1.6
+ */
+public class FeignClientConnectionPool {
+
+	private final String name;
+
+	private final Client client;
+
+	public FeignClientConnectionPool(String name, Client client) {
+		this.name = name;
+		this.client = client;
+	}
+
+	/**
+	 * Returns the name of the pool, under which it is registered for eviction, metrics
+	 * and warm-up.
+	 * @return the name of the pool
+	 */
+	public String getName() {
+		return name;
+	}
+
+	public Client getClient() {
+		return client;
+	}
+
+}
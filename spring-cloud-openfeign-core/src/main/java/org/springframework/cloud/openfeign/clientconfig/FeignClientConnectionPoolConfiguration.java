@@ -0,0 +1,307 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign.clientconfig;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PreDestroy;
+
+import feign.hc5.ApacheHttp5Client;
+import feign.httpclient.ApacheHttpClient;
+import okhttp3.ConnectionPool;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.util.Timeout;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.conn.HttpClientConnectionManager;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.SearchStrategy;
+import org.springframework.cloud.commons.httpclient.ApacheHttpClientConnectionManagerFactory;
+import org.springframework.cloud.commons.httpclient.ApacheHttpClientFactory;
+import org.springframework.cloud.commons.httpclient.OkHttpClientConnectionPoolFactory;
+import org.springframework.cloud.openfeign.FeignClientProperties;
+import org.springframework.cloud.openfeign.support.FeignHttpClientProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.core.env.Environment;
+
+/**
+ * Configuration of the dedicated connection pool of a Feign client, imported in each
+ * {@code FeignContext} child context. The {@link FeignClientConnectionPool} bean is lazy:
+ * it is only created for the clients that enable it through
+ * {@link FeignClientProperties.ConnectionPoolProperties}. It uses the same transport as
+ * the shared pool, with the sizes configured for the client.
+ *
+ * @since 3.1.6
+ */
+@Configuration(proxyBeanMethods = false)
+public class FeignClientConnectionPoolConfiguration {
+
+	private static final String CLIENT_NAME_PROPERTY = "feign.client.name";
+
+	/**
+	 * Returns the dedicated connection pool properties of a client: its own ones if set,
+	 * else the ones of the default config.
+	 * @param properties the Feign client properties
+	 * @param contextId the contextId of the client
+	 * @return the properties, or {@code null} if none are set
+	 */
+	public static FeignClientProperties.ConnectionPoolProperties getProperties(FeignClientProperties properties,
+			String contextId) {
+		FeignClientProperties.FeignClientConfiguration config = properties.getConfig().get(contextId);
+		if (config != null && config.getConnectionPool() != null) {
+			return config.getConnectionPool();
+		}
+		FeignClientProperties.FeignClientConfiguration defaultConfig = properties.getConfig()
+				.get(properties.getDefaultConfig());
+		return defaultConfig != null ? defaultConfig.getConnectionPool() : null;
+	}
+
+	abstract static class AbstractConnectionPoolConfiguration {
+
+		private FeignConnectionPoolRegistration connectionPoolRegistration;
+
+		private boolean hasConnectionEvictor;
+
+		protected String poolName(String transport, Environment environment) {
+			this.connectionPoolRegistration = new FeignConnectionPoolRegistration(
+					transport + "-" + environment.getProperty(CLIENT_NAME_PROPERTY));
+			return this.connectionPoolRegistration.getPoolName();
+		}
+
+		protected FeignClientProperties.ConnectionPoolProperties properties(FeignClientProperties clientProperties,
+				Environment environment) {
+			FeignClientProperties.ConnectionPoolProperties properties = getProperties(clientProperties,
+					environment.getProperty(CLIENT_NAME_PROPERTY));
+			return properties != null ? properties : new FeignClientProperties.ConnectionPoolProperties();
+		}
+
+		protected FeignConnectionPoolMonitor register(FeignConnectionEvictor.EvictablePool pool,
+				FeignConnectionPoolMonitor.MonitoredPool monitoredPool, FeignConnectionWarmer.WarmablePool warmablePool,
+				ObjectProvider<FeignConnectionEvictor> connectionEvictor,
+				ObjectProvider<FeignConnectionPoolMonitor> connectionPoolMonitor,
+				ObjectProvider<FeignConnectionWarmer> connectionWarmer) {
+			this.hasConnectionEvictor = this.connectionPoolRegistration.registerEvictablePool(connectionEvictor,
+					pool) != null;
+			if (warmablePool != null) {
+				this.connectionPoolRegistration.registerWarmablePool(connectionWarmer, warmablePool);
+			}
+			return this.connectionPoolRegistration.registerMonitoredPool(connectionPoolMonitor, monitoredPool);
+		}
+
+		protected boolean hasConnectionEvictor() {
+			return hasConnectionEvictor;
+		}
+
+		@PreDestroy
+		public void destroy() {
+			if (connectionPoolRegistration != null) {
+				connectionPoolRegistration.unregister();
+			}
+			close();
+		}
+
+		protected abstract void close();
+
+	}
+
+	@Configuration(proxyBeanMethods = false)
+	@ConditionalOnClass(ApacheHttpClient.class)
+	@ConditionalOnBean(CloseableHttpClient.class)
+	protected static class HttpClientConnectionPoolConfiguration extends AbstractConnectionPoolConfiguration {
+
+		private static final Log LOG = LogFactory.getLog(HttpClientConnectionPoolConfiguration.class);
+
+		private CloseableHttpClient httpClient;
+
+		@Bean
+		@Lazy
+		@ConditionalOnMissingBean(value = FeignClientConnectionPool.class, search = SearchStrategy.CURRENT)
+		public FeignClientConnectionPool feignClientConnectionPool(Environment environment,
+				FeignClientProperties clientProperties, FeignHttpClientProperties httpClientProperties,
+				ApacheHttpClientConnectionManagerFactory connectionManagerFactory,
+				ApacheHttpClientFactory httpClientFactory, ObjectProvider<FeignConnectionEvictor> connectionEvictor,
+				ObjectProvider<FeignConnectionPoolMonitor> connectionPoolMonitor,
+				ObjectProvider<FeignConnectionWarmer> connectionWarmer, ObjectProvider<FeignDnsCache> dnsCache,
+				ObjectProvider<FeignSslContextProvider> sslContextProvider) {
+			String name = poolName("httpclient", environment);
+			connectionManagerFactory = FeignApacheHttpClientConnectionManagerFactory.of(connectionManagerFactory,
+					dnsCache.getIfAvailable(), sslContextProvider.getIfAvailable());
+			FeignClientProperties.ConnectionPoolProperties properties = properties(clientProperties, environment);
+			HttpClientConnectionManager connectionManager = connectionManagerFactory.newConnectionManager(
+					httpClientProperties.isDisableSslValidation(), maxConnections(properties, httpClientProperties),
+					maxConnectionsPerRoute(properties, httpClientProperties), httpClientProperties.getTimeToLive(),
+					httpClientProperties.getTimeToLiveUnit(), null);
+			HttpClientEvictablePool pool = new HttpClientEvictablePool(connectionManager);
+			FeignConnectionPoolMonitor monitor = register(pool, pool,
+					new HttpClientWarmablePool(connectionManager, httpClientProperties.getConnectionTimeout()),
+					connectionEvictor, connectionPoolMonitor, connectionWarmer);
+			RequestConfig defaultRequestConfig = RequestConfig.custom()
+					.setConnectTimeout(httpClientProperties.getConnectionTimeout())
+					.setRedirectsEnabled(httpClientProperties.isFollowRedirects()).build();
+			HttpClientBuilder builder = httpClientFactory.createBuilder();
+			if (HttpClientHostPolicy.isRequired(httpClientProperties)) {
+				HttpClientHostPolicy hostPolicy = new HttpClientHostPolicy(httpClientProperties, connectionManager);
+				builder.setKeepAliveStrategy(hostPolicy).setRoutePlanner(hostPolicy);
+			}
+			this.httpClient = builder.setConnectionManager(monitor != null
+					? new InstrumentedHttpClientConnectionManager(connectionManager, monitor, name) : connectionManager)
+					.setDefaultRequestConfig(defaultRequestConfig).build();
+			return new FeignClientConnectionPool(name, new ApacheHttpClient(this.httpClient));
+		}
+
+		@Override
+		protected void close() {
+			if (this.httpClient != null) {
+				try {
+					this.httpClient.close();
+				}
+				catch (IOException e) {
+					if (LOG.isErrorEnabled()) {
+						LOG.error("Could not correctly close httpClient.");
+					}
+				}
+			}
+		}
+
+	}
+
+	@Configuration(proxyBeanMethods = false)
+	@ConditionalOnClass(ApacheHttp5Client.class)
+	@ConditionalOnBean(org.apache.hc.client5.http.impl.classic.CloseableHttpClient.class)
+	protected static class HttpClient5ConnectionPoolConfiguration extends AbstractConnectionPoolConfiguration {
+
+		private org.apache.hc.client5.http.impl.classic.CloseableHttpClient httpClient5;
+
+		@Bean
+		@Lazy
+		@ConditionalOnMissingBean(value = FeignClientConnectionPool.class, search = SearchStrategy.CURRENT)
+		public FeignClientConnectionPool feignClientConnectionPool(Environment environment,
+				FeignClientProperties clientProperties, FeignHttpClientProperties httpClientProperties,
+				ObjectProvider<FeignConnectionEvictor> connectionEvictor,
+				ObjectProvider<FeignConnectionPoolMonitor> connectionPoolMonitor,
+				ObjectProvider<FeignConnectionWarmer> connectionWarmer, ObjectProvider<FeignDnsCache> dnsCache,
+				ObjectProvider<FeignSslContextProvider> sslContextProvider) {
+			String name = poolName("hc5", environment);
+			FeignClientProperties.ConnectionPoolProperties properties = properties(clientProperties, environment);
+			PoolingHttpClientConnectionManager connectionManager = HttpClient5FeignConfiguration
+					.connectionManagerBuilder(httpClientProperties, dnsCache.getIfAvailable(),
+							sslContextProvider.getIfAvailable())
+					.setMaxConnTotal(maxConnections(properties, httpClientProperties))
+					.setMaxConnPerRoute(maxConnectionsPerRoute(properties, httpClientProperties)).build();
+			HttpClient5EvictablePool pool = new HttpClient5EvictablePool(connectionManager);
+			FeignConnectionPoolMonitor monitor = register(pool, pool,
+					new HttpClient5WarmablePool(connectionManager, httpClientProperties.getConnectionTimeout()),
+					connectionEvictor, connectionPoolMonitor, connectionWarmer);
+			org.apache.hc.client5.http.impl.classic.HttpClientBuilder builder = org.apache.hc.client5.http.impl.classic.HttpClients
+					.custom();
+			if (!hasConnectionEvictor()) {
+				builder.evictExpiredConnections();
+			}
+			if (HttpClient5HostPolicy.isRequired(httpClientProperties)) {
+				HttpClient5HostPolicy hostPolicy = new HttpClient5HostPolicy(httpClientProperties, connectionManager);
+				builder.setKeepAliveStrategy(hostPolicy).setRoutePlanner(hostPolicy);
+			}
+			org.apache.hc.client5.http.io.HttpClientConnectionManager clientConnectionManager = monitor != null
+					? InstrumentedHttpClient5ConnectionManager.instrument(connectionManager, monitor, name)
+					: connectionManager;
+			this.httpClient5 = builder.disableCookieManagement().useSystemProperties()
+					.setConnectionManager(clientConnectionManager)
+					.setDefaultRequestConfig(org.apache.hc.client5.http.config.RequestConfig.custom()
+							.setConnectTimeout(
+									Timeout.of(httpClientProperties.getConnectionTimeout(), TimeUnit.MILLISECONDS))
+							.setRedirectsEnabled(httpClientProperties.isFollowRedirects()).build())
+					.build();
+			return new FeignClientConnectionPool(name, new ApacheHttp5Client(this.httpClient5));
+		}
+
+		@Override
+		protected void close() {
+			if (this.httpClient5 != null) {
+				this.httpClient5.close(CloseMode.GRACEFUL);
+			}
+		}
+
+	}
+
+	@Configuration(proxyBeanMethods = false)
+	@ConditionalOnClass(feign.okhttp.OkHttpClient.class)
+	@ConditionalOnBean(okhttp3.OkHttpClient.class)
+	protected static class OkHttpConnectionPoolConfiguration extends AbstractConnectionPoolConfiguration {
+
+		private ConnectionPool connectionPool;
+
+		@Bean
+		@Lazy
+		@ConditionalOnMissingBean(value = FeignClientConnectionPool.class, search = SearchStrategy.CURRENT)
+		public FeignClientConnectionPool feignClientConnectionPool(Environment environment,
+				FeignClientProperties clientProperties, FeignHttpClientProperties httpClientProperties,
+				OkHttpClientConnectionPoolFactory connectionPoolFactory, okhttp3.OkHttpClient okHttpClient,
+				ObjectProvider<FeignConnectionEvictor> connectionEvictor,
+				ObjectProvider<FeignConnectionPoolMonitor> connectionPoolMonitor) {
+			String name = poolName("okhttp", environment);
+			FeignClientProperties.ConnectionPoolProperties properties = properties(clientProperties, environment);
+			this.connectionPool = connectionPoolFactory.create(maxConnections(properties, httpClientProperties),
+					httpClientProperties.getTimeToLive(), httpClientProperties.getTimeToLiveUnit());
+			OkHttpEvictablePool pool = new OkHttpEvictablePool(this.connectionPool);
+			// OkHttp cannot open pooled connections ahead of a request
+			FeignConnectionPoolMonitor monitor = register(pool, pool, null, connectionEvictor, connectionPoolMonitor,
+					null);
+			// Shares everything but the pool and its limits with the client of the shared
+			// pool
+			okhttp3.OkHttpClient.Builder builder = okHttpClient.newBuilder().connectionPool(this.connectionPool)
+					.addInterceptor(
+							new OkHttpConnectionLimitInterceptor(maxConnections(properties, httpClientProperties),
+									maxConnectionsPerRoute(properties, httpClientProperties)));
+			if (monitor != null) {
+				builder.eventListenerFactory(OkHttpConnectionAcquisitionListener.factory(monitor, name));
+			}
+			return new FeignClientConnectionPool(name, new feign.okhttp.OkHttpClient(builder.build()));
+		}
+
+		@Override
+		protected void close() {
+			if (this.connectionPool != null) {
+				this.connectionPool.evictAll();
+			}
+		}
+
+	}
+
+	private static int maxConnections(FeignClientProperties.ConnectionPoolProperties properties,
+			FeignHttpClientProperties httpClientProperties) {
+		return properties.getMaxConnections() != null ? properties.getMaxConnections()
+				: httpClientProperties.getMaxConnections();
+	}
+
+	private static int maxConnectionsPerRoute(FeignClientProperties.ConnectionPoolProperties properties,
+			FeignHttpClientProperties httpClientProperties) {
+		return properties.getMaxConnectionsPerRoute() != null ? properties.getMaxConnectionsPerRoute()
+				: httpClientProperties.getMaxConnectionsPerRoute();
+	}
+
+}
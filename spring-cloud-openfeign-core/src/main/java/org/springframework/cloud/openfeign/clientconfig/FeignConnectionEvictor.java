@@ -0,0 +1,171 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign.clientconfig;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.cloud.openfeign.support.FeignHttpClientProperties;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+/**
+ * Periodically closes expired and idle connections of the registered Feign HTTP client
+ * connection pools, on a single daemon thread shared by all pools. A failing pool does
+ * not stop the eviction of the others, nor its own later evictions.
+ *
+ * @since 3.1.6
+ */
+public class FeignConnectionEvictor implements DisposableBean {
+
+	private static final Log LOG = LogFactory.getLog(FeignConnectionEvictor.class);
+
+	private final long intervalMillis;
+
+	private final long idleTimeoutMillis;
+
+	private final Map<String, EvictablePool> pools = new ConcurrentHashMap<>();
+
+	// Kept after a pool is unregistered, as the counter of a pool is never removed
+	private final Map<String, AtomicLong> evictedCounts = new ConcurrentHashMap<>();
+
+	private final List<Consumer<String>> listeners = new CopyOnWriteArrayList<>();
+
+	private ScheduledExecutorService scheduler;
+
+	private boolean destroyed;
+
+	public FeignConnectionEvictor(FeignHttpClientProperties properties) {
+		this(properties.getConnectionTimerRepeat(), properties.getConnectionIdleTimeout());
+	}
+
+	public FeignConnectionEvictor(long intervalMillis, long idleTimeoutMillis) {
+		this.intervalMillis = Math.max(1, intervalMillis);
+		this.idleTimeoutMillis = Math.max(0, idleTimeoutMillis);
+	}
+
+	/**
+	 * Registers a connection pool, replacing any pool registered under the same name. The
+	 * first registration starts the eviction thread.
+	 * @param name the name of the pool, used to tag its metrics
+	 * @param pool the pool
+	 */
+	public void register(String name, EvictablePool pool) {
+		boolean newName = evictedCounts.putIfAbsent(name, new AtomicLong()) == null;
+		pools.put(name, pool);
+		startIfNecessary();
+		if (newName) {
+			for (Consumer<String> listener : listeners) {
+				listener.accept(name);
+			}
+		}
+	}
+
+	/**
+	 * Stops evicting the connections of a pool, for instance because it is closed, and
+	 * releases it. Its number of evicted connections is kept.
+	 * @param name the name of the pool
+	 */
+	public void unregister(String name) {
+		pools.remove(name);
+	}
+
+	/**
+	 * Registers a listener that is called with the name of each pool registered for the
+	 * first time, and immediately with the names of the pools registered so far.
+	 * @param listener the listener
+	 */
+	public void addListener(Consumer<String> listener) {
+		listeners.add(listener);
+		evictedCounts.keySet().forEach(listener);
+	}
+
+	/**
+	 * Returns the number of connections closed so far in the given pool.
+	 * @param name the name of the pool
+	 * @return the number of evicted connections
+	 */
+	public long getEvictedCount(String name) {
+		AtomicLong evicted = evictedCounts.get(name);
+		return evicted != null ? evicted.get() : 0;
+	}
+
+	/**
+	 * Evicts the connections of all registered pools once.
+	 */
+	public void evict() {
+		pools.forEach((name, pool) -> {
+			try {
+				int evicted = pool.evict(idleTimeoutMillis);
+				if (evicted > 0) {
+					evictedCounts.get(name).addAndGet(evicted);
+				}
+			}
+			catch (RuntimeException e) {
+				LOG.warn("Could not evict connections of pool " + name, e);
+			}
+		});
+	}
+
+	private synchronized void startIfNecessary() {
+		if (scheduler != null || destroyed) {
+			return;
+		}
+		CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("feign-connection-evictor-");
+		threadFactory.setDaemon(true);
+		ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, threadFactory);
+		executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+		executor.scheduleWithFixedDelay(this::evict, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+		scheduler = executor;
+	}
+
+	@Override
+	public synchronized void destroy() {
+		destroyed = true;
+		if (scheduler != null) {
+			scheduler.shutdownNow();
+		}
+	}
+
+	/**
+	 * A connection pool whose connections can be evicted.
+	 */
+	@FunctionalInterface
+	public interface EvictablePool {
+
+		/**
+		 * Closes the expired connections of the pool and the connections that have been
+		 * idle for longer than the given timeout.
+		 * @param idleTimeoutMillis the idle timeout; {@code 0} if only expired
+		 * connections should be closed
+		 * @return the number of closed connections, or {@code -1} if unknown
+		 */
+		int evict(long idleTimeoutMillis);
+
+	}
+
+}
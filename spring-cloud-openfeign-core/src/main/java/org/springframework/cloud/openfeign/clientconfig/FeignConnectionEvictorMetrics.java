@@ -0,0 +1,46 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign.clientconfig;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Exposes the number of connections closed by the {@link FeignConnectionEvictor} as a
+ * Micrometer counter, tagged with the name of the connection pool.
+ *
+ * @since 3.1.6
+ */
+public class FeignConnectionEvictorMetrics implements MeterBinder {
+
+	private final FeignConnectionEvictor connectionEvictor;
+
+	public FeignConnectionEvictorMetrics(FeignConnectionEvictor connectionEvictor) {
+		this.connectionEvictor = connectionEvictor;
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		connectionEvictor.addListener(pool -> FunctionCounter
+				.builder("feign.httpclient.connections.evicted", connectionEvictor,
+						evictor -> evictor.getEvictedCount(pool))
+				.tag("pool", pool).description("Expired or idle pooled connections closed by the evictor")
+				.register(registry));
+	}
+
+}
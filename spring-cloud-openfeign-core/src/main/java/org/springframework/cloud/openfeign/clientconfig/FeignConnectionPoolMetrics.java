@@ -0,0 +1,111 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign.clientconfig;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToIntFunction;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Exposes the statistics of the connection pools known to the
+ * {@link FeignConnectionPoolMonitor} as Micrometer gauges, and the time requests waited
+ * to acquire a connection as a timer with a histogram, all tagged with the name of the
+ * pool and the route. The gauges of a route are registered once a request has been sent
+ * on it; statistics that a pool does not track are not registered.
+ *
+ * @since 3.1.6
+ */
+public class FeignConnectionPoolMetrics implements MeterBinder {
+
+	private final FeignConnectionPoolMonitor monitor;
+
+	private final Set<String> registeredRoutes = ConcurrentHashMap.newKeySet();
+
+	private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+	public FeignConnectionPoolMetrics(FeignConnectionPoolMonitor monitor) {
+		this.monitor = monitor;
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		monitor.addListener(pool -> monitor.getRoutes(pool).forEach(route -> registerGauges(registry, pool, route)));
+		monitor.addAcquisitionListener((pool, route, waitNanos) -> {
+			registerGauges(registry, pool, route);
+			timers.computeIfAbsent(pool + " " + route,
+					key -> Timer.builder("feign.httpclient.connections.acquire")
+							.tags(Tags.of("pool", pool, "route", route))
+							.description("Time waited to acquire a pooled connection").publishPercentileHistogram()
+							.register(registry))
+					.record(waitNanos, TimeUnit.NANOSECONDS);
+		});
+	}
+
+	private void registerGauges(MeterRegistry registry, String pool, String route) {
+		if (registeredRoutes.contains(pool + " " + route)) {
+			return;
+		}
+		FeignConnectionPoolMonitor.RouteStats stats = monitor.getStats(pool, route);
+		if (stats != null) {
+			registerGauges(registry, pool, route, stats);
+			return;
+		}
+		// The pool does not track the route on its own, OkHttp reports all routes as one
+		for (String poolRoute : monitor.getRoutes(pool)) {
+			stats = monitor.getStats(pool, poolRoute);
+			if (stats != null) {
+				registerGauges(registry, pool, poolRoute, stats);
+			}
+		}
+	}
+
+	private void registerGauges(MeterRegistry registry, String pool, String route,
+			FeignConnectionPoolMonitor.RouteStats stats) {
+		if (!registeredRoutes.add(pool + " " + route)) {
+			return;
+		}
+		registerGauge(registry, pool, route, stats, "leased", "Leased connections",
+				FeignConnectionPoolMonitor.RouteStats::getLeased);
+		registerGauge(registry, pool, route, stats, "available", "Idle connections available for reuse",
+				FeignConnectionPoolMonitor.RouteStats::getAvailable);
+		registerGauge(registry, pool, route, stats, "pending", "Requests waiting for a connection",
+				FeignConnectionPoolMonitor.RouteStats::getPending);
+		registerGauge(registry, pool, route, stats, "max", "Maximum number of connections",
+				FeignConnectionPoolMonitor.RouteStats::getMax);
+	}
+
+	private void registerGauge(MeterRegistry registry, String pool, String route,
+			FeignConnectionPoolMonitor.RouteStats stats, String name, String description,
+			ToIntFunction<FeignConnectionPoolMonitor.RouteStats> value) {
+		if (value.applyAsInt(stats) == FeignConnectionPoolMonitor.RouteStats.UNKNOWN) {
+			return;
+		}
+		Gauge.builder("feign.httpclient.connections." + name, monitor, m -> {
+			FeignConnectionPoolMonitor.RouteStats current = m.getStats(pool, route);
+			return current != null ? value.applyAsInt(current) : 0;
+		}).tags(Tags.of("pool", pool, "route", route)).description(description).register(registry);
+	}
+
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign.clientconfig;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Keeps track of the Feign HTTP client connection pools, so that their per-route
+ * statistics and the time requests wait to acquire a connection can be exposed as
+ * metrics.
+ *
+ * @since 3.1.6
+ */
+public class FeignConnectionPoolMonitor {
+
+	private static final Log LOG = LogFactory.getLog(FeignConnectionPoolMonitor.class);
+
+	private final Map<String, MonitoredPool> pools = new ConcurrentHashMap<>();
+
+	private final List<Consumer<String>> listeners = new CopyOnWriteArrayList<>();
+
+	private final List<AcquisitionListener> acquisitionListeners = new CopyOnWriteArrayList<>();
+
+	/**
+	 * Registers a connection pool, replacing any pool registered under the same name.
+	 * @param name the name of the pool
+	 * @param pool the pool
+	 */
+	public void register(String name, MonitoredPool pool) {
+		MonitoredPool previous = pools.put(name, pool);
+		if (previous == null) {
+			for (Consumer<String> listener : listeners) {
+				listener.accept(name);
+			}
+		}
+	}
+
+	/**
+	 * Stops reporting the statistics of a pool, for instance because it is closed.
+	 * @param name the name of the pool
+	 */
+	public void unregister(String name) {
+		pools.remove(name);
+	}
+
+	/**
+	 * Registers a listener that is called with the name of each newly registered pool,
+	 * and immediately with the names of the existing ones.
+	 * @param listener the listener
+	 */
+	public void addListener(Consumer<String> listener) {
+		listeners.add(listener);
+		pools.keySet().forEach(listener);
+	}
+
+	/**
+	 * Registers a listener that is called for each connection acquisition.
+	 * @param listener the listener
+	 */
+	public void addAcquisitionListener(AcquisitionListener listener) {
+		acquisitionListeners.add(listener);
+	}
+
+	/**
+	 * Records the time a request waited to acquire a connection, whether or not it got
+	 * one.
+	 * @param pool the name of the pool
+	 * @param route the route of the request
+	 * @param waitNanos the time waited, in nanoseconds
+	 */
+	public void recordAcquisition(String pool, String route, long waitNanos) {
+		for (AcquisitionListener listener : acquisitionListeners) {
+			try {
+				listener.connectionAcquired(pool, route, waitNanos);
+			}
+			catch (RuntimeException e) {
+				LOG.warn("Could not record the connection acquisition of pool " + pool, e);
+			}
+		}
+	}
+
+	/**
+	 * Returns the routes the given pool currently has connections or pending requests
+	 * for.
+	 * @param pool the name of the pool
+	 * @return the routes, empty if the pool is not registered
+	 */
+	public Set<String> getRoutes(String pool) {
+		MonitoredPool monitoredPool = pools.get(pool);
+		return monitoredPool != null ? monitoredPool.getRoutes() : Collections.emptySet();
+	}
+
+	/**
+	 * Returns the statistics of a route of the given pool.
+	 * @param pool the name of the pool
+	 * @param route the route
+	 * @return the statistics, or {@code null} if the pool is not registered or does not
+	 * know the route
+	 */
+	public RouteStats getStats(String pool, String route) {
+		MonitoredPool monitoredPool = pools.get(pool);
+		return monitoredPool != null ? monitoredPool.getStats(route) : null;
+	}
+
+	/**
+	 * Returns the route of a request to the given host and port, as reported by the
+	 * monitored pools.
+	 * @param host the host name
+	 * @param port the port
+	 * @return the route
+	 */
+	public static String route(String host, int port) {
+		return port >= 0 ? host + ":" + port : host;
+	}
+
+	/**
+	 * A connection pool whose statistics can be monitored.
+	 */
+	public interface MonitoredPool {
+
+		/**
+		 * Returns the routes the pool has connections or pending requests for.
+		 * @return the routes
+		 */
+		Set<String> getRoutes();
+
+		/**
+		 * Returns the statistics of a route.
+		 * @param route the route
+		 * @return the statistics, or {@code null} if the pool does not know the route
+		 */
+		RouteStats getStats(String route);
+
+	}
+
+	/**
+	 * Listener for connection acquisitions.
+	 */
+	@FunctionalInterface
+	public interface AcquisitionListener {
+
+		/**
+		 * Called once a request has waited to acquire a connection.
+		 * @param pool the name of the pool
+		 * @param route the route of the request
+		 * @param waitNanos the time waited, in nanoseconds
+		 */
+		void connectionAcquired(String pool, String route, long waitNanos);
+
+	}
+
+	/**
+	 * Statistics of the connections of a route. A value that the pool does not track is
+	 * {@link #UNKNOWN}.
+	 */
+	public static final class RouteStats {
+
+		/**
+		 * Value of a statistic the pool does not track.
+		 */
+		public static final int UNKNOWN = -1;
+
+		private final int leased;
+
+		private final int available;
+
+		private final int pending;
+
+		private final int max;
+
+		public RouteStats(int leased, int available, int pending, int max) {
+			this.leased = leased;
+			this.available = available;
+			this.pending = pending;
+			this.max = max;
+		}
+
+		public int getLeased() {
+			return leased;
+		}
+
+		public int getAvailable() {
+			return available;
+		}
+
+		public int getPending() {
+			return pending;
+		}
+
+		public int getMax() {
+			return max;
+		}
+
+		RouteStats plus(RouteStats other) {
+			return new RouteStats(leased + other.leased, available + other.available, pending + other.pending,
+					max + other.max);
+		}
+
+	}
+
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign.clientconfig;
+
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * Registers a connection pool with the {@link FeignConnectionEvictor}, the
+ * {@link FeignConnectionPoolMonitor} and the {@link FeignConnectionWarmer} that are
+ * available, and unregisters it from each of them once the pool is closed.
+ *
+ * @since 3.1.6
+ */
+public class FeignConnectionPoolRegistration {
+
+	private final String poolName;
+
+	private FeignConnectionEvictor connectionEvictor;
+
+	private FeignConnectionPoolMonitor connectionPoolMonitor;
+
+	private FeignConnectionWarmer connectionWarmer;
+
+	public FeignConnectionPoolRegistration(String poolName) {
+		this.poolName = poolName;
+	}
+
+	public String getPoolName() {
+		return poolName;
+	}
+
+	/**
+	 * Registers the pool with the connection evictor, if there is one.
+	 * @param connectionEvictor the provider of the connection evictor
+	 * @param pool the pool; {@code null} if its connections cannot be evicted
+	 * @return the connection evictor, or {@code null} if the pool is not registered
+	 */
+	public FeignConnectionEvictor registerEvictablePool(ObjectProvider<FeignConnectionEvictor> connectionEvictor,
+			FeignConnectionEvictor.EvictablePool pool) {
+		FeignConnectionEvictor evictor = pool != null ? connectionEvictor.getIfAvailable() : null;
+		if (evictor != null) {
+			evictor.register(poolName, pool);
+			this.connectionEvictor = evictor;
+		}
+		return evictor;
+	}
+
+	/**
+	 * Registers the pool with the connection pool monitor, if there is one.
+	 * @param connectionPoolMonitor the provider of the connection pool monitor
+	 * @param pool the pool; {@code null} if it cannot be monitored
+	 * @return the connection pool monitor, or {@code null} if the pool is not registered
+	 */
+	public FeignConnectionPoolMonitor registerMonitoredPool(
+			ObjectProvider<FeignConnectionPoolMonitor> connectionPoolMonitor,
+			FeignConnectionPoolMonitor.MonitoredPool pool) {
+		FeignConnectionPoolMonitor monitor = pool != null ? connectionPoolMonitor.getIfAvailable() : null;
+		if (monitor != null) {
+			monitor.register(poolName, pool);
+			this.connectionPoolMonitor = monitor;
+		}
+		return monitor;
+	}
+
+	/**
+	 * Registers the pool with the connection warmer, if there is one.
+	 * @param connectionWarmer the provider of the connection warmer
+	 * @param pool the pool; {@code null} if it cannot be warmed up
+	 * @return the connection warmer, or {@code null} if the pool is not registered
+	 */
+	public FeignConnectionWarmer registerWarmablePool(ObjectProvider<FeignConnectionWarmer> connectionWarmer,
+			FeignConnectionWarmer.WarmablePool pool) {
+		FeignConnectionWarmer warmer = pool != null ? connectionWarmer.getIfAvailable() : null;
+		if (warmer != null) {
+			warmer.register(poolName, pool);
+			this.connectionWarmer = warmer;
+		}
+		return warmer;
+	}
+
+	/**
+	 * Unregisters the pool from everything it is registered with.
+	 */
+	public void unregister() {
+		if (connectionEvictor != null) {
+			connectionEvictor.unregister(poolName);
+		}
+		if (connectionPoolMonitor != null) {
+			connectionPoolMonitor.unregister(poolName);
+		}
+		if (connectionWarmer != null) {
+			connectionWarmer.unregister(poolName);
+		}
+	}
+
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign.clientconfig;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Opens connections ahead of the first requests in the registered Feign HTTP client
+ * connection pools. A pool that fails to open its connections does not stop the others
+ * from opening theirs.
+ *
+ * @since 3.1.6
+ */
+public class FeignConnectionWarmer {
+
+	private static final Log LOG = LogFactory.getLog(FeignConnectionWarmer.class);
+
+	private final Map<String, WarmablePool> pools = new ConcurrentHashMap<>();
+
+	/**
+	 * Registers a connection pool, replacing any pool registered under the same name.
+	 * @param name the name of the pool
+	 * @param pool the pool
+	 */
+	public void register(String name, WarmablePool pool) {
+		pools.put(name, pool);
+	}
+
+	/**
+	 * Stops opening connections in a pool, for instance because it is closed.
+	 * @param name the name of the pool
+	 */
+	public void unregister(String name) {
+		pools.remove(name);
+	}
+
+	/**
+	 * Returns whether any pool is registered.
+	 * @return {@code true} if connections can be opened
+	 */
+	public boolean hasPools() {
+		return !pools.isEmpty();
+	}
+
+	/**
+	 * Opens connections to the given target in all registered pools.
+	 * @param target the target, only its scheme, host and port are used
+	 * @param connections the number of connections each pool should hold to the target
+	 * @return the number of newly opened connections
+	 */
+	public int warmUp(URI target, int connections) {
+		int opened = 0;
+		for (Map.Entry<String, WarmablePool> pool : pools.entrySet()) {
+			try {
+				opened += pool.getValue().warmUp(target, connections);
+			}
+			catch (IOException | RuntimeException e) {
+				LOG.warn("Could not open connections to " + target + " in pool " + pool.getKey() + ": " + e);
+			}
+		}
+		return opened;
+	}
+
+	/**
+	 * Returns the port of a target, or the default port of its scheme.
+	 * @param target the target
+	 * @return the port
+	 */
+	static int port(URI target) {
+		if (target.getPort() >= 0) {
+			return target.getPort();
+		}
+		return "https".equalsIgnoreCase(target.getScheme()) ? 443 : 80;
+	}
+
+	/**
+	 * A connection pool in which connections can be opened ahead of use.
+	 */
+	@FunctionalInterface
+	public interface WarmablePool {
+
+		/**
+		 * Makes the pool hold the given number of connections to the target, opening the
+		 * missing ones. The number of connections may be capped by the maximum the pool
+		 * allows per route.
+		 * @param target the target, only its scheme, host and port are used
+		 * @param connections the number of connections
+		 * @return the number of newly opened connections
+		 * @throws IOException if a connection could not be opened
+		 */
+		int warmUp(URI target, int connections) throws IOException;
+
+	}
+
+}
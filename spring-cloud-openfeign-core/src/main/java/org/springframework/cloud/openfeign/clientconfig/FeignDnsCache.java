@@ -0,0 +1,200 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign.clientconfig;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.cloud.openfeign.support.FeignHttpClientProperties;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+/**
+ * Caches the resolved addresses of hosts for the Feign HTTP clients. The addresses of a
+ * host are used for the configured time to live. A request for a host shortly before its
+ * addresses expire refreshes them in the background, so that frequently requested hosts
+ * are not resolved on a request thread. If a host cannot be resolved again, its expired
+ * addresses are still used for the configured stale time to live.
+ *
+ * @since 3.1.6
+ */
+public class FeignDnsCache implements DisposableBean {
+
+	private static final Log LOG = LogFactory.getLog(FeignDnsCache.class);
+
+	private final long timeToLiveNanos;
+
+	private final long refreshAheadNanos;
+
+	private final long staleTimeToLiveNanos;
+
+	private final Resolver resolver;
+
+	private final LongSupplier nanoTime;
+
+	private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+	private Executor refreshExecutor;
+
+	private boolean destroyed;
+
+	public FeignDnsCache(FeignHttpClientProperties.Dns properties) {
+		this(properties, InetAddress::getAllByName, System::nanoTime, null);
+	}
+
+	FeignDnsCache(FeignHttpClientProperties.Dns properties, Resolver resolver, LongSupplier nanoTime,
+			Executor refreshExecutor) {
+		this.timeToLiveNanos = Math.max(0, properties.getTimeToLive().toNanos());
+		this.refreshAheadNanos = Math.min(Math.max(0, properties.getRefreshAhead().toNanos()), timeToLiveNanos);
+		this.staleTimeToLiveNanos = Math.max(0, properties.getStaleTimeToLive().toNanos());
+		this.resolver = resolver;
+		this.nanoTime = nanoTime;
+		this.refreshExecutor = refreshExecutor;
+	}
+
+	/**
+	 * Returns the addresses of a host, from the cache if they have not expired.
+	 * @param host the host name
+	 * @return the addresses of the host
+	 * @throws UnknownHostException if the host cannot be resolved and has no usable
+	 * addresses in the cache
+	 */
+	public InetAddress[] resolve(String host) throws UnknownHostException {
+		long now = nanoTime.getAsLong();
+		Entry entry = entries.get(host);
+		if (entry != null && now - entry.resolvedAt < timeToLiveNanos) {
+			if (now - entry.resolvedAt >= timeToLiveNanos - refreshAheadNanos
+					&& entry.refreshing.compareAndSet(false, true)) {
+				refresh(host, entry);
+			}
+			return entry.addresses.clone();
+		}
+		try {
+			InetAddress[] addresses = resolver.resolve(host);
+			entries.put(host, new Entry(addresses, nanoTime.getAsLong()));
+			return addresses.clone();
+		}
+		catch (UnknownHostException e) {
+			if (entry != null && now - entry.resolvedAt < timeToLiveNanos + staleTimeToLiveNanos) {
+				if (LOG.isDebugEnabled()) {
+					LOG.debug("Could not resolve " + host + ", using its expired addresses", e);
+				}
+				return entry.addresses.clone();
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * Removes the addresses of a host from the cache.
+	 * @param host the host name
+	 */
+	public void invalidate(String host) {
+		entries.remove(host);
+	}
+
+	/**
+	 * Removes all addresses from the cache.
+	 */
+	public void clear() {
+		entries.clear();
+	}
+
+	private void refresh(String host, Entry entry) {
+		Executor executor = getRefreshExecutor();
+		if (executor == null) {
+			entry.refreshing.set(false);
+			return;
+		}
+		try {
+			executor.execute(() -> {
+				try {
+					entries.replace(host, entry, new Entry(resolver.resolve(host), nanoTime.getAsLong()));
+				}
+				catch (UnknownHostException | RuntimeException e) {
+					if (LOG.isDebugEnabled()) {
+						LOG.debug("Could not refresh the addresses of " + host, e);
+					}
+				}
+				finally {
+					entry.refreshing.set(false);
+				}
+			});
+		}
+		catch (RejectedExecutionException e) {
+			entry.refreshing.set(false);
+		}
+	}
+
+	private synchronized Executor getRefreshExecutor() {
+		if (refreshExecutor == null && !destroyed) {
+			CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("feign-dns-refresh-");
+			threadFactory.setDaemon(true);
+			// A single thread, so that a slow DNS server does not pile up threads
+			refreshExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+					threadFactory);
+		}
+		return destroyed ? null : refreshExecutor;
+	}
+
+	@Override
+	public synchronized void destroy() {
+		destroyed = true;
+		if (refreshExecutor instanceof ExecutorService) {
+			((ExecutorService) refreshExecutor).shutdownNow();
+		}
+	}
+
+	/**
+	 * Resolves the addresses of a host.
+	 */
+	@FunctionalInterface
+	interface Resolver {
+
+		InetAddress[] resolve(String host) throws UnknownHostException;
+
+	}
+
+	private static final class Entry {
+
+		private final InetAddress[] addresses;
+
+		private final long resolvedAt;
+
+		private final AtomicBoolean refreshing = new AtomicBoolean();
+
+		private Entry(InetAddress[] addresses, long resolvedAt) {
+			this.addresses = addresses;
+			this.resolvedAt = resolvedAt;
+		}
+
+	}
+
+}
@@ -0,0 +1,222 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign.clientconfig;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.security.SecureRandom;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.net.ssl.HandshakeCompletedEvent;
+import javax.net.ssl.HandshakeCompletedListener;
+import javax.net.ssl.KeyManager;
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSessionContext;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.SSLSocketFactory;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.TrustManagerFactory;
+import javax.net.ssl.X509TrustManager;
+
+import org.springframework.cloud.openfeign.support.FeignHttpClientProperties;
+import org.springframework.util.StringUtils;
+
+/**
+ * Provides a single {@link SSLContext} shared by the Feign HTTP clients. Since the TLS
+ * session cache belongs to the context, connections opened by any client, or after the
+ * connections of a pool were closed, can resume the sessions of earlier ones instead of
+ * doing a full handshake. The context trusts the certificates of the JVM trust store, or
+ * any certificate if SSL validation is disabled, and presents the key of the key store
+ * configured through the {@code javax.net.ssl.keyStore} system properties. Handshakes of
+ * the connections opened through {@link #getSocketFactory()} are counted.
+ *
+ * @since 3.1.6
+ */
+public class FeignSslContextProvider {
+
+	private final SSLContext sslContext;
+
+	private final X509TrustManager trustManager;
+
+	private final SSLSocketFactory socketFactory;
+
+	private final AtomicLong handshakes = new AtomicLong();
+
+	public FeignSslContextProvider(FeignHttpClientProperties properties) {
+		try {
+			this.trustManager = properties.isDisableSslValidation()
+					? new HttpClient5FeignConfiguration.DisabledValidationTrustManager() : systemTrustManager();
+			this.sslContext = SSLContext.getInstance("TLS");
+			this.sslContext.init(systemKeyManagers(), new TrustManager[] { trustManager }, new SecureRandom());
+		}
+		catch (GeneralSecurityException | IOException e) {
+			throw new IllegalStateException("Could not create the SSLContext of the Feign clients", e);
+		}
+		FeignHttpClientProperties.Ssl ssl = properties.getSsl();
+		SSLSessionContext sessionContext = sslContext.getClientSessionContext();
+		if (ssl.getSessionCacheSize() != null) {
+			sessionContext.setSessionCacheSize(ssl.getSessionCacheSize());
+		}
+		if (ssl.getSessionTimeout() != null) {
+			sessionContext.setSessionTimeout((int) ssl.getSessionTimeout().getSeconds());
+		}
+		this.socketFactory = new HandshakeCountingSocketFactory(sslContext.getSocketFactory(),
+				this::onHandshakeCompleted);
+	}
+
+	public SSLContext getSslContext() {
+		return sslContext;
+	}
+
+	public X509TrustManager getTrustManager() {
+		return trustManager;
+	}
+
+	/**
+	 * Returns the socket factory of the shared context, counting the handshakes of the
+	 * sockets it creates.
+	 * @return the socket factory
+	 */
+	public SSLSocketFactory getSocketFactory() {
+		return socketFactory;
+	}
+
+	/**
+	 * Returns the number of handshakes completed by the sockets of
+	 * {@link #getSocketFactory()}, including the ones resuming a session.
+	 * @return the number of handshakes
+	 */
+	public long getHandshakeCount() {
+		return handshakes.get();
+	}
+
+	/**
+	 * Returns the number of TLS sessions in the cache of the shared context.
+	 * @return the number of cached sessions
+	 */
+	public int getCachedSessionCount() {
+		return Collections.list(sslContext.getClientSessionContext().getIds()).size();
+	}
+
+	void onHandshakeCompleted(HandshakeCompletedEvent event) {
+		handshakes.incrementAndGet();
+	}
+
+	private static X509TrustManager systemTrustManager() throws GeneralSecurityException {
+		TrustManagerFactory trustManagerFactory = TrustManagerFactory
+				.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+		trustManagerFactory.init((KeyStore) null);
+		for (TrustManager trustManager : trustManagerFactory.getTrustManagers()) {
+			if (trustManager instanceof X509TrustManager) {
+				return (X509TrustManager) trustManager;
+			}
+		}
+		throw new IllegalStateException("No X509TrustManager available");
+	}
+
+	// The JSSE default context reads the same properties
+	private static KeyManager[] systemKeyManagers() throws GeneralSecurityException, IOException {
+		String keyStorePath = System.getProperty("javax.net.ssl.keyStore");
+		if (!StringUtils.hasText(keyStorePath) || "NONE".equals(keyStorePath)) {
+			return null;
+		}
+		String password = System.getProperty("javax.net.ssl.keyStorePassword");
+		char[] passwordChars = password != null ? password.toCharArray() : null;
+		KeyStore keyStore = KeyStore
+				.getInstance(System.getProperty("javax.net.ssl.keyStoreType", KeyStore.getDefaultType()));
+		try (InputStream inputStream = new FileInputStream(keyStorePath)) {
+			keyStore.load(inputStream, passwordChars);
+		}
+		KeyManagerFactory keyManagerFactory = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+		keyManagerFactory.init(keyStore, passwordChars);
+		return keyManagerFactory.getKeyManagers();
+	}
+
+	private static final class HandshakeCountingSocketFactory extends SSLSocketFactory {
+
+		private final SSLSocketFactory delegate;
+
+		private final HandshakeCompletedListener listener;
+
+		private HandshakeCountingSocketFactory(SSLSocketFactory delegate, HandshakeCompletedListener listener) {
+			this.delegate = delegate;
+			this.listener = listener;
+		}
+
+		@Override
+		public String[] getDefaultCipherSuites() {
+			return delegate.getDefaultCipherSuites();
+		}
+
+		@Override
+		public String[] getSupportedCipherSuites() {
+			return delegate.getSupportedCipherSuites();
+		}
+
+		@Override
+		public Socket createSocket() throws IOException {
+			return track(delegate.createSocket());
+		}
+
+		@Override
+		public Socket createSocket(Socket socket, String host, int port, boolean autoClose) throws IOException {
+			return track(delegate.createSocket(socket, host, port, autoClose));
+		}
+
+		@Override
+		public Socket createSocket(Socket socket, InputStream consumed, boolean autoClose) throws IOException {
+			return track(delegate.createSocket(socket, consumed, autoClose));
+		}
+
+		@Override
+		public Socket createSocket(String host, int port) throws IOException {
+			return track(delegate.createSocket(host, port));
+		}
+
+		@Override
+		public Socket createSocket(String host, int port, InetAddress localHost, int localPort) throws IOException {
+			return track(delegate.createSocket(host, port, localHost, localPort));
+		}
+
+		@Override
+		public Socket createSocket(InetAddress host, int port) throws IOException {
+			return track(delegate.createSocket(host, port));
+		}
+
+		@Override
+		public Socket createSocket(InetAddress address, int port, InetAddress localAddress, int localPort)
+				throws IOException {
+			return track(delegate.createSocket(address, port, localAddress, localPort));
+		}
+
+		private Socket track(Socket socket) {
+			if (socket instanceof SSLSocket) {
+				((SSLSocket) socket).addHandshakeCompletedListener(listener);
+			}
+			return socket;
+		}
+
+	}
+
+}
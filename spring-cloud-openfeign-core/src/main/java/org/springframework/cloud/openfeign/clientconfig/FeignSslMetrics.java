@@ -0,0 +1,49 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign.clientconfig;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Exposes the number of TLS handshakes and of cached TLS sessions of the
+ * {@link FeignSslContextProvider} as Micrometer meters.
+ *
+ * @since 3.1.6
+ */
+public class FeignSslMetrics implements MeterBinder {
+
+	private final FeignSslContextProvider sslContextProvider;
+
+	public FeignSslMetrics(FeignSslContextProvider sslContextProvider) {
+		this.sslContextProvider = sslContextProvider;
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		FunctionCounter
+				.builder("feign.httpclient.ssl.handshakes", sslContextProvider,
+						FeignSslContextProvider::getHandshakeCount)
+				.description("TLS handshakes completed by the connections of the shared SSLContext").register(registry);
+		Gauge.builder("feign.httpclient.ssl.sessions.cached", sslContextProvider,
+				FeignSslContextProvider::getCachedSessionCount)
+				.description("TLS sessions in the cache of the shared SSLContext").register(registry);
+	}
+
+}
@@ -0,0 +1,296 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign.clientconfig;
+
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import feign.AsyncClient;
+import feign.Request;
+import feign.Response;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.cloud.openfeign.support.FeignHttpClientProperties;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+/**
+ * An {@link AsyncClient} that limits the number of concurrent requests, that is HTTP/2
+ * streams, per route. A request exceeding the limit is queued without blocking a thread,
+ * and sent once another request to the same route completes. The queue of a route is
+ * bounded, and a queued request fails once it has waited for its read timeout.
+ *
+ * @param <C> the type of the request context of the delegate
+ * @since 3.1.6
+ */
+public class Http2StreamLimitingAsyncClient<C> implements AsyncClient<C>, DisposableBean {
+
+	private final AsyncClient<C> delegate;
+
+	private final FeignHttpClientProperties.Http2 properties;
+
+	private final Map<String, RouteStreams> routes = new ConcurrentHashMap<>();
+
+	private volatile ScheduledThreadPoolExecutor timer;
+
+	public Http2StreamLimitingAsyncClient(AsyncClient<C> delegate, FeignHttpClientProperties.Http2 properties) {
+		this.delegate = delegate;
+		this.properties = properties;
+	}
+
+	@Override
+	public CompletableFuture<Response> execute(Request request, Request.Options options, Optional<C> requestContext) {
+		URI uri = URI.create(request.url());
+		int port = uri.getPort() != -1 ? uri.getPort() : ("https".equalsIgnoreCase(uri.getScheme()) ? 443 : 80);
+		String route = uri.getHost() + ":" + port;
+		RouteStreams streams = routes.computeIfAbsent(route, key -> new RouteStreams(key,
+				properties.getMaxConcurrentStreams(uri.getHost(), port), properties.getMaxPendingRequests()));
+		CompletableFuture<Response> result = new CompletableFuture<>();
+		PendingRequest pendingRequest = new PendingRequest(result,
+				() -> send(streams, result, request, options, requestContext));
+		if (streams.acquire(pendingRequest)) {
+			pendingRequest.send.run();
+		}
+		else if (!result.isDone()) {
+			result.whenComplete((value, exception) -> {
+				if (result.isCancelled()) {
+					streams.remove(pendingRequest);
+				}
+			});
+			long timeoutMillis = options.readTimeoutMillis();
+			if (timeoutMillis > 0) {
+				pendingRequest.timeout = getTimer().schedule(() -> {
+					if (streams.remove(pendingRequest)) {
+						result.completeExceptionally(new SocketTimeoutException("Timed out after " + timeoutMillis
+								+ "ms waiting for an HTTP/2 stream to " + streams.route));
+					}
+				}, timeoutMillis, TimeUnit.MILLISECONDS);
+			}
+		}
+		return result;
+	}
+
+	private void send(RouteStreams streams, CompletableFuture<Response> result, Request request,
+			Request.Options options, Optional<C> requestContext) {
+		if (result.isDone()) {
+			// Cancelled or timed out while waiting for a stream
+			streams.release();
+			return;
+		}
+		CompletableFuture<Response> response;
+		try {
+			response = delegate.execute(request, options, requestContext);
+		}
+		catch (RuntimeException exception) {
+			response = new CompletableFuture<>();
+			response.completeExceptionally(exception);
+		}
+		CompletableFuture<Response> sent = response;
+		result.whenComplete((value, exception) -> {
+			if (result.isCancelled()) {
+				sent.cancel(true);
+			}
+		});
+		sent.whenComplete((value, exception) -> {
+			streams.release();
+			if (exception != null) {
+				result.completeExceptionally(exception);
+			}
+			else if (!result.complete(value) && value != null) {
+				value.close();
+			}
+		});
+	}
+
+	private ScheduledThreadPoolExecutor getTimer() {
+		ScheduledThreadPoolExecutor executor = timer;
+		if (executor == null) {
+			synchronized (this) {
+				executor = timer;
+				if (executor == null) {
+					CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("feign-http2-timeout-");
+					threadFactory.setDaemon(true);
+					executor = new ScheduledThreadPoolExecutor(1, threadFactory);
+					executor.setRemoveOnCancelPolicy(true);
+					// Lets the thread end while no request is queued
+					executor.setKeepAliveTime(60, TimeUnit.SECONDS);
+					executor.allowCoreThreadTimeOut(true);
+					timer = executor;
+				}
+			}
+		}
+		return executor;
+	}
+
+	@Override
+	public void destroy() {
+		ScheduledThreadPoolExecutor executor = timer;
+		if (executor != null) {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Returns the number of requests to a route that are sent and not completed yet.
+	 * @param route the route, as {@code host:port}
+	 * @return the number of active streams
+	 */
+	public int getActiveStreams(String route) {
+		RouteStreams streams = routes.get(route);
+		return streams != null ? streams.getActive() : 0;
+	}
+
+	/**
+	 * Returns the number of requests to a route that wait for a stream.
+	 * @param route the route, as {@code host:port}
+	 * @return the number of pending requests
+	 */
+	public int getPendingRequests(String route) {
+		RouteStreams streams = routes.get(route);
+		return streams != null ? streams.getPending() : 0;
+	}
+
+	private static final class PendingRequest {
+
+		private final CompletableFuture<Response> result;
+
+		private final Runnable send;
+
+		private volatile ScheduledFuture<?> timeout;
+
+		private PendingRequest(CompletableFuture<Response> result, Runnable send) {
+			this.result = result;
+			this.send = send;
+		}
+
+		void dispatch() {
+			ScheduledFuture<?> scheduledTimeout = timeout;
+			if (scheduledTimeout != null) {
+				scheduledTimeout.cancel(false);
+			}
+			send.run();
+		}
+
+	}
+
+	private static final class RouteStreams {
+
+		private final String route;
+
+		private final int maxStreams;
+
+		private final int maxPending;
+
+		private final Deque<PendingRequest> pending = new ArrayDeque<>();
+
+		private int active;
+
+		// Streams released while another thread hands streams over to pending requests
+		private int releases;
+
+		private boolean draining;
+
+		private RouteStreams(String route, int maxStreams, int maxPending) {
+			this.route = route;
+			this.maxStreams = Math.max(1, maxStreams);
+			this.maxPending = Math.max(0, maxPending);
+		}
+
+		/**
+		 * Takes a stream for the given request, or queues it if none is available.
+		 * @param request the request
+		 * @return {@code true} if the request can be sent right away
+		 */
+		boolean acquire(PendingRequest request) {
+			synchronized (this) {
+				if (active < maxStreams) {
+					active++;
+					return true;
+				}
+				if (pending.size() < maxPending) {
+					pending.add(request);
+					return false;
+				}
+			}
+			request.result.completeExceptionally(new RejectedExecutionException(
+					"Too many requests waiting for an HTTP/2 stream to " + route + " (" + maxPending + ")"));
+			return false;
+		}
+
+		synchronized boolean remove(PendingRequest request) {
+			return pending.remove(request);
+		}
+
+		/**
+		 * Hands the stream of a completed request over to the next pending request. A
+		 * request that fails right away releases its stream again while being sent, so
+		 * the streams are handed over in a loop rather than recursively.
+		 */
+		void release() {
+			synchronized (this) {
+				releases++;
+				if (draining) {
+					return;
+				}
+				draining = true;
+			}
+			while (true) {
+				PendingRequest next;
+				synchronized (this) {
+					if (releases == 0) {
+						draining = false;
+						return;
+					}
+					releases--;
+					next = pending.poll();
+					if (next == null) {
+						active--;
+						continue;
+					}
+				}
+				try {
+					next.dispatch();
+				}
+				catch (RuntimeException | Error exception) {
+					synchronized (this) {
+						draining = false;
+					}
+					throw exception;
+				}
+			}
+		}
+
+		synchronized int getActive() {
+			return active;
+		}
+
+		synchronized int getPending() {
+			return pending.size();
+		}
+
+	}
+
+}
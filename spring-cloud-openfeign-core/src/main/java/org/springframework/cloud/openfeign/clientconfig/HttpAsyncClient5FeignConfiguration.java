@@ -0,0 +1,202 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign.clientconfig;
+
+import java.security.KeyManagementException;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PreDestroy;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManager;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.H2AsyncClientBuilder;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClientBuilder;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.nio.AsyncClientConnectionManager;
+import org.apache.hc.client5.http.ssl.ClientTlsStrategyBuilder;
+import org.apache.hc.core5.http.nio.ssl.TlsStrategy;
+import org.apache.hc.core5.http.ssl.TLS;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.pool.ConnPoolControl;
+import org.apache.hc.core5.pool.PoolConcurrencyPolicy;
+import org.apache.hc.core5.pool.PoolReusePolicy;
+import org.apache.hc.core5.reactor.IOReactorConfig;
+import org.apache.hc.core5.ssl.SSLContexts;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.openfeign.support.FeignHttpClientProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Default configuration for {@link CloseableHttpAsyncClient}. A single started client,
+ * and so a single I/O reactor, is shared by all the Feign clients. If HTTP/2 is enabled
+ * through {@link FeignHttpClientProperties#getHttp2()}, the client multiplexes the
+ * requests to a route over a single connection instead of pooling connections.
+ *
+ * @since 3.1.6
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnMissingBean(CloseableHttpAsyncClient.class)
+public class HttpAsyncClient5FeignConfiguration {
+
+	private static final Log LOG = LogFactory.getLog(HttpAsyncClient5FeignConfiguration.class);
+
+	private static final String CONNECTION_POOL_NAME = "hc5-async";
+
+	private final FeignConnectionPoolRegistration connectionPoolRegistration = new FeignConnectionPoolRegistration(
+			CONNECTION_POOL_NAME);
+
+	private CloseableHttpAsyncClient httpAsyncClient5;
+
+	@Bean
+	@ConditionalOnMissingBean(AsyncClientConnectionManager.class)
+	@ConditionalOnProperty(value = "feign.httpclient.http2.enabled", havingValue = "false", matchIfMissing = true)
+	public AsyncClientConnectionManager hc5AsyncConnectionManager(FeignHttpClientProperties httpClientProperties,
+			ObjectProvider<FeignDnsCache> dnsCache, ObjectProvider<FeignSslContextProvider> sslContextProvider) {
+		FeignDnsCache feignDnsCache = dnsCache.getIfAvailable();
+		return PoolingAsyncClientConnectionManagerBuilder.create()
+				.setDnsResolver(feignDnsCache != null ? new HttpClient5DnsResolver(feignDnsCache) : null)
+				.setTlsStrategy(
+						tlsStrategy(httpClientProperties.isDisableSslValidation(), sslContextProvider.getIfAvailable()))
+				.setMaxConnTotal(httpClientProperties.getMaxConnections())
+				.setMaxConnPerRoute(httpClientProperties.getMaxConnectionsPerRoute())
+				.setConnPoolPolicy(PoolReusePolicy.valueOf(httpClientProperties.getHc5().getPoolReusePolicy().name()))
+				.setPoolConcurrencyPolicy(
+						PoolConcurrencyPolicy.valueOf(httpClientProperties.getHc5().getPoolConcurrencyPolicy().name()))
+				.setConnectionTimeToLive(
+						TimeValue.of(httpClientProperties.getTimeToLive(), httpClientProperties.getTimeToLiveUnit()))
+				.build();
+	}
+
+	@Bean
+	@ConditionalOnProperty(value = "feign.httpclient.http2.enabled", havingValue = "false", matchIfMissing = true)
+	public CloseableHttpAsyncClient httpAsyncClient5(AsyncClientConnectionManager connectionManager,
+			FeignHttpClientProperties httpClientProperties, ObjectProvider<FeignConnectionEvictor> connectionEvictor,
+			ObjectProvider<FeignConnectionPoolMonitor> connectionPoolMonitor) {
+		HttpAsyncClientBuilder builder = HttpAsyncClients.custom();
+		HttpClient5EvictablePool pool = connectionManager instanceof ConnPoolControl
+				? new HttpClient5EvictablePool((ConnPoolControl<?>) connectionManager) : null;
+		if (connectionPoolRegistration.registerEvictablePool(connectionEvictor, pool) == null) {
+			builder.evictExpiredConnections();
+		}
+		connectionPoolRegistration.registerMonitoredPool(connectionPoolMonitor, pool);
+		if (HttpClient5HostPolicy.isRequired(httpClientProperties)) {
+			HttpClient5HostPolicy hostPolicy = new HttpClient5HostPolicy(httpClientProperties, connectionManager);
+			builder.setKeepAliveStrategy(hostPolicy).setRoutePlanner(hostPolicy);
+		}
+		FeignConnectionPoolMonitor monitor = connectionPoolMonitor.getIfAvailable();
+		AsyncClientConnectionManager clientConnectionManager = monitor != null
+				? InstrumentedAsyncClientConnectionManager.instrument(connectionManager, monitor, CONNECTION_POOL_NAME)
+				: connectionManager;
+		httpAsyncClient5 = builder.disableCookieManagement().useSystemProperties()
+				.setConnectionManager(clientConnectionManager).setIOReactorConfig(ioReactorConfig(httpClientProperties))
+				.setDefaultRequestConfig(requestConfig(httpClientProperties)).build();
+		httpAsyncClient5.start();
+		return httpAsyncClient5;
+	}
+
+	/**
+	 * Creates an HTTP/2-only client, which multiplexes the requests to a route over a
+	 * single connection: h2 negotiated through ALPN for {@code https}, h2c with prior
+	 * knowledge for {@code http}. The streams per route are limited by the
+	 * {@link Http2StreamLimitingAsyncClient} wrapping the Feign client.
+	 * @param httpClientProperties the HTTP client properties
+	 * @return the started client
+	 */
+	@Bean
+	@ConditionalOnProperty(value = "feign.httpclient.http2.enabled", havingValue = "true")
+	public CloseableHttpAsyncClient h2AsyncClient5(FeignHttpClientProperties httpClientProperties,
+			ObjectProvider<FeignDnsCache> dnsCache, ObjectProvider<FeignSslContextProvider> sslContextProvider) {
+		H2AsyncClientBuilder builder = H2AsyncClientBuilder.create().setTlsStrategy(
+				tlsStrategy(httpClientProperties.isDisableSslValidation(), sslContextProvider.getIfAvailable()));
+		FeignDnsCache feignDnsCache = dnsCache.getIfAvailable();
+		if (feignDnsCache != null) {
+			builder.setDnsResolver(new HttpClient5DnsResolver(feignDnsCache));
+		}
+		if (httpClientProperties.getConnectionIdleTimeout() > 0) {
+			builder.evictIdleConnections(TimeValue.ofMilliseconds(httpClientProperties.getConnectionIdleTimeout()));
+		}
+		httpAsyncClient5 = builder.disableCookieManagement().useSystemProperties()
+				.setIOReactorConfig(ioReactorConfig(httpClientProperties))
+				.setDefaultRequestConfig(requestConfig(httpClientProperties)).build();
+		httpAsyncClient5.start();
+		return httpAsyncClient5;
+	}
+
+	@PreDestroy
+	public void destroy() {
+		connectionPoolRegistration.unregister();
+		if (httpAsyncClient5 != null) {
+			httpAsyncClient5.close(CloseMode.GRACEFUL);
+		}
+	}
+
+	private IOReactorConfig ioReactorConfig(FeignHttpClientProperties httpClientProperties) {
+		FeignHttpClientProperties.Hc5Properties hc5Properties = httpClientProperties.getHc5();
+		IOReactorConfig.Builder ioReactorConfig = IOReactorConfig.custom()
+				.setSoTimeout(Timeout.of(hc5Properties.getSocketTimeout(), hc5Properties.getSocketTimeoutUnit()));
+		if (hc5Properties.getIoThreadCount() > 0) {
+			ioReactorConfig.setIoThreadCount(hc5Properties.getIoThreadCount());
+		}
+		return ioReactorConfig.build();
+	}
+
+	private RequestConfig requestConfig(FeignHttpClientProperties httpClientProperties) {
+		return RequestConfig.custom()
+				.setConnectTimeout(Timeout.of(httpClientProperties.getConnectionTimeout(), TimeUnit.MILLISECONDS))
+				.setRedirectsEnabled(httpClientProperties.isFollowRedirects()).build();
+	}
+
+	private TlsStrategy tlsStrategy(boolean isDisableSslValidation, FeignSslContextProvider sslContextProvider) {
+		ClientTlsStrategyBuilder tlsStrategyBuilder = ClientTlsStrategyBuilder.create().setTlsVersions(TLS.V_1_3,
+				TLS.V_1_2);
+
+		if (sslContextProvider != null) {
+			tlsStrategyBuilder.setSslContext(sslContextProvider.getSslContext());
+		}
+		else if (isDisableSslValidation) {
+			try {
+				SSLContext sslContext = SSLContext.getInstance("SSL");
+				sslContext.init(null,
+						new TrustManager[] { new HttpClient5FeignConfiguration.DisabledValidationTrustManager() },
+						new SecureRandom());
+				tlsStrategyBuilder.setSslContext(sslContext);
+			}
+			catch (NoSuchAlgorithmException | KeyManagementException e) {
+				LOG.warn("Error creating SSLContext", e);
+			}
+		}
+		else {
+			tlsStrategyBuilder.setSslContext(SSLContexts.createSystemDefault());
+		}
+
+		return tlsStrategyBuilder.build();
+	}
+
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign.clientconfig;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.core5.pool.ConnPoolControl;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.util.TimeValue;
+
+/**
+ * Evicts the connections of an Apache HttpClient 5 connection pool, such as a
+ * {@code PoolingHttpClientConnectionManager} or a
+ * {@code PoolingAsyncClientConnectionManager}, and reports its per-route statistics.
+ *
+ * @since 3.1.6
+ */
+public class HttpClient5EvictablePool
+		implements FeignConnectionEvictor.EvictablePool, FeignConnectionPoolMonitor.MonitoredPool {
+
+	private final ConnPoolControl<?> connectionPool;
+
+	public HttpClient5EvictablePool(ConnPoolControl<?> connectionPool) {
+		this.connectionPool = connectionPool;
+	}
+
+	@Override
+	public int evict(long idleTimeoutMillis) {
+		int available = connectionPool.getTotalStats().getAvailable();
+		connectionPool.closeExpired();
+		if (idleTimeoutMillis > 0) {
+			connectionPool.closeIdle(TimeValue.ofMilliseconds(idleTimeoutMillis));
+		}
+		return Math.max(0, available - connectionPool.getTotalStats().getAvailable());
+	}
+
+	@Override
+	public Set<String> getRoutes() {
+		Set<String> routes = new LinkedHashSet<>();
+		for (Object route : connectionPool.getRoutes()) {
+			routes.add(toString(route));
+		}
+		return routes;
+	}
+
+	@Override
+	public FeignConnectionPoolMonitor.RouteStats getStats(String route) {
+		return getStats(connectionPool, route);
+	}
+
+	private static <T> FeignConnectionPoolMonitor.RouteStats getStats(ConnPoolControl<T> connectionPool, String route) {
+		FeignConnectionPoolMonitor.RouteStats stats = null;
+		for (T poolRoute : connectionPool.getRoutes()) {
+			if (route.equals(toString(poolRoute))) {
+				PoolStats poolStats = connectionPool.getStats(poolRoute);
+				FeignConnectionPoolMonitor.RouteStats routeStats = new FeignConnectionPoolMonitor.RouteStats(
+						poolStats.getLeased(), poolStats.getAvailable(), poolStats.getPending(), poolStats.getMax());
+				stats = stats != null ? stats.plus(routeStats) : routeStats;
+			}
+		}
+		return stats;
+	}
+
+	private static String toString(Object route) {
+		return route instanceof HttpRoute ? ((HttpRoute) route).getTargetHost().toHostString() : String.valueOf(route);
+	}
+
+}
@@ -32,20 +32,24 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.hc.client5.http.config.RequestConfig;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClientBuilder;
 import org.apache.hc.client5.http.impl.classic.HttpClients;
 import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
 import org.apache.hc.client5.http.io.HttpClientConnectionManager;
 import org.apache.hc.client5.http.socket.LayeredConnectionSocketFactory;
+import org.apache.hc.client5.http.ssl.SSLConnectionSocketFactory;
 import org.apache.hc.client5.http.ssl.SSLConnectionSocketFactoryBuilder;
 import org.apache.hc.core5.http.io.SocketConfig;
 import org.apache.hc.core5.http.ssl.TLS;
 import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.pool.ConnPoolControl;
 import org.apache.hc.core5.pool.PoolConcurrencyPolicy;
 import org.apache.hc.core5.pool.PoolReusePolicy;
 import org.apache.hc.core5.ssl.SSLContexts;
 import org.apache.hc.core5.util.TimeValue;
 import org.apache.hc.core5.util.Timeout;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.cloud.openfeign.support.FeignHttpClientProperties;
 import org.springframework.context.annotation.Bean;
@@ -62,13 +66,30 @@ public class HttpClient5FeignConfiguration {
 
 	private static final Log LOG = LogFactory.getLog(HttpClient5FeignConfiguration.class);
 
+	private static final String CONNECTION_POOL_NAME = "hc5";
+
+	private final FeignConnectionPoolRegistration connectionPoolRegistration = new FeignConnectionPoolRegistration(
+			CONNECTION_POOL_NAME);
+
 	private CloseableHttpClient httpClient5;
 
 	@Bean
 	@ConditionalOnMissingBean(HttpClientConnectionManager.class)
-	public HttpClientConnectionManager hc5ConnectionManager(FeignHttpClientProperties httpClientProperties) {
+	public HttpClientConnectionManager hc5ConnectionManager(FeignHttpClientProperties httpClientProperties,
+			ObjectProvider<FeignDnsCache> dnsCache, ObjectProvider<FeignSslContextProvider> sslContextProvider) {
+		return connectionManagerBuilder(httpClientProperties, dnsCache.getIfAvailable(),
+				sslContextProvider.getIfAvailable()).build();
+	}
+
+	static PoolingHttpClientConnectionManagerBuilder connectionManagerBuilder(
+			FeignHttpClientProperties httpClientProperties, FeignDnsCache dnsCache,
+			FeignSslContextProvider sslContextProvider) {
 		return PoolingHttpClientConnectionManagerBuilder.create()
-				.setSSLSocketFactory(httpsSSLConnectionSocketFactory(httpClientProperties.isDisableSslValidation()))
+				.setDnsResolver(dnsCache != null ? new HttpClient5DnsResolver(dnsCache) : null)
+				.setSSLSocketFactory(sslContextProvider != null
+						? new SSLConnectionSocketFactory(sslContextProvider.getSocketFactory(),
+								new String[] { TLS.V_1_3.id, TLS.V_1_2.id }, null, null)
+						: httpsSSLConnectionSocketFactory(httpClientProperties.isDisableSslValidation()))
 				.setMaxConnTotal(httpClientProperties.getMaxConnections())
 				.setMaxConnPerRoute(httpClientProperties.getMaxConnectionsPerRoute())
 				.setConnPoolPolicy(PoolReusePolicy.valueOf(httpClientProperties.getHc5().getPoolReusePolicy().name()))
@@ -78,15 +99,33 @@ public class HttpClient5FeignConfiguration {
 						TimeValue.of(httpClientProperties.getTimeToLive(), httpClientProperties.getTimeToLiveUnit()))
 				.setDefaultSocketConfig(
 						SocketConfig.custom().setSoTimeout(Timeout.of(httpClientProperties.getHc5().getSocketTimeout(),
-								httpClientProperties.getHc5().getSocketTimeoutUnit())).build())
-				.build();
+								httpClientProperties.getHc5().getSocketTimeoutUnit())).build());
 	}
 
 	@Bean
 	public CloseableHttpClient httpClient5(HttpClientConnectionManager connectionManager,
-			FeignHttpClientProperties httpClientProperties) {
-		httpClient5 = HttpClients.custom().disableCookieManagement().useSystemProperties()
-				.setConnectionManager(connectionManager).evictExpiredConnections()
+			FeignHttpClientProperties httpClientProperties, ObjectProvider<FeignConnectionEvictor> connectionEvictor,
+			ObjectProvider<FeignConnectionPoolMonitor> connectionPoolMonitor,
+			ObjectProvider<FeignConnectionWarmer> connectionWarmer) {
+		HttpClientBuilder builder = HttpClients.custom();
+		HttpClient5EvictablePool pool = connectionManager instanceof ConnPoolControl
+				? new HttpClient5EvictablePool((ConnPoolControl<?>) connectionManager) : null;
+		if (connectionPoolRegistration.registerEvictablePool(connectionEvictor, pool) == null) {
+			builder.evictExpiredConnections();
+		}
+		connectionPoolRegistration.registerMonitoredPool(connectionPoolMonitor, pool);
+		connectionPoolRegistration.registerWarmablePool(connectionWarmer,
+				new HttpClient5WarmablePool(connectionManager, httpClientProperties.getConnectionTimeout()));
+		if (HttpClient5HostPolicy.isRequired(httpClientProperties)) {
+			HttpClient5HostPolicy hostPolicy = new HttpClient5HostPolicy(httpClientProperties, connectionManager);
+			builder.setKeepAliveStrategy(hostPolicy).setRoutePlanner(hostPolicy);
+		}
+		FeignConnectionPoolMonitor monitor = connectionPoolMonitor.getIfAvailable();
+		HttpClientConnectionManager clientConnectionManager = monitor != null
+				? InstrumentedHttpClient5ConnectionManager.instrument(connectionManager, monitor, CONNECTION_POOL_NAME)
+				: connectionManager;
+		httpClient5 = builder.disableCookieManagement().useSystemProperties()
+				.setConnectionManager(clientConnectionManager)
 				.setDefaultRequestConfig(RequestConfig.custom()
 						.setConnectTimeout(
 								Timeout.of(httpClientProperties.getConnectionTimeout(), TimeUnit.MILLISECONDS))
@@ -97,12 +136,13 @@ public class HttpClient5FeignConfiguration {
 
 	@PreDestroy
 	public void destroy() {
+		connectionPoolRegistration.unregister();
 		if (httpClient5 != null) {
 			httpClient5.close(CloseMode.GRACEFUL);
 		}
 	}
 
-	private LayeredConnectionSocketFactory httpsSSLConnectionSocketFactory(boolean isDisableSslValidation) {
+	private static LayeredConnectionSocketFactory httpsSSLConnectionSocketFactory(boolean isDisableSslValidation) {
 		final SSLConnectionSocketFactoryBuilder sslConnectionSocketFactoryBuilder = SSLConnectionSocketFactoryBuilder
 				.create().setTlsVersions(TLS.V_1_3, TLS.V_1_2);
 
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign.clientconfig;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.hc.client5.http.ConnectionKeepAliveStrategy;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.RouteInfo;
+import org.apache.hc.client5.http.impl.DefaultConnectionKeepAliveStrategy;
+import org.apache.hc.client5.http.impl.routing.SystemDefaultRoutePlanner;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.client5.http.routing.HttpRoutePlanner;
+import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.pool.ConnPoolControl;
+import org.apache.hc.core5.util.TimeValue;
+
+import org.springframework.cloud.openfeign.support.FeignHttpClientProperties;
+
+/**
+ * Applies the {@link FeignHttpClientProperties#getHosts() host settings} and the
+ * {@code Keep-Alive} header policy to an Apache HttpClient 5 classic or async client. The
+ * maximum number of connections of a route is applied to the pool the first time the
+ * route is planned, since the routes of a host are only known once it is requested.
+ * HttpClient 5.1 only has pool-wide socket options, so the socket settings of the hosts
+ * do not apply.
+ *
+ * @since 3.1.6
+ */
+public class HttpClient5HostPolicy implements HttpRoutePlanner, ConnectionKeepAliveStrategy {
+
+	private final FeignHttpClientProperties properties;
+
+	private final ConnPoolControl<HttpRoute> connectionPool;
+
+	// The planner of a builder using the system properties
+	private final HttpRoutePlanner routePlanner = new SystemDefaultRoutePlanner(null);
+
+	private final Set<HttpRoute> configuredRoutes = ConcurrentHashMap.newKeySet();
+
+	@SuppressWarnings("unchecked")
+	public HttpClient5HostPolicy(FeignHttpClientProperties properties, Object connectionManager) {
+		this.properties = properties;
+		this.connectionPool = connectionManager instanceof ConnPoolControl
+				? (ConnPoolControl<HttpRoute>) connectionManager : null;
+	}
+
+	/**
+	 * Returns whether the host settings or the {@code Keep-Alive} header policy differ
+	 * from the defaults, so that a policy has to be set on the client builder.
+	 * @param properties the HTTP client properties
+	 * @return {@code true} if a policy is needed
+	 */
+	public static boolean isRequired(FeignHttpClientProperties properties) {
+		return !properties.getHosts().isEmpty() || !properties.isUseKeepAliveHeader();
+	}
+
+	@Override
+	public HttpRoute determineRoute(HttpHost host, HttpContext context) throws HttpException {
+		HttpRoute route = routePlanner.determineRoute(host, context);
+		FeignHttpClientProperties.Host settings = getSettings(route);
+		if (settings != null && settings.getMaxConnectionsPerRoute() != null && connectionPool != null
+				&& configuredRoutes.add(route)) {
+			connectionPool.setMaxPerRoute(route, settings.getMaxConnectionsPerRoute());
+		}
+		return route;
+	}
+
+	@Override
+	public TimeValue getKeepAliveDuration(HttpResponse response, HttpContext context) {
+		HttpClientContext clientContext = HttpClientContext.adapt(context);
+		TimeValue keepAlive = properties.isUseKeepAliveHeader()
+				? DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context)
+				: clientContext.getRequestConfig().getConnectionKeepAlive();
+		FeignHttpClientProperties.Host settings = getSettings(clientContext.getHttpRoute());
+		if (settings == null || settings.getIdleTimeout() == null) {
+			return keepAlive;
+		}
+		long idleTimeout = settings.getIdleTimeout().toMillis();
+		return TimeValue.isPositive(keepAlive)
+				? TimeValue.ofMilliseconds(Math.min(keepAlive.toMilliseconds(), idleTimeout))
+				: TimeValue.ofMilliseconds(idleTimeout);
+	}
+
+	private FeignHttpClientProperties.Host getSettings(RouteInfo route) {
+		if (route == null || properties.getHosts().isEmpty()) {
+			return null;
+		}
+		HttpHost target = route.getTargetHost();
+		return properties.getHost(target.getHostName(), target.getPort());
+	}
+
+}
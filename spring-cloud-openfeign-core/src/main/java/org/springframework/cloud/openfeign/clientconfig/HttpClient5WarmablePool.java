@@ -0,0 +1,103 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign.clientconfig;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.io.ConnectionEndpoint;
+import org.apache.hc.client5.http.io.HttpClientConnectionManager;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.pool.ConnPoolControl;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+
+/**
+ * Opens connections ahead of use in an Apache HttpClient 5
+ * {@link HttpClientConnectionManager}. Only the connections of direct routes are opened,
+ * requests sent through a proxy use other routes.
+ *
+ * @since 3.1.6
+ */
+public class HttpClient5WarmablePool implements FeignConnectionWarmer.WarmablePool {
+
+	private final HttpClientConnectionManager connectionManager;
+
+	private final Timeout connectTimeout;
+
+	public HttpClient5WarmablePool(HttpClientConnectionManager connectionManager, int connectTimeoutMillis) {
+		this.connectionManager = connectionManager;
+		this.connectTimeout = Timeout.ofMilliseconds(connectTimeoutMillis);
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public int warmUp(URI target, int connections) throws IOException {
+		HttpHost host = new HttpHost(target.getScheme(), target.getHost(), FeignConnectionWarmer.port(target));
+		HttpRoute route = new HttpRoute(host, null, "https".equalsIgnoreCase(target.getScheme()));
+		int count = connections;
+		if (connectionManager instanceof ConnPoolControl) {
+			count = Math.min(count, ((ConnPoolControl<HttpRoute>) connectionManager).getMaxPerRoute(route));
+		}
+		// Holds all leases until the end, so that each one gets its own connection
+		List<ConnectionEndpoint> leased = new ArrayList<>();
+		int opened = 0;
+		try {
+			for (int i = 0; i < count; i++) {
+				ConnectionEndpoint endpoint = connectionManager.lease("warm-up-" + i, route, connectTimeout, null)
+						.get(connectTimeout);
+				leased.add(endpoint);
+				if (!endpoint.isConnected()) {
+					connect(endpoint);
+					opened++;
+				}
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while opening connections to " + host, e);
+		}
+		catch (ExecutionException | TimeoutException e) {
+			throw new IOException("Could not lease a connection to " + host, e);
+		}
+		finally {
+			for (ConnectionEndpoint endpoint : leased) {
+				connectionManager.release(endpoint, null, TimeValue.NEG_ONE_MILLISECOND);
+			}
+		}
+		return opened;
+	}
+
+	private void connect(ConnectionEndpoint endpoint) throws IOException {
+		try {
+			connectionManager.connect(endpoint, connectTimeout, HttpClientContext.create());
+		}
+		catch (IOException | RuntimeException e) {
+			// The socket is bound before it connects, it must not be pooled as reusable
+			endpoint.close(CloseMode.IMMEDIATE);
+			throw e;
+		}
+	}
+
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign.clientconfig;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+import org.apache.http.conn.DnsResolver;
+
+/**
+ * A {@link DnsResolver} for the Apache HttpClient that resolves hosts through a
+ * {@link FeignDnsCache}.
+ *
+ * @since 3.1.6
+ */
+public class HttpClientDnsResolver implements DnsResolver {
+
+	private final FeignDnsCache dnsCache;
+
+	public HttpClientDnsResolver(FeignDnsCache dnsCache) {
+		this.dnsCache = dnsCache;
+	}
+
+	@Override
+	public InetAddress[] resolve(String host) throws UnknownHostException {
+		return dnsCache.resolve(host);
+	}
+
+}
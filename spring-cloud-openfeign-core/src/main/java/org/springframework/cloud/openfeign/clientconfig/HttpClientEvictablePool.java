@@ -0,0 +1,93 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign.clientconfig;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.conn.HttpClientConnectionManager;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.ConnPoolControl;
+import org.apache.http.pool.PoolStats;
+
+/**
+ * Evicts the connections of an Apache HttpClient {@link HttpClientConnectionManager}. The
+ * number of evicted connections and the per-route statistics are only known for a
+ * {@link PoolingHttpClientConnectionManager}.
+ *
+ * @since 3.1.6
+ */
+public class HttpClientEvictablePool
+		implements FeignConnectionEvictor.EvictablePool, FeignConnectionPoolMonitor.MonitoredPool {
+
+	private final HttpClientConnectionManager connectionManager;
+
+	public HttpClientEvictablePool(HttpClientConnectionManager connectionManager) {
+		this.connectionManager = connectionManager;
+	}
+
+	@Override
+	public int evict(long idleTimeoutMillis) {
+		int available = available();
+		connectionManager.closeExpiredConnections();
+		if (idleTimeoutMillis > 0) {
+			connectionManager.closeIdleConnections(idleTimeoutMillis, TimeUnit.MILLISECONDS);
+		}
+		return available >= 0 ? Math.max(0, available - available()) : -1;
+	}
+
+	private int available() {
+		if (connectionManager instanceof ConnPoolControl) {
+			return ((ConnPoolControl<?>) connectionManager).getTotalStats().getAvailable();
+		}
+		return -1;
+	}
+
+	@Override
+	public Set<String> getRoutes() {
+		if (!(connectionManager instanceof PoolingHttpClientConnectionManager)) {
+			return Collections.emptySet();
+		}
+		Set<String> routes = new LinkedHashSet<>();
+		for (HttpRoute route : ((PoolingHttpClientConnectionManager) connectionManager).getRoutes()) {
+			routes.add(route.getTargetHost().toHostString());
+		}
+		return routes;
+	}
+
+	@Override
+	public FeignConnectionPoolMonitor.RouteStats getStats(String route) {
+		if (!(connectionManager instanceof PoolingHttpClientConnectionManager)) {
+			return null;
+		}
+		PoolingHttpClientConnectionManager pool = (PoolingHttpClientConnectionManager) connectionManager;
+		FeignConnectionPoolMonitor.RouteStats stats = null;
+		for (HttpRoute httpRoute : pool.getRoutes()) {
+			if (route.equals(httpRoute.getTargetHost().toHostString())) {
+				PoolStats poolStats = pool.getStats(httpRoute);
+				FeignConnectionPoolMonitor.RouteStats routeStats = new FeignConnectionPoolMonitor.RouteStats(
+						poolStats.getLeased(), poolStats.getAvailable(), poolStats.getPending(), poolStats.getMax());
+				stats = stats != null ? stats.plus(routeStats) : routeStats;
+			}
+		}
+		return stats;
+	}
+
+}
@@ -17,8 +17,6 @@
 package org.springframework.cloud.openfeign.clientconfig;
 
 import java.io.IOException;
-import java.util.Timer;
-import java.util.TimerTask;
 
 import javax.annotation.PreDestroy;
 
@@ -30,6 +28,7 @@ import org.apache.http.conn.HttpClientConnectionManager;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClientBuilder;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
@@ -53,11 +52,15 @@ public class HttpClientFeignConfiguration {
 
 	private static final Log LOG = LogFactory.getLog(HttpClientFeignConfiguration.class);
 
-	private final Timer connectionManagerTimer = new Timer("FeignApacheHttpClientConfiguration.connectionManagerTimer",
-			true);
+	private static final String CONNECTION_POOL_NAME = "httpclient";
+
+	private final FeignConnectionPoolRegistration connectionPoolRegistration = new FeignConnectionPoolRegistration(
+			CONNECTION_POOL_NAME);
 
 	private CloseableHttpClient httpClient;
 
+	private FeignConnectionPoolMonitor connectionPoolMonitor;
+
 	@Autowired(required = false)
 	private RegistryBuilder registryBuilder;
 
@@ -65,17 +68,21 @@ public class HttpClientFeignConfiguration {
 	@ConditionalOnMissingBean(HttpClientConnectionManager.class)
 	public HttpClientConnectionManager connectionManager(
 			ApacheHttpClientConnectionManagerFactory connectionManagerFactory,
-			FeignHttpClientProperties httpClientProperties) {
+			FeignHttpClientProperties httpClientProperties, ObjectProvider<FeignConnectionEvictor> connectionEvictor,
+			ObjectProvider<FeignConnectionPoolMonitor> connectionPoolMonitor,
+			ObjectProvider<FeignConnectionWarmer> connectionWarmer, ObjectProvider<FeignDnsCache> dnsCache,
+			ObjectProvider<FeignSslContextProvider> sslContextProvider) {
+		connectionManagerFactory = FeignApacheHttpClientConnectionManagerFactory.of(connectionManagerFactory,
+				dnsCache.getIfAvailable(), sslContextProvider.getIfAvailable());
 		final HttpClientConnectionManager connectionManager = connectionManagerFactory.newConnectionManager(
 				httpClientProperties.isDisableSslValidation(), httpClientProperties.getMaxConnections(),
 				httpClientProperties.getMaxConnectionsPerRoute(), httpClientProperties.getTimeToLive(),
 				httpClientProperties.getTimeToLiveUnit(), this.registryBuilder);
-		this.connectionManagerTimer.schedule(new TimerTask() {
-			@Override
-			public void run() {
-				connectionManager.closeExpiredConnections();
-			}
-		}, 30000, httpClientProperties.getConnectionTimerRepeat());
+		HttpClientEvictablePool pool = new HttpClientEvictablePool(connectionManager);
+		connectionPoolRegistration.registerEvictablePool(connectionEvictor, pool);
+		this.connectionPoolMonitor = connectionPoolRegistration.registerMonitoredPool(connectionPoolMonitor, pool);
+		connectionPoolRegistration.registerWarmablePool(connectionWarmer,
+				new HttpClientWarmablePool(connectionManager, httpClientProperties.getConnectionTimeout()));
 		return connectionManager;
 	}
 
@@ -102,14 +109,23 @@ public class HttpClientFeignConfiguration {
 		RequestConfig defaultRequestConfig = RequestConfig.custom()
 				.setConnectTimeout(httpClientProperties.getConnectionTimeout())
 				.setRedirectsEnabled(httpClientProperties.isFollowRedirects()).build();
+		HttpClientConnectionManager connectionManager = this.connectionPoolMonitor != null
+				? new InstrumentedHttpClientConnectionManager(httpClientConnectionManager, this.connectionPoolMonitor,
+						CONNECTION_POOL_NAME)
+				: httpClientConnectionManager;
+		if (HttpClientHostPolicy.isRequired(httpClientProperties)) {
+			HttpClientHostPolicy hostPolicy = new HttpClientHostPolicy(httpClientProperties,
+					httpClientConnectionManager);
+			builder.setKeepAliveStrategy(hostPolicy).setRoutePlanner(hostPolicy);
+		}
 		CloseableHttpClient httpClient = builder.setDefaultRequestConfig(defaultRequestConfig)
-				.setConnectionManager(httpClientConnectionManager).build();
+				.setConnectionManager(connectionManager).build();
 		return httpClient;
 	}
 
 	@PreDestroy
 	public void destroy() {
-		this.connectionManagerTimer.cancel();
+		this.connectionPoolRegistration.unregister();
 		if (this.httpClient != null) {
 			try {
 				this.httpClient.close();
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign.clientconfig;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.http.HttpException;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.config.SocketConfig;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.HttpClientConnectionManager;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.routing.HttpRoutePlanner;
+import org.apache.http.conn.routing.RouteInfo;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.impl.conn.SystemDefaultRoutePlanner;
+import org.apache.http.protocol.HttpContext;
+
+import org.springframework.cloud.openfeign.support.FeignHttpClientProperties;
+
+/**
+ * Applies the {@link FeignHttpClientProperties#getHosts() host settings} and the
+ * {@code Keep-Alive} header policy to an Apache HttpClient. The settings of a route are
+ * applied to the pool the first time the route is planned, since the routes of a host are
+ * only known once it is requested.
+ *
+ * @since 3.1.6
+ */
+public class HttpClientHostPolicy implements HttpRoutePlanner, ConnectionKeepAliveStrategy {
+
+	private final FeignHttpClientProperties properties;
+
+	private final HttpClientConnectionManager connectionManager;
+
+	// The planner of a builder using the system properties
+	private final HttpRoutePlanner routePlanner = new SystemDefaultRoutePlanner(null);
+
+	private final Set<HttpRoute> configuredRoutes = ConcurrentHashMap.newKeySet();
+
+	public HttpClientHostPolicy(FeignHttpClientProperties properties, HttpClientConnectionManager connectionManager) {
+		this.properties = properties;
+		this.connectionManager = connectionManager;
+	}
+
+	/**
+	 * Returns whether the host settings or the {@code Keep-Alive} header policy differ
+	 * from the defaults, so that a policy has to be set on the client builder.
+	 * @param properties the HTTP client properties
+	 * @return {@code true} if a policy is needed
+	 */
+	public static boolean isRequired(FeignHttpClientProperties properties) {
+		return !properties.getHosts().isEmpty() || !properties.isUseKeepAliveHeader();
+	}
+
+	@Override
+	public HttpRoute determineRoute(HttpHost host, HttpRequest request, HttpContext context) throws HttpException {
+		HttpRoute route = routePlanner.determineRoute(host, request, context);
+		FeignHttpClientProperties.Host settings = getSettings(route);
+		if (settings != null && configuredRoutes.add(route)) {
+			configure(route, settings);
+		}
+		return route;
+	}
+
+	private void configure(HttpRoute route, FeignHttpClientProperties.Host settings) {
+		if (!(connectionManager instanceof PoolingHttpClientConnectionManager)) {
+			return;
+		}
+		PoolingHttpClientConnectionManager pool = (PoolingHttpClientConnectionManager) connectionManager;
+		if (settings.getMaxConnectionsPerRoute() != null) {
+			pool.setMaxPerRoute(route, settings.getMaxConnectionsPerRoute());
+		}
+		if (settings.getSocketTimeout() != null || settings.getTcpNoDelay() != null
+				|| settings.getSoKeepAlive() != null) {
+			SocketConfig defaultSocketConfig = pool.getDefaultSocketConfig();
+			SocketConfig.Builder socketConfig = SocketConfig
+					.copy(defaultSocketConfig != null ? defaultSocketConfig : SocketConfig.DEFAULT);
+			if (settings.getSocketTimeout() != null) {
+				socketConfig.setSoTimeout((int) settings.getSocketTimeout().toMillis());
+			}
+			if (settings.getTcpNoDelay() != null) {
+				socketConfig.setTcpNoDelay(settings.getTcpNoDelay());
+			}
+			if (settings.getSoKeepAlive() != null) {
+				socketConfig.setSoKeepAlive(settings.getSoKeepAlive());
+			}
+			pool.setSocketConfig(route.getTargetHost(), socketConfig.build());
+		}
+	}
+
+	@Override
+	public long getKeepAliveDuration(HttpResponse response, HttpContext context) {
+		// A duration of zero or less keeps the connection alive indefinitely
+		long keepAlive = properties.isUseKeepAliveHeader()
+				? DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context) : -1;
+		FeignHttpClientProperties.Host settings = getSettings(HttpClientContext.adapt(context).getHttpRoute());
+		if (settings == null || settings.getIdleTimeout() == null) {
+			return keepAlive;
+		}
+		long idleTimeout = settings.getIdleTimeout().toMillis();
+		return keepAlive > 0 ? Math.min(keepAlive, idleTimeout) : idleTimeout;
+	}
+
+	private FeignHttpClientProperties.Host getSettings(RouteInfo route) {
+		if (route == null || properties.getHosts().isEmpty()) {
+			return null;
+		}
+		HttpHost target = route.getTargetHost();
+		return properties.getHost(target.getHostName(), target.getPort());
+	}
+
+}
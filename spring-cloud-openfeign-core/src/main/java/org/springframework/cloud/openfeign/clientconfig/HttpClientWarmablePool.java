@@ -0,0 +1,102 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign.clientconfig;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpHost;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.conn.HttpClientConnectionManager;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.pool.ConnPoolControl;
+
+/**
+ * Opens connections ahead of use in an Apache HttpClient
+ * {@link HttpClientConnectionManager}. Only the connections of direct routes are opened,
+ * requests sent through a proxy use other routes.
+ *
+ * @since 3.1.6
+ */
+public class HttpClientWarmablePool implements FeignConnectionWarmer.WarmablePool {
+
+	private final HttpClientConnectionManager connectionManager;
+
+	private final int connectTimeoutMillis;
+
+	public HttpClientWarmablePool(HttpClientConnectionManager connectionManager, int connectTimeoutMillis) {
+		this.connectionManager = connectionManager;
+		this.connectTimeoutMillis = connectTimeoutMillis;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public int warmUp(URI target, int connections) throws IOException {
+		HttpHost host = new HttpHost(target.getHost(), FeignConnectionWarmer.port(target), target.getScheme());
+		HttpRoute route = new HttpRoute(host, null, "https".equalsIgnoreCase(target.getScheme()));
+		int count = connections;
+		if (connectionManager instanceof ConnPoolControl) {
+			count = Math.min(count, ((ConnPoolControl<HttpRoute>) connectionManager).getMaxPerRoute(route));
+		}
+		// Holds all leases until the end, so that each one gets its own connection
+		List<HttpClientConnection> leased = new ArrayList<>();
+		int opened = 0;
+		try {
+			for (int i = 0; i < count; i++) {
+				HttpClientConnection connection = connectionManager.requestConnection(route, null)
+						.get(connectTimeoutMillis, TimeUnit.MILLISECONDS);
+				leased.add(connection);
+				if (!connection.isOpen()) {
+					connect(connection, route);
+					opened++;
+				}
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while opening connections to " + host, e);
+		}
+		catch (ExecutionException e) {
+			throw new IOException("Could not lease a connection to " + host, e);
+		}
+		finally {
+			for (HttpClientConnection connection : leased) {
+				connectionManager.releaseConnection(connection, null, 0, TimeUnit.MILLISECONDS);
+			}
+		}
+		return opened;
+	}
+
+	private void connect(HttpClientConnection connection, HttpRoute route) throws IOException {
+		HttpClientContext context = HttpClientContext.create();
+		try {
+			connectionManager.connect(connection, route, connectTimeoutMillis, context);
+			connectionManager.routeComplete(connection, route, context);
+		}
+		catch (IOException | RuntimeException e) {
+			// The socket is bound before it connects, it must not be pooled as reusable
+			connection.shutdown();
+			throw e;
+		}
+	}
+
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign.clientconfig;
+
+import java.io.IOException;
+import java.util.concurrent.Future;
+
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.nio.AsyncClientConnectionManager;
+import org.apache.hc.client5.http.nio.AsyncConnectionEndpoint;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.pool.ConnPoolControl;
+import org.apache.hc.core5.reactor.ConnectionInitiator;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+
+/**
+ * An Apache HttpClient 5 {@link AsyncClientConnectionManager} that records the time each
+ * request waits to lease a connection in a {@link FeignConnectionPoolMonitor}.
+ *
+ * @since 3.1.6
+ */
+public class InstrumentedAsyncClientConnectionManager implements AsyncClientConnectionManager {
+
+	private final AsyncClientConnectionManager delegate;
+
+	private final FeignConnectionPoolMonitor monitor;
+
+	private final String poolName;
+
+	public InstrumentedAsyncClientConnectionManager(AsyncClientConnectionManager delegate,
+			FeignConnectionPoolMonitor monitor, String poolName) {
+		this.delegate = delegate;
+		this.monitor = monitor;
+		this.poolName = poolName;
+	}
+
+	public AsyncClientConnectionManager getDelegate() {
+		return delegate;
+	}
+
+	/**
+	 * Instruments a connection manager. If it controls its pool, the instrumented one
+	 * does as well, so that the client builder can still evict idle connections.
+	 * @param connectionManager the connection manager
+	 * @param monitor the monitor to record the lease times in
+	 * @param poolName the name of the pool
+	 * @return the instrumented connection manager
+	 */
+	public static InstrumentedAsyncClientConnectionManager instrument(AsyncClientConnectionManager connectionManager,
+			FeignConnectionPoolMonitor monitor, String poolName) {
+		if (connectionManager instanceof ConnPoolControl) {
+			return new PoolControlling(connectionManager, monitor, poolName);
+		}
+		return new InstrumentedAsyncClientConnectionManager(connectionManager, monitor, poolName);
+	}
+
+	@Override
+	public Future<AsyncConnectionEndpoint> lease(String id, HttpRoute route, Object state, Timeout requestTimeout,
+			FutureCallback<AsyncConnectionEndpoint> callback) {
+		long start = System.nanoTime();
+		String routeName = route.getTargetHost().toHostString();
+		return delegate.lease(id, route, state, requestTimeout, new FutureCallback<AsyncConnectionEndpoint>() {
+
+			@Override
+			public void completed(AsyncConnectionEndpoint endpoint) {
+				monitor.recordAcquisition(poolName, routeName, System.nanoTime() - start);
+				if (callback != null) {
+					callback.completed(endpoint);
+				}
+			}
+
+			@Override
+			public void failed(Exception ex) {
+				monitor.recordAcquisition(poolName, routeName, System.nanoTime() - start);
+				if (callback != null) {
+					callback.failed(ex);
+				}
+			}
+
+			@Override
+			public void cancelled() {
+				if (callback != null) {
+					callback.cancelled();
+				}
+			}
+
+		});
+	}
+
+	@Override
+	public void release(AsyncConnectionEndpoint endpoint, Object newState, TimeValue validDuration) {
+		delegate.release(endpoint, newState, validDuration);
+	}
+
+	@Override
+	public Future<AsyncConnectionEndpoint> connect(AsyncConnectionEndpoint endpoint,
+			ConnectionInitiator connectionInitiator, Timeout connectTimeout, Object attachment, HttpContext context,
+			FutureCallback<AsyncConnectionEndpoint> callback) {
+		return delegate.connect(endpoint, connectionInitiator, connectTimeout, attachment, context, callback);
+	}
+
+	@Override
+	public void upgrade(AsyncConnectionEndpoint endpoint, Object attachment, HttpContext context) {
+		delegate.upgrade(endpoint, attachment, context);
+	}
+
+	@Override
+	public void close(CloseMode closeMode) {
+		delegate.close(closeMode);
+	}
+
+	@Override
+	public void close() throws IOException {
+		delegate.close();
+	}
+
+	private static final class PoolControlling extends InstrumentedAsyncClientConnectionManager
+			implements DelegatingHttpClient5PoolControl {
+
+		private PoolControlling(AsyncClientConnectionManager delegate, FeignConnectionPoolMonitor monitor,
+				String poolName) {
+			super(delegate, monitor, poolName);
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public ConnPoolControl<HttpRoute> getPoolControl() {
+			return (ConnPoolControl<HttpRoute>) getDelegate();
+		}
+
+	}
+
+}
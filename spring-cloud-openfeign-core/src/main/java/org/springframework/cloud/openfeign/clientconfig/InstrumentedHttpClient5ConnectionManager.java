@@ -0,0 +1,141 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign.clientconfig;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.io.ConnectionEndpoint;
+import org.apache.hc.client5.http.io.HttpClientConnectionManager;
+import org.apache.hc.client5.http.io.LeaseRequest;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.pool.ConnPoolControl;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+
+/**
+ * An Apache HttpClient 5 {@link HttpClientConnectionManager} that records the time each
+ * request waits to lease a connection in a {@link FeignConnectionPoolMonitor}.
+ *
+ * @since 3.1.6
+ */
+public class InstrumentedHttpClient5ConnectionManager implements HttpClientConnectionManager {
+
+	private final HttpClientConnectionManager delegate;
+
+	private final FeignConnectionPoolMonitor monitor;
+
+	private final String poolName;
+
+	public InstrumentedHttpClient5ConnectionManager(HttpClientConnectionManager delegate,
+			FeignConnectionPoolMonitor monitor, String poolName) {
+		this.delegate = delegate;
+		this.monitor = monitor;
+		this.poolName = poolName;
+	}
+
+	public HttpClientConnectionManager getDelegate() {
+		return delegate;
+	}
+
+	/**
+	 * Instruments a connection manager. If it controls its pool, the instrumented one
+	 * does as well, so that the client builder can still evict idle connections.
+	 * @param connectionManager the connection manager
+	 * @param monitor the monitor to record the lease times in
+	 * @param poolName the name of the pool
+	 * @return the instrumented connection manager
+	 */
+	public static InstrumentedHttpClient5ConnectionManager instrument(HttpClientConnectionManager connectionManager,
+			FeignConnectionPoolMonitor monitor, String poolName) {
+		if (connectionManager instanceof ConnPoolControl) {
+			return new PoolControlling(connectionManager, monitor, poolName);
+		}
+		return new InstrumentedHttpClient5ConnectionManager(connectionManager, monitor, poolName);
+	}
+
+	@Override
+	public LeaseRequest lease(String id, HttpRoute route, Timeout requestTimeout, Object state) {
+		long start = System.nanoTime();
+		LeaseRequest leaseRequest = delegate.lease(id, route, requestTimeout, state);
+		return new LeaseRequest() {
+
+			@Override
+			public ConnectionEndpoint get(Timeout timeout)
+					throws InterruptedException, ExecutionException, TimeoutException {
+				try {
+					return leaseRequest.get(timeout);
+				}
+				finally {
+					monitor.recordAcquisition(poolName, route.getTargetHost().toHostString(),
+							System.nanoTime() - start);
+				}
+			}
+
+			@Override
+			public boolean cancel() {
+				return leaseRequest.cancel();
+			}
+
+		};
+	}
+
+	@Override
+	public void release(ConnectionEndpoint endpoint, Object newState, TimeValue validDuration) {
+		delegate.release(endpoint, newState, validDuration);
+	}
+
+	@Override
+	public void connect(ConnectionEndpoint endpoint, TimeValue connectTimeout, HttpContext context) throws IOException {
+		delegate.connect(endpoint, connectTimeout, context);
+	}
+
+	@Override
+	public void upgrade(ConnectionEndpoint endpoint, HttpContext context) throws IOException {
+		delegate.upgrade(endpoint, context);
+	}
+
+	@Override
+	public void close(CloseMode closeMode) {
+		delegate.close(closeMode);
+	}
+
+	@Override
+	public void close() throws IOException {
+		delegate.close();
+	}
+
+	private static final class PoolControlling extends InstrumentedHttpClient5ConnectionManager
+			implements DelegatingHttpClient5PoolControl {
+
+		private PoolControlling(HttpClientConnectionManager delegate, FeignConnectionPoolMonitor monitor,
+				String poolName) {
+			super(delegate, monitor, poolName);
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public ConnPoolControl<HttpRoute> getPoolControl() {
+			return (ConnPoolControl<HttpRoute>) getDelegate();
+		}
+
+	}
+
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign.clientconfig;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.HttpClientConnection;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.ConnectionRequest;
+import org.apache.http.conn.HttpClientConnectionManager;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.protocol.HttpContext;
+
+/**
+ * An Apache HttpClient {@link HttpClientConnectionManager} that records the time each
+ * request waits to lease a connection in a {@link FeignConnectionPoolMonitor}.
+ *
+ * @since 3.1.6
+ */
+public class InstrumentedHttpClientConnectionManager implements HttpClientConnectionManager {
+
+	private final HttpClientConnectionManager delegate;
+
+	private final FeignConnectionPoolMonitor monitor;
+
+	private final String poolName;
+
+	public InstrumentedHttpClientConnectionManager(HttpClientConnectionManager delegate,
+			FeignConnectionPoolMonitor monitor, String poolName) {
+		this.delegate = delegate;
+		this.monitor = monitor;
+		this.poolName = poolName;
+	}
+
+	public HttpClientConnectionManager getDelegate() {
+		return delegate;
+	}
+
+	@Override
+	public ConnectionRequest requestConnection(HttpRoute route, Object state) {
+		long start = System.nanoTime();
+		ConnectionRequest connectionRequest = delegate.requestConnection(route, state);
+		return new ConnectionRequest() {
+
+			@Override
+			public HttpClientConnection get(long timeout, TimeUnit timeUnit)
+					throws InterruptedException, ExecutionException, ConnectionPoolTimeoutException {
+				try {
+					return connectionRequest.get(timeout, timeUnit);
+				}
+				finally {
+					monitor.recordAcquisition(poolName, route.getTargetHost().toHostString(),
+							System.nanoTime() - start);
+				}
+			}
+
+			@Override
+			public boolean cancel() {
+				return connectionRequest.cancel();
+			}
+
+		};
+	}
+
+	@Override
+	public void releaseConnection(HttpClientConnection connection, Object newState, long validDuration,
+			TimeUnit timeUnit) {
+		delegate.releaseConnection(connection, newState, validDuration, timeUnit);
+	}
+
+	@Override
+	public void connect(HttpClientConnection connection, HttpRoute route, int connectTimeout, HttpContext context)
+			throws IOException {
+		delegate.connect(connection, route, connectTimeout, context);
+	}
+
+	@Override
+	public void upgrade(HttpClientConnection connection, HttpRoute route, HttpContext context) throws IOException {
+		delegate.upgrade(connection, route, context);
+	}
+
+	@Override
+	public void routeComplete(HttpClientConnection connection, HttpRoute route, HttpContext context)
+			throws IOException {
+		delegate.routeComplete(connection, route, context);
+	}
+
+	@Override
+	public void closeIdleConnections(long idleTime, TimeUnit timeUnit) {
+		delegate.closeIdleConnections(idleTime, timeUnit);
+	}
+
+	@Override
+	public void closeExpiredConnections() {
+		delegate.closeExpiredConnections();
+	}
+
+	@Override
+	public void shutdown() {
+		delegate.shutdown();
+	}
+
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign.clientconfig;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.beans.factory.BeanClassLoaderAware;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.context.annotation.ImportSelector;
+import org.springframework.core.env.Environment;
+import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Imports a configuration of the JDK {@code java.net.http.HttpClient} transport by name.
+ * The transport is compiled separately for Java 11, so it must not be referenced from
+ * classes compiled for Java 8 and is missing from artifacts built on Java 8. Nothing is
+ * imported unless {@code feign.httpclient.jdk.enabled} is set and the JDK provides
+ * {@code java.net.http.HttpClient}.
+ *
+ * @since 3.1.6
+ */
+public abstract class JdkHttpClientImportSelector implements ImportSelector, EnvironmentAware, BeanClassLoaderAware {
+
+	private static final Log LOG = LogFactory.getLog(JdkHttpClientImportSelector.class);
+
+	private final String configurationClassName;
+
+	private Environment environment;
+
+	private ClassLoader classLoader;
+
+	JdkHttpClientImportSelector(String configurationClassName) {
+		this.configurationClassName = configurationClassName;
+	}
+
+	@Override
+	public void setEnvironment(Environment environment) {
+		this.environment = environment;
+	}
+
+	@Override
+	public void setBeanClassLoader(ClassLoader classLoader) {
+		this.classLoader = classLoader;
+	}
+
+	@Override
+	public String[] selectImports(AnnotationMetadata importingClassMetadata) {
+		if (!environment.getProperty("feign.httpclient.jdk.enabled", Boolean.class, false)
+				|| !ClassUtils.isPresent("java.net.http.HttpClient", classLoader)) {
+			return new String[0];
+		}
+		if (!ClassUtils.isPresent(configurationClassName, classLoader)) {
+			LOG.warn("feign.httpclient.jdk.enabled is set, but " + configurationClassName
+					+ " is not available; this build does not include the JDK HttpClient transport");
+			return new String[0];
+		}
+		return new String[] { configurationClassName };
+	}
+
+	/**
+	 * Imports the JDK {@code HttpClient} configuration used without load balancing.
+	 */
+	public static class NonLoadBalanced extends JdkHttpClientImportSelector {
+
+		public NonLoadBalanced() {
+			super("org.springframework.cloud.openfeign.clientconfig.JdkHttpClientFeignClientConfiguration");
+		}
+
+	}
+
+	/**
+	 * Imports the JDK {@code HttpClient} configuration used with Spring Cloud
+	 * LoadBalancer.
+	 */
+	public static class LoadBalanced extends JdkHttpClientImportSelector {
+
+		public LoadBalanced() {
+			super("org.springframework.cloud.openfeign.loadbalancer.JdkHttpClientFeignLoadBalancerConfiguration");
+		}
+
+	}
+
+}
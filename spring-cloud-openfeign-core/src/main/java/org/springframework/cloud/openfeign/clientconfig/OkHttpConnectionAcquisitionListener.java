@@ -0,0 +1,80 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign.clientconfig;
+
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.EventListener;
+import okhttp3.HttpUrl;
+
+/**
+ * An OkHttp {@link EventListener} that records the time each call waits to acquire a
+ * connection in a {@link FeignConnectionPoolMonitor}. As OkHttp does not limit the number
+ * of connections, this includes the time to connect when no pooled connection could be
+ * reused.
+ *
+ * @since 3.1.6
+ */
+public class OkHttpConnectionAcquisitionListener extends EventListener {
+
+	private final FeignConnectionPoolMonitor monitor;
+
+	private final String poolName;
+
+	private long waitStart;
+
+	private boolean waiting;
+
+	public OkHttpConnectionAcquisitionListener(FeignConnectionPoolMonitor monitor, String poolName) {
+		this.monitor = monitor;
+		this.poolName = poolName;
+	}
+
+	/**
+	 * Creates a factory of listeners for the calls of an OkHttp client.
+	 * @param monitor the monitor to record the acquisitions in
+	 * @param poolName the name of the connection pool of the client
+	 * @return the listener factory
+	 */
+	public static EventListener.Factory factory(FeignConnectionPoolMonitor monitor, String poolName) {
+		return call -> new OkHttpConnectionAcquisitionListener(monitor, poolName);
+	}
+
+	@Override
+	public void callStart(Call call) {
+		waitStart = System.nanoTime();
+		waiting = true;
+	}
+
+	@Override
+	public void connectionAcquired(Call call, Connection connection) {
+		if (waiting) {
+			HttpUrl url = connection.route().address().url();
+			monitor.recordAcquisition(poolName, FeignConnectionPoolMonitor.route(url.host(), url.port()),
+					System.nanoTime() - waitStart);
+			waiting = false;
+		}
+	}
+
+	@Override
+	public void connectionReleased(Call call, Connection connection) {
+		// a follow-up request of the call waits for another connection
+		waitStart = System.nanoTime();
+		waiting = true;
+	}
+
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign.clientconfig;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.BufferedSource;
+import okio.ForwardingSource;
+import okio.Okio;
+
+/**
+ * An OkHttp {@link Interceptor} that limits the number of concurrent requests of a
+ * client, in total and per route, the way the maximum number of connections limits the
+ * pools of the Apache HttpClients. The limits of the OkHttp {@code Dispatcher} only apply
+ * to asynchronous calls, while Feign executes its calls synchronously. A request holds
+ * its permits until its response body is closed, and waits for them at most for the
+ * connect timeout of the call.
+ *
+ * @since 3.1.6
+ */
+class OkHttpConnectionLimitInterceptor implements Interceptor {
+
+	private final Semaphore requests;
+
+	private final int maxRequestsPerRoute;
+
+	private final Map<String, Semaphore> requestsPerRoute = new ConcurrentHashMap<>();
+
+	OkHttpConnectionLimitInterceptor(int maxRequests, int maxRequestsPerRoute) {
+		this.requests = new Semaphore(Math.max(1, maxRequests), true);
+		this.maxRequestsPerRoute = Math.max(1, maxRequestsPerRoute);
+	}
+
+	@Override
+	public Response intercept(Chain chain) throws IOException {
+		HttpUrl url = chain.request().url();
+		String route = FeignConnectionPoolMonitor.route(url.host(), url.port());
+		Semaphore routeRequests = requestsPerRoute.computeIfAbsent(route,
+				key -> new Semaphore(maxRequestsPerRoute, true));
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(chain.connectTimeoutMillis());
+		acquire(routeRequests, chain.connectTimeoutMillis(), deadline, route);
+		try {
+			acquire(requests, chain.connectTimeoutMillis(), deadline, route);
+		}
+		catch (IOException exception) {
+			routeRequests.release();
+			throw exception;
+		}
+		Permits permits = new Permits(routeRequests);
+		Response response;
+		try {
+			response = chain.proceed(chain.request());
+		}
+		catch (IOException | RuntimeException | Error exception) {
+			permits.release();
+			throw exception;
+		}
+		ResponseBody body = response.body();
+		if (body == null) {
+			permits.release();
+			return response;
+		}
+		return response.newBuilder().body(new PermitReleasingResponseBody(body, permits)).build();
+	}
+
+	private static void acquire(Semaphore semaphore, int timeoutMillis, long deadline, String route)
+			throws IOException {
+		try {
+			if (timeoutMillis <= 0) {
+				semaphore.acquire();
+			}
+			else if (!semaphore.tryAcquire(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+				throw new SocketTimeoutException("Timeout waiting for a connection to " + route);
+			}
+		}
+		catch (InterruptedException exception) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for a connection to " + route);
+		}
+	}
+
+	/**
+	 * The permits held by a single request, released only once.
+	 */
+	private final class Permits {
+
+		private final Semaphore routeRequests;
+
+		private final AtomicBoolean released = new AtomicBoolean();
+
+		private Permits(Semaphore routeRequests) {
+			this.routeRequests = routeRequests;
+		}
+
+		void release() {
+			if (released.compareAndSet(false, true)) {
+				requests.release();
+				routeRequests.release();
+			}
+		}
+
+	}
+
+	private static final class PermitReleasingResponseBody extends ResponseBody {
+
+		private final ResponseBody delegate;
+
+		private final BufferedSource source;
+
+		private PermitReleasingResponseBody(ResponseBody delegate, Permits permits) {
+			this.delegate = delegate;
+			this.source = Okio.buffer(new ForwardingSource(delegate.source()) {
+				@Override
+				public void close() throws IOException {
+					try {
+						super.close();
+					}
+					finally {
+						permits.release();
+					}
+				}
+			});
+		}
+
+		@Override
+		public MediaType contentType() {
+			return delegate.contentType();
+		}
+
+		@Override
+		public long contentLength() {
+			return delegate.contentLength();
+		}
+
+		@Override
+		public BufferedSource source() {
+			return source;
+		}
+
+	}
+
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign.clientconfig;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Arrays;
+import java.util.List;
+
+import okhttp3.Dns;
+
+/**
+ * A {@link Dns} for {@link okhttp3.OkHttpClient} that resolves hosts through a
+ * {@link FeignDnsCache}.
+ *
+ * @since 3.1.6
+ */
+public class OkHttpDns implements Dns {
+
+	private final FeignDnsCache dnsCache;
+
+	public OkHttpDns(FeignDnsCache dnsCache) {
+		this.dnsCache = dnsCache;
+	}
+
+	@Override
+	public List<InetAddress> lookup(String hostname) throws UnknownHostException {
+		return Arrays.asList(dnsCache.resolve(hostname));
+	}
+
+}
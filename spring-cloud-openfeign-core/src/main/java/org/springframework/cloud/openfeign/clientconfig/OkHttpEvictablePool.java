@@ -0,0 +1,91 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign.clientconfig;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.function.LongSupplier;
+
+import okhttp3.ConnectionPool;
+
+/**
+ * Evicts the connections of an OkHttp {@link ConnectionPool}. OkHttp closes connections
+ * that have been idle for longer than the keep-alive duration of the pool on its own, but
+ * only offers to close all idle connections at once, so they are only evicted when every
+ * connection of the pool has been idle for longer than the idle timeout.
+ * <p>
+ * OkHttp does not track its connections per route, nor limit them, so the pool reports
+ * the leased and available connections of all routes under the {@link #ALL_ROUTES} route.
+ *
+ * @since 3.1.6
+ */
+public class OkHttpEvictablePool
+		implements FeignConnectionEvictor.EvictablePool, FeignConnectionPoolMonitor.MonitoredPool {
+
+	/**
+	 * The route the statistics of all routes are reported under.
+	 */
+	public static final String ALL_ROUTES = "*";
+
+	private final ConnectionPool connectionPool;
+
+	private final LongSupplier clock;
+
+	private long lastActive;
+
+	public OkHttpEvictablePool(ConnectionPool connectionPool) {
+		this(connectionPool, System::currentTimeMillis);
+	}
+
+	OkHttpEvictablePool(ConnectionPool connectionPool, LongSupplier clock) {
+		this.connectionPool = connectionPool;
+		this.clock = clock;
+		this.lastActive = clock.getAsLong();
+	}
+
+	@Override
+	public synchronized int evict(long idleTimeoutMillis) {
+		long now = clock.getAsLong();
+		int idle = connectionPool.idleConnectionCount();
+		if (idle < connectionPool.connectionCount() || idle == 0) {
+			lastActive = now;
+			return 0;
+		}
+		if (idleTimeoutMillis <= 0 || now - lastActive < idleTimeoutMillis) {
+			return 0;
+		}
+		connectionPool.evictAll();
+		lastActive = now;
+		return Math.max(0, idle - connectionPool.idleConnectionCount());
+	}
+
+	@Override
+	public Set<String> getRoutes() {
+		return Collections.singleton(ALL_ROUTES);
+	}
+
+	@Override
+	public FeignConnectionPoolMonitor.RouteStats getStats(String route) {
+		if (!ALL_ROUTES.equals(route)) {
+			return null;
+		}
+		int idle = connectionPool.idleConnectionCount();
+		return new FeignConnectionPoolMonitor.RouteStats(Math.max(0, connectionPool.connectionCount() - idle), idle,
+				FeignConnectionPoolMonitor.RouteStats.UNKNOWN, FeignConnectionPoolMonitor.RouteStats.UNKNOWN);
+	}
+
+}
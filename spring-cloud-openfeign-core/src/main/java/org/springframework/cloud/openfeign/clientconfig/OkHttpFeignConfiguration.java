@@ -17,13 +17,17 @@
 package org.springframework.cloud.openfeign.clientconfig;
 
 import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.concurrent.TimeUnit;
 
 import javax.annotation.PreDestroy;
 
 import okhttp3.ConnectionPool;
 import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.cloud.commons.httpclient.OkHttpClientConnectionPoolFactory;
 import org.springframework.cloud.commons.httpclient.OkHttpClientFactory;
@@ -43,32 +47,65 @@ import org.springframework.context.annotation.Configuration;
 @ConditionalOnMissingBean(okhttp3.OkHttpClient.class)
 public class OkHttpFeignConfiguration {
 
+	private static final String CONNECTION_POOL_NAME = "okhttp";
+
+	private final FeignConnectionPoolRegistration connectionPoolRegistration = new FeignConnectionPoolRegistration(
+			CONNECTION_POOL_NAME);
+
 	private okhttp3.OkHttpClient okHttpClient;
 
 	@Bean
 	@ConditionalOnMissingBean(ConnectionPool.class)
 	public ConnectionPool httpClientConnectionPool(FeignHttpClientProperties httpClientProperties,
-			OkHttpClientConnectionPoolFactory connectionPoolFactory) {
+			OkHttpClientConnectionPoolFactory connectionPoolFactory,
+			ObjectProvider<FeignConnectionEvictor> connectionEvictor,
+			ObjectProvider<FeignConnectionPoolMonitor> connectionPoolMonitor) {
 		int maxTotalConnections = httpClientProperties.getMaxConnections();
 		long timeToLive = httpClientProperties.getTimeToLive();
 		TimeUnit ttlUnit = httpClientProperties.getTimeToLiveUnit();
-		return connectionPoolFactory.create(maxTotalConnections, timeToLive, ttlUnit);
+		ConnectionPool connectionPool = connectionPoolFactory.create(maxTotalConnections, timeToLive, ttlUnit);
+		OkHttpEvictablePool pool = new OkHttpEvictablePool(connectionPool);
+		this.connectionPoolRegistration.registerEvictablePool(connectionEvictor, pool);
+		this.connectionPoolRegistration.registerMonitoredPool(connectionPoolMonitor, pool);
+		return connectionPool;
 	}
 
 	@Bean
 	public okhttp3.OkHttpClient client(OkHttpClientFactory httpClientFactory, ConnectionPool connectionPool,
-			FeignHttpClientProperties httpClientProperties) {
+			FeignHttpClientProperties httpClientProperties,
+			ObjectProvider<FeignConnectionPoolMonitor> connectionPoolMonitor, ObjectProvider<FeignDnsCache> dnsCache,
+			ObjectProvider<FeignSslContextProvider> sslContextProvider) {
 		boolean followRedirects = httpClientProperties.isFollowRedirects();
 		int connectTimeout = httpClientProperties.getConnectionTimeout();
 		Duration reaTimeout = httpClientProperties.getOkHttp().getReadTimeout();
-		this.okHttpClient = httpClientFactory.createBuilder(httpClientProperties.isDisableSslValidation())
+		OkHttpClient.Builder builder = httpClientFactory.createBuilder(httpClientProperties.isDisableSslValidation())
 				.connectTimeout(connectTimeout, TimeUnit.MILLISECONDS).followRedirects(followRedirects)
-				.readTimeout(reaTimeout).connectionPool(connectionPool).build();
+				.readTimeout(reaTimeout).connectionPool(connectionPool);
+		FeignHttpClientProperties.Http2 http2 = httpClientProperties.getHttp2();
+		if (http2.isEnabled()) {
+			builder.protocols(http2.isPriorKnowledge() ? Collections.singletonList(Protocol.H2_PRIOR_KNOWLEDGE)
+					: Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1));
+		}
+		FeignDnsCache feignDnsCache = dnsCache.getIfAvailable();
+		if (feignDnsCache != null) {
+			builder.dns(new OkHttpDns(feignDnsCache));
+		}
+		FeignSslContextProvider feignSslContextProvider = sslContextProvider.getIfAvailable();
+		if (feignSslContextProvider != null) {
+			builder.sslSocketFactory(feignSslContextProvider.getSocketFactory(),
+					feignSslContextProvider.getTrustManager());
+		}
+		FeignConnectionPoolMonitor monitor = connectionPoolMonitor.getIfAvailable();
+		if (monitor != null) {
+			builder.eventListenerFactory(OkHttpConnectionAcquisitionListener.factory(monitor, CONNECTION_POOL_NAME));
+		}
+		this.okHttpClient = builder.build();
 		return this.okHttpClient;
 	}
 
 	@PreDestroy
 	public void destroy() {
+		this.connectionPoolRegistration.unregister();
 		if (this.okHttpClient != null) {
 			this.okHttpClient.dispatcher().executorService().shutdown();
 			this.okHttpClient.connectionPool().evictAll();
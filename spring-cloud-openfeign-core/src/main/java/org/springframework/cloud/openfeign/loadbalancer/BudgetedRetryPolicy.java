@@ -0,0 +1,78 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign.loadbalancer;
+
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryPolicy;
+
+/**
+ * A {@link RetryPolicy} that only allows a retry permitted by its delegate if the
+ * {@link LoadBalancerRetryBudget} of the service is not exhausted.
+ *
+ * @since 3.1.6
+ */
+class BudgetedRetryPolicy implements RetryPolicy {
+
+	// RetryTemplate asks the policy more than once per attempt, so the budget decision
+	// for the current retry is remembered in the context
+	private static final String ACQUIRED_RETRY_ATTRIBUTE = BudgetedRetryPolicy.class.getName() + ".acquiredRetry";
+
+	private static final String REJECTED_RETRY_ATTRIBUTE = BudgetedRetryPolicy.class.getName() + ".rejectedRetry";
+
+	private final RetryPolicy delegate;
+
+	private final LoadBalancerRetryBudget retryBudget;
+
+	BudgetedRetryPolicy(RetryPolicy delegate, LoadBalancerRetryBudget retryBudget) {
+		this.delegate = delegate;
+		this.retryBudget = retryBudget;
+	}
+
+	@Override
+	public boolean canRetry(RetryContext context) {
+		if (!delegate.canRetry(context)) {
+			return false;
+		}
+		Integer retryCount = context.getRetryCount();
+		if (retryCount == 0 || retryCount.equals(context.getAttribute(ACQUIRED_RETRY_ATTRIBUTE))) {
+			return true;
+		}
+		if (retryCount.equals(context.getAttribute(REJECTED_RETRY_ATTRIBUTE))) {
+			return false;
+		}
+		boolean acquired = retryBudget.tryAcquireRetry();
+		context.setAttribute(acquired ? ACQUIRED_RETRY_ATTRIBUTE : REJECTED_RETRY_ATTRIBUTE, retryCount);
+		return acquired;
+	}
+
+	@Override
+	public RetryContext open(RetryContext parent) {
+		retryBudget.onRequest();
+		return delegate.open(parent);
+	}
+
+	@Override
+	public void close(RetryContext context) {
+		delegate.close(context);
+	}
+
+	@Override
+	public void registerThrowable(RetryContext context, Throwable throwable) {
+		delegate.registerThrowable(context, throwable);
+	}
+
+}
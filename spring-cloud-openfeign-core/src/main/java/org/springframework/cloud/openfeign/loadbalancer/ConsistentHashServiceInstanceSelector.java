@@ -0,0 +1,174 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign.loadbalancer;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestData;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.util.StringUtils;
+
+/**
+ * A {@link FeignServiceInstanceSelector} that sends requests with the same routing key to
+ * the same instance. Each instance has a number of points on a hash ring, and a request
+ * goes to the owner of the first point at or after the hash of its key, unless that
+ * instance has more than the load factor times the average number of in-flight requests
+ * per instance, in which case the next owner on the ring is tried (consistent hashing
+ * with bounded loads). Requests without a routing key header are passed to the delegate.
+ *
+ * @since 3.1.6
+ * @see InFlightRequestCounter
+ */
+public class ConsistentHashServiceInstanceSelector implements FeignServiceInstanceSelector {
+
+	private final FeignServiceInstanceSelector delegate;
+
+	private final InFlightRequestCounter inFlightRequests;
+
+	private final String headerName;
+
+	private final double loadFactor;
+
+	private final int virtualNodes;
+
+	private volatile Ring ring;
+
+	public ConsistentHashServiceInstanceSelector(FeignServiceInstanceSelector delegate,
+			InFlightRequestCounter inFlightRequests, FeignLoadBalancerProperties.ConsistentHash properties) {
+		this.delegate = delegate;
+		this.inFlightRequests = inFlightRequests;
+		this.headerName = properties.getHeaderName();
+		this.loadFactor = Math.max(1, properties.getLoadFactor());
+		this.virtualNodes = Math.max(1, properties.getVirtualNodes());
+	}
+
+	@Override
+	public ServiceInstance select(List<ServiceInstance> instances, Request<?> request) {
+		String routingKey = getRoutingKey(request);
+		if (routingKey == null) {
+			return delegate.select(instances, request);
+		}
+		int size = instances.size();
+		if (size == 1) {
+			return instances.get(0);
+		}
+		if (inFlightRequests.size() > 2 * size) {
+			inFlightRequests.retainAll(instances);
+		}
+		Ring current = ring;
+		boolean[] available = current != null ? current.availability(instances) : null;
+		if (available == null) {
+			current = new Ring(instances, virtualNodes);
+			ring = current;
+		}
+		int capacity = (int) Math.ceil(loadFactor * (inFlightRequests.getTotalInFlight() + 1) / size);
+		return current.select(ServiceInstanceHashing.hash(routingKey, ServiceInstanceHashing.FNV_OFFSET_BASIS),
+				available, size, capacity, inFlightRequests);
+	}
+
+	private String getRoutingKey(Request<?> request) {
+		if (!(request.getContext() instanceof RequestDataContext)) {
+			return null;
+		}
+		RequestData requestData = ((RequestDataContext) request.getContext()).getClientRequest();
+		if (requestData == null || requestData.getHeaders() == null) {
+			return null;
+		}
+		String routingKey = requestData.getHeaders().getFirst(headerName);
+		return StringUtils.hasLength(routingKey) ? routingKey : null;
+	}
+
+	private static final class Ring {
+
+		private final ServiceInstance[] instances;
+
+		private final Map<ServiceInstance, Integer> indexes;
+
+		private final long[] points;
+
+		private final int[] owners;
+
+		Ring(List<ServiceInstance> instances, int virtualNodes) {
+			this.instances = instances.toArray(new ServiceInstance[0]);
+			this.indexes = new HashMap<>();
+			long[][] nodes = new long[this.instances.length * virtualNodes][];
+			for (int i = 0; i < this.instances.length; i++) {
+				indexes.putIfAbsent(this.instances[i], i);
+				long instanceHash = ServiceInstanceHashing.fnv1a(ServiceInstanceHashing.instanceId(this.instances[i]),
+						ServiceInstanceHashing.FNV_OFFSET_BASIS);
+				for (int v = 0; v < virtualNodes; v++) {
+					nodes[i * virtualNodes + v] = new long[] { ServiceInstanceHashing.hash("#" + v, instanceHash), i };
+				}
+			}
+			Arrays.sort(nodes, Comparator.comparingLong(node -> node[0]));
+			this.points = new long[nodes.length];
+			this.owners = new int[nodes.length];
+			for (int i = 0; i < nodes.length; i++) {
+				points[i] = nodes[i][0];
+				owners[i] = (int) nodes[i][1];
+			}
+		}
+
+		// Which instances of the ring are in the list; null if one is not on the ring
+		boolean[] availability(List<ServiceInstance> available) {
+			boolean[] result = new boolean[instances.length];
+			for (ServiceInstance instance : available) {
+				Integer index = indexes.get(instance);
+				if (index == null) {
+					return null;
+				}
+				result[index] = true;
+			}
+			return result;
+		}
+
+		ServiceInstance select(long hash, boolean[] available, int availableCount, int capacity,
+				InFlightRequestCounter inFlightRequests) {
+			int start = Arrays.binarySearch(points, hash);
+			if (start < 0) {
+				start = -start - 1;
+			}
+			boolean[] visited = new boolean[instances.length];
+			ServiceInstance first = null;
+			int visitedCount = 0;
+			for (int i = 0; i < points.length && visitedCount < availableCount; i++) {
+				int owner = owners[(start + i) % points.length];
+				if (visited[owner] || (available != null && !available[owner])) {
+					continue;
+				}
+				visited[owner] = true;
+				visitedCount++;
+				ServiceInstance instance = instances[owner];
+				if (inFlightRequests.getInFlight(instance) < capacity) {
+					return instance;
+				}
+				if (first == null) {
+					first = instance;
+				}
+			}
+			return first;
+		}
+
+	}
+
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign.loadbalancer;
+
+import java.util.Map;
+
+import org.slf4j.MDC;
+
+import org.springframework.context.i18n.LocaleContext;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.util.ClassUtils;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * A {@link TaskDecorator} that runs a task with the thread-bound context of the thread
+ * that decorated it: the logging MDC, the locale and, if present, the request attributes
+ * and the security context. A further decorator, for example one that propagates the
+ * tracing context, can be applied on top.
+ *
+ * @since 3.1.6
+ */
+final class ContextPropagatingTaskDecorator implements TaskDecorator {
+
+	private static final boolean WEB_PRESENT = ClassUtils.isPresent(
+			"org.springframework.web.context.request.RequestContextHolder",
+			ContextPropagatingTaskDecorator.class.getClassLoader());
+
+	private static final boolean SECURITY_PRESENT = ClassUtils.isPresent(
+			"org.springframework.security.core.context.SecurityContextHolder",
+			ContextPropagatingTaskDecorator.class.getClassLoader());
+
+	private final TaskDecorator delegate;
+
+	ContextPropagatingTaskDecorator(TaskDecorator delegate) {
+		this.delegate = delegate;
+	}
+
+	@Override
+	public Runnable decorate(Runnable runnable) {
+		Runnable task = delegate != null ? delegate.decorate(runnable) : runnable;
+		Map<String, String> mdc = MDC.getCopyOfContextMap();
+		LocaleContext localeContext = LocaleContextHolder.getLocaleContext();
+		Object requestAttributes = WEB_PRESENT ? RequestContextHolder.getRequestAttributes() : null;
+		Object securityContext = SECURITY_PRESENT ? SecurityContextHolder.getContext() : null;
+		return () -> {
+			Map<String, String> previousMdc = MDC.getCopyOfContextMap();
+			LocaleContext previousLocaleContext = LocaleContextHolder.getLocaleContext();
+			Object previousRequestAttributes = WEB_PRESENT ? RequestContextHolder.getRequestAttributes() : null;
+			Object previousSecurityContext = SECURITY_PRESENT ? SecurityContextHolder.getContext() : null;
+			setMdc(mdc);
+			LocaleContextHolder.setLocaleContext(localeContext);
+			if (WEB_PRESENT) {
+				RequestContextHolder.setRequestAttributes((RequestAttributes) requestAttributes);
+			}
+			if (SECURITY_PRESENT) {
+				SecurityContextHolder.setContext((SecurityContext) securityContext);
+			}
+			try {
+				task.run();
+			}
+			finally {
+				setMdc(previousMdc);
+				LocaleContextHolder.setLocaleContext(previousLocaleContext);
+				if (WEB_PRESENT) {
+					RequestContextHolder.setRequestAttributes((RequestAttributes) previousRequestAttributes);
+				}
+				if (SECURITY_PRESENT) {
+					SecurityContextHolder.setContext((SecurityContext) previousSecurityContext);
+				}
+			}
+		};
+	}
+
+	private static void setMdc(Map<String, String> contextMap) {
+		if (contextMap != null) {
+			MDC.setContextMap(contextMap);
+		}
+		else {
+			MDC.clear();
+		}
+	}
+
+}
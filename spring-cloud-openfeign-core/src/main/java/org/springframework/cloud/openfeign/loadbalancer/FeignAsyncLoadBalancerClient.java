@@ -0,0 +1,148 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign.loadbalancer;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import feign.AsyncClient;
+import feign.Request;
+import feign.Response;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerClient;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.Assert;
+
+import static org.springframework.cloud.openfeign.loadbalancer.LoadBalancerUtils.buildRequestData;
+import static org.springframework.cloud.openfeign.loadbalancer.LoadBalancerUtils.buildResponseData;
+import static org.springframework.cloud.openfeign.loadbalancer.LoadBalancerUtils.choose;
+import static org.springframework.cloud.openfeign.loadbalancer.LoadBalancerUtils.limitOptions;
+import static org.springframework.cloud.openfeign.loadbalancer.LoadBalancerUtils.resolveDeadline;
+import static org.springframework.cloud.openfeign.loadbalancer.LoadBalancerUtils.withDeadlineHeader;
+
+/**
+ * An {@link AsyncClient} implementation that uses {@link LoadBalancerClient} to select a
+ * {@link ServiceInstance} to use while resolving the request host. The
+ * {@link LoadBalancerLifecycle} beans are notified when the returned future completes.
+ * Retries and hedging are not applied to asynchronous requests.
+ *
+ * @param <C> the type of the request context of the delegate
+ * @since 3.1.6
+ */
+@SuppressWarnings({ "unchecked", "rawtypes" })
+public class FeignAsyncLoadBalancerClient<C> implements AsyncClient<C> {
+
+	private static final Log LOG = LogFactory.getLog(FeignAsyncLoadBalancerClient.class);
+
+	private final AsyncClient<C> delegate;
+
+	private final LoadBalancerClient loadBalancerClient;
+
+	private final FeignLoadBalancerServiceDescriptorCache serviceDescriptorCache;
+
+	public FeignAsyncLoadBalancerClient(AsyncClient<C> delegate, LoadBalancerClient loadBalancerClient,
+			FeignLoadBalancerServiceDescriptorCache serviceDescriptorCache) {
+		this.delegate = delegate;
+		this.loadBalancerClient = loadBalancerClient;
+		this.serviceDescriptorCache = serviceDescriptorCache;
+	}
+
+	@Override
+	public CompletableFuture<Response> execute(Request request, Request.Options options, Optional<C> requestContext) {
+		final URI originalUri = URI.create(request.url());
+		String serviceId = originalUri.getHost();
+		Assert.state(serviceId != null, "Request URI does not contain a valid hostname: " + originalUri);
+		FeignLoadBalancerServiceDescriptor serviceDescriptor = serviceDescriptorCache.getDescriptor(serviceId);
+		FeignLoadBalancerProperties.Deadline deadlineProperties = serviceDescriptor.getFeignProperties().getDeadline();
+		RequestDeadline deadline = resolveDeadline(deadlineProperties);
+		long remainingMillis = deadline != null ? deadline.remainingMillis() : -1;
+		if (remainingMillis == 0) {
+			return failed(new RequestDeadlineExceededException(serviceId));
+		}
+		DefaultRequest<RequestDataContext> lbRequest = new DefaultRequest<>(
+				new RequestDataContext(buildRequestData(request), serviceDescriptor.getHint()));
+		Set<LoadBalancerLifecycle> supportedLifecycleProcessors = serviceDescriptor
+				.getSupportedLifecycleProcessors(RequestDataContext.class);
+		supportedLifecycleProcessors.forEach(lifecycle -> lifecycle.onStart(lbRequest));
+		ServiceInstance instance = choose(loadBalancerClient, serviceDescriptor, lbRequest);
+		org.springframework.cloud.client.loadbalancer.Response<ServiceInstance> lbResponse = new DefaultResponse(
+				instance);
+		if (instance == null) {
+			String message = "Load balancer does not contain an instance for the service " + serviceId;
+			if (LOG.isWarnEnabled()) {
+				LOG.warn(message);
+			}
+			supportedLifecycleProcessors.forEach(lifecycle -> lifecycle
+					.onComplete(new CompletionContext<ResponseData, ServiceInstance, RequestDataContext>(
+							CompletionContext.Status.DISCARD, lbRequest, lbResponse)));
+			return CompletableFuture.completedFuture(Response.builder().request(request)
+					.status(HttpStatus.SERVICE_UNAVAILABLE.value()).body(message, StandardCharsets.UTF_8).build());
+		}
+		String reconstructedUrl = loadBalancerClient.reconstructURI(instance, originalUri).toString();
+		Request newRequest = withDeadlineHeader(buildRequest(request, reconstructedUrl), deadlineProperties,
+				remainingMillis);
+		supportedLifecycleProcessors.forEach(lifecycle -> lifecycle.onStartRequest(lbRequest, lbResponse));
+		CompletableFuture<Response> response;
+		try {
+			response = delegate.execute(newRequest, limitOptions(options, remainingMillis), requestContext);
+		}
+		catch (RuntimeException exception) {
+			response = failed(exception);
+		}
+		if (!supportedLifecycleProcessors.isEmpty()) {
+			boolean useRawStatusCodes = serviceDescriptor.isUseRawStatusCodeInResponseData();
+			// The lifecycle is completed from the delegate's future, so that cancelling
+			// the returned future still cancels the request
+			response.whenComplete((result, exception) -> {
+				CompletionContext completionContext = exception == null
+						? new CompletionContext<>(CompletionContext.Status.SUCCESS, lbRequest, lbResponse,
+								buildResponseData(result, useRawStatusCodes))
+						: new CompletionContext<>(CompletionContext.Status.FAILED, exception, lbRequest, lbResponse);
+				supportedLifecycleProcessors.forEach(lifecycle -> lifecycle.onComplete(completionContext));
+			});
+		}
+		return response;
+	}
+
+	protected Request buildRequest(Request request, String reconstructedUrl) {
+		return Request.create(request.httpMethod(), reconstructedUrl, request.headers(), request.body(),
+				request.charset(), request.requestTemplate());
+	}
+
+	private static <T> CompletableFuture<T> failed(Throwable exception) {
+		CompletableFuture<T> future = new CompletableFuture<>();
+		future.completeExceptionally(exception);
+		return future;
+	}
+
+	public AsyncClient<C> getDelegate() {
+		return delegate;
+	}
+
+}
@@ -20,6 +20,7 @@ import java.io.IOException;
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
 import java.util.Set;
+import java.util.concurrent.Callable;
 
 import feign.Client;
 import feign.Request;
@@ -27,13 +28,13 @@ import feign.Response;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.cloud.client.ServiceInstance;
 import org.springframework.cloud.client.loadbalancer.CompletionContext;
 import org.springframework.cloud.client.loadbalancer.DefaultRequest;
 import org.springframework.cloud.client.loadbalancer.DefaultResponse;
 import org.springframework.cloud.client.loadbalancer.LoadBalancerClient;
 import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
-import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycleValidator;
 import org.springframework.cloud.client.loadbalancer.LoadBalancerProperties;
 import org.springframework.cloud.client.loadbalancer.RequestDataContext;
 import org.springframework.cloud.client.loadbalancer.ResponseData;
@@ -42,17 +43,22 @@ import org.springframework.http.HttpStatus;
 import org.springframework.util.Assert;
 
 import static org.springframework.cloud.openfeign.loadbalancer.LoadBalancerUtils.buildRequestData;
+import static org.springframework.cloud.openfeign.loadbalancer.LoadBalancerUtils.choose;
 import static org.springframework.cloud.openfeign.loadbalancer.LoadBalancerUtils.executeWithLoadBalancerLifecycleProcessing;
+import static org.springframework.cloud.openfeign.loadbalancer.LoadBalancerUtils.limitOptions;
+import static org.springframework.cloud.openfeign.loadbalancer.LoadBalancerUtils.resolveDeadline;
+import static org.springframework.cloud.openfeign.loadbalancer.LoadBalancerUtils.withDeadlineHeader;
 
 /**
  * A {@link Client} implementation that uses {@link LoadBalancerClient} to select a
- * {@link ServiceInstance} to use while resolving the request host.
+ * {@link ServiceInstance} to use while resolving the request host. If hedging is enabled
+ * for the service, a slow {@code GET} request is additionally sent to another instance.
  *
  * @author Olga Maciaszek-Sharma
  * @since 2.2.0
  */
 @SuppressWarnings({ "unchecked", "rawtypes" })
-public class FeignBlockingLoadBalancerClient implements Client {
+public class FeignBlockingLoadBalancerClient implements Client, DisposableBean {
 
 	private static final Log LOG = LogFactory.getLog(FeignBlockingLoadBalancerClient.class);
 
@@ -60,25 +66,47 @@ public class FeignBlockingLoadBalancerClient implements Client {
 
 	private final LoadBalancerClient loadBalancerClient;
 
-	private final LoadBalancerClientFactory loadBalancerClientFactory;
+	private final FeignLoadBalancerServiceDescriptorCache serviceDescriptorCache;
+
+	private final boolean ownsServiceDescriptorCache;
 
 	/**
 	 * @deprecated in favour of
-	 * {@link FeignBlockingLoadBalancerClient#FeignBlockingLoadBalancerClient(Client, LoadBalancerClient, LoadBalancerClientFactory)}
+	 * {@link FeignBlockingLoadBalancerClient#FeignBlockingLoadBalancerClient(Client, LoadBalancerClient, FeignLoadBalancerServiceDescriptorCache)}
 	 */
 	@Deprecated
 	public FeignBlockingLoadBalancerClient(Client delegate, LoadBalancerClient loadBalancerClient,
 			LoadBalancerProperties properties, LoadBalancerClientFactory loadBalancerClientFactory) {
-		this.delegate = delegate;
-		this.loadBalancerClient = loadBalancerClient;
-		this.loadBalancerClientFactory = loadBalancerClientFactory;
+		this(delegate, loadBalancerClient, loadBalancerClientFactory);
 	}
 
+	/**
+	 * Creates a client with its own {@link FeignLoadBalancerServiceDescriptorCache}. That
+	 * cache is not registered as an application listener, so its descriptors are not
+	 * invalidated when load-balancer properties or child contexts change, and it is only
+	 * closed by {@link #destroy()}.
+	 * @deprecated in favour of
+	 * {@link FeignBlockingLoadBalancerClient#FeignBlockingLoadBalancerClient(Client, LoadBalancerClient, FeignLoadBalancerServiceDescriptorCache)}
+	 * with the {@link FeignLoadBalancerServiceDescriptorCache} bean
+	 */
+	@Deprecated
 	public FeignBlockingLoadBalancerClient(Client delegate, LoadBalancerClient loadBalancerClient,
 			LoadBalancerClientFactory loadBalancerClientFactory) {
+		this(delegate, loadBalancerClient, new FeignLoadBalancerServiceDescriptorCache(loadBalancerClientFactory),
+				true);
+	}
+
+	public FeignBlockingLoadBalancerClient(Client delegate, LoadBalancerClient loadBalancerClient,
+			FeignLoadBalancerServiceDescriptorCache serviceDescriptorCache) {
+		this(delegate, loadBalancerClient, serviceDescriptorCache, false);
+	}
+
+	private FeignBlockingLoadBalancerClient(Client delegate, LoadBalancerClient loadBalancerClient,
+			FeignLoadBalancerServiceDescriptorCache serviceDescriptorCache, boolean ownsServiceDescriptorCache) {
 		this.delegate = delegate;
 		this.loadBalancerClient = loadBalancerClient;
-		this.loadBalancerClientFactory = loadBalancerClientFactory;
+		this.serviceDescriptorCache = serviceDescriptorCache;
+		this.ownsServiceDescriptorCache = ownsServiceDescriptorCache;
 	}
 
 	@Override
@@ -86,15 +114,19 @@ public class FeignBlockingLoadBalancerClient implements Client {
 		final URI originalUri = URI.create(request.url());
 		String serviceId = originalUri.getHost();
 		Assert.state(serviceId != null, "Request URI does not contain a valid hostname: " + originalUri);
-		String hint = getHint(serviceId);
+		FeignLoadBalancerServiceDescriptor serviceDescriptor = serviceDescriptorCache.getDescriptor(serviceId);
+		FeignLoadBalancerProperties.Deadline deadlineProperties = serviceDescriptor.getFeignProperties().getDeadline();
+		RequestDeadline deadline = resolveDeadline(deadlineProperties);
+		long remainingMillis = deadline != null ? deadline.remainingMillis() : -1;
+		if (remainingMillis == 0) {
+			throw new RequestDeadlineExceededException(serviceId);
+		}
 		DefaultRequest<RequestDataContext> lbRequest = new DefaultRequest<>(
-				new RequestDataContext(buildRequestData(request), hint));
-		Set<LoadBalancerLifecycle> supportedLifecycleProcessors = LoadBalancerLifecycleValidator
-				.getSupportedLifecycleProcessors(
-						loadBalancerClientFactory.getInstances(serviceId, LoadBalancerLifecycle.class),
-						RequestDataContext.class, ResponseData.class, ServiceInstance.class);
+				new RequestDataContext(buildRequestData(request), serviceDescriptor.getHint()));
+		Set<LoadBalancerLifecycle> supportedLifecycleProcessors = serviceDescriptor
+				.getSupportedLifecycleProcessors(RequestDataContext.class);
 		supportedLifecycleProcessors.forEach(lifecycle -> lifecycle.onStart(lbRequest));
-		ServiceInstance instance = loadBalancerClient.choose(serviceId, lbRequest);
+		ServiceInstance instance = choose(loadBalancerClient, serviceDescriptor, lbRequest);
 		org.springframework.cloud.client.loadbalancer.Response<ServiceInstance> lbResponse = new DefaultResponse(
 				instance);
 		if (instance == null) {
@@ -109,10 +141,47 @@ public class FeignBlockingLoadBalancerClient implements Client {
 					.body(message, StandardCharsets.UTF_8).build();
 		}
 		String reconstructedUrl = loadBalancerClient.reconstructURI(instance, originalUri).toString();
-		Request newRequest = buildRequest(request, reconstructedUrl);
-		LoadBalancerProperties loadBalancerProperties = loadBalancerClientFactory.getProperties(serviceId);
-		return executeWithLoadBalancerLifecycleProcessing(delegate, options, newRequest, lbRequest, lbResponse,
-				supportedLifecycleProcessors, loadBalancerProperties.isUseRawStatusCodeInResponseData());
+		Request newRequest = withDeadlineHeader(buildRequest(request, reconstructedUrl), deadlineProperties,
+				remainingMillis);
+		Request.Options attemptOptions = limitOptions(options, remainingMillis);
+		RequestHedger requestHedger = serviceDescriptor.getRequestHedger();
+		if (requestHedger != null && requestHedger.isHedgeable(request)) {
+			return requestHedger.execute(request,
+					() -> executeWithLoadBalancerLifecycleProcessing(delegate, attemptOptions, newRequest, lbRequest,
+							lbResponse, supportedLifecycleProcessors,
+							serviceDescriptor.isUseRawStatusCodeInResponseData()),
+					() -> prepareHedgedRequest(request, options, deadline, originalUri, serviceDescriptor, instance));
+		}
+		return executeWithLoadBalancerLifecycleProcessing(delegate, attemptOptions, newRequest, lbRequest, lbResponse,
+				supportedLifecycleProcessors, serviceDescriptor.isUseRawStatusCodeInResponseData());
+	}
+
+	private Callable<Response> prepareHedgedRequest(Request request, Request.Options options, RequestDeadline deadline,
+			URI originalUri, FeignLoadBalancerServiceDescriptor serviceDescriptor, ServiceInstance primaryInstance) {
+		long remainingMillis = deadline != null ? deadline.remainingMillis() : -1;
+		if (remainingMillis == 0) {
+			return null;
+		}
+		DefaultRequest<RequestDataContext> lbRequest = new DefaultRequest<>(
+				new RequestDataContext(buildRequestData(request), serviceDescriptor.getHint()));
+		Set<LoadBalancerLifecycle> supportedLifecycleProcessors = serviceDescriptor
+				.getSupportedLifecycleProcessors(RequestDataContext.class);
+		supportedLifecycleProcessors.forEach(lifecycle -> lifecycle.onStart(lbRequest));
+		ServiceInstance instance = choose(loadBalancerClient, serviceDescriptor, lbRequest, primaryInstance);
+		org.springframework.cloud.client.loadbalancer.Response<ServiceInstance> lbResponse = new DefaultResponse(
+				instance);
+		if (instance == null) {
+			supportedLifecycleProcessors.forEach(lifecycle -> lifecycle
+					.onComplete(new CompletionContext<ResponseData, ServiceInstance, RequestDataContext>(
+							CompletionContext.Status.DISCARD, lbRequest, lbResponse)));
+			return null;
+		}
+		Request newRequest = withDeadlineHeader(
+				buildRequest(request, loadBalancerClient.reconstructURI(instance, originalUri).toString()),
+				serviceDescriptor.getFeignProperties().getDeadline(), remainingMillis);
+		Request.Options attemptOptions = limitOptions(options, remainingMillis);
+		return () -> executeWithLoadBalancerLifecycleProcessing(delegate, attemptOptions, newRequest, lbRequest,
+				lbResponse, supportedLifecycleProcessors, serviceDescriptor.isUseRawStatusCodeInResponseData());
 	}
 
 	protected Request buildRequest(Request request, String reconstructedUrl) {
@@ -125,11 +194,28 @@ public class FeignBlockingLoadBalancerClient implements Client {
 		return delegate;
 	}
 
-	private String getHint(String serviceId) {
-		LoadBalancerProperties properties = loadBalancerClientFactory.getProperties(serviceId);
-		String defaultHint = properties.getHint().getOrDefault("default", "default");
-		String hintPropertyValue = properties.getHint().get(serviceId);
-		return hintPropertyValue != null ? hintPropertyValue : defaultHint;
+	/**
+	 * Closes the {@link FeignLoadBalancerServiceDescriptorCache} created by the
+	 * deprecated constructor taking a {@link LoadBalancerClientFactory}. A shared cache
+	 * is left to its own lifecycle.
+	 * @since 3.1.6
+	 */
+	@Override
+	public void destroy() {
+		if (ownsServiceDescriptorCache) {
+			serviceDescriptorCache.destroy();
+		}
+	}
+
+	/**
+	 * Returns a load-balancing client that sends the requests through the given client,
+	 * sharing the load-balancer state of this one.
+	 * @param delegate the client sending the requests
+	 * @return the load-balancing client
+	 * @since 3.1.6
+	 */
+	public FeignBlockingLoadBalancerClient withDelegate(Client delegate) {
+		return new FeignBlockingLoadBalancerClient(delegate, loadBalancerClient, serviceDescriptorCache);
 	}
 
 }
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign.loadbalancer;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.MultiValueMap;
+
+/**
+ * A read-only {@link MultiValueMap} view over Feign request or response headers. Header
+ * values are exposed without copying whenever Feign already holds them in a {@link List},
+ * which is the case for headers built from a {@link feign.RequestTemplate} and for most
+ * response headers.
+ *
+ * @since 3.1.6
+ */
+final class FeignHeadersMultiValueMap extends AbstractMap<String, List<String>>
+		implements MultiValueMap<String, String> {
+
+	private final Map<String, Collection<String>> feignHeaders;
+
+	private FeignHeadersMultiValueMap(Map<String, Collection<String>> feignHeaders) {
+		this.feignHeaders = feignHeaders;
+	}
+
+	static HttpHeaders readOnlyHttpHeaders(Map<String, Collection<String>> feignHeaders) {
+		if (feignHeaders == null || feignHeaders.isEmpty()) {
+			return HttpHeaders.EMPTY;
+		}
+		return HttpHeaders.readOnlyHttpHeaders(new FeignHeadersMultiValueMap(feignHeaders));
+	}
+
+	@Override
+	public List<String> get(Object key) {
+		Collection<String> values = feignHeaders.get(key);
+		if (values == null && key instanceof String) {
+			// Feign uses case-insensitive maps, but a Request can be created from any map
+			for (Map.Entry<String, Collection<String>> entry : feignHeaders.entrySet()) {
+				if (entry.getKey() != null && entry.getKey().equalsIgnoreCase((String) key)) {
+					values = entry.getValue();
+					break;
+				}
+			}
+		}
+		return asList(values);
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return get(key) != null;
+	}
+
+	@Override
+	public int size() {
+		return feignHeaders.size();
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return feignHeaders.isEmpty();
+	}
+
+	@Override
+	public Set<Entry<String, List<String>>> entrySet() {
+		return new AbstractSet<Entry<String, List<String>>>() {
+			@Override
+			public Iterator<Entry<String, List<String>>> iterator() {
+				Iterator<Entry<String, Collection<String>>> iterator = feignHeaders.entrySet().iterator();
+				return new Iterator<Entry<String, List<String>>>() {
+					@Override
+					public boolean hasNext() {
+						return iterator.hasNext();
+					}
+
+					@Override
+					public Entry<String, List<String>> next() {
+						Entry<String, Collection<String>> entry = iterator.next();
+						return new SimpleImmutableEntry<>(entry.getKey(), asList(entry.getValue()));
+					}
+				};
+			}
+
+			@Override
+			public int size() {
+				return feignHeaders.size();
+			}
+		};
+	}
+
+	@Override
+	public String getFirst(String key) {
+		List<String> values = get(key);
+		return values == null || values.isEmpty() ? null : values.get(0);
+	}
+
+	@Override
+	public Map<String, String> toSingleValueMap() {
+		Map<String, String> singleValueMap = new LinkedHashMap<>(feignHeaders.size());
+		feignHeaders.keySet().forEach(key -> singleValueMap.put(key, getFirst(key)));
+		return singleValueMap;
+	}
+
+	@Override
+	public void add(String key, String value) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public void addAll(String key, List<? extends String> values) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public void addAll(MultiValueMap<String, String> values) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public void set(String key, String value) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public void setAll(Map<String, String> values) {
+		throw new UnsupportedOperationException();
+	}
+
+	private static List<String> asList(Collection<String> values) {
+		if (values == null) {
+			return null;
+		}
+		if (values instanceof List) {
+			return Collections.unmodifiableList((List<String>) values);
+		}
+		return Collections.unmodifiableList(new ArrayList<>(values));
+	}
+
+}
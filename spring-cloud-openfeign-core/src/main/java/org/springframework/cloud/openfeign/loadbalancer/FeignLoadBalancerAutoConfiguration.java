@@ -19,19 +19,24 @@ package org.springframework.cloud.openfeign.loadbalancer;
 import feign.Client;
 import feign.Feign;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
 import org.springframework.boot.autoconfigure.AutoConfigureBefore;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cloud.client.loadbalancer.LoadBalancerAutoConfiguration;
 import org.springframework.cloud.client.loadbalancer.LoadBalancerClient;
 import org.springframework.cloud.loadbalancer.config.BlockingLoadBalancerClientAutoConfiguration;
 import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
 import org.springframework.cloud.openfeign.FeignAutoConfiguration;
+import org.springframework.cloud.openfeign.clientconfig.JdkHttpClientImportSelector;
 import org.springframework.cloud.openfeign.support.FeignHttpClientProperties;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
+import org.springframework.core.task.TaskDecorator;
 
 /**
  * An autoconfiguration that instantiates {@link LoadBalancerClient}-based implementations
@@ -45,13 +50,38 @@ import org.springframework.context.annotation.Import;
 @ConditionalOnBean({ LoadBalancerClient.class, LoadBalancerClientFactory.class })
 @AutoConfigureBefore(FeignAutoConfiguration.class)
 @AutoConfigureAfter({ BlockingLoadBalancerClientAutoConfiguration.class, LoadBalancerAutoConfiguration.class })
-@EnableConfigurationProperties(FeignHttpClientProperties.class)
+@EnableConfigurationProperties({ FeignHttpClientProperties.class, FeignLoadBalancerClientsProperties.class })
 @Configuration(proxyBeanMethods = false)
 // Order is important here, last should be the default, first should be optional
 // see
 // https://github.com/spring-cloud/spring-cloud-netflix/issues/2086#issuecomment-316281653
 @Import({ HttpClientFeignLoadBalancerConfiguration.class, OkHttpFeignLoadBalancerConfiguration.class,
-		HttpClient5FeignLoadBalancerConfiguration.class, DefaultFeignLoadBalancerConfiguration.class })
+		HttpClient5FeignLoadBalancerConfiguration.class, HttpAsyncClient5FeignLoadBalancerConfiguration.class,
+		JdkHttpClientImportSelector.LoadBalanced.class, DefaultFeignLoadBalancerConfiguration.class })
 public class FeignLoadBalancerAutoConfiguration {
 
+	@Bean
+	@ConditionalOnMissingBean
+	public FeignLoadBalancerServiceDescriptorCache feignLoadBalancerServiceDescriptorCache(
+			LoadBalancerClientFactory loadBalancerClientFactory, FeignLoadBalancerClientsProperties properties,
+			ObjectProvider<TaskDecorator> taskDecorator) {
+		FeignLoadBalancerServiceDescriptorCache cache = new FeignLoadBalancerServiceDescriptorCache(
+				loadBalancerClientFactory, properties);
+		cache.setHedgingTaskDecorator(taskDecorator.getIfUnique());
+		return cache;
+	}
+
+	@Configuration(proxyBeanMethods = false)
+	@ConditionalOnClass(name = "io.micrometer.core.instrument.binder.MeterBinder")
+	protected static class RetryBudgetMetricsConfiguration {
+
+		@Bean
+		@ConditionalOnMissingBean
+		public LoadBalancerRetryBudgetMetrics loadBalancerRetryBudgetMetrics(
+				FeignLoadBalancerServiceDescriptorCache serviceDescriptorCache) {
+			return new LoadBalancerRetryBudgetMetrics(serviceDescriptorCache);
+		}
+
+	}
+
 }
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign.loadbalancer;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.env.Environment;
+
+/**
+ * A {@link ConfigurationProperties} bean for the Feign load-balancing clients.
+ *
+ * Individual services are configured via the
+ * {@link FeignLoadBalancerClientsProperties#clients} field, on top of the defaults
+ * located in the {@link FeignLoadBalancerProperties} base class.
+ *
+ * @since 3.1.6
+ */
+@ConfigurationProperties(FeignLoadBalancerClientsProperties.PREFIX)
+public class FeignLoadBalancerClientsProperties extends FeignLoadBalancerProperties implements EnvironmentAware {
+
+	/**
+	 * Properties prefix.
+	 */
+	public static final String PREFIX = "feign.loadbalancer";
+
+	private Map<String, FeignLoadBalancerProperties> clients = new HashMap<>();
+
+	private Environment environment;
+
+	public Map<String, FeignLoadBalancerProperties> getClients() {
+		return clients;
+	}
+
+	public void setClients(Map<String, FeignLoadBalancerProperties> clients) {
+		this.clients = clients;
+	}
+
+	@Override
+	public void setEnvironment(Environment environment) {
+		this.environment = environment;
+	}
+
+	/**
+	 * Returns the properties for the given service: the defaults with any
+	 * service-specific values bound on top of them.
+	 * @param serviceId the id of the service
+	 * @return the effective properties of the service
+	 */
+	public FeignLoadBalancerProperties getProperties(String serviceId) {
+		if (serviceId == null || !clients.containsKey(serviceId)) {
+			return this;
+		}
+		if (environment == null) {
+			return clients.get(serviceId);
+		}
+		FeignLoadBalancerProperties properties = new FeignLoadBalancerProperties();
+		Binder binder = Binder.get(environment);
+		binder.bind(PREFIX, Bindable.ofInstance(properties));
+		binder.bind(PREFIX + ".clients[" + serviceId + "]", Bindable.ofInstance(properties));
+		return properties;
+	}
+
+}
@@ -0,0 +1,745 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign.loadbalancer;
+
+import java.time.Duration;
+
+import org.springframework.cloud.openfeign.RoutingKey;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Per-service settings for the Feign load-balancing clients. Defaults are bound from the
+ * {@code feign.loadbalancer} prefix and can be overridden for a single service under
+ * {@code feign.loadbalancer.clients.<serviceId>}.
+ *
+ * @since 3.1.6
+ * @see FeignLoadBalancerClientsProperties
+ */
+public class FeignLoadBalancerProperties {
+
+	/**
+	 * Strategy used to select a service instance for a Feign request. The default
+	 * delegates to the configured Spring Cloud LoadBalancer.
+	 */
+	private InstanceSelection instanceSelection = InstanceSelection.DEFAULT;
+
+	/**
+	 * Peak-EWMA instance selection properties.
+	 */
+	private PeakEwma peakEwma = new PeakEwma();
+
+	/**
+	 * Consistent-hash routing properties.
+	 */
+	private ConsistentHash consistentHash = new ConsistentHash();
+
+	/**
+	 * Slow-start properties for newly discovered instances.
+	 */
+	private SlowStart slowStart = new SlowStart();
+
+	/**
+	 * Outlier detection properties.
+	 */
+	private OutlierDetection outlierDetection = new OutlierDetection();
+
+	/**
+	 * Subsetting properties.
+	 */
+	private Subsetting subsetting = new Subsetting();
+
+	/**
+	 * Hedging properties for idempotent requests.
+	 */
+	private Hedging hedging = new Hedging();
+
+	/**
+	 * Retry budget properties.
+	 */
+	private RetryBudget retryBudget = new RetryBudget();
+
+	/**
+	 * Properties for responses with a retryable status code.
+	 */
+	private RetryableStatus retryableStatus = new RetryableStatus();
+
+	/**
+	 * Deadline properties.
+	 */
+	private Deadline deadline = new Deadline();
+
+	public InstanceSelection getInstanceSelection() {
+		return instanceSelection;
+	}
+
+	public void setInstanceSelection(InstanceSelection instanceSelection) {
+		this.instanceSelection = instanceSelection;
+	}
+
+	public PeakEwma getPeakEwma() {
+		return peakEwma;
+	}
+
+	public void setPeakEwma(PeakEwma peakEwma) {
+		this.peakEwma = peakEwma;
+	}
+
+	public ConsistentHash getConsistentHash() {
+		return consistentHash;
+	}
+
+	public void setConsistentHash(ConsistentHash consistentHash) {
+		this.consistentHash = consistentHash;
+	}
+
+	public SlowStart getSlowStart() {
+		return slowStart;
+	}
+
+	public void setSlowStart(SlowStart slowStart) {
+		this.slowStart = slowStart;
+	}
+
+	public OutlierDetection getOutlierDetection() {
+		return outlierDetection;
+	}
+
+	public void setOutlierDetection(OutlierDetection outlierDetection) {
+		this.outlierDetection = outlierDetection;
+	}
+
+	public Subsetting getSubsetting() {
+		return subsetting;
+	}
+
+	public void setSubsetting(Subsetting subsetting) {
+		this.subsetting = subsetting;
+	}
+
+	public Hedging getHedging() {
+		return hedging;
+	}
+
+	public void setHedging(Hedging hedging) {
+		this.hedging = hedging;
+	}
+
+	public RetryBudget getRetryBudget() {
+		return retryBudget;
+	}
+
+	public void setRetryBudget(RetryBudget retryBudget) {
+		this.retryBudget = retryBudget;
+	}
+
+	public RetryableStatus getRetryableStatus() {
+		return retryableStatus;
+	}
+
+	public void setRetryableStatus(RetryableStatus retryableStatus) {
+		this.retryableStatus = retryableStatus;
+	}
+
+	public Deadline getDeadline() {
+		return deadline;
+	}
+
+	public void setDeadline(Deadline deadline) {
+		this.deadline = deadline;
+	}
+
+	/**
+	 * Enumeration of instance selection strategies.
+	 */
+	public enum InstanceSelection {
+
+		/**
+		 * Use the {@code ReactorServiceInstanceLoadBalancer} configured for the service.
+		 */
+		DEFAULT,
+
+		/**
+		 * Pick the cheaper of two random instances, where the cost is the peak-EWMA
+		 * latency of an instance multiplied by its number of in-flight requests.
+		 */
+		PEAK_EWMA
+
+	}
+
+	/**
+	 * Peak-EWMA instance selection properties.
+	 */
+	public static class PeakEwma {
+
+		/**
+		 * Time after which an observed latency has decayed to about a third of its weight
+		 * in the moving average.
+		 */
+		private Duration decayTime = Duration.ofSeconds(10);
+
+		/**
+		 * Latency recorded for a failed request if the actual request time was shorter,
+		 * so that instances failing fast do not attract more traffic.
+		 */
+		private Duration failurePenalty = Duration.ofSeconds(1);
+
+		public Duration getDecayTime() {
+			return decayTime;
+		}
+
+		public void setDecayTime(Duration decayTime) {
+			this.decayTime = decayTime;
+		}
+
+		public Duration getFailurePenalty() {
+			return failurePenalty;
+		}
+
+		public void setFailurePenalty(Duration failurePenalty) {
+			this.failurePenalty = failurePenalty;
+		}
+
+	}
+
+	/**
+	 * Consistent-hash routing properties. When enabled, requests that carry a routing key
+	 * header are sent to the instance the key maps to on a consistent-hash ring, unless
+	 * that instance already has more than its share of the in-flight requests.
+	 */
+	public static class ConsistentHash {
+
+		/**
+		 * Enables consistent-hash routing.
+		 */
+		private boolean enabled;
+
+		/**
+		 * Name of the request header holding the routing key. Requests without it are
+		 * load-balanced as usual.
+		 */
+		private String headerName = RoutingKey.DEFAULT_HEADER_NAME;
+
+		/**
+		 * Maximum ratio of the in-flight requests of an instance to the average in-flight
+		 * requests per instance. A request whose instance is over this bound is sent to
+		 * the next instance on the ring.
+		 */
+		private double loadFactor = 1.25;
+
+		/**
+		 * Number of points each instance has on the ring.
+		 */
+		private int virtualNodes = 100;
+
+		public boolean isEnabled() {
+			return enabled;
+		}
+
+		public void setEnabled(boolean enabled) {
+			this.enabled = enabled;
+		}
+
+		public String getHeaderName() {
+			return headerName;
+		}
+
+		public void setHeaderName(String headerName) {
+			this.headerName = headerName;
+		}
+
+		public double getLoadFactor() {
+			return loadFactor;
+		}
+
+		public void setLoadFactor(double loadFactor) {
+			this.loadFactor = loadFactor;
+		}
+
+		public int getVirtualNodes() {
+			return virtualNodes;
+		}
+
+		public void setVirtualNodes(int virtualNodes) {
+			this.virtualNodes = virtualNodes;
+		}
+
+	}
+
+	/**
+	 * Slow-start properties. When enabled, the traffic sent to an instance that appeared
+	 * after the client started is ramped up over a window, so that it can warm up.
+	 */
+	public static class SlowStart {
+
+		/**
+		 * Enables slow start of newly discovered instances.
+		 */
+		private boolean enabled;
+
+		/**
+		 * Time over which the traffic to a new instance is ramped up to its full share.
+		 */
+		private Duration window = Duration.ofSeconds(60);
+
+		/**
+		 * How the traffic to a new instance grows over the window.
+		 */
+		private Ramp ramp = Ramp.LINEAR;
+
+		/**
+		 * Share of its regular traffic a new instance receives when it is first seen.
+		 */
+		private double minWeight = 0.1;
+
+		public boolean isEnabled() {
+			return enabled;
+		}
+
+		public void setEnabled(boolean enabled) {
+			this.enabled = enabled;
+		}
+
+		public Duration getWindow() {
+			return window;
+		}
+
+		public void setWindow(Duration window) {
+			this.window = window;
+		}
+
+		public Ramp getRamp() {
+			return ramp;
+		}
+
+		public void setRamp(Ramp ramp) {
+			this.ramp = ramp;
+		}
+
+		public double getMinWeight() {
+			return minWeight;
+		}
+
+		public void setMinWeight(double minWeight) {
+			this.minWeight = minWeight;
+		}
+
+		/**
+		 * Enumeration of slow-start ramps.
+		 */
+		public enum Ramp {
+
+			/**
+			 * The share of traffic grows linearly from the minimum weight.
+			 */
+			LINEAR,
+
+			/**
+			 * The share of traffic grows exponentially from the minimum weight, so a new
+			 * instance receives little traffic for most of the window.
+			 */
+			EXPONENTIAL
+
+		}
+
+	}
+
+	/**
+	 * Outlier detection properties. When enabled, an instance is ejected from the
+	 * selection for a while after consecutive errors or connect failures, or when its
+	 * latency is far above the median latency of the other instances. The ejection time
+	 * doubles each time the same instance is ejected again.
+	 */
+	public static class OutlierDetection {
+
+		/**
+		 * Enables outlier detection.
+		 */
+		private boolean enabled;
+
+		/**
+		 * Number of consecutive failed requests or responses with a 5xx status code after
+		 * which an instance is ejected.
+		 */
+		private int consecutiveErrors = 5;
+
+		/**
+		 * Number of consecutive connect failures or socket timeouts after which an
+		 * instance is ejected.
+		 */
+		private int consecutiveConnectFailures = 3;
+
+		/**
+		 * Factor by which the average latency of an instance has to exceed the median
+		 * average latency of the instances of the service for the instance to be ejected.
+		 * A value of {@code 0} disables latency-based ejection.
+		 */
+		private double latencyFactor = 5;
+
+		/**
+		 * Time for which an instance is ejected the first time.
+		 */
+		private Duration baseEjectionTime = Duration.ofSeconds(30);
+
+		/**
+		 * Maximum time for which an instance is ejected. An instance that has not been
+		 * ejected for this long is again ejected for the base ejection time.
+		 */
+		private Duration maxEjectionTime = Duration.ofMinutes(5);
+
+		/**
+		 * Maximum ratio of the instances of a service that can be ejected at the same
+		 * time.
+		 */
+		private double maxEjectedRatio = 0.5;
+
+		public boolean isEnabled() {
+			return enabled;
+		}
+
+		public void setEnabled(boolean enabled) {
+			this.enabled = enabled;
+		}
+
+		public int getConsecutiveErrors() {
+			return consecutiveErrors;
+		}
+
+		public void setConsecutiveErrors(int consecutiveErrors) {
+			this.consecutiveErrors = consecutiveErrors;
+		}
+
+		public int getConsecutiveConnectFailures() {
+			return consecutiveConnectFailures;
+		}
+
+		public void setConsecutiveConnectFailures(int consecutiveConnectFailures) {
+			this.consecutiveConnectFailures = consecutiveConnectFailures;
+		}
+
+		public double getLatencyFactor() {
+			return latencyFactor;
+		}
+
+		public void setLatencyFactor(double latencyFactor) {
+			this.latencyFactor = latencyFactor;
+		}
+
+		public Duration getBaseEjectionTime() {
+			return baseEjectionTime;
+		}
+
+		public void setBaseEjectionTime(Duration baseEjectionTime) {
+			this.baseEjectionTime = baseEjectionTime;
+		}
+
+		public Duration getMaxEjectionTime() {
+			return maxEjectionTime;
+		}
+
+		public void setMaxEjectionTime(Duration maxEjectionTime) {
+			this.maxEjectionTime = maxEjectionTime;
+		}
+
+		public double getMaxEjectedRatio() {
+			return maxEjectedRatio;
+		}
+
+		public void setMaxEjectedRatio(double maxEjectedRatio) {
+			this.maxEjectedRatio = maxEjectedRatio;
+		}
+
+	}
+
+	/**
+	 * Subsetting properties. When enabled, each client only sends requests to a subset of
+	 * the instances of a service, chosen deterministically from its client id with
+	 * rendezvous hashing, so that the number of connections of a client does not grow
+	 * with the number of instances.
+	 */
+	public static class Subsetting {
+
+		/**
+		 * Enables subsetting.
+		 */
+		private boolean enabled;
+
+		/**
+		 * Number of instances in the subset of a client.
+		 */
+		private int size = 10;
+
+		/**
+		 * Id of this client, used to choose its subset by rendezvous hashing when no
+		 * client index is set. Defaults to the host name.
+		 */
+		private String clientId;
+
+		/**
+		 * Index of this client among the clients of the service, such as the ordinal of a
+		 * pod in a stateful set. When set, subsets are assigned deterministically, so
+		 * that the number of clients per instance differs by at most one.
+		 */
+		private Integer clientIndex;
+
+		public boolean isEnabled() {
+			return enabled;
+		}
+
+		public void setEnabled(boolean enabled) {
+			this.enabled = enabled;
+		}
+
+		public int getSize() {
+			return size;
+		}
+
+		public void setSize(int size) {
+			this.size = size;
+		}
+
+		public String getClientId() {
+			return clientId;
+		}
+
+		public void setClientId(String clientId) {
+			this.clientId = clientId;
+		}
+
+		public Integer getClientIndex() {
+			return clientIndex;
+		}
+
+		public void setClientIndex(Integer clientIndex) {
+			this.clientIndex = clientIndex;
+		}
+
+	}
+
+	/**
+	 * Hedging properties. When enabled, a {@code GET} request that has not completed
+	 * within the configured latency percentile of its Feign method is sent to a second
+	 * instance, and the first response wins.
+	 */
+	public static class Hedging {
+
+		/**
+		 * Enables hedging of {@code GET} requests.
+		 */
+		private boolean enabled;
+
+		/**
+		 * Percentile of the recent latencies of a Feign method after which a hedged
+		 * request is sent.
+		 */
+		private double percentile = 0.95;
+
+		/**
+		 * Minimum time to wait for the first attempt before sending a hedged request.
+		 */
+		private Duration minDelay = Duration.ofMillis(10);
+
+		/**
+		 * Maximum ratio of hedged requests to requests, so that hedging cannot double the
+		 * load on a service during an incident.
+		 */
+		private double budgetRatio = 0.1;
+
+		/**
+		 * Maximum number of threads running the attempts of hedged requests, shared by
+		 * all services and only read from the default properties. A hedge that finds no
+		 * free thread is not sent, and a request whose first attempt finds no free thread
+		 * is sent from the calling thread without hedging.
+		 */
+		private int maxThreads = 200;
+
+		public boolean isEnabled() {
+			return enabled;
+		}
+
+		public void setEnabled(boolean enabled) {
+			this.enabled = enabled;
+		}
+
+		public double getPercentile() {
+			return percentile;
+		}
+
+		public void setPercentile(double percentile) {
+			this.percentile = percentile;
+		}
+
+		public Duration getMinDelay() {
+			return minDelay;
+		}
+
+		public void setMinDelay(Duration minDelay) {
+			this.minDelay = minDelay;
+		}
+
+		public double getBudgetRatio() {
+			return budgetRatio;
+		}
+
+		public void setBudgetRatio(double budgetRatio) {
+			this.budgetRatio = budgetRatio;
+		}
+
+		public int getMaxThreads() {
+			return maxThreads;
+		}
+
+		public void setMaxThreads(int maxThreads) {
+			this.maxThreads = maxThreads;
+		}
+
+	}
+
+	/**
+	 * Retry budget properties. When enabled, retries of load-balanced requests to a
+	 * service are limited to a ratio of its recent requests plus a minimum rate.
+	 */
+	public static class RetryBudget {
+
+		/**
+		 * Enables the retry budget.
+		 */
+		private boolean enabled;
+
+		/**
+		 * Maximum ratio of retries to requests within the time-to-live.
+		 */
+		private double ratio = 0.1;
+
+		/**
+		 * Number of retries per second that are always allowed, regardless of the number
+		 * of requests.
+		 */
+		private int minRetriesPerSecond = 10;
+
+		/**
+		 * Time for which requests and retries are taken into account.
+		 */
+		private Duration ttl = Duration.ofSeconds(10);
+
+		public boolean isEnabled() {
+			return enabled;
+		}
+
+		public void setEnabled(boolean enabled) {
+			this.enabled = enabled;
+		}
+
+		public double getRatio() {
+			return ratio;
+		}
+
+		public void setRatio(double ratio) {
+			this.ratio = ratio;
+		}
+
+		public int getMinRetriesPerSecond() {
+			return minRetriesPerSecond;
+		}
+
+		public void setMinRetriesPerSecond(int minRetriesPerSecond) {
+			this.minRetriesPerSecond = minRetriesPerSecond;
+		}
+
+		public Duration getTtl() {
+			return ttl;
+		}
+
+		public void setTtl(Duration ttl) {
+			this.ttl = ttl;
+		}
+
+	}
+
+	/**
+	 * Properties for responses with a retryable status code. The body of a response that
+	 * is retried is only captured up to a limit; the body of the response that is finally
+	 * returned is not buffered.
+	 */
+	public static class RetryableStatus {
+
+		/**
+		 * Maximum number of body bytes kept from a response that is retried.
+		 */
+		private DataSize maxCapturedBodySize = DataSize.ofKilobytes(4);
+
+		/**
+		 * Maximum number of body bytes read and discarded from a response that is
+		 * retried, so that its connection can be reused. Larger bodies are not read any
+		 * further.
+		 */
+		private DataSize maxDrainedBodySize = DataSize.ofKilobytes(64);
+
+		public DataSize getMaxCapturedBodySize() {
+			return maxCapturedBodySize;
+		}
+
+		public void setMaxCapturedBodySize(DataSize maxCapturedBodySize) {
+			this.maxCapturedBodySize = maxCapturedBodySize;
+		}
+
+		public DataSize getMaxDrainedBodySize() {
+			return maxDrainedBodySize;
+		}
+
+		public void setMaxDrainedBodySize(DataSize maxDrainedBodySize) {
+			this.maxDrainedBodySize = maxDrainedBodySize;
+		}
+
+	}
+
+	/**
+	 * Deadline properties. A call is bounded by the {@link RequestDeadline} attached to
+	 * the calling thread, or else by the configured timeout.
+	 */
+	public static class Deadline {
+
+		/**
+		 * Time within which a call, including its retries, has to complete if no deadline
+		 * is attached to the calling thread. Not set by default.
+		 */
+		private Duration timeout;
+
+		/**
+		 * Name of a header through which the remaining time of the deadline, in
+		 * milliseconds, is passed to the called service. Not sent by default.
+		 */
+		private String headerName;
+
+		public Duration getTimeout() {
+			return timeout;
+		}
+
+		public void setTimeout(Duration timeout) {
+			this.timeout = timeout;
+		}
+
+		public String getHeaderName() {
+			return headerName;
+		}
+
+		public void setHeaderName(String headerName) {
+			this.headerName = headerName;
+		}
+
+	}
+
+}
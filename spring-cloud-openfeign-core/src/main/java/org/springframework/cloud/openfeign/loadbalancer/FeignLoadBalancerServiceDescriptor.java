@@ -0,0 +1,145 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign.loadbalancer;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycleValidator;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerProperties;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+
+/**
+ * Per-service routing data resolved from the load-balancer child context once and reused
+ * by the Feign load-balancing {@link feign.Client} implementations for every request.
+ *
+ * @since 3.1.6
+ * @see FeignLoadBalancerServiceDescriptorCache
+ */
+@SuppressWarnings("rawtypes")
+public final class FeignLoadBalancerServiceDescriptor {
+
+	private final String serviceId;
+
+	private final LoadBalancerProperties properties;
+
+	private final FeignLoadBalancerProperties feignProperties;
+
+	private final String hint;
+
+	private final Map<String, LoadBalancerLifecycle> lifecycleProcessors;
+
+	private final ServiceInstanceListSupplier serviceInstanceListSupplier;
+
+	private final FeignServiceInstanceSelector instanceSelector;
+
+	private final RequestHedger requestHedger;
+
+	private final LoadBalancerRetryBudget retryBudget;
+
+	private final Map<Class<?>, Set<LoadBalancerLifecycle>> supportedLifecycleProcessors = new ConcurrentHashMap<>();
+
+	FeignLoadBalancerServiceDescriptor(String serviceId, LoadBalancerProperties properties,
+			FeignLoadBalancerProperties feignProperties, Map<String, LoadBalancerLifecycle> lifecycleProcessors,
+			ServiceInstanceListSupplier serviceInstanceListSupplier, FeignServiceInstanceSelector instanceSelector,
+			RequestHedger requestHedger, LoadBalancerRetryBudget retryBudget) {
+		this.serviceId = serviceId;
+		this.properties = properties;
+		this.feignProperties = feignProperties;
+		this.hint = resolveHint(serviceId, properties);
+		this.lifecycleProcessors = lifecycleProcessors;
+		this.serviceInstanceListSupplier = serviceInstanceListSupplier;
+		this.instanceSelector = instanceSelector;
+		this.requestHedger = requestHedger;
+		this.retryBudget = retryBudget;
+	}
+
+	public String getServiceId() {
+		return serviceId;
+	}
+
+	public LoadBalancerProperties getProperties() {
+		return properties;
+	}
+
+	public FeignLoadBalancerProperties getFeignProperties() {
+		return feignProperties;
+	}
+
+	public String getHint() {
+		return hint;
+	}
+
+	public boolean isUseRawStatusCodeInResponseData() {
+		return properties.isUseRawStatusCodeInResponseData();
+	}
+
+	/**
+	 * Returns the {@link LoadBalancerLifecycle} beans of this service that support the
+	 * given request context type. The result is computed once per context type.
+	 * @param requestContextClass the type of the load-balancer request context
+	 * @return an unmodifiable set of supported lifecycle processors
+	 */
+	public Set<LoadBalancerLifecycle> getSupportedLifecycleProcessors(Class<?> requestContextClass) {
+		return supportedLifecycleProcessors.computeIfAbsent(requestContextClass,
+				contextClass -> Collections.unmodifiableSet(
+						LoadBalancerLifecycleValidator.getSupportedLifecycleProcessors(lifecycleProcessors,
+								contextClass, ResponseData.class, ServiceInstance.class)));
+	}
+
+	/**
+	 * Returns the {@link ServiceInstanceListSupplier} of this service; only resolved when
+	 * an {@link #getInstanceSelector() instance selector} is used.
+	 * @return the supplier or {@code null}
+	 */
+	public ServiceInstanceListSupplier getServiceInstanceListSupplier() {
+		return serviceInstanceListSupplier;
+	}
+
+	/**
+	 * Returns the Feign-side instance selector of this service.
+	 * @return the selector or {@code null} if instances are chosen by the
+	 * {@link org.springframework.cloud.client.loadbalancer.LoadBalancerClient}
+	 */
+	public FeignServiceInstanceSelector getInstanceSelector() {
+		return instanceSelector;
+	}
+
+	/**
+	 * Returns the retry budget of this service.
+	 * @return the budget or {@code null} if retries are not limited by a budget
+	 */
+	public LoadBalancerRetryBudget getRetryBudget() {
+		return retryBudget;
+	}
+
+	RequestHedger getRequestHedger() {
+		return requestHedger;
+	}
+
+	private static String resolveHint(String serviceId, LoadBalancerProperties properties) {
+		String defaultHint = properties.getHint().getOrDefault("default", "default");
+		String hintPropertyValue = properties.getHint().get(serviceId);
+		return hintPropertyValue != null ? hintPropertyValue : defaultHint;
+	}
+
+}
@@ -0,0 +1,261 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign.loadbalancer;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ApplicationContextEvent;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.core.task.TaskDecorator;
+
+/**
+ * Caches a {@link FeignLoadBalancerServiceDescriptor} per serviceId, so that the
+ * load-balancer properties, hint and {@link LoadBalancerLifecycle} beans are not looked
+ * up in the {@link LoadBalancerClientFactory} on every request. An entry is invalidated
+ * when the load-balancer child context of its service is refreshed or closed; all entries
+ * are dropped on an {@link EnvironmentChangeEvent} that changes load-balancer properties.
+ * The descriptor also carries the Feign-side {@link FeignServiceInstanceSelector}
+ * configured for the service through {@link FeignLoadBalancerClientsProperties}. The
+ * statistics gathered for a service are kept across invalidation and only reconfigured.
+ *
+ * @since 3.1.6
+ */
+public class FeignLoadBalancerServiceDescriptorCache implements ApplicationListener<ApplicationEvent>, DisposableBean {
+
+	private static final String LOAD_BALANCER_PROPERTIES_PREFIX = "spring.cloud.loadbalancer";
+
+	private final LoadBalancerClientFactory loadBalancerClientFactory;
+
+	private final FeignLoadBalancerClientsProperties feignLoadBalancerProperties;
+
+	private final Map<String, FeignLoadBalancerServiceDescriptor> descriptors = new ConcurrentHashMap<>();
+
+	// Kept across descriptor invalidation, so that a refresh does not reset the budgets
+	private final Map<String, LoadBalancerRetryBudget> retryBudgets = new ConcurrentHashMap<>();
+
+	// Kept across descriptor invalidation, so that a refresh does not reset the
+	// statistics, in-flight requests and latencies gathered for a service
+	private final Map<String, FeignLoadBalancerServiceState> serviceStates = new ConcurrentHashMap<>();
+
+	private final List<Consumer<LoadBalancerRetryBudget>> retryBudgetListeners = new CopyOnWriteArrayList<>();
+
+	private volatile HedgingExecutor hedgingExecutor;
+
+	private TaskDecorator hedgingTaskDecorator;
+
+	public FeignLoadBalancerServiceDescriptorCache(LoadBalancerClientFactory loadBalancerClientFactory) {
+		this(loadBalancerClientFactory, new FeignLoadBalancerClientsProperties());
+	}
+
+	public FeignLoadBalancerServiceDescriptorCache(LoadBalancerClientFactory loadBalancerClientFactory,
+			FeignLoadBalancerClientsProperties feignLoadBalancerProperties) {
+		this.loadBalancerClientFactory = loadBalancerClientFactory;
+		this.feignLoadBalancerProperties = feignLoadBalancerProperties;
+	}
+
+	public FeignLoadBalancerServiceDescriptor getDescriptor(String serviceId) {
+		FeignLoadBalancerServiceDescriptor descriptor = descriptors.get(serviceId);
+		if (descriptor != null) {
+			return descriptor;
+		}
+		// Not using computeIfAbsent: resolving the beans may create the child context,
+		// whose refresh event calls back into invalidate() for the same key.
+		descriptor = createDescriptor(serviceId);
+		FeignLoadBalancerServiceDescriptor existing = descriptors.putIfAbsent(serviceId, descriptor);
+		return existing != null ? existing : descriptor;
+	}
+
+	protected FeignLoadBalancerServiceDescriptor createDescriptor(String serviceId) {
+		FeignLoadBalancerProperties feignProperties = feignLoadBalancerProperties.getProperties(serviceId);
+		Map<String, LoadBalancerLifecycle> lifecycleProcessors = loadBalancerClientFactory.getInstances(serviceId,
+				LoadBalancerLifecycle.class);
+		FeignLoadBalancerServiceState state = serviceStates.computeIfAbsent(serviceId,
+				id -> new FeignLoadBalancerServiceState());
+		ServiceInstanceListSupplier serviceInstanceListSupplier = null;
+		FeignServiceInstanceSelector instanceSelector = null;
+		if (FeignLoadBalancerProperties.InstanceSelection.PEAK_EWMA.equals(feignProperties.getInstanceSelection())) {
+			PeakEwmaStatistics statistics = state.getPeakEwmaStatistics(feignProperties.getPeakEwma());
+			lifecycleProcessors = withLifecycleProcessor(lifecycleProcessors, "feignPeakEwmaStatistics", statistics);
+			instanceSelector = new PeakEwmaServiceInstanceSelector(statistics);
+		}
+		if (feignProperties.getConsistentHash().isEnabled()) {
+			InFlightRequestCounter inFlightRequests = state.getInFlightRequests();
+			lifecycleProcessors = withLifecycleProcessor(lifecycleProcessors, "feignInFlightRequestCounter",
+					inFlightRequests);
+			instanceSelector = new ConsistentHashServiceInstanceSelector(
+					instanceSelector != null ? instanceSelector : new RoundRobinServiceInstanceSelector(),
+					inFlightRequests, feignProperties.getConsistentHash());
+		}
+		if (feignProperties.getSlowStart().isEnabled()) {
+			instanceSelector = new SlowStartServiceInstanceSelector(
+					instanceSelector != null ? instanceSelector : new RoundRobinServiceInstanceSelector(),
+					feignProperties.getSlowStart(), state.getFirstSeenTimes());
+		}
+		if (feignProperties.getOutlierDetection().isEnabled()) {
+			OutlierDetector outlierDetector = state.getOutlierDetector(feignProperties.getOutlierDetection());
+			lifecycleProcessors = withLifecycleProcessor(lifecycleProcessors, "feignOutlierDetector", outlierDetector);
+			instanceSelector = new OutlierEjectingServiceInstanceSelector(
+					instanceSelector != null ? instanceSelector : new RoundRobinServiceInstanceSelector(),
+					outlierDetector, feignProperties.getOutlierDetection().getMaxEjectedRatio());
+		}
+		if (feignProperties.getSubsetting().isEnabled()) {
+			instanceSelector = new SubsettingServiceInstanceSelector(
+					instanceSelector != null ? instanceSelector : new RoundRobinServiceInstanceSelector(),
+					feignProperties.getSubsetting());
+		}
+		if (instanceSelector != null) {
+			serviceInstanceListSupplier = loadBalancerClientFactory.getInstance(serviceId,
+					ServiceInstanceListSupplier.class);
+		}
+		RequestHedger requestHedger = feignProperties.getHedging().isEnabled()
+				? state.getRequestHedger(feignProperties.getHedging(), this::getHedgingExecutor) : null;
+		LoadBalancerRetryBudget retryBudget = feignProperties.getRetryBudget().isEnabled()
+				? getRetryBudget(serviceId, feignProperties.getRetryBudget()) : null;
+		return new FeignLoadBalancerServiceDescriptor(serviceId, loadBalancerClientFactory.getProperties(serviceId),
+				feignProperties, lifecycleProcessors, serviceInstanceListSupplier, instanceSelector, requestHedger,
+				retryBudget);
+	}
+
+	private LoadBalancerRetryBudget getRetryBudget(String serviceId,
+			FeignLoadBalancerProperties.RetryBudget properties) {
+		LoadBalancerRetryBudget retryBudget = retryBudgets.get(serviceId);
+		if (retryBudget != null) {
+			retryBudget.configure(properties);
+			return retryBudget;
+		}
+		retryBudget = new LoadBalancerRetryBudget(serviceId, properties);
+		LoadBalancerRetryBudget existing = retryBudgets.putIfAbsent(serviceId, retryBudget);
+		if (existing != null) {
+			return existing;
+		}
+		for (Consumer<LoadBalancerRetryBudget> listener : retryBudgetListeners) {
+			listener.accept(retryBudget);
+		}
+		return retryBudget;
+	}
+
+	/**
+	 * Returns the retry budgets created so far.
+	 * @return the retry budgets by serviceId
+	 */
+	public Map<String, LoadBalancerRetryBudget> getRetryBudgets() {
+		return Collections.unmodifiableMap(retryBudgets);
+	}
+
+	/**
+	 * Registers a listener that is called with each newly created retry budget, and
+	 * immediately with the existing ones.
+	 * @param listener the listener
+	 */
+	public void addRetryBudgetListener(Consumer<LoadBalancerRetryBudget> listener) {
+		retryBudgetListeners.add(listener);
+		retryBudgets.values().forEach(listener);
+	}
+
+	/**
+	 * Sets a decorator applied to hedged requests, for example to propagate a tracing
+	 * context that is not covered by the default context propagation.
+	 * @param hedgingTaskDecorator the task decorator
+	 */
+	public void setHedgingTaskDecorator(TaskDecorator hedgingTaskDecorator) {
+		this.hedgingTaskDecorator = hedgingTaskDecorator;
+	}
+
+	private HedgingExecutor getHedgingExecutor() {
+		HedgingExecutor executor = hedgingExecutor;
+		if (executor == null) {
+			synchronized (this) {
+				executor = hedgingExecutor;
+				if (executor == null) {
+					executor = new HedgingExecutor(feignLoadBalancerProperties.getHedging().getMaxThreads(),
+							hedgingTaskDecorator);
+					hedgingExecutor = executor;
+				}
+			}
+		}
+		return executor;
+	}
+
+	public void invalidate(String serviceId) {
+		descriptors.remove(serviceId);
+	}
+
+	public void clear() {
+		descriptors.clear();
+	}
+
+	@Override
+	public void destroy() {
+		HedgingExecutor executor = hedgingExecutor;
+		if (executor != null) {
+			executor.shutdown();
+		}
+	}
+
+	private static Map<String, LoadBalancerLifecycle> withLifecycleProcessor(
+			Map<String, LoadBalancerLifecycle> lifecycleProcessors, String name, LoadBalancerLifecycle processor) {
+		Map<String, LoadBalancerLifecycle> processors = new LinkedHashMap<>();
+		if (lifecycleProcessors != null) {
+			processors.putAll(lifecycleProcessors);
+		}
+		processors.put(name, processor);
+		return processors;
+	}
+
+	@Override
+	public void onApplicationEvent(ApplicationEvent event) {
+		if (event instanceof ContextRefreshedEvent || event instanceof ContextClosedEvent) {
+			String serviceId = LoadBalancerClientFactory
+					.getName(((ApplicationContextEvent) event).getApplicationContext().getEnvironment());
+			if (serviceId != null) {
+				invalidate(serviceId);
+			}
+		}
+		else if (event instanceof EnvironmentChangeEvent
+				&& affectsLoadBalancing(((EnvironmentChangeEvent) event).getKeys())) {
+			clear();
+		}
+	}
+
+	private static boolean affectsLoadBalancing(Set<String> keys) {
+		for (String key : keys) {
+			String name = key.toLowerCase(Locale.ROOT).replace('_', '.');
+			if (name.startsWith(FeignLoadBalancerClientsProperties.PREFIX)
+					|| name.startsWith(LOAD_BALANCER_PROPERTIES_PREFIX)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+}
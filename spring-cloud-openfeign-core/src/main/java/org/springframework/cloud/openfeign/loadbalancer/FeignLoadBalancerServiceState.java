@@ -0,0 +1,85 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign.loadbalancer;
+
+import java.util.function.Supplier;
+
+/**
+ * Load-balancing state of a single service that outlives its
+ * {@link FeignLoadBalancerServiceDescriptor}. Descriptors are recreated whenever the
+ * configuration of the service may have changed, while the statistics, in-flight
+ * requests, outlier ejections and slow-start first-seen times gathered so far are kept
+ * and only reconfigured, so that requests started before a refresh complete against the
+ * same state.
+ *
+ * @since 3.1.6
+ */
+final class FeignLoadBalancerServiceState {
+
+	private final SlowStartServiceInstanceSelector.FirstSeenTimes firstSeenTimes = new SlowStartServiceInstanceSelector.FirstSeenTimes();
+
+	private PeakEwmaStatistics peakEwmaStatistics;
+
+	private InFlightRequestCounter inFlightRequests;
+
+	private OutlierDetector outlierDetector;
+
+	private RequestHedger requestHedger;
+
+	synchronized PeakEwmaStatistics getPeakEwmaStatistics(FeignLoadBalancerProperties.PeakEwma properties) {
+		if (peakEwmaStatistics == null) {
+			peakEwmaStatistics = new PeakEwmaStatistics(properties);
+		}
+		else {
+			peakEwmaStatistics.configure(properties);
+		}
+		return peakEwmaStatistics;
+	}
+
+	synchronized InFlightRequestCounter getInFlightRequests() {
+		if (inFlightRequests == null) {
+			inFlightRequests = new InFlightRequestCounter();
+		}
+		return inFlightRequests;
+	}
+
+	synchronized OutlierDetector getOutlierDetector(FeignLoadBalancerProperties.OutlierDetection properties) {
+		if (outlierDetector == null) {
+			outlierDetector = new OutlierDetector(properties);
+		}
+		else {
+			outlierDetector.configure(properties);
+		}
+		return outlierDetector;
+	}
+
+	SlowStartServiceInstanceSelector.FirstSeenTimes getFirstSeenTimes() {
+		return firstSeenTimes;
+	}
+
+	synchronized RequestHedger getRequestHedger(FeignLoadBalancerProperties.Hedging properties,
+			Supplier<HedgingExecutor> executor) {
+		if (requestHedger == null) {
+			requestHedger = new RequestHedger(properties, executor.get());
+		}
+		else {
+			requestHedger.configure(properties);
+		}
+		return requestHedger;
+	}
+
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign.loadbalancer;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import feign.Request;
+
+import org.springframework.cloud.client.loadbalancer.RequestData;
+import org.springframework.core.style.ToStringCreator;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.util.MultiValueMap;
+
+/**
+ * A {@link RequestData} backed by a Feign {@link Request}. The URL is parsed and the
+ * header view is created only when first accessed, and the headers are never copied.
+ *
+ * @since 3.1.6
+ */
+class FeignRequestData extends RequestData {
+
+	private final Request request;
+
+	private volatile URI url;
+
+	private volatile HttpHeaders headers;
+
+	private volatile Map<String, Object> attributes;
+
+	FeignRequestData(Request request) {
+		super(null, null, null, null, null);
+		this.request = request;
+	}
+
+	@Override
+	public HttpMethod getHttpMethod() {
+		return HttpMethod.resolve(request.httpMethod().name());
+	}
+
+	@Override
+	public URI getUrl() {
+		URI url = this.url;
+		if (url == null) {
+			url = URI.create(request.url());
+			this.url = url;
+		}
+		return url;
+	}
+
+	@Override
+	public HttpHeaders getHeaders() {
+		HttpHeaders headers = this.headers;
+		if (headers == null) {
+			headers = FeignHeadersMultiValueMap.readOnlyHttpHeaders(request.headers());
+			this.headers = headers;
+		}
+		return headers;
+	}
+
+	@Override
+	public MultiValueMap<String, String> getCookies() {
+		return null;
+	}
+
+	@Override
+	public Map<String, Object> getAttributes() {
+		Map<String, Object> attributes = this.attributes;
+		if (attributes == null) {
+			synchronized (this) {
+				attributes = this.attributes;
+				if (attributes == null) {
+					attributes = new HashMap<>();
+					this.attributes = attributes;
+				}
+			}
+		}
+		return attributes;
+	}
+
+	@Override
+	public String toString() {
+		ToStringCreator to = new ToStringCreator(this);
+		to.append("httpMethod", getHttpMethod());
+		to.append("url", getUrl());
+		to.append("headers", getHeaders());
+		to.append("cookies", getCookies());
+		return to.toString();
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (!(o instanceof RequestData)) {
+			return false;
+		}
+		RequestData that = (RequestData) o;
+		return getHttpMethod() == that.getHttpMethod() && Objects.equals(getUrl(), that.getUrl())
+				&& Objects.equals(getHeaders(), that.getHeaders()) && Objects.equals(getCookies(), that.getCookies())
+				&& Objects.equals(getAttributes(), that.getAttributes());
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(getHttpMethod(), getUrl(), getHeaders(), getCookies(), getAttributes());
+	}
+
+}
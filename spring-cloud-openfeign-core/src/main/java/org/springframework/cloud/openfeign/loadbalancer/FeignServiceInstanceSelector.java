@@ -0,0 +1,60 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign.loadbalancer;
+
+import java.util.List;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+
+/**
+ * Selects the {@link ServiceInstance} a Feign request is sent to from the instances
+ * provided by the {@link ServiceInstanceListSupplier} of the service. Used by the Feign
+ * load-balancing clients in place of the configured
+ * {@code ReactorServiceInstanceLoadBalancer} when a
+ * {@link FeignLoadBalancerProperties.InstanceSelection} other than the default is set, or
+ * when consistent-hash routing, slow start, outlier detection or subsetting is enabled.
+ *
+ * @since 3.1.6
+ */
+public interface FeignServiceInstanceSelector {
+
+	/**
+	 * Selects a service instance.
+	 * @param instances the available instances, never empty
+	 * @param request the load-balancer request
+	 * @return the selected instance or {@code null} if none should be used
+	 */
+	ServiceInstance select(List<ServiceInstance> instances, Request<?> request);
+
+	/**
+	 * Selects a service instance other than the given one, for example for a hedged
+	 * request. The default implementation removes the excluded instance before selecting;
+	 * selectors that narrow down the instances should apply the exclusion after doing so.
+	 * @param instances the available instances, never empty
+	 * @param request the load-balancer request
+	 * @param excludedInstance the instance that must not be selected
+	 * @return the selected instance or {@code null} if no other instance should be used
+	 */
+	default ServiceInstance select(List<ServiceInstance> instances, Request<?> request,
+			ServiceInstance excludedInstance) {
+		List<ServiceInstance> candidates = LoadBalancerUtils.exclude(instances, excludedInstance);
+		return candidates.isEmpty() ? null : select(candidates, request);
+	}
+
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign.loadbalancer;
+
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+/**
+ * Runs the attempts of the hedged requests of all services. A single timer thread starts
+ * the hedges once their delay has passed, and the attempts run on a bounded pool that
+ * does not queue: a hedge that finds no free thread is not sent, and a request whose
+ * first attempt finds no free thread is sent from the calling thread without hedging.
+ * Each attempt runs with the thread-bound context of the calling thread.
+ *
+ * @since 3.1.6
+ */
+final class HedgingExecutor {
+
+	private final ThreadPoolExecutor executor;
+
+	private final ScheduledThreadPoolExecutor timer;
+
+	private final TaskDecorator taskDecorator;
+
+	HedgingExecutor(int maxThreads, TaskDecorator taskDecorator) {
+		CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("feign-hedging-");
+		threadFactory.setDaemon(true);
+		this.executor = new ThreadPoolExecutor(0, Math.max(1, maxThreads), 60, TimeUnit.SECONDS,
+				new SynchronousQueue<>(), threadFactory);
+		CustomizableThreadFactory timerThreadFactory = new CustomizableThreadFactory("feign-hedging-timer-");
+		timerThreadFactory.setDaemon(true);
+		this.timer = new ScheduledThreadPoolExecutor(1, timerThreadFactory);
+		this.timer.setRemoveOnCancelPolicy(true);
+		this.taskDecorator = new ContextPropagatingTaskDecorator(taskDecorator);
+	}
+
+	/**
+	 * Captures the context of the calling thread for the given task.
+	 * @param task the task
+	 * @return the task running with the context of the calling thread
+	 */
+	Runnable decorate(Runnable task) {
+		return taskDecorator.decorate(task);
+	}
+
+	ScheduledFuture<?> schedule(Runnable trigger, long delayNanos) {
+		return timer.schedule(trigger, delayNanos, TimeUnit.NANOSECONDS);
+	}
+
+	Future<?> submit(Runnable task) throws RejectedExecutionException {
+		return executor.submit(task);
+	}
+
+	void shutdown() {
+		timer.shutdownNow();
+		executor.shutdownNow();
+	}
+
+}
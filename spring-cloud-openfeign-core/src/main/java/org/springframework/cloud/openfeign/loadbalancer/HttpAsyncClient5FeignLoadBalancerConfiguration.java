@@ -0,0 +1,63 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign.loadbalancer;
+
+import feign.AsyncClient;
+import feign.hc5.AsyncApacheHttp5Client;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerClient;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.cloud.openfeign.clientconfig.Http2StreamLimitingAsyncClient;
+import org.springframework.cloud.openfeign.clientconfig.HttpAsyncClient5FeignConfiguration;
+import org.springframework.cloud.openfeign.support.FeignHttpClientProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Configuration instantiating a {@link LoadBalancerClient}-based {@link AsyncClient}
+ * object that uses {@link AsyncApacheHttp5Client} under the hood.
+ *
+ * @since 3.1.6
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnClass(AsyncApacheHttp5Client.class)
+@ConditionalOnBean({ LoadBalancerClient.class, LoadBalancerClientFactory.class })
+@ConditionalOnProperty(value = "feign.httpclient.hc5.async.enabled", havingValue = "true")
+@Import(HttpAsyncClient5FeignConfiguration.class)
+class HttpAsyncClient5FeignLoadBalancerConfiguration {
+
+	@Bean
+	@ConditionalOnMissingBean(AsyncClient.class)
+	public AsyncClient<HttpClientContext> feignAsyncClient(LoadBalancerClient loadBalancerClient,
+			CloseableHttpAsyncClient httpAsyncClient5, FeignHttpClientProperties httpClientProperties,
+			FeignLoadBalancerServiceDescriptorCache serviceDescriptorCache) {
+		AsyncClient<HttpClientContext> delegate = new AsyncApacheHttp5Client(httpAsyncClient5);
+		FeignHttpClientProperties.Http2 http2 = httpClientProperties.getHttp2();
+		if (http2.isEnabled()) {
+			delegate = new Http2StreamLimitingAsyncClient<>(delegate, http2);
+		}
+		return new FeignAsyncLoadBalancerClient<>(delegate, loadBalancerClient, serviceDescriptorCache);
+	}
+
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign.loadbalancer;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+
+/**
+ * A {@link LoadBalancerLifecycle} that counts the in-flight requests of each
+ * {@link ServiceInstance} of a service.
+ *
+ * @since 3.1.6
+ * @see ConsistentHashServiceInstanceSelector
+ */
+@SuppressWarnings("rawtypes")
+public class InFlightRequestCounter implements LoadBalancerLifecycle<Object, Object, ServiceInstance> {
+
+	private final Map<ServiceInstance, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+
+	private final AtomicInteger total = new AtomicInteger();
+
+	@Override
+	public boolean supports(Class requestContextClass, Class responseClass, Class serverTypeClass) {
+		return ServiceInstance.class.isAssignableFrom(serverTypeClass);
+	}
+
+	@Override
+	public void onStart(Request<Object> request) {
+		// do nothing
+	}
+
+	@Override
+	public void onStartRequest(Request<Object> request, Response<ServiceInstance> lbResponse) {
+		if (lbResponse.hasServer()) {
+			inFlight.computeIfAbsent(lbResponse.getServer(), instance -> new AtomicInteger()).incrementAndGet();
+			total.incrementAndGet();
+		}
+	}
+
+	@Override
+	public void onComplete(CompletionContext<Object, ServiceInstance, Object> completionContext) {
+		if (completionContext.getLoadBalancerResponse() == null
+				|| !completionContext.getLoadBalancerResponse().hasServer()) {
+			return;
+		}
+		AtomicInteger count = inFlight.get(completionContext.getLoadBalancerResponse().getServer());
+		if (count != null) {
+			count.decrementAndGet();
+			total.decrementAndGet();
+		}
+	}
+
+	/**
+	 * Returns the number of in-flight requests of the given instance.
+	 * @param instance the service instance
+	 * @return the number of requests
+	 */
+	public int getInFlight(ServiceInstance instance) {
+		AtomicInteger count = inFlight.get(instance);
+		return count != null ? Math.max(0, count.get()) : 0;
+	}
+
+	/**
+	 * Returns the number of in-flight requests of all instances.
+	 * @return the number of requests
+	 */
+	public int getTotalInFlight() {
+		return Math.max(0, total.get());
+	}
+
+	/**
+	 * Drops the counts of instances that are not in the given collection.
+	 * @param instances the current instances of the service
+	 */
+	void retainAll(Collection<ServiceInstance> instances) {
+		Collection<ServiceInstance> retained = new HashSet<>(instances);
+		inFlight.entrySet().removeIf(entry -> {
+			if (retained.contains(entry.getKey())) {
+				return false;
+			}
+			total.addAndGet(-entry.getValue().get());
+			return true;
+		});
+	}
+
+	int size() {
+		return inFlight.size();
+	}
+
+}
@@ -17,11 +17,15 @@
 package org.springframework.cloud.openfeign.loadbalancer;
 
 import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 
 import feign.Response;
 
 import org.springframework.cloud.client.loadbalancer.RetryableStatusCodeException;
+import org.springframework.util.StreamUtils;
 
 /**
  * A {@link RetryableStatusCodeException} for {@link Response}s.
@@ -30,12 +34,27 @@ import org.springframework.cloud.client.loadbalancer.RetryableStatusCodeExceptio
  */
 public class LoadBalancerResponseStatusCodeException extends RetryableStatusCodeException {
 
-	private final Response response;
+	private volatile Response response;
+
+	private boolean released;
 
 	public LoadBalancerResponseStatusCodeException(String serviceId, Response response, byte[] body, URI uri) {
 		super(serviceId, response.status(), response, uri);
-		this.response = Response.builder().body(new ByteArrayInputStream(body), body.length).headers(response.headers())
-				.reason(response.reason()).status(response.status()).request(response.request()).build();
+		this.response = withBody(response, body);
+	}
+
+	/**
+	 * Creates an exception that holds on to the unread response, so that its body does
+	 * not have to be buffered if the response is finally returned to the caller. If the
+	 * request is retried instead, {@link #releaseResponse(int, long)} has to be called.
+	 * @param serviceId the id of the service
+	 * @param response the unread response
+	 * @param uri the request URI
+	 * @since 3.1.6
+	 */
+	public LoadBalancerResponseStatusCodeException(String serviceId, Response response, URI uri) {
+		super(serviceId, response.status(), response, uri);
+		this.response = response;
 	}
 
 	@Override
@@ -43,4 +62,85 @@ public class LoadBalancerResponseStatusCodeException extends RetryableStatusCode
 		return this.response;
 	}
 
+	/**
+	 * Replaces the unread response with a copy that only keeps the first bytes of the
+	 * body, and releases the original response. The rest of the body is read and
+	 * discarded up to the given limit, so that the connection can be reused; a larger
+	 * body is not read any further.
+	 * @param maxCapturedBytes maximum number of body bytes kept in the response
+	 * @param maxDrainedBytes maximum number of body bytes read and discarded
+	 * @since 3.1.6
+	 */
+	public synchronized void releaseResponse(int maxCapturedBytes, long maxDrainedBytes) {
+		Response original = this.response;
+		if (released || original.body() == null) {
+			return;
+		}
+		released = true;
+		byte[] captured = new byte[0];
+		try (InputStream body = original.body().asInputStream()) {
+			captured = StreamUtils.copyToByteArray(new LimitedInputStream(body, maxCapturedBytes));
+			byte[] buffer = new byte[StreamUtils.BUFFER_SIZE];
+			long drained = 0;
+			int read = 0;
+			while (drained < maxDrainedBytes
+					&& (read = body.read(buffer, 0, (int) Math.min(buffer.length, maxDrainedBytes - drained))) != -1) {
+				drained += read;
+			}
+		}
+		catch (IOException exception) {
+			// The response is discarded anyway; the connection is not reused
+		}
+		finally {
+			original.close();
+		}
+		this.response = Response.builder().body(captured).headers(original.headers()).reason(original.reason())
+				.status(original.status()).request(original.request()).build();
+	}
+
+	private static Response withBody(Response response, byte[] body) {
+		return Response.builder().body(new ByteArrayInputStream(body), body.length).headers(response.headers())
+				.reason(response.reason()).status(response.status()).request(response.request()).build();
+	}
+
+	private static final class LimitedInputStream extends FilterInputStream {
+
+		private long remaining;
+
+		private LimitedInputStream(InputStream in, long limit) {
+			super(in);
+			this.remaining = limit;
+		}
+
+		@Override
+		public int read() throws IOException {
+			if (remaining <= 0) {
+				return -1;
+			}
+			int result = super.read();
+			if (result != -1) {
+				remaining--;
+			}
+			return result;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if (remaining <= 0) {
+				return -1;
+			}
+			int result = super.read(b, off, (int) Math.min(len, remaining));
+			if (result != -1) {
+				remaining -= result;
+			}
+			return result;
+		}
+
+		@Override
+		public void close() {
+			// The underlying stream is closed by the caller
+		}
+
+	}
+
 }
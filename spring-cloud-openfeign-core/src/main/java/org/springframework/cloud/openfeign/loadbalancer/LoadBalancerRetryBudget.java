@@ -0,0 +1,169 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign.loadbalancer;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limits the retries of load-balanced requests to a single service to a ratio of its
+ * recent requests plus a minimum rate. Requests and retries are counted in a ring of time
+ * buckets backed by {@link LongAdder}s, so that recording them does not contend between
+ * threads.
+ *
+ * @since 3.1.6
+ */
+public class LoadBalancerRetryBudget {
+
+	private static final int BUCKETS = 10;
+
+	private final String serviceId;
+
+	private final Bucket[] buckets = new Bucket[BUCKETS];
+
+	private final LongAdder requests = new LongAdder();
+
+	private final LongAdder retries = new LongAdder();
+
+	private final LongAdder exhausted = new LongAdder();
+
+	private volatile Settings settings;
+
+	public LoadBalancerRetryBudget(String serviceId, FeignLoadBalancerProperties.RetryBudget properties) {
+		this.serviceId = serviceId;
+		for (int i = 0; i < BUCKETS; i++) {
+			buckets[i] = new Bucket();
+		}
+		configure(properties);
+	}
+
+	/**
+	 * Applies new budget properties while keeping the recorded requests and retries.
+	 * @param properties the retry budget properties
+	 */
+	public void configure(FeignLoadBalancerProperties.RetryBudget properties) {
+		long ttlNanos = Math.max(BUCKETS, properties.getTtl().toNanos());
+		double minRetries = properties.getMinRetriesPerSecond() * (ttlNanos / 1e9);
+		settings = new Settings(ttlNanos / BUCKETS, properties.getRatio(), minRetries);
+	}
+
+	public String getServiceId() {
+		return serviceId;
+	}
+
+	/**
+	 * Records a request, which adds a fraction of a retry to the budget.
+	 */
+	public void onRequest() {
+		currentBucket(settings).requests.increment();
+		requests.increment();
+	}
+
+	/**
+	 * Takes a retry from the budget.
+	 * @return {@code false} if the budget is exhausted and the request must not be
+	 * retried
+	 */
+	public boolean tryAcquireRetry() {
+		Settings current = settings;
+		if (getBalance(current) < 1) {
+			exhausted.increment();
+			return false;
+		}
+		currentBucket(current).retries.increment();
+		retries.increment();
+		return true;
+	}
+
+	/**
+	 * Returns the number of retries that are currently available.
+	 * @return the balance of the budget
+	 */
+	public double getBalance() {
+		return Math.max(0, getBalance(settings));
+	}
+
+	public long getRequestCount() {
+		return requests.sum();
+	}
+
+	public long getRetryCount() {
+		return retries.sum();
+	}
+
+	public long getExhaustedCount() {
+		return exhausted.sum();
+	}
+
+	private double getBalance(Settings current) {
+		long epoch = epoch(current);
+		long recentRequests = 0;
+		long recentRetries = 0;
+		for (Bucket bucket : buckets) {
+			long age = epoch - bucket.epoch.get();
+			if (age >= 0 && age < BUCKETS) {
+				recentRequests += bucket.requests.sum();
+				recentRetries += bucket.retries.sum();
+			}
+		}
+		return current.minRetries + recentRequests * current.ratio - recentRetries;
+	}
+
+	private Bucket currentBucket(Settings current) {
+		long epoch = epoch(current);
+		Bucket bucket = buckets[(int) Math.floorMod(epoch, (long) BUCKETS)];
+		long bucketEpoch = bucket.epoch.get();
+		if (bucketEpoch != epoch && bucket.epoch.compareAndSet(bucketEpoch, epoch)) {
+			// Counts recorded concurrently with the reset may be lost, which only
+			// makes the budget slightly inaccurate for one bucket
+			bucket.requests.reset();
+			bucket.retries.reset();
+		}
+		return bucket;
+	}
+
+	private static long epoch(Settings current) {
+		return Math.floorDiv(System.nanoTime(), current.bucketNanos);
+	}
+
+	private static final class Bucket {
+
+		private final AtomicLong epoch = new AtomicLong(Long.MIN_VALUE);
+
+		private final LongAdder requests = new LongAdder();
+
+		private final LongAdder retries = new LongAdder();
+
+	}
+
+	private static final class Settings {
+
+		private final long bucketNanos;
+
+		private final double ratio;
+
+		private final double minRetries;
+
+		private Settings(long bucketNanos, double ratio, double minRetries) {
+			this.bucketNanos = bucketNanos;
+			this.ratio = ratio;
+			this.minRetries = minRetries;
+		}
+
+	}
+
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign.loadbalancer;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Exposes the state of the {@link LoadBalancerRetryBudget}s as Micrometer meters, tagged
+ * with the {@code serviceId}.
+ *
+ * @since 3.1.6
+ */
+public class LoadBalancerRetryBudgetMetrics implements MeterBinder {
+
+	private static final String METRIC_PREFIX = "feign.loadbalancer.retry.budget";
+
+	private final FeignLoadBalancerServiceDescriptorCache serviceDescriptorCache;
+
+	public LoadBalancerRetryBudgetMetrics(FeignLoadBalancerServiceDescriptorCache serviceDescriptorCache) {
+		this.serviceDescriptorCache = serviceDescriptorCache;
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		serviceDescriptorCache.addRetryBudgetListener(retryBudget -> bindTo(registry, retryBudget));
+	}
+
+	private void bindTo(MeterRegistry registry, LoadBalancerRetryBudget retryBudget) {
+		Tags tags = Tags.of("serviceId", retryBudget.getServiceId());
+		Gauge.builder(METRIC_PREFIX + ".balance", retryBudget, LoadBalancerRetryBudget::getBalance).tags(tags)
+				.description("Number of retries currently available in the retry budget").register(registry);
+		FunctionCounter.builder(METRIC_PREFIX + ".requests", retryBudget, LoadBalancerRetryBudget::getRequestCount)
+				.tags(tags).description("Requests that added to the retry budget").register(registry);
+		FunctionCounter.builder(METRIC_PREFIX + ".retries", retryBudget, LoadBalancerRetryBudget::getRetryCount)
+				.tags(tags).description("Retries taken from the retry budget").register(registry);
+		FunctionCounter.builder(METRIC_PREFIX + ".exhausted", retryBudget, LoadBalancerRetryBudget::getExhaustedCount)
+				.tags(tags).description("Retries rejected because the retry budget was exhausted").register(registry);
+	}
+
+}
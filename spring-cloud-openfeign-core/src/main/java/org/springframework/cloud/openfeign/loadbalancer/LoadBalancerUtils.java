@@ -17,10 +17,14 @@
 package org.springframework.cloud.openfeign.loadbalancer;
 
 import java.io.IOException;
-import java.net.URI;
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 import feign.Client;
 import feign.Request;
@@ -28,12 +32,15 @@ import feign.Response;
 
 import org.springframework.cloud.client.ServiceInstance;
 import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerClient;
 import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
 import org.springframework.cloud.client.loadbalancer.RequestData;
 import org.springframework.cloud.client.loadbalancer.ResponseData;
+import org.springframework.cloud.loadbalancer.core.SelectedInstanceCallback;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.util.StringUtils;
 
 /**
  * @author Olga Maciaszek-Sharma
@@ -43,6 +50,10 @@ import org.springframework.http.HttpStatus;
 @SuppressWarnings({ "unchecked", "rawtypes" })
 final class LoadBalancerUtils {
 
+	// Number of times the load balancer is asked for an instance other than an excluded
+	// one
+	private static final int CHOOSE_OTHER_INSTANCE_ATTEMPTS = 3;
+
 	private LoadBalancerUtils() {
 		throw new IllegalStateException("Can't instantiate a utility class");
 	}
@@ -55,25 +66,88 @@ final class LoadBalancerUtils {
 		supportedLifecycleProcessors.forEach(lifecycle -> lifecycle.onStartRequest(lbRequest, lbResponse));
 		try {
 			Response response = feignClient.execute(feignRequest, options);
-			if (loadBalanced) {
-				supportedLifecycleProcessors.forEach(
-						lifecycle -> lifecycle.onComplete(new CompletionContext<>(CompletionContext.Status.SUCCESS,
-								lbRequest, lbResponse, buildResponseData(response, useRawStatusCodes))));
+			if (loadBalanced && !supportedLifecycleProcessors.isEmpty()) {
+				CompletionContext completionContext = new CompletionContext<>(CompletionContext.Status.SUCCESS,
+						lbRequest, lbResponse, buildResponseData(response, useRawStatusCodes));
+				supportedLifecycleProcessors.forEach(lifecycle -> lifecycle.onComplete(completionContext));
 			}
 			return response;
 		}
 		catch (Exception exception) {
-			if (loadBalanced) {
-				supportedLifecycleProcessors.forEach(lifecycle -> lifecycle.onComplete(
-						new CompletionContext<>(CompletionContext.Status.FAILED, exception, lbRequest, lbResponse)));
+			if (loadBalanced && !supportedLifecycleProcessors.isEmpty()) {
+				CompletionContext completionContext = new CompletionContext<>(CompletionContext.Status.FAILED,
+						exception, lbRequest, lbResponse);
+				supportedLifecycleProcessors.forEach(lifecycle -> lifecycle.onComplete(completionContext));
 			}
 			throw exception;
 		}
 	}
 
+	/**
+	 * Returns the deadline of the current call: the one attached to the calling thread,
+	 * or else one created from the configured timeout.
+	 * @param properties the deadline properties of the service
+	 * @return the deadline, or {@code null} if the call has none
+	 */
+	static RequestDeadline resolveDeadline(FeignLoadBalancerProperties.Deadline properties) {
+		RequestDeadline deadline = RequestDeadline.current();
+		if (deadline == null && properties.getTimeout() != null) {
+			deadline = RequestDeadline.after(properties.getTimeout());
+		}
+		return deadline;
+	}
+
+	/**
+	 * Limits the timeouts of an attempt to the given remaining time of its deadline.
+	 * @param options the configured options
+	 * @param remainingMillis the remaining time of the deadline, negative if there is no
+	 * deadline
+	 * @return the options to use for the attempt
+	 */
+	static Request.Options limitOptions(Request.Options options, long remainingMillis) {
+		if (remainingMillis < 0) {
+			return options;
+		}
+		long connectTimeoutMillis = options.connectTimeoutUnit().toMillis(options.connectTimeout());
+		long readTimeoutMillis = options.readTimeoutUnit().toMillis(options.readTimeout());
+		if (isWithin(connectTimeoutMillis, remainingMillis) && isWithin(readTimeoutMillis, remainingMillis)) {
+			return options;
+		}
+		return new Request.Options(limit(connectTimeoutMillis, remainingMillis), TimeUnit.MILLISECONDS,
+				limit(readTimeoutMillis, remainingMillis), TimeUnit.MILLISECONDS, options.isFollowRedirects());
+	}
+
+	// A timeout of zero means no timeout
+	private static boolean isWithin(long timeoutMillis, long remainingMillis) {
+		return timeoutMillis > 0 && timeoutMillis <= remainingMillis;
+	}
+
+	private static long limit(long timeoutMillis, long remainingMillis) {
+		return isWithin(timeoutMillis, remainingMillis) ? timeoutMillis : remainingMillis;
+	}
+
+	/**
+	 * Adds the remaining time of the deadline to the request, if a header name is
+	 * configured.
+	 * @param request the request
+	 * @param properties the deadline properties of the service
+	 * @param remainingMillis the remaining time of the deadline, negative if there is no
+	 * deadline
+	 * @return the request to send
+	 */
+	static Request withDeadlineHeader(Request request, FeignLoadBalancerProperties.Deadline properties,
+			long remainingMillis) {
+		if (remainingMillis < 0 || !StringUtils.hasText(properties.getHeaderName())) {
+			return request;
+		}
+		Map<String, Collection<String>> headers = new LinkedHashMap<>(request.headers());
+		headers.put(properties.getHeaderName(), Collections.singletonList(String.valueOf(remainingMillis)));
+		return Request.create(request.httpMethod(), request.url(), headers, request.body(), request.charset(),
+				request.requestTemplate());
+	}
+
 	static ResponseData buildResponseData(Response response, boolean useRawStatusCodes) {
-		HttpHeaders responseHeaders = new HttpHeaders();
-		response.headers().forEach((key, value) -> responseHeaders.put(key, new ArrayList<>(value)));
+		HttpHeaders responseHeaders = FeignHeadersMultiValueMap.readOnlyHttpHeaders(response.headers());
 		if (useRawStatusCodes) {
 			return new ResponseData(responseHeaders, null, buildRequestData(response.request()), response.status());
 		}
@@ -82,10 +156,69 @@ final class LoadBalancerUtils {
 	}
 
 	static RequestData buildRequestData(Request request) {
-		HttpHeaders requestHeaders = new HttpHeaders();
-		request.headers().forEach((key, value) -> requestHeaders.put(key, new ArrayList<>(value)));
-		return new RequestData(HttpMethod.resolve(request.httpMethod().name()), URI.create(request.url()),
-				requestHeaders, null, new HashMap<>());
+		return request != null ? new FeignRequestData(request) : null;
+	}
+
+	static ServiceInstance choose(LoadBalancerClient loadBalancerClient,
+			FeignLoadBalancerServiceDescriptor serviceDescriptor,
+			org.springframework.cloud.client.loadbalancer.Request lbRequest) {
+		return choose(loadBalancerClient, serviceDescriptor, lbRequest, null);
+	}
+
+	/**
+	 * Chooses an instance of the service, trying to avoid the given instance.
+	 * @param loadBalancerClient the load-balancer client used if the service has no
+	 * Feign-side instance selector
+	 * @param serviceDescriptor the service descriptor
+	 * @param lbRequest the load-balancer request
+	 * @param excludedInstance an instance that should not be chosen, can be {@code null}
+	 * @return the chosen instance, or {@code null} if no (other) instance is available
+	 */
+	static ServiceInstance choose(LoadBalancerClient loadBalancerClient,
+			FeignLoadBalancerServiceDescriptor serviceDescriptor,
+			org.springframework.cloud.client.loadbalancer.Request lbRequest, ServiceInstance excludedInstance) {
+		FeignServiceInstanceSelector instanceSelector = serviceDescriptor.getInstanceSelector();
+		ServiceInstance instance;
+		if (instanceSelector == null || serviceDescriptor.getServiceInstanceListSupplier() == null) {
+			instance = loadBalancerClient.choose(serviceDescriptor.getServiceId(), lbRequest);
+			for (int i = 1; i < CHOOSE_OTHER_INSTANCE_ATTEMPTS && isSameInstance(instance, excludedInstance); i++) {
+				instance = loadBalancerClient.choose(serviceDescriptor.getServiceId(), lbRequest);
+			}
+			return isSameInstance(instance, excludedInstance) ? null : instance;
+		}
+		ServiceInstanceListSupplier supplier = serviceDescriptor.getServiceInstanceListSupplier();
+		List<ServiceInstance> instances = supplier.get(lbRequest).blockFirst();
+		if (instances == null || instances.isEmpty()) {
+			return null;
+		}
+		instance = excludedInstance != null ? instanceSelector.select(instances, lbRequest, excludedInstance)
+				: instanceSelector.select(instances, lbRequest);
+		if (instance != null && supplier instanceof SelectedInstanceCallback) {
+			((SelectedInstanceCallback) supplier).selectedServiceInstance(instance);
+		}
+		return instance;
+	}
+
+	/**
+	 * Returns the given instances without the excluded one.
+	 * @param instances the instances
+	 * @param excludedInstance the instance to remove, can be {@code null}
+	 * @return the remaining instances
+	 */
+	static List<ServiceInstance> exclude(List<ServiceInstance> instances, ServiceInstance excludedInstance) {
+		if (excludedInstance == null) {
+			return instances;
+		}
+		return instances.stream().filter(candidate -> !isSameInstance(candidate, excludedInstance))
+				.collect(Collectors.toList());
+	}
+
+	private static boolean isSameInstance(ServiceInstance instance, ServiceInstance other) {
+		if (instance == null || other == null) {
+			return false;
+		}
+		return instance.equals(other) || (instance.getHost().equals(other.getHost())
+				&& instance.getPort() == other.getPort() && instance.isSecure() == other.isSecure());
 	}
 
 	static Response executeWithLoadBalancerLifecycleProcessing(Client feignClient, Request.Options options,
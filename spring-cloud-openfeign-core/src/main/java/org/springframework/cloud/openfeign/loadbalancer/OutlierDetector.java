@@ -0,0 +1,330 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign.loadbalancer;
+
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+import org.springframework.cloud.client.loadbalancer.TimedRequestContext;
+import org.springframework.util.ClassUtils;
+
+/**
+ * A {@link LoadBalancerLifecycle} that passively checks the health of the
+ * {@link ServiceInstance ServiceInstances} of a service. An instance is ejected after a
+ * number of consecutive failed requests or responses with a 5xx status code, after a
+ * number of consecutive connect failures or socket timeouts, or when its average latency
+ * exceeds the median average latency of the instances by the configured factor. The
+ * ejection time grows exponentially with the number of times the instance has been
+ * ejected in a row.
+ *
+ * @since 3.1.6
+ * @see OutlierEjectingServiceInstanceSelector
+ */
+@SuppressWarnings("rawtypes")
+public class OutlierDetector implements LoadBalancerLifecycle<Object, Object, ServiceInstance> {
+
+	private static final Log LOG = LogFactory.getLog(OutlierDetector.class);
+
+	// Weight of a new observation in the average latency of an instance
+	private static final double LATENCY_SMOOTHING = 0.1;
+
+	// Requests an instance has to complete before its latency is compared
+	private static final int MIN_LATENCY_SAMPLES = 10;
+
+	// Instances with enough samples needed to compute a meaningful median
+	private static final int MIN_LATENCY_INSTANCES = 3;
+
+	private static final long MEDIAN_REFRESH_NANOS = 1_000_000_000L;
+
+	// Exceptions thrown when a connection cannot be established, including the connect
+	// timeouts of the HTTP clients that are on the classpath
+	private static final List<Class<?>> CONNECT_FAILURE_TYPES = connectFailureTypes(ConnectException.class,
+			NoRouteToHostException.class, SocketTimeoutException.class, "org.apache.http.conn.ConnectTimeoutException",
+			"org.apache.http.conn.HttpHostConnectException", "org.apache.hc.client5.http.ConnectTimeoutException",
+			"org.apache.hc.client5.http.HttpHostConnectException", "java.net.http.HttpConnectTimeoutException");
+
+	private volatile FeignLoadBalancerProperties.OutlierDetection properties;
+
+	private final LongSupplier nanoClock;
+
+	private final Map<ServiceInstance, InstanceState> states = new ConcurrentHashMap<>();
+
+	private volatile double medianLatency = Double.NaN;
+
+	private volatile long medianComputedAt;
+
+	private volatile boolean medianComputed;
+
+	public OutlierDetector(FeignLoadBalancerProperties.OutlierDetection properties) {
+		this(properties, System::nanoTime);
+	}
+
+	OutlierDetector(FeignLoadBalancerProperties.OutlierDetection properties, LongSupplier nanoClock) {
+		this.properties = properties;
+		this.nanoClock = nanoClock;
+	}
+
+	/**
+	 * Applies new properties while keeping the ejections and latencies recorded so far.
+	 * @param properties the outlier detection properties
+	 */
+	public void configure(FeignLoadBalancerProperties.OutlierDetection properties) {
+		this.properties = properties;
+	}
+
+	@Override
+	public boolean supports(Class requestContextClass, Class responseClass, Class serverTypeClass) {
+		return ServiceInstance.class.isAssignableFrom(serverTypeClass);
+	}
+
+	@Override
+	public void onStart(Request<Object> request) {
+		// do nothing
+	}
+
+	@Override
+	public void onStartRequest(Request<Object> request, Response<ServiceInstance> lbResponse) {
+		if (request.getContext() instanceof TimedRequestContext
+				&& ((TimedRequestContext) request.getContext()).getRequestStartTime() == 0L) {
+			((TimedRequestContext) request.getContext()).setRequestStartTime(System.nanoTime());
+		}
+	}
+
+	@Override
+	public void onComplete(CompletionContext<Object, ServiceInstance, Object> completionContext) {
+		if (CompletionContext.Status.DISCARD.equals(completionContext.status())
+				|| completionContext.getLoadBalancerResponse() == null
+				|| !completionContext.getLoadBalancerResponse().hasServer()) {
+			return;
+		}
+		ServiceInstance instance = completionContext.getLoadBalancerResponse().getServer();
+		InstanceState state = states.computeIfAbsent(instance, key -> new InstanceState());
+		long now = nanoClock.getAsLong();
+		if (CompletionContext.Status.FAILED.equals(completionContext.status())) {
+			onFailure(instance, state, isConnectFailure(completionContext.getThrowable()), now);
+		}
+		else if (statusCode(completionContext.getClientResponse()) >= 500) {
+			onFailure(instance, state, false, now);
+		}
+		else {
+			Object context = completionContext.getLoadBalancerRequest().getContext();
+			long latency = context instanceof TimedRequestContext
+					&& ((TimedRequestContext) context).getRequestStartTime() != 0L
+							? System.nanoTime() - ((TimedRequestContext) context).getRequestStartTime() : -1;
+			onSuccess(instance, state, latency, now);
+		}
+	}
+
+	private void onFailure(ServiceInstance instance, InstanceState state, boolean connectFailure, long now) {
+		String reason = null;
+		synchronized (state) {
+			if (state.isEjected(now)) {
+				return;
+			}
+			state.consecutiveErrors++;
+			state.consecutiveConnectFailures = connectFailure ? state.consecutiveConnectFailures + 1 : 0;
+			if (connectFailure && state.consecutiveConnectFailures >= properties.getConsecutiveConnectFailures()) {
+				reason = state.consecutiveConnectFailures + " consecutive connect failures";
+			}
+			else if (state.consecutiveErrors >= properties.getConsecutiveErrors()) {
+				reason = state.consecutiveErrors + " consecutive errors";
+			}
+			if (reason != null) {
+				eject(state, now);
+			}
+		}
+		if (reason != null) {
+			logEjection(instance, state, reason);
+		}
+	}
+
+	private void onSuccess(ServiceInstance instance, InstanceState state, long latency, long now) {
+		double median = latency >= 0 && properties.getLatencyFactor() > 0 ? getMedianLatency(now) : Double.NaN;
+		String reason = null;
+		synchronized (state) {
+			if (state.isEjected(now)) {
+				return;
+			}
+			state.consecutiveErrors = 0;
+			state.consecutiveConnectFailures = 0;
+			if (latency < 0) {
+				return;
+			}
+			state.latency = state.latencySamples == 0 ? latency
+					: state.latency + LATENCY_SMOOTHING * (latency - state.latency);
+			state.latencySamples++;
+			if (!Double.isNaN(median) && state.latencySamples >= MIN_LATENCY_SAMPLES
+					&& state.latency > properties.getLatencyFactor() * median) {
+				reason = "average latency of " + (long) (state.latency / 1_000_000) + "ms";
+				eject(state, now);
+			}
+		}
+		if (reason != null) {
+			logEjection(instance, state, reason);
+		}
+	}
+
+	private void eject(InstanceState state, long now) {
+		long maxEjectionNanos = properties.getMaxEjectionTime().toNanos();
+		if (state.ejections > 0 && now - state.ejectedUntil > maxEjectionNanos) {
+			state.ejections = 0;
+		}
+		long ejectionNanos = properties.getBaseEjectionTime().toNanos() << Math.min(state.ejections, 30);
+		if (ejectionNanos <= 0 || ejectionNanos > maxEjectionNanos) {
+			ejectionNanos = maxEjectionNanos;
+		}
+		state.ejections++;
+		state.ejectedUntil = now + ejectionNanos;
+		state.consecutiveErrors = 0;
+		state.consecutiveConnectFailures = 0;
+		// The instance has to prove itself again once it is back
+		state.latency = 0;
+		state.latencySamples = 0;
+	}
+
+	private void logEjection(ServiceInstance instance, InstanceState state, String reason) {
+		if (LOG.isInfoEnabled()) {
+			LOG.info("Ejecting " + instance.getHost() + ":" + instance.getPort() + " of service "
+					+ instance.getServiceId() + " after " + reason + " (ejection " + state.ejections + ")");
+		}
+	}
+
+	/**
+	 * Returns whether the given instance is currently ejected.
+	 * @param instance the service instance
+	 * @return {@code true} if the instance should not be selected
+	 */
+	public boolean isEjected(ServiceInstance instance) {
+		InstanceState state = states.get(instance);
+		return state != null && state.isEjected(nanoClock.getAsLong());
+	}
+
+	private double getMedianLatency(long now) {
+		if (medianComputed && now - medianComputedAt < MEDIAN_REFRESH_NANOS) {
+			return medianLatency;
+		}
+		double[] latencies = new double[states.size()];
+		int count = 0;
+		for (InstanceState state : states.values()) {
+			synchronized (state) {
+				if (state.latencySamples >= MIN_LATENCY_SAMPLES && count < latencies.length) {
+					latencies[count++] = state.latency;
+				}
+			}
+		}
+		double median = Double.NaN;
+		if (count >= MIN_LATENCY_INSTANCES) {
+			Arrays.sort(latencies, 0, count);
+			median = count % 2 == 1 ? latencies[count / 2] : (latencies[count / 2 - 1] + latencies[count / 2]) / 2;
+		}
+		medianLatency = median;
+		medianComputedAt = now;
+		medianComputed = true;
+		return median;
+	}
+
+	private static int statusCode(Object clientResponse) {
+		if (!(clientResponse instanceof ResponseData)) {
+			return 0;
+		}
+		ResponseData responseData = (ResponseData) clientResponse;
+		if (responseData.getRawHttpStatus() != null) {
+			return responseData.getRawHttpStatus();
+		}
+		return responseData.getHttpStatus() != null ? responseData.getHttpStatus().value() : 0;
+	}
+
+	private static boolean isConnectFailure(Throwable throwable) {
+		for (Throwable cause = throwable; cause != null; cause = cause.getCause()) {
+			for (Class<?> type : CONNECT_FAILURE_TYPES) {
+				if (type.isInstance(cause)) {
+					return true;
+				}
+			}
+			if (cause.getCause() == cause) {
+				break;
+			}
+		}
+		return false;
+	}
+
+	private static List<Class<?>> connectFailureTypes(Object... types) {
+		ClassLoader classLoader = OutlierDetector.class.getClassLoader();
+		List<Class<?>> resolved = new ArrayList<>();
+		for (Object type : types) {
+			if (type instanceof Class) {
+				resolved.add((Class<?>) type);
+			}
+			else if (ClassUtils.isPresent((String) type, classLoader)) {
+				resolved.add(ClassUtils.resolveClassName((String) type, classLoader));
+			}
+		}
+		return resolved;
+	}
+
+	/**
+	 * Drops the state of instances that are not in the given collection.
+	 * @param instances the current instances of the service
+	 */
+	void retainAll(Collection<ServiceInstance> instances) {
+		states.keySet().retainAll(new HashSet<>(instances));
+	}
+
+	int size() {
+		return states.size();
+	}
+
+	private static final class InstanceState {
+
+		private int consecutiveErrors;
+
+		private int consecutiveConnectFailures;
+
+		private double latency;
+
+		private int latencySamples;
+
+		// Written while holding the lock, read without it
+		private volatile int ejections;
+
+		private volatile long ejectedUntil;
+
+		boolean isEjected(long now) {
+			return ejections > 0 && now - ejectedUntil < 0;
+		}
+
+	}
+
+}
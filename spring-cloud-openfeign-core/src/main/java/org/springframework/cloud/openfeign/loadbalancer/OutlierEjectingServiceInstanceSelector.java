@@ -0,0 +1,75 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign.loadbalancer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.Request;
+
+/**
+ * A {@link FeignServiceInstanceSelector} that leaves out the instances ejected by an
+ * {@link OutlierDetector} before delegating the selection. At most the configured ratio
+ * of the instances is left out, and never all of them, so that a service whose instances
+ * all fail is still called.
+ *
+ * @since 3.1.6
+ */
+public class OutlierEjectingServiceInstanceSelector implements FeignServiceInstanceSelector {
+
+	private final FeignServiceInstanceSelector delegate;
+
+	private final OutlierDetector outlierDetector;
+
+	private final double maxEjectedRatio;
+
+	public OutlierEjectingServiceInstanceSelector(FeignServiceInstanceSelector delegate,
+			OutlierDetector outlierDetector, double maxEjectedRatio) {
+		this.delegate = delegate;
+		this.outlierDetector = outlierDetector;
+		this.maxEjectedRatio = maxEjectedRatio;
+	}
+
+	@Override
+	public ServiceInstance select(List<ServiceInstance> instances, Request<?> request) {
+		int size = instances.size();
+		if (outlierDetector.size() > 2 * size) {
+			outlierDetector.retainAll(instances);
+		}
+		int maxEjected = Math.min((int) (size * maxEjectedRatio), size - 1);
+		if (maxEjected <= 0) {
+			return delegate.select(instances, request);
+		}
+		List<ServiceInstance> available = null;
+		int ejected = 0;
+		for (int i = 0; i < size; i++) {
+			ServiceInstance instance = instances.get(i);
+			if (ejected < maxEjected && outlierDetector.isEjected(instance)) {
+				if (available == null) {
+					available = new ArrayList<>(instances.subList(0, i));
+				}
+				ejected++;
+			}
+			else if (available != null) {
+				available.add(instance);
+			}
+		}
+		return delegate.select(available != null ? available : instances, request);
+	}
+
+}
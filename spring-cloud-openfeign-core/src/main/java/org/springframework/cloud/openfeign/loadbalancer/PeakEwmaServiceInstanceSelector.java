@@ -0,0 +1,62 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign.loadbalancer;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.Request;
+
+/**
+ * A {@link FeignServiceInstanceSelector} that uses the power of two choices: it picks two
+ * distinct random instances and selects the one with the lower cost according to
+ * {@link PeakEwmaStatistics}.
+ *
+ * @since 3.1.6
+ */
+public class PeakEwmaServiceInstanceSelector implements FeignServiceInstanceSelector {
+
+	private final PeakEwmaStatistics statistics;
+
+	public PeakEwmaServiceInstanceSelector(PeakEwmaStatistics statistics) {
+		this.statistics = statistics;
+	}
+
+	@Override
+	public ServiceInstance select(List<ServiceInstance> instances, Request<?> request) {
+		int size = instances.size();
+		if (size == 1) {
+			return instances.get(0);
+		}
+		if (statistics.size() > 2 * size) {
+			statistics.retainAll(instances);
+		}
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		int first = random.nextInt(size);
+		int second = random.nextInt(size - 1);
+		if (second >= first) {
+			second++;
+		}
+		long now = System.nanoTime();
+		ServiceInstance firstInstance = instances.get(first);
+		ServiceInstance secondInstance = instances.get(second);
+		return statistics.getCost(firstInstance, now) <= statistics.getCost(secondInstance, now) ? firstInstance
+				: secondInstance;
+	}
+
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign.loadbalancer;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.TimedRequestContext;
+
+/**
+ * A {@link LoadBalancerLifecycle} that keeps a peak-EWMA latency and the number of
+ * in-flight requests for each {@link ServiceInstance} of a service. The latency estimate
+ * jumps to any observed latency above it and otherwise decays exponentially towards the
+ * recent observations. All updates are lock-free.
+ *
+ * @since 3.1.6
+ * @see PeakEwmaServiceInstanceSelector
+ */
+@SuppressWarnings("rawtypes")
+public class PeakEwmaStatistics implements LoadBalancerLifecycle<Object, Object, ServiceInstance> {
+
+	// Cost of an instance that has requests in flight but has never completed one
+	private static final double UNKNOWN_LATENCY_PENALTY = (double) (Long.MAX_VALUE >> 16);
+
+	private volatile double decayNanos;
+
+	private volatile long failurePenaltyNanos;
+
+	private final Map<ServiceInstance, InstanceStatistics> statistics = new ConcurrentHashMap<>();
+
+	public PeakEwmaStatistics(FeignLoadBalancerProperties.PeakEwma properties) {
+		configure(properties);
+	}
+
+	/**
+	 * Applies new properties while keeping the statistics gathered so far.
+	 * @param properties the peak-EWMA properties
+	 */
+	public void configure(FeignLoadBalancerProperties.PeakEwma properties) {
+		this.decayNanos = Math.max(1, properties.getDecayTime().toNanos());
+		this.failurePenaltyNanos = properties.getFailurePenalty().toNanos();
+	}
+
+	@Override
+	public boolean supports(Class requestContextClass, Class responseClass, Class serverTypeClass) {
+		return ServiceInstance.class.isAssignableFrom(serverTypeClass);
+	}
+
+	@Override
+	public void onStart(Request<Object> request) {
+		// do nothing
+	}
+
+	@Override
+	public void onStartRequest(Request<Object> request, Response<ServiceInstance> lbResponse) {
+		if (request.getContext() instanceof TimedRequestContext
+				&& ((TimedRequestContext) request.getContext()).getRequestStartTime() == 0L) {
+			((TimedRequestContext) request.getContext()).setRequestStartTime(System.nanoTime());
+		}
+		if (lbResponse.hasServer()) {
+			statistics.computeIfAbsent(lbResponse.getServer(), instance -> new InstanceStatistics()).inFlight
+					.incrementAndGet();
+		}
+	}
+
+	@Override
+	public void onComplete(CompletionContext<Object, ServiceInstance, Object> completionContext) {
+		long now = System.nanoTime();
+		if (CompletionContext.Status.DISCARD.equals(completionContext.status())
+				|| completionContext.getLoadBalancerResponse() == null
+				|| !completionContext.getLoadBalancerResponse().hasServer()) {
+			return;
+		}
+		InstanceStatistics instanceStatistics = statistics.get(completionContext.getLoadBalancerResponse().getServer());
+		if (instanceStatistics == null) {
+			return;
+		}
+		instanceStatistics.inFlight.decrementAndGet();
+		Object context = completionContext.getLoadBalancerRequest().getContext();
+		if (!(context instanceof TimedRequestContext) || ((TimedRequestContext) context).getRequestStartTime() == 0L) {
+			return;
+		}
+		long latency = now - ((TimedRequestContext) context).getRequestStartTime();
+		if (CompletionContext.Status.FAILED.equals(completionContext.status())) {
+			latency = Math.max(latency, failurePenaltyNanos);
+		}
+		instanceStatistics.observe(latency, now, decayNanos);
+	}
+
+	/**
+	 * Returns the expected cost of sending a request to the given instance: its decayed
+	 * peak-EWMA latency multiplied by the number of in-flight requests plus one.
+	 * @param instance the service instance
+	 * @param now the current {@link System#nanoTime()}
+	 * @return the cost; {@code 0} for an instance without recorded requests
+	 */
+	public double getCost(ServiceInstance instance, long now) {
+		InstanceStatistics instanceStatistics = statistics.get(instance);
+		if (instanceStatistics == null) {
+			return 0;
+		}
+		int inFlight = Math.max(0, instanceStatistics.inFlight.get());
+		double latency = instanceStatistics.getLatency(now, decayNanos);
+		if (latency == 0 && inFlight > 0) {
+			return UNKNOWN_LATENCY_PENALTY + inFlight;
+		}
+		return latency * (inFlight + 1);
+	}
+
+	/**
+	 * Drops the statistics of instances that are not in the given collection.
+	 * @param instances the current instances of the service
+	 */
+	void retainAll(Collection<ServiceInstance> instances) {
+		statistics.keySet().retainAll(new HashSet<>(instances));
+	}
+
+	int size() {
+		return statistics.size();
+	}
+
+	private static final class InstanceStatistics {
+
+		private final AtomicInteger inFlight = new AtomicInteger();
+
+		private final AtomicReference<Ewma> ewma = new AtomicReference<>(Ewma.EMPTY);
+
+		void observe(long latency, long now, double decayNanos) {
+			Ewma previous;
+			Ewma next;
+			do {
+				previous = ewma.get();
+				next = previous.next(latency, now, decayNanos);
+			}
+			while (!ewma.compareAndSet(previous, next));
+		}
+
+		double getLatency(long now, double decayNanos) {
+			return ewma.get().decayed(now, decayNanos);
+		}
+
+	}
+
+	private static final class Ewma {
+
+		static final Ewma EMPTY = new Ewma(0, 0);
+
+		private final double value;
+
+		private final long timestamp;
+
+		private Ewma(double value, long timestamp) {
+			this.value = value;
+			this.timestamp = timestamp;
+		}
+
+		Ewma next(long latency, long now, double decayNanos) {
+			if (value == 0 || latency > value) {
+				return new Ewma(latency, now);
+			}
+			double weight = weight(now, decayNanos);
+			return new Ewma(value * weight + latency * (1 - weight), now);
+		}
+
+		double decayed(long now, double decayNanos) {
+			return value * weight(now, decayNanos);
+		}
+
+		private double weight(long now, double decayNanos) {
+			return Math.exp(-Math.max(0, now - timestamp) / decayNanos);
+		}
+
+	}
+
+}
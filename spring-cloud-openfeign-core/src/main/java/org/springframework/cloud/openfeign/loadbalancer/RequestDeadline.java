@@ -0,0 +1,112 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign.loadbalancer;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.util.Assert;
+
+/**
+ * A point in time by which a call, including all of its retries, has to complete. A
+ * deadline is attached to the calling thread; load-balanced Feign requests issued by that
+ * thread limit the timeouts of each attempt to the remaining time and are not retried
+ * once the deadline has passed.
+ *
+ * <pre class="code">
+ * try (RequestDeadline.Scope scope = RequestDeadline.after(Duration.ofMillis(500)).attach()) {
+ *     storeClient.getStores();
+ * }
+ * </pre>
+ *
+ * @since 3.1.6
+ */
+public final class RequestDeadline {
+
+	private static final ThreadLocal<RequestDeadline> CURRENT = new ThreadLocal<>();
+
+	private final long deadlineNanos;
+
+	private RequestDeadline(long deadlineNanos) {
+		this.deadlineNanos = deadlineNanos;
+	}
+
+	/**
+	 * Creates a deadline the given time from now.
+	 * @param timeout the time until the deadline
+	 * @return the deadline
+	 */
+	public static RequestDeadline after(Duration timeout) {
+		Assert.notNull(timeout, "Timeout must not be null");
+		return new RequestDeadline(System.nanoTime() + timeout.toNanos());
+	}
+
+	/**
+	 * Returns the deadline attached to the current thread.
+	 * @return the deadline, or {@code null} if none is attached
+	 */
+	public static RequestDeadline current() {
+		return CURRENT.get();
+	}
+
+	/**
+	 * Attaches this deadline to the current thread until the returned scope is closed. A
+	 * deadline can only be shortened this way: if an earlier deadline is already
+	 * attached, it stays in effect.
+	 * @return the scope to close once the call has completed
+	 */
+	public Scope attach() {
+		RequestDeadline previous = CURRENT.get();
+		if (previous == null || deadlineNanos - previous.deadlineNanos < 0) {
+			CURRENT.set(this);
+		}
+		return () -> {
+			if (previous != null) {
+				CURRENT.set(previous);
+			}
+			else {
+				CURRENT.remove();
+			}
+		};
+	}
+
+	/**
+	 * Returns the time remaining until the deadline.
+	 * @return the remaining time in milliseconds, rounded up, or zero once the deadline
+	 * has passed
+	 */
+	public long remainingMillis() {
+		long remainingNanos = deadlineNanos - System.nanoTime();
+		return remainingNanos > 0 ? TimeUnit.NANOSECONDS.toMillis(remainingNanos + 999_999) : 0;
+	}
+
+	public boolean isExpired() {
+		return deadlineNanos - System.nanoTime() <= 0;
+	}
+
+	/**
+	 * The attachment of a deadline to a thread.
+	 */
+	@FunctionalInterface
+	public interface Scope extends AutoCloseable {
+
+		@Override
+		void close();
+
+	}
+
+}
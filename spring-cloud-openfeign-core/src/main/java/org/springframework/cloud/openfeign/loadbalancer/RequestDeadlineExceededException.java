@@ -0,0 +1,33 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign.loadbalancer;
+
+import java.io.IOException;
+
+/**
+ * Thrown when a load-balanced request is not sent, because the {@link RequestDeadline} of
+ * the call has already passed.
+ *
+ * @since 3.1.6
+ */
+public class RequestDeadlineExceededException extends IOException {
+
+	public RequestDeadlineExceededException(String serviceId) {
+		super("Deadline exceeded before sending a request to the service " + serviceId);
+	}
+
+}
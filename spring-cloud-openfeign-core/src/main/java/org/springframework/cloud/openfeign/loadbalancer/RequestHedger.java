@@ -0,0 +1,435 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign.loadbalancer;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+import feign.Request;
+import feign.Response;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Hedges idempotent requests of a single service. Once the latencies of a Feign method
+ * are known, its requests are sent from a {@link HedgingExecutor} while the calling
+ * thread waits for their result: if the first attempt has not completed within the
+ * configured percentile of the recent latencies, a second attempt is sent to another
+ * instance. The first response below 500 is returned and the response of the other
+ * attempt is closed as soon as it arrives, while a server error or a failure of one
+ * attempt makes the caller wait for the other one. The number of hedged attempts is
+ * limited by a budget that grows with the number of requests.
+ *
+ * @since 3.1.6
+ */
+final class RequestHedger {
+
+	private static final Log LOG = LogFactory.getLog(RequestHedger.class);
+
+	// Number of recent latencies kept per Feign method
+	private static final int WINDOW_SIZE = 256;
+
+	// Latencies required before a percentile is trusted
+	private static final int MIN_SAMPLES = 32;
+
+	// Recompute the percentile only every few recorded latencies
+	private static final int RECOMPUTE_INTERVAL = 16;
+
+	// Maximum number of hedged attempts that can be saved up in the budget
+	private static final long MAX_BUDGET = 10;
+
+	private static final long BUDGET_SCALE = 1000;
+
+	private final HedgingExecutor executor;
+
+	private volatile double percentile;
+
+	private volatile long minDelayNanos;
+
+	private volatile long budgetDeposit;
+
+	private final AtomicLong budget = new AtomicLong();
+
+	private final Map<String, LatencyWindow> latencies = new ConcurrentHashMap<>();
+
+	RequestHedger(FeignLoadBalancerProperties.Hedging properties, HedgingExecutor executor) {
+		this.executor = executor;
+		configure(properties);
+	}
+
+	/**
+	 * Applies new properties while keeping the recorded latencies and the budget.
+	 * @param properties the hedging properties
+	 */
+	void configure(FeignLoadBalancerProperties.Hedging properties) {
+		this.percentile = Math.min(1d, Math.max(0d, properties.getPercentile()));
+		this.minDelayNanos = properties.getMinDelay().toNanos();
+		this.budgetDeposit = Math.round(properties.getBudgetRatio() * BUDGET_SCALE);
+	}
+
+	boolean isHedgeable(Request request) {
+		return Request.HttpMethod.GET.equals(request.httpMethod());
+	}
+
+	/**
+	 * Executes the primary attempt and, if it is slow, a hedged attempt. While there are
+	 * not enough latencies of the method to hedge, or if the {@link HedgingExecutor} has
+	 * no free thread, the primary attempt runs on the calling thread without hedging.
+	 * @param request the original request, used to look up the latencies of its method
+	 * @param primary the first attempt
+	 * @param hedge creates the hedged attempt; may return {@code null} if no other
+	 * instance is available
+	 * @return the first response below 500, or else the response of the primary attempt
+	 * @throws IOException if all attempts failed
+	 */
+	Response execute(Request request, Callable<Response> primary, Supplier<Callable<Response>> hedge)
+			throws IOException {
+		LatencyWindow window = latencies.computeIfAbsent(methodKey(request), key -> new LatencyWindow());
+		deposit();
+		long delay = Math.max(window.getPercentile(percentile), minDelayNanos);
+		if (delay != Long.MAX_VALUE) {
+			HedgedRequest hedgedRequest = new HedgedRequest(request, window, hedge);
+			if (hedgedRequest.start(primary, delay)) {
+				return hedgedRequest.await();
+			}
+		}
+		try {
+			return call(primary, window);
+		}
+		catch (Exception exception) {
+			throw rethrow(exception);
+		}
+	}
+
+	private static Response call(Callable<Response> attempt, LatencyWindow window) throws Exception {
+		long start = System.nanoTime();
+		Response response = attempt.call();
+		window.record(System.nanoTime() - start);
+		return response;
+	}
+
+	private void deposit() {
+		long max = MAX_BUDGET * BUDGET_SCALE;
+		budget.getAndUpdate(balance -> Math.min(max, balance + budgetDeposit));
+	}
+
+	private boolean tryWithdraw() {
+		long balance;
+		do {
+			balance = budget.get();
+			if (balance < BUDGET_SCALE) {
+				return false;
+			}
+		}
+		while (!budget.compareAndSet(balance, balance - BUDGET_SCALE));
+		return true;
+	}
+
+	private void refund() {
+		long max = MAX_BUDGET * BUDGET_SCALE;
+		budget.getAndUpdate(balance -> Math.min(max, balance + BUDGET_SCALE));
+	}
+
+	private static boolean wins(Response response) {
+		return response != null && response.status() < 500;
+	}
+
+	private static String methodKey(Request request) {
+		if (request.requestTemplate() != null && request.requestTemplate().methodMetadata() != null) {
+			return request.requestTemplate().methodMetadata().configKey();
+		}
+		String url = request.url();
+		int queryIndex = url.indexOf('?');
+		return request.httpMethod() + " " + (queryIndex >= 0 ? url.substring(0, queryIndex) : url);
+	}
+
+	private static IOException rethrow(Throwable cause) {
+		if (cause instanceof IOException) {
+			return (IOException) cause;
+		}
+		if (cause instanceof RuntimeException) {
+			throw (RuntimeException) cause;
+		}
+		if (cause instanceof Error) {
+			throw (Error) cause;
+		}
+		return new IOException(cause);
+	}
+
+	private static void close(Response response) {
+		if (response != null) {
+			response.close();
+		}
+	}
+
+	/**
+	 * The attempts of a single request, which both run on the {@link HedgingExecutor}.
+	 * All state is guarded by the instance monitor, and the calling thread waits for the
+	 * shared {@link #result}.
+	 */
+	private final class HedgedRequest {
+
+		private final Request request;
+
+		private final LatencyWindow window;
+
+		private final Supplier<Callable<Response>> hedgeSupplier;
+
+		private final CompletableFuture<Response> result = new CompletableFuture<>();
+
+		private Future<?> primaryFuture;
+
+		private Future<?> hedgeFuture;
+
+		private ScheduledFuture<?> trigger;
+
+		private boolean primaryCompleted;
+
+		private boolean hedgeStarted;
+
+		private int running;
+
+		private Response primaryResponse;
+
+		private Throwable primaryFailure;
+
+		private Response hedgeResponse;
+
+		private Throwable hedgeFailure;
+
+		private HedgedRequest(Request request, LatencyWindow window, Supplier<Callable<Response>> hedgeSupplier) {
+			this.request = request;
+			this.window = window;
+			this.hedgeSupplier = hedgeSupplier;
+		}
+
+		/**
+		 * Submits the primary attempt and schedules the hedged attempt. Both are
+		 * decorated on the calling thread to capture its context.
+		 * @param primary the first attempt
+		 * @param delayNanos the delay after which the request is hedged
+		 * @return {@code false} if there is no free thread for the primary attempt
+		 */
+		private boolean start(Callable<Response> primary, long delayNanos) {
+			Runnable hedgeTask = executor.decorate(this::runHedge);
+			synchronized (this) {
+				try {
+					primaryFuture = executor.submit(executor.decorate(() -> runPrimary(primary)));
+				}
+				catch (RejectedExecutionException exception) {
+					return false;
+				}
+				running = 1;
+				trigger = executor.schedule(() -> startHedge(hedgeTask), delayNanos);
+			}
+			return true;
+		}
+
+		private void startHedge(Runnable hedgeTask) {
+			synchronized (this) {
+				if (result.isDone() || primaryCompleted || !tryWithdraw()) {
+					return;
+				}
+				hedgeStarted = true;
+				running++;
+				try {
+					hedgeFuture = executor.submit(hedgeTask);
+					return;
+				}
+				catch (RejectedExecutionException exception) {
+					refund();
+				}
+			}
+			complete(false, null, null);
+		}
+
+		private void runPrimary(Callable<Response> primary) {
+			try {
+				complete(true, call(primary, window), null);
+			}
+			catch (Throwable throwable) {
+				complete(true, null, throwable);
+			}
+		}
+
+		private void runHedge() {
+			try {
+				Callable<Response> attempt = hedgeSupplier.get();
+				if (attempt == null) {
+					complete(false, null, null);
+					return;
+				}
+				if (LOG.isDebugEnabled()) {
+					LOG.debug("Hedging request to " + request.url());
+				}
+				complete(false, call(attempt, window), null);
+			}
+			catch (Throwable throwable) {
+				if (LOG.isDebugEnabled()) {
+					LOG.debug("Hedged request to " + request.url() + " failed", throwable);
+				}
+				complete(false, null, throwable);
+			}
+		}
+
+		private synchronized void complete(boolean primary, Response response, Throwable failure) {
+			running--;
+			if (primary) {
+				primaryCompleted = true;
+			}
+			if (result.isDone()) {
+				close(response);
+				return;
+			}
+			if (wins(response)) {
+				result.complete(response);
+				cancelTrigger();
+				cancel(primary ? hedgeFuture : primaryFuture);
+				return;
+			}
+			if (primary) {
+				primaryResponse = response;
+				primaryFailure = failure;
+			}
+			else {
+				hedgeResponse = response;
+				hedgeFailure = failure;
+			}
+			// The other attempt is only waited for if it has already been sent
+			if (running == 0 && (primaryCompleted || hedgeStarted)) {
+				resolve();
+			}
+		}
+
+		private void resolve() {
+			if (primaryResponse != null) {
+				close(hedgeResponse);
+				result.complete(primaryResponse);
+			}
+			else if (hedgeResponse != null) {
+				result.complete(hedgeResponse);
+			}
+			else if (primaryFailure != null) {
+				result.completeExceptionally(primaryFailure);
+			}
+			else if (hedgeFailure != null) {
+				result.completeExceptionally(hedgeFailure);
+			}
+			else {
+				result.complete(null);
+			}
+			cancelTrigger();
+		}
+
+		private Response await() throws IOException {
+			try {
+				return result.get();
+			}
+			catch (ExecutionException exception) {
+				throw rethrow(exception.getCause());
+			}
+			catch (InterruptedException exception) {
+				abandon();
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("Interrupted while waiting for " + request.url());
+			}
+		}
+
+		private synchronized void abandon() {
+			if (!result.cancel(false)) {
+				close(result.getNow(null));
+			}
+			cancelTrigger();
+			cancel(primaryFuture);
+			cancel(hedgeFuture);
+		}
+
+		private void cancelTrigger() {
+			if (trigger != null) {
+				trigger.cancel(false);
+			}
+		}
+
+		/**
+		 * Interrupts an attempt that is still running. Clients blocked on a socket may
+		 * not react to the interrupt, so the response of a losing attempt is closed once
+		 * it arrives.
+		 * @param attempt the attempt to cancel
+		 */
+		private void cancel(Future<?> attempt) {
+			if (attempt != null) {
+				attempt.cancel(true);
+			}
+		}
+
+	}
+
+	private static final class LatencyWindow {
+
+		private final AtomicLongArray latencies = new AtomicLongArray(WINDOW_SIZE);
+
+		private final AtomicLong count = new AtomicLong();
+
+		private volatile long computedAt = -RECOMPUTE_INTERVAL;
+
+		private volatile long computedPercentile;
+
+		void record(long latency) {
+			latencies.set((int) (count.getAndIncrement() % WINDOW_SIZE), latency);
+		}
+
+		/**
+		 * Returns the given percentile of the recorded latencies.
+		 * @param percentile the percentile, between 0 and 1
+		 * @return the latency in nanoseconds or {@link Long#MAX_VALUE} if there are not
+		 * enough samples yet
+		 */
+		long getPercentile(double percentile) {
+			long recorded = count.get();
+			if (recorded < MIN_SAMPLES) {
+				return Long.MAX_VALUE;
+			}
+			if (recorded - computedAt < RECOMPUTE_INTERVAL) {
+				return computedPercentile;
+			}
+			int size = (int) Math.min(recorded, WINDOW_SIZE);
+			long[] sorted = new long[size];
+			for (int i = 0; i < size; i++) {
+				sorted[i] = latencies.get(i);
+			}
+			Arrays.sort(sorted);
+			int index = (int) Math.ceil(percentile * size) - 1;
+			computedPercentile = sorted[Math.min(size - 1, Math.max(0, index))];
+			computedAt = recorded;
+			return computedPercentile;
+		}
+
+	}
+
+}
@@ -19,11 +19,10 @@ package org.springframework.cloud.openfeign.loadbalancer;
 import java.io.IOException;
 import java.net.URI;
 import java.util.ArrayList;
-import java.util.Collection;
-import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
 
 import feign.Client;
 import feign.Request;
@@ -31,18 +30,17 @@ import feign.Response;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.cloud.client.ServiceInstance;
 import org.springframework.cloud.client.loadbalancer.CompletionContext;
 import org.springframework.cloud.client.loadbalancer.DefaultRequest;
 import org.springframework.cloud.client.loadbalancer.DefaultResponse;
-import org.springframework.cloud.client.loadbalancer.InterceptorRetryPolicy;
 import org.springframework.cloud.client.loadbalancer.LoadBalancedRecoveryCallback;
 import org.springframework.cloud.client.loadbalancer.LoadBalancedRetryContext;
 import org.springframework.cloud.client.loadbalancer.LoadBalancedRetryFactory;
 import org.springframework.cloud.client.loadbalancer.LoadBalancedRetryPolicy;
 import org.springframework.cloud.client.loadbalancer.LoadBalancerClient;
 import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
-import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycleValidator;
 import org.springframework.cloud.client.loadbalancer.LoadBalancerProperties;
 import org.springframework.cloud.client.loadbalancer.ResponseData;
 import org.springframework.cloud.client.loadbalancer.RetryableRequestContext;
@@ -50,15 +48,23 @@ import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpRequest;
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
 import org.springframework.retry.RetryListener;
+import org.springframework.retry.RetryPolicy;
+import org.springframework.retry.backoff.BackOffContext;
+import org.springframework.retry.backoff.BackOffInterruptedException;
 import org.springframework.retry.backoff.BackOffPolicy;
 import org.springframework.retry.backoff.NoBackOffPolicy;
 import org.springframework.retry.policy.NeverRetryPolicy;
 import org.springframework.retry.support.RetryTemplate;
 import org.springframework.util.Assert;
-import org.springframework.util.StreamUtils;
 
 import static org.springframework.cloud.openfeign.loadbalancer.LoadBalancerUtils.buildRequestData;
+import static org.springframework.cloud.openfeign.loadbalancer.LoadBalancerUtils.choose;
+import static org.springframework.cloud.openfeign.loadbalancer.LoadBalancerUtils.limitOptions;
+import static org.springframework.cloud.openfeign.loadbalancer.LoadBalancerUtils.resolveDeadline;
+import static org.springframework.cloud.openfeign.loadbalancer.LoadBalancerUtils.withDeadlineHeader;
 
 /**
  * A {@link Client} implementation that provides Spring Retry support for requests
@@ -69,7 +75,7 @@ import static org.springframework.cloud.openfeign.loadbalancer.LoadBalancerUtils
  * @since 2.2.6
  */
 @SuppressWarnings({ "rawtypes", "unchecked" })
-public class RetryableFeignBlockingLoadBalancerClient implements Client {
+public class RetryableFeignBlockingLoadBalancerClient implements Client, DisposableBean {
 
 	private static final Log LOG = LogFactory.getLog(RetryableFeignBlockingLoadBalancerClient.class);
 
@@ -79,28 +85,53 @@ public class RetryableFeignBlockingLoadBalancerClient implements Client {
 
 	private final LoadBalancedRetryFactory loadBalancedRetryFactory;
 
-	private final LoadBalancerClientFactory loadBalancerClientFactory;
+	private final FeignLoadBalancerServiceDescriptorCache serviceDescriptorCache;
+
+	private final boolean ownsServiceDescriptorCache;
+
+	private final Map<String, RetryTemplates> retryTemplates = new ConcurrentHashMap<>();
 
 	/**
 	 * @deprecated in favour of
-	 * {@link RetryableFeignBlockingLoadBalancerClient#RetryableFeignBlockingLoadBalancerClient(Client, LoadBalancerClient, LoadBalancedRetryFactory, LoadBalancerClientFactory)}
+	 * {@link RetryableFeignBlockingLoadBalancerClient#RetryableFeignBlockingLoadBalancerClient(Client, LoadBalancerClient, LoadBalancedRetryFactory, FeignLoadBalancerServiceDescriptorCache)}
 	 */
 	@Deprecated
 	public RetryableFeignBlockingLoadBalancerClient(Client delegate, LoadBalancerClient loadBalancerClient,
 			LoadBalancedRetryFactory loadBalancedRetryFactory, LoadBalancerProperties properties,
 			LoadBalancerClientFactory loadBalancerClientFactory) {
-		this.delegate = delegate;
-		this.loadBalancerClient = loadBalancerClient;
-		this.loadBalancedRetryFactory = loadBalancedRetryFactory;
-		this.loadBalancerClientFactory = loadBalancerClientFactory;
+		this(delegate, loadBalancerClient, loadBalancedRetryFactory, loadBalancerClientFactory);
 	}
 
+	/**
+	 * Creates a client with its own {@link FeignLoadBalancerServiceDescriptorCache}. That
+	 * cache is not registered as an application listener, so its descriptors are not
+	 * invalidated when load-balancer properties or child contexts change, and it is only
+	 * closed by {@link #destroy()}.
+	 * @deprecated in favour of
+	 * {@link RetryableFeignBlockingLoadBalancerClient#RetryableFeignBlockingLoadBalancerClient(Client, LoadBalancerClient, LoadBalancedRetryFactory, FeignLoadBalancerServiceDescriptorCache)}
+	 * with the {@link FeignLoadBalancerServiceDescriptorCache} bean
+	 */
+	@Deprecated
 	public RetryableFeignBlockingLoadBalancerClient(Client delegate, LoadBalancerClient loadBalancerClient,
 			LoadBalancedRetryFactory loadBalancedRetryFactory, LoadBalancerClientFactory loadBalancerClientFactory) {
+		this(delegate, loadBalancerClient, loadBalancedRetryFactory,
+				new FeignLoadBalancerServiceDescriptorCache(loadBalancerClientFactory), true);
+	}
+
+	public RetryableFeignBlockingLoadBalancerClient(Client delegate, LoadBalancerClient loadBalancerClient,
+			LoadBalancedRetryFactory loadBalancedRetryFactory,
+			FeignLoadBalancerServiceDescriptorCache serviceDescriptorCache) {
+		this(delegate, loadBalancerClient, loadBalancedRetryFactory, serviceDescriptorCache, false);
+	}
+
+	private RetryableFeignBlockingLoadBalancerClient(Client delegate, LoadBalancerClient loadBalancerClient,
+			LoadBalancedRetryFactory loadBalancedRetryFactory,
+			FeignLoadBalancerServiceDescriptorCache serviceDescriptorCache, boolean ownsServiceDescriptorCache) {
 		this.delegate = delegate;
 		this.loadBalancerClient = loadBalancerClient;
 		this.loadBalancedRetryFactory = loadBalancedRetryFactory;
-		this.loadBalancerClientFactory = loadBalancerClientFactory;
+		this.serviceDescriptorCache = serviceDescriptorCache;
+		this.ownsServiceDescriptorCache = ownsServiceDescriptorCache;
 	}
 
 	@Override
@@ -110,17 +141,27 @@ public class RetryableFeignBlockingLoadBalancerClient implements Client {
 		Assert.state(serviceId != null, "Request URI does not contain a valid hostname: " + originalUri);
 		final LoadBalancedRetryPolicy retryPolicy = loadBalancedRetryFactory.createRetryPolicy(serviceId,
 				loadBalancerClient);
-		RetryTemplate retryTemplate = buildRetryTemplate(serviceId, request, retryPolicy);
-		return retryTemplate.execute(context -> {
+		FeignLoadBalancerServiceDescriptor serviceDescriptor = serviceDescriptorCache.getDescriptor(serviceId);
+		RetryTemplate retryTemplate = getRetryTemplates(serviceId, serviceDescriptor).get(retryPolicy);
+		Set<LoadBalancerLifecycle> supportedLifecycleProcessors = serviceDescriptor
+				.getSupportedLifecycleProcessors(RetryableRequestContext.class);
+		FeignLoadBalancerProperties.Deadline deadlineProperties = serviceDescriptor.getFeignProperties().getDeadline();
+		RequestDeadline deadline = resolveDeadline(deadlineProperties);
+		FeignLoadBalancerProperties.RetryableStatus retryableStatus = serviceDescriptor.getFeignProperties()
+				.getRetryableStatus();
+		AtomicReference<LoadBalancerResponseStatusCodeException> lastStatusCodeException = new AtomicReference<>();
+		RetryCallback<Response, IOException> retryCallback = context -> {
+			if (context instanceof SharedInterceptorRetryPolicy.Context) {
+				((SharedInterceptorRetryPolicy.Context) context).bind(toHttpRequest(request), retryPolicy, deadline);
+			}
+			long remainingMillis = deadline != null ? deadline.remainingMillis() : -1;
+			if (remainingMillis == 0) {
+				throw new RequestDeadlineExceededException(serviceId);
+			}
 			Request feignRequest = null;
 			ServiceInstance retrievedServiceInstance = null;
-			Set<LoadBalancerLifecycle> supportedLifecycleProcessors = LoadBalancerLifecycleValidator
-					.getSupportedLifecycleProcessors(
-							loadBalancerClientFactory.getInstances(serviceId, LoadBalancerLifecycle.class),
-							RetryableRequestContext.class, ResponseData.class, ServiceInstance.class);
-			String hint = getHint(serviceId);
 			DefaultRequest<RetryableRequestContext> lbRequest = new DefaultRequest<>(
-					new RetryableRequestContext(null, buildRequestData(request), hint));
+					new RetryableRequestContext(null, buildRequestData(request), serviceDescriptor.getHint()));
 			// On retries the policy will choose the server and set it in the context
 			// and extract the server and update the request being made
 			if (context instanceof LoadBalancedRetryContext) {
@@ -134,7 +175,7 @@ public class RetryableFeignBlockingLoadBalancerClient implements Client {
 					ServiceInstance previousServiceInstance = lbContext.getPreviousServiceInstance();
 					lbRequest.getContext().setPreviousServiceInstance(previousServiceInstance);
 					supportedLifecycleProcessors.forEach(lifecycle -> lifecycle.onStart(lbRequest));
-					retrievedServiceInstance = loadBalancerClient.choose(serviceId, lbRequest);
+					retrievedServiceInstance = choose(loadBalancerClient, serviceDescriptor, lbRequest);
 					if (LOG.isDebugEnabled()) {
 						LOG.debug(String.format("Selected service instance: %s", retrievedServiceInstance));
 					}
@@ -164,28 +205,44 @@ public class RetryableFeignBlockingLoadBalancerClient implements Client {
 			}
 			org.springframework.cloud.client.loadbalancer.Response<ServiceInstance> lbResponse = new DefaultResponse(
 					retrievedServiceInstance);
-			LoadBalancerProperties loadBalancerProperties = loadBalancerClientFactory.getProperties(serviceId);
-			Response response = LoadBalancerUtils.executeWithLoadBalancerLifecycleProcessing(delegate, options,
-					feignRequest, lbRequest, lbResponse, supportedLifecycleProcessors, retrievedServiceInstance != null,
-					loadBalancerProperties.isUseRawStatusCodeInResponseData());
+			feignRequest = withDeadlineHeader(feignRequest, deadlineProperties, remainingMillis);
+			Response response = LoadBalancerUtils.executeWithLoadBalancerLifecycleProcessing(delegate,
+					limitOptions(options, remainingMillis), feignRequest, lbRequest, lbResponse,
+					supportedLifecycleProcessors, retrievedServiceInstance != null,
+					serviceDescriptor.isUseRawStatusCodeInResponseData());
 			int responseStatus = response.status();
 			if (retryPolicy != null && retryPolicy.retryableStatusCode(responseStatus)) {
 				if (LOG.isDebugEnabled()) {
 					LOG.debug(String.format("Retrying on status code: %d", responseStatus));
 				}
-				byte[] byteArray = response.body() == null ? new byte[] {}
-						: StreamUtils.copyToByteArray(response.body().asInputStream());
-				response.close();
-				throw new LoadBalancerResponseStatusCodeException(serviceId, response, byteArray,
-						URI.create(request.url()));
+				// The body is only captured once the request is actually retried, see
+				// ResponseReleasingBackOffPolicy
+				LoadBalancerResponseStatusCodeException exception = new LoadBalancerResponseStatusCodeException(
+						serviceId, response, URI.create(request.url()));
+				lastStatusCodeException.set(exception);
+				throw exception;
 			}
 			return response;
-		}, new LoadBalancedRecoveryCallback<Response, Response>() {
-			@Override
-			protected Response createResponse(Response response, URI uri) {
-				return response;
+		};
+		boolean completed = false;
+		try {
+			Response response = retryTemplate.execute(retryCallback,
+					new LoadBalancedRecoveryCallback<Response, Response>() {
+						@Override
+						protected Response createResponse(Response response, URI uri) {
+							return response;
+						}
+					});
+			completed = true;
+			return response;
+		}
+		finally {
+			// A listener or an interrupted back-off may end the retries without
+			// returning the response of the last attempt
+			if (!completed) {
+				releaseResponse(lastStatusCodeException.get(), retryableStatus);
 			}
-		});
+		}
 	}
 
 	protected Request buildRequest(Request request, String reconstructedUrl) {
@@ -193,19 +250,45 @@ public class RetryableFeignBlockingLoadBalancerClient implements Client {
 				request.charset(), request.requestTemplate());
 	}
 
-	private RetryTemplate buildRetryTemplate(String serviceId, Request request, LoadBalancedRetryPolicy retryPolicy) {
+	private RetryTemplates getRetryTemplates(String serviceId, FeignLoadBalancerServiceDescriptor serviceDescriptor) {
+		RetryTemplates templates = retryTemplates.get(serviceId);
+		if (templates == null || templates.serviceDescriptor != serviceDescriptor) {
+			BackOffPolicy backOffPolicy = this.loadBalancedRetryFactory.createBackOffPolicy(serviceId);
+			RetryListener[] retryListeners = this.loadBalancedRetryFactory.createRetryListeners(serviceId);
+			RetryPolicy retryPolicy = new NeverRetryPolicy();
+			if (serviceDescriptor.getProperties().getRetry().isEnabled()) {
+				LoadBalancerRetryBudget retryBudget = serviceDescriptor.getRetryBudget();
+				retryPolicy = retryBudget != null
+						? new BudgetedRetryPolicy(SharedInterceptorRetryPolicy.INSTANCE, retryBudget)
+						: SharedInterceptorRetryPolicy.INSTANCE;
+			}
+			backOffPolicy = new ResponseReleasingBackOffPolicy(
+					backOffPolicy == null ? new NoBackOffPolicy() : backOffPolicy,
+					serviceDescriptor.getFeignProperties().getRetryableStatus());
+			RetryTemplate retryTemplate = buildRetryTemplate(backOffPolicy, retryListeners, retryPolicy);
+			templates = new RetryTemplates(serviceDescriptor, retryTemplate,
+					buildRetryTemplate(backOffPolicy, retryListeners, new NeverRetryPolicy()));
+			retryTemplates.put(serviceId, templates);
+		}
+		return templates;
+	}
+
+	private static void releaseResponse(LoadBalancerResponseStatusCodeException exception,
+			FeignLoadBalancerProperties.RetryableStatus properties) {
+		if (exception != null) {
+			exception.releaseResponse((int) Math.min(Integer.MAX_VALUE, properties.getMaxCapturedBodySize().toBytes()),
+					properties.getMaxDrainedBodySize().toBytes());
+		}
+	}
+
+	private RetryTemplate buildRetryTemplate(BackOffPolicy backOffPolicy, RetryListener[] retryListeners,
+			RetryPolicy retryPolicy) {
 		RetryTemplate retryTemplate = new RetryTemplate();
-		BackOffPolicy backOffPolicy = this.loadBalancedRetryFactory.createBackOffPolicy(serviceId);
-		retryTemplate.setBackOffPolicy(backOffPolicy == null ? new NoBackOffPolicy() : backOffPolicy);
-		RetryListener[] retryListeners = this.loadBalancedRetryFactory.createRetryListeners(serviceId);
+		retryTemplate.setBackOffPolicy(backOffPolicy);
 		if (retryListeners != null && retryListeners.length != 0) {
 			retryTemplate.setListeners(retryListeners);
 		}
-
-		retryTemplate.setRetryPolicy(
-				!loadBalancerClientFactory.getProperties(serviceId).getRetry().isEnabled() || retryPolicy == null
-						? new NeverRetryPolicy() : new InterceptorRetryPolicy(toHttpRequest(request), retryPolicy,
-								loadBalancerClient, serviceId));
+		retryTemplate.setRetryPolicy(retryPolicy);
 		return retryTemplate;
 	}
 
@@ -214,8 +297,36 @@ public class RetryableFeignBlockingLoadBalancerClient implements Client {
 		return delegate;
 	}
 
+	/**
+	 * Closes the {@link FeignLoadBalancerServiceDescriptorCache} created by the
+	 * deprecated constructor taking a {@link LoadBalancerClientFactory}. A shared cache
+	 * is left to its own lifecycle.
+	 * @since 3.1.6
+	 */
+	@Override
+	public void destroy() {
+		if (ownsServiceDescriptorCache) {
+			serviceDescriptorCache.destroy();
+		}
+	}
+
+	/**
+	 * Returns a load-balancing client that sends the requests through the given client,
+	 * sharing the load-balancer state of this one.
+	 * @param delegate the client sending the requests
+	 * @return the load-balancing client
+	 * @since 3.1.6
+	 */
+	public RetryableFeignBlockingLoadBalancerClient withDelegate(Client delegate) {
+		return new RetryableFeignBlockingLoadBalancerClient(delegate, loadBalancerClient, loadBalancedRetryFactory,
+				serviceDescriptorCache);
+	}
+
 	private HttpRequest toHttpRequest(Request request) {
 		return new HttpRequest() {
+
+			private HttpHeaders headers;
+
 			@Override
 			public HttpMethod getMethod() {
 				return HttpMethod.resolve(request.httpMethod().name());
@@ -223,7 +334,7 @@ public class RetryableFeignBlockingLoadBalancerClient implements Client {
 
 			@Override
 			public String getMethodValue() {
-				return getMethod().name();
+				return request.httpMethod().name();
 			}
 
 			@Override
@@ -233,23 +344,88 @@ public class RetryableFeignBlockingLoadBalancerClient implements Client {
 
 			@Override
 			public HttpHeaders getHeaders() {
-				Map<String, List<String>> headers = new HashMap<>();
-				Map<String, Collection<String>> feignHeaders = request.headers();
-				for (String key : feignHeaders.keySet()) {
-					headers.put(key, new ArrayList<>(feignHeaders.get(key)));
+				// Only copied if a retry policy actually looks at the headers
+				if (headers == null) {
+					HttpHeaders httpHeaders = new HttpHeaders();
+					request.headers().forEach((key, values) -> httpHeaders.put(key, new ArrayList<>(values)));
+					headers = httpHeaders;
 				}
-				HttpHeaders httpHeaders = new HttpHeaders();
-				httpHeaders.putAll(headers);
-				return httpHeaders;
+				return headers;
 			}
 		};
 	}
 
-	private String getHint(String serviceId) {
-		LoadBalancerProperties properties = loadBalancerClientFactory.getProperties(serviceId);
-		String defaultHint = properties.getHint().getOrDefault("default", "default");
-		String hintPropertyValue = properties.getHint().get(serviceId);
-		return hintPropertyValue != null ? hintPropertyValue : defaultHint;
+	/**
+	 * Releases the response of a failed attempt once the {@link RetryTemplate} has
+	 * decided to retry the request, before backing off, so that the connection is not
+	 * held during the back-off. The response of an attempt that is not retried is kept in
+	 * full, as it may be returned to the caller.
+	 */
+	private static final class ResponseReleasingBackOffPolicy implements BackOffPolicy {
+
+		private final BackOffPolicy delegate;
+
+		private final FeignLoadBalancerProperties.RetryableStatus properties;
+
+		private ResponseReleasingBackOffPolicy(BackOffPolicy delegate,
+				FeignLoadBalancerProperties.RetryableStatus properties) {
+			this.delegate = delegate;
+			this.properties = properties;
+		}
+
+		@Override
+		public BackOffContext start(RetryContext context) {
+			return new Context(context, delegate.start(context));
+		}
+
+		@Override
+		public void backOff(BackOffContext backOffContext) throws BackOffInterruptedException {
+			Context context = (Context) backOffContext;
+			Throwable lastThrowable = context.retryContext.getLastThrowable();
+			if (lastThrowable instanceof LoadBalancerResponseStatusCodeException) {
+				releaseResponse((LoadBalancerResponseStatusCodeException) lastThrowable, properties);
+			}
+			delegate.backOff(context.delegate);
+		}
+
+		private static final class Context implements BackOffContext {
+
+			private final RetryContext retryContext;
+
+			private final BackOffContext delegate;
+
+			private Context(RetryContext retryContext, BackOffContext delegate) {
+				this.retryContext = retryContext;
+				this.delegate = delegate;
+			}
+
+		}
+
+	}
+
+	/**
+	 * The retry templates of a service, built once for its current
+	 * {@link FeignLoadBalancerServiceDescriptor}.
+	 */
+	private static final class RetryTemplates {
+
+		private final FeignLoadBalancerServiceDescriptor serviceDescriptor;
+
+		private final RetryTemplate retryTemplate;
+
+		private final RetryTemplate neverRetryTemplate;
+
+		private RetryTemplates(FeignLoadBalancerServiceDescriptor serviceDescriptor, RetryTemplate retryTemplate,
+				RetryTemplate neverRetryTemplate) {
+			this.serviceDescriptor = serviceDescriptor;
+			this.retryTemplate = retryTemplate;
+			this.neverRetryTemplate = neverRetryTemplate;
+		}
+
+		RetryTemplate get(LoadBalancedRetryPolicy retryPolicy) {
+			return retryPolicy != null ? retryTemplate : neverRetryTemplate;
+		}
+
 	}
 
 }
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign.loadbalancer;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.Request;
+
+/**
+ * A {@link FeignServiceInstanceSelector} that selects the instances in turn, like the
+ * default {@code RoundRobinLoadBalancer}. Used as the base selection when a Feign-side
+ * feature such as slow start is enabled without a specific
+ * {@link FeignLoadBalancerProperties.InstanceSelection}.
+ *
+ * @since 3.1.6
+ */
+public class RoundRobinServiceInstanceSelector implements FeignServiceInstanceSelector {
+
+	private final AtomicInteger position = new AtomicInteger(ThreadLocalRandom.current().nextInt(1000));
+
+	@Override
+	public ServiceInstance select(List<ServiceInstance> instances, Request<?> request) {
+		int pos = position.incrementAndGet() & Integer.MAX_VALUE;
+		return instances.get(pos % instances.size());
+	}
+
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign.loadbalancer;
+
+import org.springframework.cloud.client.ServiceInstance;
+
+/**
+ * Hashing helpers shared by the Feign-side instance selectors.
+ *
+ * @since 3.1.6
+ */
+final class ServiceInstanceHashing {
+
+	static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+
+	private ServiceInstanceHashing() {
+		throw new IllegalStateException("Can't instantiate a utility class");
+	}
+
+	/**
+	 * Returns a stable id of the given instance: its instance id, or else its host and
+	 * port.
+	 * @param instance the service instance
+	 * @return the id
+	 */
+	static String instanceId(ServiceInstance instance) {
+		String instanceId = instance.getInstanceId();
+		return instanceId != null ? instanceId : instance.getHost() + ":" + instance.getPort();
+	}
+
+	/**
+	 * Hashes the characters of the given value with 64-bit FNV-1a, starting from the
+	 * given seed, and mixes the result so that similar values get unrelated hashes.
+	 * @param value the value to hash
+	 * @param seed the initial hash, {@link #FNV_OFFSET_BASIS} or a previous hash
+	 * @return the hash
+	 */
+	static long hash(String value, long seed) {
+		return mix(fnv1a(value, seed));
+	}
+
+	static long fnv1a(String value, long seed) {
+		long hash = seed;
+		for (int i = 0; i < value.length(); i++) {
+			hash ^= value.charAt(i);
+			hash *= 0x100000001b3L;
+		}
+		return hash;
+	}
+
+	// Finalization step of MurmurHash3
+	private static long mix(long hash) {
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		hash ^= hash >>> 33;
+		hash *= 0xc4ceb9fe1a85ec53L;
+		hash ^= hash >>> 33;
+		return hash;
+	}
+
+}
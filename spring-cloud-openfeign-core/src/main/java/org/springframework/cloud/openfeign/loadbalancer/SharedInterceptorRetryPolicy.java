@@ -0,0 +1,106 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign.loadbalancer;
+
+import org.springframework.cloud.client.loadbalancer.InterceptorRetryPolicy;
+import org.springframework.cloud.client.loadbalancer.LoadBalancedRetryContext;
+import org.springframework.cloud.client.loadbalancer.LoadBalancedRetryPolicy;
+import org.springframework.http.HttpRequest;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryPolicy;
+
+/**
+ * A variant of {@link InterceptorRetryPolicy} that can be shared by all requests to a
+ * service. The request and its {@link LoadBalancedRetryPolicy}, which keeps per-request
+ * state, are bound to the {@link RetryContext} on the first attempt instead of being held
+ * by the policy. Requests are not retried once their {@link RequestDeadline} has passed.
+ *
+ * @since 3.1.6
+ */
+final class SharedInterceptorRetryPolicy implements RetryPolicy {
+
+	static final SharedInterceptorRetryPolicy INSTANCE = new SharedInterceptorRetryPolicy();
+
+	private SharedInterceptorRetryPolicy() {
+	}
+
+	@Override
+	public boolean canRetry(RetryContext context) {
+		Context lbContext = (Context) context;
+		if (lbContext.getRetryCount() == 0 && lbContext.getServiceInstance() == null) {
+			// We haven't even tried to make the request yet so return true so we do
+			lbContext.setServiceInstance(null);
+			return true;
+		}
+		if (lbContext.deadline != null && lbContext.deadline.isExpired()) {
+			return false;
+		}
+		return lbContext.policy != null && lbContext.policy.canRetryNextServer(lbContext);
+	}
+
+	@Override
+	public RetryContext open(RetryContext parent) {
+		return new Context(parent);
+	}
+
+	@Override
+	public void close(RetryContext context) {
+		Context lbContext = (Context) context;
+		if (lbContext.policy != null) {
+			lbContext.policy.close(lbContext);
+		}
+	}
+
+	@Override
+	public void registerThrowable(RetryContext context, Throwable throwable) {
+		Context lbContext = (Context) context;
+		// this is important as it registers the last exception in the context and also
+		// increases the retry count
+		lbContext.registerThrowable(throwable);
+		if (lbContext.policy != null) {
+			lbContext.policy.registerThrowable(lbContext, throwable);
+		}
+	}
+
+	static final class Context extends LoadBalancedRetryContext {
+
+		private LoadBalancedRetryPolicy policy;
+
+		private RequestDeadline deadline;
+
+		private Context(RetryContext parent) {
+			super(parent, null);
+		}
+
+		/**
+		 * Binds the request, its retry policy and deadline to this context, unless
+		 * already bound by a previous attempt.
+		 * @param request the request being retried
+		 * @param policy the retry policy of the request
+		 * @param deadline the deadline of the request, can be {@code null}
+		 */
+		void bind(HttpRequest request, LoadBalancedRetryPolicy policy, RequestDeadline deadline) {
+			if (this.policy == null) {
+				setRequest(request);
+				this.policy = policy;
+				this.deadline = deadline;
+			}
+		}
+
+	}
+
+}
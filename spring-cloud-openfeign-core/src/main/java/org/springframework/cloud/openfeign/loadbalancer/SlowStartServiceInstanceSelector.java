@@ -0,0 +1,161 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign.loadbalancer;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.LongSupplier;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.Request;
+
+/**
+ * A {@link FeignServiceInstanceSelector} that ramps up the traffic sent to instances that
+ * appeared recently. An instance first seen less than the slow-start window ago is only
+ * kept with a probability equal to its weight, which grows from the minimum weight to
+ * {@code 1} over the window, linearly or exponentially; otherwise a random instance that
+ * is already warm is used instead. Instances present when the selector is first used are
+ * considered warm. The first-seen times can be shared with a later selector for the same
+ * service, so that recreating the selector does not make every instance warm again.
+ *
+ * @since 3.1.6
+ */
+public class SlowStartServiceInstanceSelector implements FeignServiceInstanceSelector {
+
+	// First-seen time of instances that were present when the selector was first used
+	private static final long WARM = Long.MIN_VALUE;
+
+	private final FeignServiceInstanceSelector delegate;
+
+	private final FeignLoadBalancerProperties.SlowStart properties;
+
+	private final LongSupplier nanoClock;
+
+	private final FirstSeenTimes firstSeenTimes;
+
+	public SlowStartServiceInstanceSelector(FeignServiceInstanceSelector delegate,
+			FeignLoadBalancerProperties.SlowStart properties) {
+		this(delegate, properties, new FirstSeenTimes());
+	}
+
+	SlowStartServiceInstanceSelector(FeignServiceInstanceSelector delegate,
+			FeignLoadBalancerProperties.SlowStart properties, FirstSeenTimes firstSeenTimes) {
+		this(delegate, properties, System::nanoTime, firstSeenTimes);
+	}
+
+	SlowStartServiceInstanceSelector(FeignServiceInstanceSelector delegate,
+			FeignLoadBalancerProperties.SlowStart properties, LongSupplier nanoClock) {
+		this(delegate, properties, nanoClock, new FirstSeenTimes());
+	}
+
+	private SlowStartServiceInstanceSelector(FeignServiceInstanceSelector delegate,
+			FeignLoadBalancerProperties.SlowStart properties, LongSupplier nanoClock, FirstSeenTimes firstSeenTimes) {
+		this.delegate = delegate;
+		this.properties = properties;
+		this.nanoClock = nanoClock;
+		this.firstSeenTimes = firstSeenTimes;
+	}
+
+	@Override
+	public ServiceInstance select(List<ServiceInstance> instances, Request<?> request) {
+		long now = nanoClock.getAsLong();
+		if (!firstSeenTimes.initialized) {
+			firstSeenTimes.initialize(instances);
+		}
+		if (firstSeenTimes.times.size() > 2 * instances.size()) {
+			firstSeenTimes.retainAll(instances);
+		}
+		ServiceInstance selected = delegate.select(instances, request);
+		if (selected == null || instances.size() == 1) {
+			return selected;
+		}
+		double weight = getWeight(selected, now);
+		if (weight >= 1 || ThreadLocalRandom.current().nextDouble() < weight) {
+			return selected;
+		}
+		List<ServiceInstance> warmInstances = new ArrayList<>(instances.size());
+		for (ServiceInstance instance : instances) {
+			if (getWeight(instance, now) >= 1) {
+				warmInstances.add(instance);
+			}
+		}
+		if (warmInstances.isEmpty()) {
+			return selected;
+		}
+		// Not selecting through the delegate again, which would skew its rotation
+		return warmInstances.get(ThreadLocalRandom.current().nextInt(warmInstances.size()));
+	}
+
+	/**
+	 * Returns the share of its regular traffic an instance currently receives.
+	 * @param instance the service instance
+	 * @param now the current {@link System#nanoTime()}
+	 * @return the weight, between the minimum weight and {@code 1}
+	 */
+	double getWeight(ServiceInstance instance, long now) {
+		long seen = firstSeenTimes.times.computeIfAbsent(ServiceInstanceHashing.instanceId(instance), id -> now);
+		if (seen == WARM) {
+			return 1;
+		}
+		double windowNanos = properties.getWindow().toNanos();
+		double progress = windowNanos > 0 ? (now - seen) / windowNanos : 1;
+		if (progress >= 1) {
+			return 1;
+		}
+		double minWeight = Math.min(Math.max(properties.getMinWeight(), 0.01), 1);
+		if (FeignLoadBalancerProperties.SlowStart.Ramp.EXPONENTIAL.equals(properties.getRamp())) {
+			return Math.pow(minWeight, 1 - progress);
+		}
+		return minWeight + (1 - minWeight) * progress;
+	}
+
+	/**
+	 * The first-seen times of the instances of a service, kept outside of the selector so
+	 * that they survive the recreation of the selector on a refresh.
+	 */
+	static final class FirstSeenTimes {
+
+		// First-seen System.nanoTime() of each instance, keyed by instance id
+		private final Map<String, Long> times = new ConcurrentHashMap<>();
+
+		private volatile boolean initialized;
+
+		private synchronized void initialize(List<ServiceInstance> instances) {
+			if (!initialized) {
+				for (ServiceInstance instance : instances) {
+					times.putIfAbsent(ServiceInstanceHashing.instanceId(instance), WARM);
+				}
+				initialized = true;
+			}
+		}
+
+		private void retainAll(List<ServiceInstance> instances) {
+			Set<String> ids = new HashSet<>();
+			for (ServiceInstance instance : instances) {
+				ids.add(ServiceInstanceHashing.instanceId(instance));
+			}
+			times.keySet().retainAll(ids);
+		}
+
+	}
+
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign.loadbalancer;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.UUID;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.util.StringUtils;
+
+/**
+ * A {@link FeignServiceInstanceSelector} that restricts the selection to a subset of the
+ * instances of a service. If the index of the client is known, the instances are ordered
+ * the same way on every client, by a hash of their instance ids, and client {@code i}
+ * uses the {@code size} instances following position {@code i * size} on that ring, so
+ * that consecutive clients cover the ring one after another and the number of clients per
+ * instance differs by at most one. Otherwise every instance is scored with a hash of the
+ * client id and its instance id, and the instances with the highest scores form the
+ * subset (rendezvous hashing): adding or removing an instance then only changes the
+ * subsets that contain it, but the number of clients per instance follows a binomial
+ * distribution. The subset is recomputed only when the instances change.
+ *
+ * @since 3.1.6
+ */
+public class SubsettingServiceInstanceSelector implements FeignServiceInstanceSelector {
+
+	private final FeignServiceInstanceSelector delegate;
+
+	private final int subsetSize;
+
+	private final long clientHash;
+
+	private final Integer clientIndex;
+
+	private volatile Subset subset;
+
+	public SubsettingServiceInstanceSelector(FeignServiceInstanceSelector delegate,
+			FeignLoadBalancerProperties.Subsetting properties) {
+		this(delegate, properties.getSize(),
+				StringUtils.hasText(properties.getClientId()) ? properties.getClientId() : defaultClientId(),
+				properties.getClientIndex());
+	}
+
+	SubsettingServiceInstanceSelector(FeignServiceInstanceSelector delegate, int subsetSize, String clientId) {
+		this(delegate, subsetSize, clientId, null);
+	}
+
+	SubsettingServiceInstanceSelector(FeignServiceInstanceSelector delegate, int subsetSize, String clientId,
+			Integer clientIndex) {
+		this.delegate = delegate;
+		this.subsetSize = Math.max(1, subsetSize);
+		this.clientHash = ServiceInstanceHashing.fnv1a(clientId, ServiceInstanceHashing.FNV_OFFSET_BASIS);
+		this.clientIndex = clientIndex != null ? Math.max(0, clientIndex) : null;
+	}
+
+	@Override
+	public ServiceInstance select(List<ServiceInstance> instances, Request<?> request) {
+		return delegate.select(getSubset(instances), request);
+	}
+
+	@Override
+	public ServiceInstance select(List<ServiceInstance> instances, Request<?> request,
+			ServiceInstance excludedInstance) {
+		List<ServiceInstance> candidates = LoadBalancerUtils.exclude(getSubset(instances), excludedInstance);
+		return candidates.isEmpty() ? null : delegate.select(candidates, request);
+	}
+
+	/**
+	 * Returns the subset of the given instances used by this client.
+	 * @param instances the available instances
+	 * @return the subset, in the order of the given instances
+	 */
+	List<ServiceInstance> getSubset(List<ServiceInstance> instances) {
+		if (instances.size() <= subsetSize) {
+			return instances;
+		}
+		Subset current = subset;
+		if (current != null && (current.instances == instances || current.instances.equals(instances))) {
+			return current.subset;
+		}
+		List<ServiceInstance> computed = computeSubset(instances);
+		subset = new Subset(instances, computed);
+		return computed;
+	}
+
+	private List<ServiceInstance> computeSubset(List<ServiceInstance> instances) {
+		boolean[] selected = clientIndex != null ? selectFromRing(instances) : selectByRendezvousHashing(instances);
+		List<ServiceInstance> result = new ArrayList<>(subsetSize);
+		for (int i = 0; i < instances.size(); i++) {
+			if (selected[i]) {
+				result.add(instances.get(i));
+			}
+		}
+		return result;
+	}
+
+	private boolean[] selectFromRing(List<ServiceInstance> instances) {
+		int count = instances.size();
+		ScoredInstance[] ring = new ScoredInstance[count];
+		for (int i = 0; i < count; i++) {
+			String instanceId = ServiceInstanceHashing.instanceId(instances.get(i));
+			ring[i] = new ScoredInstance(i,
+					ServiceInstanceHashing.hash(instanceId, ServiceInstanceHashing.FNV_OFFSET_BASIS), instanceId);
+		}
+		// The same order on every client, whatever the order of the given instances
+		Arrays.sort(ring,
+				Comparator.<ScoredInstance>naturalOrder().thenComparing(scoredInstance -> scoredInstance.instanceId));
+		boolean[] selected = new boolean[count];
+		long start = (long) clientIndex * subsetSize;
+		for (int i = 0; i < subsetSize; i++) {
+			selected[ring[(int) ((start + i) % count)].index] = true;
+		}
+		return selected;
+	}
+
+	private boolean[] selectByRendezvousHashing(List<ServiceInstance> instances) {
+		// Min-heap of the highest scores seen so far
+		PriorityQueue<ScoredInstance> highest = new PriorityQueue<>(subsetSize + 1);
+		for (int i = 0; i < instances.size(); i++) {
+			ServiceInstance instance = instances.get(i);
+			highest.add(new ScoredInstance(i,
+					ServiceInstanceHashing.hash(ServiceInstanceHashing.instanceId(instance), clientHash), null));
+			if (highest.size() > subsetSize) {
+				highest.poll();
+			}
+		}
+		boolean[] selected = new boolean[instances.size()];
+		for (ScoredInstance scoredInstance : highest) {
+			selected[scoredInstance.index] = true;
+		}
+		return selected;
+	}
+
+	private static String defaultClientId() {
+		try {
+			return InetAddress.getLocalHost().getHostName();
+		}
+		catch (UnknownHostException e) {
+			return UUID.randomUUID().toString();
+		}
+	}
+
+	private static final class Subset {
+
+		private final List<ServiceInstance> instances;
+
+		private final List<ServiceInstance> subset;
+
+		private Subset(List<ServiceInstance> instances, List<ServiceInstance> subset) {
+			this.instances = instances;
+			this.subset = subset;
+		}
+
+	}
+
+	private static final class ScoredInstance implements Comparable<ScoredInstance> {
+
+		private final int index;
+
+		private final long score;
+
+		private final String instanceId;
+
+		private ScoredInstance(int index, long score, String instanceId) {
+			this.index = index;
+			this.score = score;
+			this.instanceId = instanceId;
+		}
+
+		@Override
+		public int compareTo(ScoredInstance other) {
+			return Long.compareUnsigned(score, other.score);
+		}
+
+	}
+
+}
@@ -17,6 +17,8 @@
 package org.springframework.cloud.openfeign.support;
 
 import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 import feign.okhttp.OkHttpClient;
@@ -71,6 +73,11 @@ public class FeignHttpClientProperties {
 	 */
 	public static final int DEFAULT_CONNECTION_TIMER_REPEAT = 3000;
 
+	/**
+	 * Default value for connection idle timeout.
+	 */
+	public static final int DEFAULT_CONNECTION_IDLE_TIMEOUT = 30000;
+
 	private boolean disableSslValidation = DEFAULT_DISABLE_SSL_VALIDATION;
 
 	private int maxConnections = DEFAULT_MAX_CONNECTIONS;
@@ -87,6 +94,12 @@ public class FeignHttpClientProperties {
 
 	private int connectionTimerRepeat = DEFAULT_CONNECTION_TIMER_REPEAT;
 
+	/**
+	 * Time in milliseconds after which an idle pooled connection is closed by the
+	 * connection evictor. A value of {@code 0} only closes expired connections.
+	 */
+	private int connectionIdleTimeout = DEFAULT_CONNECTION_IDLE_TIMEOUT;
+
 	/**
 	 * Apache HttpClient5 additional properties.
 	 */
@@ -97,6 +110,40 @@ public class FeignHttpClientProperties {
 	 */
 	private OkHttp okHttp = new OkHttp();
 
+	/**
+	 * HTTP/2 properties.
+	 */
+	private Http2 http2 = new Http2();
+
+	/**
+	 * JDK {@code java.net.http.HttpClient} properties.
+	 */
+	private Jdk jdk = new Jdk();
+
+	/**
+	 * Whether the timeout of the {@code Keep-Alive} response header limits how long a
+	 * connection is kept for reuse by the Apache HttpClient and HttpClient 5 clients. If
+	 * {@code false}, the header is ignored and only the idle timeout configured for the
+	 * host, if any, applies.
+	 */
+	private boolean useKeepAliveHeader = true;
+
+	/**
+	 * Connection settings for specific hosts, keyed by {@code host} or {@code host:port}.
+	 * Applies to the Apache HttpClient and HttpClient 5 clients.
+	 */
+	private Map<String, Host> hosts = new HashMap<>();
+
+	/**
+	 * DNS cache properties.
+	 */
+	private Dns dns = new Dns();
+
+	/**
+	 * TLS properties.
+	 */
+	private Ssl ssl = new Ssl();
+
 	public int getConnectionTimerRepeat() {
 		return connectionTimerRepeat;
 	}
@@ -105,6 +152,14 @@ public class FeignHttpClientProperties {
 		this.connectionTimerRepeat = connectionTimerRepeat;
 	}
 
+	public int getConnectionIdleTimeout() {
+		return connectionIdleTimeout;
+	}
+
+	public void setConnectionIdleTimeout(int connectionIdleTimeout) {
+		this.connectionIdleTimeout = connectionIdleTimeout;
+	}
+
 	public boolean isDisableSslValidation() {
 		return disableSslValidation;
 	}
@@ -177,6 +232,66 @@ public class FeignHttpClientProperties {
 		this.okHttp = okHttp;
 	}
 
+	public Http2 getHttp2() {
+		return http2;
+	}
+
+	public void setHttp2(Http2 http2) {
+		this.http2 = http2;
+	}
+
+	public Jdk getJdk() {
+		return jdk;
+	}
+
+	public void setJdk(Jdk jdk) {
+		this.jdk = jdk;
+	}
+
+	public boolean isUseKeepAliveHeader() {
+		return useKeepAliveHeader;
+	}
+
+	public void setUseKeepAliveHeader(boolean useKeepAliveHeader) {
+		this.useKeepAliveHeader = useKeepAliveHeader;
+	}
+
+	public Map<String, Host> getHosts() {
+		return hosts;
+	}
+
+	public void setHosts(Map<String, Host> hosts) {
+		this.hosts = hosts;
+	}
+
+	public Dns getDns() {
+		return dns;
+	}
+
+	public void setDns(Dns dns) {
+		this.dns = dns;
+	}
+
+	public Ssl getSsl() {
+		return ssl;
+	}
+
+	public void setSsl(Ssl ssl) {
+		this.ssl = ssl;
+	}
+
+	/**
+	 * Returns the connection settings of a host.
+	 * @param host the host name
+	 * @param port the port
+	 * @return the settings configured for {@code host:port}, else for {@code host}, or
+	 * {@code null} if there are none
+	 */
+	public Host getHost(String host, int port) {
+		Host settings = hosts.get(host + ":" + port);
+		return settings != null ? settings : hosts.get(host);
+	}
+
 	public static class Hc5Properties {
 
 		/**
@@ -199,6 +314,11 @@ public class FeignHttpClientProperties {
 		 */
 		public static final TimeUnit DEFAULT_SOCKET_TIMEOUT_UNIT = TimeUnit.SECONDS;
 
+		/**
+		 * Default value for the number of I/O dispatch threads of the async client.
+		 */
+		public static final int DEFAULT_IO_THREAD_COUNT = 0;
+
 		/**
 		 * Pool concurrency policies.
 		 */
@@ -219,6 +339,12 @@ public class FeignHttpClientProperties {
 		 */
 		private TimeUnit socketTimeoutUnit = DEFAULT_SOCKET_TIMEOUT_UNIT;
 
+		/**
+		 * Number of I/O dispatch threads of the async client; 0 to use one per available
+		 * processor.
+		 */
+		private int ioThreadCount = DEFAULT_IO_THREAD_COUNT;
+
 		public PoolConcurrencyPolicy getPoolConcurrencyPolicy() {
 			return poolConcurrencyPolicy;
 		}
@@ -251,6 +377,14 @@ public class FeignHttpClientProperties {
 			this.socketTimeout = socketTimeout;
 		}
 
+		public int getIoThreadCount() {
+			return ioThreadCount;
+		}
+
+		public void setIoThreadCount(int ioThreadCount) {
+			this.ioThreadCount = ioThreadCount;
+		}
+
 		/**
 		 * Enumeration of pool concurrency policies.
 		 */
@@ -289,6 +423,107 @@ public class FeignHttpClientProperties {
 
 	}
 
+	/**
+	 * HTTP/2 properties, applied to the Apache HttpClient 5 async client, to
+	 * {@link OkHttpClient} and to the JDK {@code java.net.http.HttpClient}.
+	 */
+	public static class Http2 {
+
+		/**
+		 * Default value for the maximum number of concurrent streams per route.
+		 */
+		public static final int DEFAULT_MAX_CONCURRENT_STREAMS = 100;
+
+		/**
+		 * Enables HTTP/2 multiplexing of the requests to a route over a single
+		 * connection.
+		 */
+		private boolean enabled;
+
+		/**
+		 * Whether HTTP/2 is used over cleartext connections without negotiation (h2c with
+		 * prior knowledge). Only applies to {@link OkHttpClient}; the Apache HttpClient 5
+		 * async client always does so once HTTP/2 is enabled.
+		 */
+		private boolean priorKnowledge;
+
+		/**
+		 * Maximum number of concurrent streams per route of the Apache HttpClient 5 async
+		 * client. Further requests wait, without blocking a thread, until a stream
+		 * completes.
+		 */
+		private int maxConcurrentStreams = DEFAULT_MAX_CONCURRENT_STREAMS;
+
+		/**
+		 * Maximum number of concurrent streams for specific routes, keyed by {@code host}
+		 * or {@code host:port}.
+		 */
+		private Map<String, Integer> maxConcurrentStreamsPerRoute = new HashMap<>();
+
+		/**
+		 * Maximum number of requests per route of the Apache HttpClient 5 async client
+		 * that wait for a stream. Further requests are rejected, and a waiting request
+		 * fails once it has waited for its read timeout.
+		 */
+		private int maxPendingRequests = 1000;
+
+		public boolean isEnabled() {
+			return enabled;
+		}
+
+		public void setEnabled(boolean enabled) {
+			this.enabled = enabled;
+		}
+
+		public boolean isPriorKnowledge() {
+			return priorKnowledge;
+		}
+
+		public void setPriorKnowledge(boolean priorKnowledge) {
+			this.priorKnowledge = priorKnowledge;
+		}
+
+		public int getMaxConcurrentStreams() {
+			return maxConcurrentStreams;
+		}
+
+		public void setMaxConcurrentStreams(int maxConcurrentStreams) {
+			this.maxConcurrentStreams = maxConcurrentStreams;
+		}
+
+		public Map<String, Integer> getMaxConcurrentStreamsPerRoute() {
+			return maxConcurrentStreamsPerRoute;
+		}
+
+		public void setMaxConcurrentStreamsPerRoute(Map<String, Integer> maxConcurrentStreamsPerRoute) {
+			this.maxConcurrentStreamsPerRoute = maxConcurrentStreamsPerRoute;
+		}
+
+		public int getMaxPendingRequests() {
+			return maxPendingRequests;
+		}
+
+		public void setMaxPendingRequests(int maxPendingRequests) {
+			this.maxPendingRequests = maxPendingRequests;
+		}
+
+		/**
+		 * Returns the maximum number of concurrent streams of a route.
+		 * @param host the host of the route
+		 * @param port the port of the route
+		 * @return the configured value for {@code host:port}, else for {@code host}, else
+		 * the default
+		 */
+		public int getMaxConcurrentStreams(String host, int port) {
+			Integer maxStreams = maxConcurrentStreamsPerRoute.get(host + ":" + port);
+			if (maxStreams == null) {
+				maxStreams = maxConcurrentStreamsPerRoute.get(host);
+			}
+			return maxStreams != null ? maxStreams : maxConcurrentStreams;
+		}
+
+	}
+
 	/**
 	 * {@link OkHttpClient}-specific properties.
 	 */
@@ -309,4 +544,218 @@ public class FeignHttpClientProperties {
 
 	}
 
+	/**
+	 * JDK {@code java.net.http.HttpClient}-specific properties.
+	 */
+	public static class Jdk {
+
+		/**
+		 * Whether the client uses a virtual-thread executor for its internal tasks, such
+		 * as sending requests and reading responses. A Feign call still blocks its
+		 * calling thread. Only takes effect on a JVM that supports virtual threads;
+		 * otherwise the default executor of the client is used.
+		 */
+		private boolean virtualThreadExecutor;
+
+		public boolean isVirtualThreadExecutor() {
+			return virtualThreadExecutor;
+		}
+
+		public void setVirtualThreadExecutor(boolean virtualThreadExecutor) {
+			this.virtualThreadExecutor = virtualThreadExecutor;
+		}
+
+	}
+
+	/**
+	 * Properties of the DNS cache shared by the Apache HttpClient, Apache HttpClient 5
+	 * and {@link OkHttpClient} clients.
+	 */
+	public static class Dns {
+
+		/**
+		 * Enables caching the resolved addresses of the hosts in Feign, instead of
+		 * relying on the cache of the JVM.
+		 */
+		private boolean enabled;
+
+		/**
+		 * How long resolved addresses are used before the host is resolved again.
+		 */
+		private Duration timeToLive = Duration.ofSeconds(60);
+
+		/**
+		 * How long before the addresses of a host expire a request to the host refreshes
+		 * them in the background. Hosts that are not requested in this window are
+		 * resolved again on their next request.
+		 */
+		private Duration refreshAhead = Duration.ofSeconds(10);
+
+		/**
+		 * How long after the addresses of a host expire they are still used if the host
+		 * cannot be resolved again.
+		 */
+		private Duration staleTimeToLive = Duration.ofMinutes(5);
+
+		public boolean isEnabled() {
+			return enabled;
+		}
+
+		public void setEnabled(boolean enabled) {
+			this.enabled = enabled;
+		}
+
+		public Duration getTimeToLive() {
+			return timeToLive;
+		}
+
+		public void setTimeToLive(Duration timeToLive) {
+			this.timeToLive = timeToLive;
+		}
+
+		public Duration getRefreshAhead() {
+			return refreshAhead;
+		}
+
+		public void setRefreshAhead(Duration refreshAhead) {
+			this.refreshAhead = refreshAhead;
+		}
+
+		public Duration getStaleTimeToLive() {
+			return staleTimeToLive;
+		}
+
+		public void setStaleTimeToLive(Duration staleTimeToLive) {
+			this.staleTimeToLive = staleTimeToLive;
+		}
+
+	}
+
+	/**
+	 * TLS properties of the Feign HTTP clients.
+	 */
+	public static class Ssl {
+
+		/**
+		 * Whether all Feign HTTP clients use a single shared {@code SSLContext}, so that
+		 * they share its TLS session cache and can resume the sessions of each other's
+		 * closed connections.
+		 */
+		private boolean sharedContext;
+
+		/**
+		 * Maximum number of TLS sessions kept in the cache of the shared
+		 * {@code SSLContext}; {@code 0} means no limit. Defaults to the JSSE default.
+		 */
+		private Integer sessionCacheSize;
+
+		/**
+		 * How long TLS sessions are kept in the cache of the shared {@code SSLContext}.
+		 * Defaults to the JSSE default.
+		 */
+		private Duration sessionTimeout;
+
+		public boolean isSharedContext() {
+			return sharedContext;
+		}
+
+		public void setSharedContext(boolean sharedContext) {
+			this.sharedContext = sharedContext;
+		}
+
+		public Integer getSessionCacheSize() {
+			return sessionCacheSize;
+		}
+
+		public void setSessionCacheSize(Integer sessionCacheSize) {
+			this.sessionCacheSize = sessionCacheSize;
+		}
+
+		public Duration getSessionTimeout() {
+			return sessionTimeout;
+		}
+
+		public void setSessionTimeout(Duration sessionTimeout) {
+			this.sessionTimeout = sessionTimeout;
+		}
+
+	}
+
+	/**
+	 * Connection settings of a host, overriding the ones of the pool. Unset values
+	 * default to the ones of the pool.
+	 */
+	public static class Host {
+
+		/**
+		 * Maximum number of connections per route to the host.
+		 */
+		private Integer maxConnectionsPerRoute;
+
+		/**
+		 * How long an idle connection to the host is kept for reuse. The shorter of this
+		 * and the timeout of the {@code Keep-Alive} header of the server applies.
+		 */
+		private Duration idleTimeout;
+
+		/**
+		 * Socket timeout of the connections to the host until a request sets its own.
+		 * Only applies to the Apache HttpClient.
+		 */
+		private Duration socketTimeout;
+
+		/**
+		 * Whether {@code TCP_NODELAY} is set on the connections to the host. Only applies
+		 * to the Apache HttpClient.
+		 */
+		private Boolean tcpNoDelay;
+
+		/**
+		 * Whether {@code SO_KEEPALIVE} is set on the connections to the host. Only
+		 * applies to the Apache HttpClient.
+		 */
+		private Boolean soKeepAlive;
+
+		public Integer getMaxConnectionsPerRoute() {
+			return maxConnectionsPerRoute;
+		}
+
+		public void setMaxConnectionsPerRoute(Integer maxConnectionsPerRoute) {
+			this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+		}
+
+		public Duration getIdleTimeout() {
+			return idleTimeout;
+		}
+
+		public void setIdleTimeout(Duration idleTimeout) {
+			this.idleTimeout = idleTimeout;
+		}
+
+		public Duration getSocketTimeout() {
+			return socketTimeout;
+		}
+
+		public void setSocketTimeout(Duration socketTimeout) {
+			this.socketTimeout = socketTimeout;
+		}
+
+		public Boolean getTcpNoDelay() {
+			return tcpNoDelay;
+		}
+
+		public void setTcpNoDelay(Boolean tcpNoDelay) {
+			this.tcpNoDelay = tcpNoDelay;
+		}
+
+		public Boolean getSoKeepAlive() {
+			return soKeepAlive;
+		}
+
+		public void setSoKeepAlive(Boolean soKeepAlive) {
+			this.soKeepAlive = soKeepAlive;
+		}
+
+	}
+
 }
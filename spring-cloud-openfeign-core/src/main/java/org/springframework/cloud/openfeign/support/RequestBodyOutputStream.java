@@ -0,0 +1,176 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign.support;
+
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects a request body encoded by {@link SpringEncoder}. Unlike a
+ * {@link java.io.ByteArrayOutputStream}, it does not copy the body whenever it grows, nor
+ * again when the body is taken: a body of the expected length is written into an array of
+ * that length, and a body of unknown length is collected in chunks that are copied once
+ * into the body. Written arrays are copied, as their writer may reuse them, unless the
+ * stream is told that the array written at once is the body itself.
+ *
+ * @since 3.1.6
+ */
+final class RequestBodyOutputStream extends OutputStream {
+
+	private static final int MIN_CHUNK_SIZE = 256;
+
+	private static final int MAX_CHUNK_SIZE = 1024 * 1024;
+
+	private static final byte[] EMPTY = new byte[0];
+
+	private final long expectedLength;
+
+	private final List<byte[]> chunks = new ArrayList<>();
+
+	private byte[] current;
+
+	// Position in the current chunk
+	private int position;
+
+	private int size;
+
+	private final boolean keepArrayWrittenAtOnce;
+
+	// A body written at once, used without copying it
+	private byte[] body;
+
+	/**
+	 * Creates a stream that copies everything written to it.
+	 * @param expectedLength the length of the body, e.g. from its {@code Content-Length}
+	 * header, or a negative value if unknown
+	 */
+	RequestBodyOutputStream(long expectedLength) {
+		this(expectedLength, false);
+	}
+
+	/**
+	 * Creates a stream.
+	 * @param expectedLength the length of the body, e.g. from its {@code Content-Length}
+	 * header, or a negative value if unknown
+	 * @param keepArrayWrittenAtOnce whether an array of the expected length written at
+	 * once is kept as the body instead of being copied; only safe if the writer does not
+	 * modify it afterwards, as with a {@code byte[]} request body written as is
+	 */
+	RequestBodyOutputStream(long expectedLength, boolean keepArrayWrittenAtOnce) {
+		this.expectedLength = expectedLength;
+		this.keepArrayWrittenAtOnce = keepArrayWrittenAtOnce;
+	}
+
+	@Override
+	public void write(int b) {
+		adoptBody();
+		if (current == null || position == current.length) {
+			nextChunk();
+		}
+		current[position++] = (byte) b;
+		size++;
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) {
+		if (off < 0 || len < 0 || len > b.length - off) {
+			throw new IndexOutOfBoundsException();
+		}
+		if (len == 0) {
+			return;
+		}
+		if (keepArrayWrittenAtOnce && size == 0 && body == null && off == 0 && len == b.length
+				&& len == expectedLength) {
+			body = b;
+			size = len;
+			return;
+		}
+		adoptBody();
+		append(b, off, len);
+	}
+
+	private void append(byte[] b, int off, int len) {
+		if (size + len < 0) {
+			throw new OutOfMemoryError("Request body too large");
+		}
+		while (len > 0) {
+			if (current == null || position == current.length) {
+				nextChunk();
+			}
+			int count = Math.min(len, current.length - position);
+			System.arraycopy(b, off, current, position, count);
+			position += count;
+			off += count;
+			len -= count;
+			size += count;
+		}
+	}
+
+	/**
+	 * Returns the written body. The stream must not be written to afterwards.
+	 * @return the body
+	 */
+	byte[] toByteArray() {
+		if (body != null) {
+			return body;
+		}
+		if (size == 0) {
+			return EMPTY;
+		}
+		if (chunks.size() == 1 && position == current.length) {
+			return current;
+		}
+		byte[] result = new byte[size];
+		int offset = 0;
+		for (byte[] chunk : chunks) {
+			int count = Math.min(chunk.length, size - offset);
+			System.arraycopy(chunk, 0, result, offset, count);
+			offset += count;
+		}
+		return result;
+	}
+
+	int size() {
+		return size;
+	}
+
+	// Copies a body that was kept as is, since more is written
+	private void adoptBody() {
+		if (body != null) {
+			byte[] written = body;
+			body = null;
+			size = 0;
+			append(written, 0, written.length);
+		}
+	}
+
+	private void nextChunk() {
+		int chunkSize;
+		if (chunks.isEmpty() && expectedLength > 0 && expectedLength <= Integer.MAX_VALUE - 8) {
+			chunkSize = (int) expectedLength;
+		}
+		else {
+			// Grows with the body, so that there are few chunks and little unused space
+			chunkSize = Math.max(MIN_CHUNK_SIZE, Math.min(MAX_CHUNK_SIZE, size));
+		}
+		current = new byte[chunkSize];
+		chunks.add(current);
+		position = 0;
+	}
+
+}
@@ -16,7 +16,6 @@
 
 package org.springframework.cloud.openfeign.support;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.lang.reflect.Type;
@@ -176,7 +175,7 @@ public class SpringEncoder implements Encoder {
 				else {
 					charset = StandardCharsets.UTF_8;
 				}
-				request.body(outputMessage.getOutputStream().toByteArray(), charset);
+				request.body(outputMessage.getBodyBytes(), charset);
 				return;
 			}
 		}
@@ -199,7 +198,9 @@ public class SpringEncoder implements Encoder {
 			RequestTemplate request) throws IOException {
 		if (converter.canWrite(body.getClass(), contentType)) {
 			logBeforeWrite(body, contentType, converter);
-			FeignOutputMessage outputMessage = new FeignOutputMessage(request);
+			// The byte[] converter writes the request body itself, which needs no copy
+			FeignOutputMessage outputMessage = new FeignOutputMessage(request,
+					converter instanceof ByteArrayHttpMessageConverter);
 			converter.write(body, contentType, outputMessage);
 			return outputMessage;
 		}
@@ -213,7 +214,7 @@ public class SpringEncoder implements Encoder {
 			GenericHttpMessageConverter converter, RequestTemplate request) throws IOException {
 		if (converter.canWrite(genericType, body.getClass(), contentType)) {
 			logBeforeWrite(body, contentType, converter);
-			FeignOutputMessage outputMessage = new FeignOutputMessage(request);
+			FeignOutputMessage outputMessage = new FeignOutputMessage(request, false);
 			converter.write(body, genericType, contentType, outputMessage);
 			return outputMessage;
 		}
@@ -257,16 +258,23 @@ public class SpringEncoder implements Encoder {
 
 	private final class FeignOutputMessage implements HttpOutputMessage {
 
-		private final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		private RequestBodyOutputStream outputStream;
 
 		private final HttpHeaders httpHeaders;
 
-		private FeignOutputMessage(RequestTemplate request) {
+		private final boolean writesRequestBody;
+
+		private FeignOutputMessage(RequestTemplate request, boolean writesRequestBody) {
 			httpHeaders = getHttpHeaders(request.headers());
+			this.writesRequestBody = writesRequestBody;
 		}
 
 		@Override
 		public OutputStream getBody() throws IOException {
+			if (outputStream == null) {
+				// Converters set the Content-Length header, if known, before writing
+				outputStream = new RequestBodyOutputStream(httpHeaders.getContentLength(), writesRequestBody);
+			}
 			return outputStream;
 		}
 
@@ -275,8 +283,8 @@ public class SpringEncoder implements Encoder {
 			return httpHeaders;
 		}
 
-		public ByteArrayOutputStream getOutputStream() {
-			return outputStream;
+		public byte[] getBodyBytes() {
+			return outputStream != null ? outputStream.toByteArray() : new byte[0];
 		}
 
 	}
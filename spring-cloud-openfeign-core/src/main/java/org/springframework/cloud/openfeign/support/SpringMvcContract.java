@@ -39,6 +39,7 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import org.springframework.cloud.openfeign.AnnotatedParameterProcessor;
+import org.springframework.cloud.openfeign.CoalesceRequests;
 import org.springframework.cloud.openfeign.CollectionFormat;
 import org.springframework.cloud.openfeign.annotation.CookieValueParameterProcessor;
 import org.springframework.cloud.openfeign.annotation.MatrixVariableParameterProcessor;
@@ -47,6 +48,7 @@ import org.springframework.cloud.openfeign.annotation.QueryMapParameterProcessor
 import org.springframework.cloud.openfeign.annotation.RequestHeaderParameterProcessor;
 import org.springframework.cloud.openfeign.annotation.RequestParamParameterProcessor;
 import org.springframework.cloud.openfeign.annotation.RequestPartParameterProcessor;
+import org.springframework.cloud.openfeign.annotation.RoutingKeyParameterProcessor;
 import org.springframework.cloud.openfeign.encoding.HttpEncoding;
 import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.context.ResourceLoaderAware;
@@ -190,7 +192,13 @@ public class SpringMvcContract extends Contract.BaseContract implements Resource
 	@Override
 	public MethodMetadata parseAndValidateMetadata(Class<?> targetType, Method method) {
 		processedMethods.put(Feign.configKey(targetType, method), method);
-		return super.parseAndValidateMetadata(targetType, method);
+		MethodMetadata metadata = super.parseAndValidateMetadata(targetType, method);
+		if (findMergedAnnotation(method, CoalesceRequests.class) != null) {
+			checkState(Request.HttpMethod.GET.name().equals(metadata.template().method()),
+					"Method %s is annotated with @CoalesceRequests, which is only supported for GET requests",
+					method.getName());
+		}
+		return metadata;
 	}
 
 	@Override
@@ -342,6 +350,7 @@ public class SpringMvcContract extends Contract.BaseContract implements Resource
 		annotatedArgumentResolvers.add(new QueryMapParameterProcessor());
 		annotatedArgumentResolvers.add(new RequestPartParameterProcessor());
 		annotatedArgumentResolvers.add(new CookieValueParameterProcessor());
+		annotatedArgumentResolvers.add(new RoutingKeyParameterProcessor());
 
 		return annotatedArgumentResolvers;
 	}
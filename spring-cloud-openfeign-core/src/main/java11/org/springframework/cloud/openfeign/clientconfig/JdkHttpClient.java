@@ -0,0 +1,153 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign.clientconfig;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.TreeSet;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * A Feign {@link Client} that executes requests with a JDK {@link HttpClient}. The read
+ * timeout of the {@link Request.Options} is applied as the timeout of each request, the
+ * connect timeout is the one the {@link HttpClient} was built with. Requests that do not
+ * follow redirects as the {@link HttpClient} does are sent through a copy of it with the
+ * other redirect policy.
+ *
+ * @since 3.1.6
+ */
+public class JdkHttpClient implements Client {
+
+	// Headers the JDK client sets itself and refuses to accept from the caller
+	private static final Set<String> RESTRICTED_HEADERS = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+
+	static {
+		RESTRICTED_HEADERS.add("Connection");
+		RESTRICTED_HEADERS.add("Content-Length");
+		RESTRICTED_HEADERS.add("Expect");
+		RESTRICTED_HEADERS.add("Host");
+		RESTRICTED_HEADERS.add("Upgrade");
+	}
+
+	private final HttpClient httpClient;
+
+	private volatile HttpClient otherRedirectPolicyClient;
+
+	public JdkHttpClient(HttpClient httpClient) {
+		this.httpClient = httpClient;
+	}
+
+	@Override
+	public Response execute(Request request, Request.Options options) throws IOException {
+		HttpResponse<InputStream> httpResponse;
+		try {
+			httpResponse = getHttpClient(options).send(toHttpRequest(request, options),
+					HttpResponse.BodyHandlers.ofInputStream());
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			InterruptedIOException exception = new InterruptedIOException(e.getMessage());
+			exception.initCause(e);
+			throw exception;
+		}
+		return toFeignResponse(request, httpResponse);
+	}
+
+	public HttpClient getHttpClient() {
+		return httpClient;
+	}
+
+	HttpClient getHttpClient(Request.Options options) {
+		HttpClient.Redirect redirect = options.isFollowRedirects() ? HttpClient.Redirect.NORMAL
+				: HttpClient.Redirect.NEVER;
+		if (httpClient.followRedirects() == redirect) {
+			return httpClient;
+		}
+		HttpClient client = otherRedirectPolicyClient;
+		if (client == null) {
+			synchronized (this) {
+				client = otherRedirectPolicyClient;
+				if (client == null) {
+					client = copyOf(httpClient, redirect);
+					otherRedirectPolicyClient = client;
+				}
+			}
+		}
+		return client;
+	}
+
+	private static HttpClient copyOf(HttpClient httpClient, HttpClient.Redirect redirect) {
+		HttpClient.Builder builder = HttpClient.newBuilder().followRedirects(redirect).version(httpClient.version())
+				.sslContext(httpClient.sslContext()).sslParameters(httpClient.sslParameters());
+		httpClient.connectTimeout().ifPresent(builder::connectTimeout);
+		httpClient.executor().ifPresent(builder::executor);
+		httpClient.proxy().ifPresent(builder::proxy);
+		httpClient.authenticator().ifPresent(builder::authenticator);
+		httpClient.cookieHandler().ifPresent(builder::cookieHandler);
+		return builder.build();
+	}
+
+	private static HttpRequest toHttpRequest(Request request, Request.Options options) {
+		HttpRequest.BodyPublisher bodyPublisher = request.body() != null
+				? HttpRequest.BodyPublishers.ofByteArray(request.body()) : HttpRequest.BodyPublishers.noBody();
+		HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(request.url()))
+				.method(request.httpMethod().name(), bodyPublisher);
+		long readTimeoutMillis = options.readTimeoutUnit().toMillis(options.readTimeout());
+		if (readTimeoutMillis > 0) {
+			builder.timeout(Duration.ofMillis(readTimeoutMillis));
+		}
+		for (Map.Entry<String, Collection<String>> header : request.headers().entrySet()) {
+			if (RESTRICTED_HEADERS.contains(header.getKey())) {
+				continue;
+			}
+			for (String value : header.getValue()) {
+				builder.header(header.getKey(), value);
+			}
+		}
+		return builder.build();
+	}
+
+	private static Response toFeignResponse(Request request, HttpResponse<InputStream> httpResponse) {
+		OptionalLong contentLength = httpResponse.headers().firstValueAsLong("Content-Length");
+		Integer length = contentLength.isPresent() && contentLength.getAsLong() <= Integer.MAX_VALUE
+				? (int) contentLength.getAsLong() : null;
+		HttpStatus status = HttpStatus.resolve(httpResponse.statusCode());
+		return Response.builder().request(request).status(httpResponse.statusCode())
+				.reason(status != null ? status.getReasonPhrase() : null)
+				.headers(new LinkedHashMap<String, Collection<String>>(httpResponse.headers().map()))
+				.protocolVersion(httpResponse.version() == HttpClient.Version.HTTP_2 ? Request.ProtocolVersion.HTTP_2
+						: Request.ProtocolVersion.HTTP_1_1)
+				.body(httpResponse.body(), length).build();
+	}
+
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.cloud.openfeign.clientconfig;
+
+import java.net.http.HttpClient;
+
+import feign.Client;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Configures a {@link JdkHttpClient} as the Feign {@link Client} when load balancing
+ * is not in use.
+ *
+ * @since 3.1.6
+ */
+@Configuration(proxyBeanMethods = false)
+@Import(JdkHttpClientFeignConfiguration.class)
+public class JdkHttpClientFeignClientConfiguration {
+
+	@Bean
+	@ConditionalOnMissingBean(Client.class)
+	public Client feignClient(HttpClient jdkHttpClient) {
+		return new JdkHttpClient(jdkHttpClient);
+	}
+
+}
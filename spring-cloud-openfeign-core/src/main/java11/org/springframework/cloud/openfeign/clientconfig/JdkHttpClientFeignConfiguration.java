@@ -0,0 +1,121 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign.clientconfig;
+
+import java.lang.reflect.Method;
+import java.net.http.HttpClient;
+import java.security.KeyManagementException;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.annotation.PreDestroy;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManager;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.cloud.openfeign.support.FeignHttpClientProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Default configuration for the JDK {@link HttpClient}.
+ *
+ * @since 3.1.6
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnMissingBean(HttpClient.class)
+public class JdkHttpClientFeignConfiguration {
+
+	private static final Log LOG = LogFactory.getLog(JdkHttpClientFeignConfiguration.class);
+
+	private ExecutorService executor;
+
+	@Bean
+	public HttpClient jdkHttpClient(FeignHttpClientProperties httpClientProperties,
+			ObjectProvider<FeignSslContextProvider> sslContextProvider) {
+		HttpClient.Builder builder = HttpClient.newBuilder()
+				.followRedirects(httpClientProperties.isFollowRedirects() ? HttpClient.Redirect.NORMAL
+						: HttpClient.Redirect.NEVER)
+				.version(httpClientProperties.getHttp2().isEnabled() ? HttpClient.Version.HTTP_2
+						: HttpClient.Version.HTTP_1_1);
+		if (httpClientProperties.getConnectionTimeout() > 0) {
+			builder.connectTimeout(Duration.ofMillis(httpClientProperties.getConnectionTimeout()));
+		}
+		FeignSslContextProvider feignSslContextProvider = sslContextProvider.getIfAvailable();
+		if (feignSslContextProvider != null) {
+			builder.sslContext(feignSslContextProvider.getSslContext());
+		}
+		else if (httpClientProperties.isDisableSslValidation()) {
+			SSLContext sslContext = disabledValidationSslContext();
+			if (sslContext != null) {
+				builder.sslContext(sslContext);
+			}
+		}
+		if (httpClientProperties.getJdk().isVirtualThreadExecutor()) {
+			this.executor = newVirtualThreadPerTaskExecutor();
+			if (this.executor != null) {
+				builder.executor(this.executor);
+			}
+		}
+		return builder.build();
+	}
+
+	@PreDestroy
+	public void destroy() {
+		if (this.executor != null) {
+			this.executor.shutdown();
+		}
+	}
+
+	private SSLContext disabledValidationSslContext() {
+		try {
+			SSLContext sslContext = SSLContext.getInstance("SSL");
+			sslContext.init(null,
+					new TrustManager[] { new HttpClient5FeignConfiguration.DisabledValidationTrustManager() },
+					new SecureRandom());
+			return sslContext;
+		}
+		catch (NoSuchAlgorithmException | KeyManagementException e) {
+			LOG.warn("Error creating SSLContext", e);
+			return null;
+		}
+	}
+
+	// Looked up reflectively, as virtual threads are only available from Java 21
+	static ExecutorService newVirtualThreadPerTaskExecutor() {
+		try {
+			Method factoryMethod = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return (ExecutorService) factoryMethod.invoke(null);
+		}
+		catch (NoSuchMethodException e) {
+			LOG.warn("Virtual threads are not supported by this JVM, using the default HttpClient executor");
+			return null;
+		}
+		catch (ReflectiveOperationException e) {
+			LOG.warn("Error creating a virtual thread executor, using the default HttpClient executor", e);
+			return null;
+		}
+	}
+
+}
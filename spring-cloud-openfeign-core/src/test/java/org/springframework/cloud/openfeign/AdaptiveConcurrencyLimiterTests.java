@@ -0,0 +1,221 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign;
+
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for {@link AdaptiveConcurrencyLimiter}.
+ */
+class AdaptiveConcurrencyLimiterTests {
+
+	private final AtomicLong nanoTime = new AtomicLong();
+
+	@Test
+	void shouldRejectRequestsOverLimit() throws InterruptedException {
+		AdaptiveConcurrencyLimiter limiter = limiter(properties(2, 0));
+
+		AdaptiveConcurrencyLimiter.Permit first = limiter.acquire();
+		assertThat(limiter.acquire()).isNotNull();
+		assertThat(limiter.acquire()).isNull();
+		assertThat(limiter.getInFlight()).isEqualTo(2);
+		assertThat(limiter.getRejectedCount()).isEqualTo(1);
+
+		first.onIgnore();
+
+		assertThat(limiter.acquire()).isNotNull();
+		assertThat(limiter.getLimit()).isEqualTo(2);
+	}
+
+	@Test
+	void shouldWaitForPermitUpToMaxWait() throws Exception {
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", properties(1, 5000));
+		AdaptiveConcurrencyLimiter.Permit permit = limiter.acquire();
+
+		CompletableFuture<AdaptiveConcurrencyLimiter.Permit> waiting = CompletableFuture.supplyAsync(() -> {
+			try {
+				return limiter.acquire();
+			}
+			catch (InterruptedException e) {
+				throw new IllegalStateException(e);
+			}
+		});
+		permit.onIgnore();
+
+		assertThat(waiting.get(5, TimeUnit.SECONDS)).isNotNull();
+		assertThat(limiter.getRejectedCount()).isZero();
+	}
+
+	@Test
+	void shouldRejectAfterMaxWait() throws InterruptedException {
+		AdaptiveConcurrencyLimiter limiter = limiter(properties(1, 10));
+		limiter.acquire();
+
+		assertThat(limiter.acquire()).isNull();
+		assertThat(limiter.getRejectedCount()).isEqualTo(1);
+	}
+
+	@Test
+	void shouldIncreaseLimitWhileLatencyIsStable() throws InterruptedException {
+		AdaptiveConcurrencyLimiter limiter = limiter(properties(10, 0));
+
+		for (int i = 0; i < 50; i++) {
+			completeConcurrently(limiter, 10, 100);
+		}
+
+		assertThat(limiter.getLimit()).isGreaterThan(10);
+	}
+
+	@Test
+	void shouldDecreaseLimitWhenLatencyRises() throws InterruptedException {
+		AdaptiveConcurrencyLimiter limiter = limiter(properties(50, 0));
+		for (int i = 0; i < 20; i++) {
+			completeConcurrently(limiter, 30, 100);
+		}
+		int limit = limiter.getLimit();
+
+		for (int i = 0; i < 20; i++) {
+			completeConcurrently(limiter, limiter.getLimit(), 1000);
+		}
+
+		assertThat(limiter.getLimit()).isLessThan(limit);
+	}
+
+	@Test
+	void shouldNotIncreaseLimitWhenNotUsed() throws InterruptedException {
+		AdaptiveConcurrencyLimiter limiter = limiter(properties(10, 0));
+
+		for (int i = 0; i < 100; i++) {
+			completeConcurrently(limiter, 1, 100);
+		}
+
+		assertThat(limiter.getLimit()).isEqualTo(10);
+	}
+
+	@Test
+	void shouldBackOffOnDroppedRequestsDownToMinLimit() throws InterruptedException {
+		FeignClientProperties.ConcurrencyLimitProperties properties = properties(10, 0);
+		properties.setMinLimit(5);
+		AdaptiveConcurrencyLimiter limiter = limiter(properties);
+
+		limiter.acquire().onDropped();
+		assertThat(limiter.getLimit()).isEqualTo(9);
+
+		for (int i = 0; i < 10; i++) {
+			limiter.acquire().onDropped();
+		}
+		assertThat(limiter.getLimit()).isEqualTo(5);
+		assertThat(limiter.getInFlight()).isZero();
+	}
+
+	@Test
+	void shouldKeepLimitWithinReconfiguredBounds() {
+		AdaptiveConcurrencyLimiter limiter = limiter(properties(20, 0));
+		FeignClientProperties.ConcurrencyLimitProperties properties = properties(20, 0);
+		properties.setMaxLimit(8);
+
+		limiter.configure(properties);
+
+		assertThat(limiter.getLimit()).isEqualTo(8);
+	}
+
+	@Test
+	void shouldRejectRequestsOverLimitInClient() throws Exception {
+		AdaptiveConcurrencyLimiter limiter = limiter(properties(1, 0));
+		Client delegate = mock(Client.class);
+		Client client = new AdaptiveConcurrencyLimitCapability(limiter).enrich(delegate);
+		Request request = testRequest();
+		limiter.acquire();
+
+		assertThatExceptionOfType(ConcurrencyLimitExceededException.class)
+				.isThrownBy(() -> client.execute(request, new Request.Options()))
+				.satisfies(e -> assertThat(e.getContextId()).isEqualTo("test"));
+		verify(delegate, never()).execute(any(), any());
+	}
+
+	@Test
+	void shouldBackOffOnOverloadResponsesAndTimeoutsInClient() throws Exception {
+		AdaptiveConcurrencyLimiter limiter = limiter(properties(10, 0));
+		Client delegate = mock(Client.class);
+		Client client = new AdaptiveConcurrencyLimitCapability(limiter).enrich(delegate);
+		Request request = testRequest();
+		when(delegate.execute(any(), any())).thenReturn(response(request, 503)).thenThrow(new SocketTimeoutException())
+				.thenReturn(response(request, 200));
+
+		assertThat(client.execute(request, new Request.Options()).status()).isEqualTo(503);
+		assertThatExceptionOfType(SocketTimeoutException.class)
+				.isThrownBy(() -> client.execute(request, new Request.Options()));
+		assertThat(client.execute(request, new Request.Options()).status()).isEqualTo(200);
+
+		assertThat(limiter.getLimit()).isEqualTo(8);
+		assertThat(limiter.getInFlight()).isZero();
+	}
+
+	private void completeConcurrently(AdaptiveConcurrencyLimiter limiter, int requests, long rttNanos)
+			throws InterruptedException {
+		AdaptiveConcurrencyLimiter.Permit[] permits = new AdaptiveConcurrencyLimiter.Permit[requests];
+		for (int i = 0; i < requests; i++) {
+			permits[i] = limiter.acquire();
+		}
+		nanoTime.addAndGet(rttNanos);
+		for (AdaptiveConcurrencyLimiter.Permit permit : permits) {
+			if (permit != null) {
+				permit.onSuccess();
+			}
+		}
+	}
+
+	private AdaptiveConcurrencyLimiter limiter(FeignClientProperties.ConcurrencyLimitProperties properties) {
+		return new AdaptiveConcurrencyLimiter("test", properties, nanoTime::get);
+	}
+
+	private static FeignClientProperties.ConcurrencyLimitProperties properties(int initialLimit, int maxWait) {
+		FeignClientProperties.ConcurrencyLimitProperties properties = new FeignClientProperties.ConcurrencyLimitProperties();
+		properties.setEnabled(true);
+		properties.setInitialLimit(initialLimit);
+		properties.setMaxWait(maxWait);
+		return properties;
+	}
+
+	private static Request testRequest() {
+		return Request.create(Request.HttpMethod.GET, "http://test/path", Collections.emptyMap(), null,
+				StandardCharsets.UTF_8, null);
+	}
+
+	private static Response response(Request request, int status) {
+		return Response.builder().request(request).status(status).headers(Collections.emptyMap()).build();
+	}
+
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import feign.Client;
+import feign.MethodMetadata;
+import feign.Request;
+import feign.RequestTemplate;
+import feign.Response;
+import feign.Util;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.cloud.openfeign.support.SpringMvcContract;
+import org.springframework.web.bind.annotation.GetMapping;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.assertThatIOException;
+
+/**
+ * Tests for {@link CoalescingClient}.
+ */
+class CoalescingClientTests {
+
+	private final ExecutorService executor = Executors.newCachedThreadPool();
+
+	private final CountDownLatch delegateCalled = new CountDownLatch(1);
+
+	private final CountDownLatch releaseResponse = new CountDownLatch(1);
+
+	private final AtomicInteger delegateCalls = new AtomicInteger();
+
+	private final Map<Future<Response>, CompletableFuture<Thread>> threads = new HashMap<>();
+
+	@AfterEach
+	void tearDown() {
+		releaseResponse.countDown();
+		executor.shutdownNow();
+	}
+
+	@Test
+	void shouldShareResponseOfConcurrentIdenticalRequests() throws Exception {
+		CoalescingClient client = new CoalescingClient(blockingDelegate(null));
+
+		Future<Response> first = execute(client, request("coalesced", "traceparent", "1"));
+		assertThat(delegateCalled.await(5, TimeUnit.SECONDS)).isTrue();
+		Request secondRequest = request("coalesced", "traceparent", "2");
+		Future<Response> second = execute(client, secondRequest);
+		awaitWaiting(second);
+		releaseResponse.countDown();
+
+		assertThat(Util.toString(first.get(5, TimeUnit.SECONDS).body().asReader(StandardCharsets.UTF_8)))
+				.isEqualTo("hello");
+		Response secondResponse = second.get(5, TimeUnit.SECONDS);
+		assertThat(Util.toString(secondResponse.body().asReader(StandardCharsets.UTF_8))).isEqualTo("hello");
+		assertThat(secondResponse.request()).isSameAs(secondRequest);
+		assertThat(delegateCalls).hasValue(1);
+	}
+
+	@Test
+	void shouldNotShareResponseOfRequestsWithDifferentHeaders() throws Exception {
+		CoalescingClient client = new CoalescingClient(blockingDelegate(null));
+
+		Future<Response> first = execute(client, request("coalesced", "Authorization", "a"));
+		assertThat(delegateCalled.await(5, TimeUnit.SECONDS)).isTrue();
+		releaseResponse.countDown();
+		Response second = client.execute(request("coalesced", "Authorization", "b"), new Request.Options());
+
+		assertThat(first.get(5, TimeUnit.SECONDS).status()).isEqualTo(200);
+		assertThat(second.status()).isEqualTo(200);
+		assertThat(delegateCalls).hasValue(2);
+	}
+
+	@Test
+	void shouldPassThroughRequestsOfOtherMethods() throws Exception {
+		Response response = response(request("notCoalesced"));
+		CoalescingClient client = new CoalescingClient((request, options) -> response);
+
+		assertThat(client.execute(request("notCoalesced"), new Request.Options())).isSameAs(response);
+	}
+
+	@Test
+	void shouldPropagateFailureToWaitingRequests() throws Exception {
+		CoalescingClient client = new CoalescingClient(blockingDelegate(new IOException("test")));
+
+		Future<Response> first = execute(client, request("coalesced"));
+		assertThat(delegateCalled.await(5, TimeUnit.SECONDS)).isTrue();
+		Future<Response> second = execute(client, request("coalesced"));
+		awaitWaiting(second);
+		releaseResponse.countDown();
+
+		assertThatExceptionOfType(Exception.class).isThrownBy(() -> first.get(5, TimeUnit.SECONDS))
+				.withRootCauseInstanceOf(IOException.class);
+		assertThatExceptionOfType(Exception.class).isThrownBy(() -> second.get(5, TimeUnit.SECONDS))
+				.withRootCauseInstanceOf(IOException.class);
+		assertThat(delegateCalls).hasValue(1);
+		assertThatIOException().isThrownBy(() -> client.execute(request("coalesced"), new Request.Options()));
+		assertThat(delegateCalls).hasValue(2);
+	}
+
+	@Test
+	void shouldDetectCoalescingClientInterfaces() {
+		assertThat(CoalescingClient.isCoalescing(TestClient.class)).isTrue();
+		assertThat(CoalescingClient.isCoalescing(OptionsTestClient.class)).isFalse();
+	}
+
+	private Client blockingDelegate(IOException failure) {
+		return (request, options) -> {
+			delegateCalls.incrementAndGet();
+			delegateCalled.countDown();
+			try {
+				releaseResponse.await(5, TimeUnit.SECONDS);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			if (failure != null) {
+				throw failure;
+			}
+			return response(request);
+		};
+	}
+
+	private Future<Response> execute(Client client, Request request) {
+		CompletableFuture<Thread> thread = new CompletableFuture<>();
+		Future<Response> future = executor.submit(() -> {
+			thread.complete(Thread.currentThread());
+			return client.execute(request, new Request.Options());
+		});
+		threads.put(future, thread);
+		return future;
+	}
+
+	private void awaitWaiting(Future<Response> future) throws Exception {
+		Thread thread = threads.get(future).get(5, TimeUnit.SECONDS);
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (thread.getState() != Thread.State.WAITING && System.nanoTime() < deadline) {
+			Thread.sleep(1);
+		}
+		assertThat(delegateCalls).hasValue(1);
+	}
+
+	private static Request request(String methodName, String... headerNamesAndValues) throws NoSuchMethodException {
+		Method method = TestClient.class.getMethod(methodName);
+		MethodMetadata metadata = new SpringMvcContract().parseAndValidateMetadata(TestClient.class, method);
+		Map<String, Collection<String>> headers = new HashMap<>();
+		for (int i = 0; i < headerNamesAndValues.length; i += 2) {
+			headers.put(headerNamesAndValues[i], Collections.singletonList(headerNamesAndValues[i + 1]));
+		}
+		return Request.create(Request.HttpMethod.GET, "http://test/path", headers, null, StandardCharsets.UTF_8,
+				RequestTemplate.from(metadata.template()));
+	}
+
+	private static Response response(Request request) {
+		return Response.builder().request(request).status(200).headers(Collections.emptyMap())
+				.body("hello", StandardCharsets.UTF_8).build();
+	}
+
+	interface TestClient {
+
+		@CoalesceRequests
+		@GetMapping("/path")
+		String coalesced();
+
+		@GetMapping("/path")
+		String notCoalesced();
+
+	}
+
+}
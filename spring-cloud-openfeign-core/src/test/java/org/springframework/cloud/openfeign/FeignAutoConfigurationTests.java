@@ -19,6 +19,7 @@ package org.springframework.cloud.openfeign;
 import java.lang.reflect.Method;
 
 import feign.Target;
+import okhttp3.Dns;
 import org.assertj.core.api.Condition;
 import org.junit.jupiter.api.Test;
 
@@ -27,7 +28,11 @@ import org.springframework.boot.test.context.assertj.AssertableApplicationContex
 import org.springframework.boot.test.context.runner.ApplicationContextRunner;
 import org.springframework.cloud.client.circuitbreaker.CircuitBreakerFactory;
 import org.springframework.cloud.client.loadbalancer.LoadBalancerInterceptor;
+import org.springframework.cloud.commons.httpclient.HttpClientConfiguration;
 import org.springframework.cloud.openfeign.FeignAutoConfiguration.CircuitBreakerPresentFeignTargeterConfiguration.DefaultCircuitBreakerNameResolver;
+import org.springframework.cloud.openfeign.clientconfig.FeignDnsCache;
+import org.springframework.cloud.openfeign.clientconfig.FeignSslContextProvider;
+import org.springframework.cloud.openfeign.clientconfig.OkHttpDns;
 import org.springframework.cloud.openfeign.security.MockOAuth2ClientContext;
 import org.springframework.cloud.openfeign.security.OAuth2AccessTokenInterceptor;
 import org.springframework.cloud.openfeign.security.OAuth2FeignRequestInterceptor;
@@ -95,6 +100,32 @@ class FeignAutoConfigurationTests {
 				});
 	}
 
+	@Test
+	void shouldResolveOkHttpHostsThroughDnsCacheWhenEnabled() {
+		runner.withConfiguration(AutoConfigurations.of(HttpClientConfiguration.class))
+				.withPropertyValues("feign.okhttp.enabled=true", "feign.httpclient.dns.enabled=true").run(ctx -> {
+					assertThat(ctx).hasSingleBean(FeignDnsCache.class);
+					assertThat(ctx.getBean(okhttp3.OkHttpClient.class).dns()).isInstanceOf(OkHttpDns.class);
+				});
+	}
+
+	@Test
+	void shouldNotInstantiateDnsCacheByDefault() {
+		runner.withConfiguration(AutoConfigurations.of(HttpClientConfiguration.class))
+				.withPropertyValues("feign.okhttp.enabled=true").run(ctx -> {
+					assertThat(ctx).doesNotHaveBean(FeignDnsCache.class);
+					assertThat(ctx.getBean(okhttp3.OkHttpClient.class).dns()).isSameAs(Dns.SYSTEM);
+				});
+	}
+
+	@Test
+	void shouldOpenOkHttpConnectionsThroughSharedSslContextWhenEnabled() {
+		runner.withConfiguration(AutoConfigurations.of(HttpClientConfiguration.class))
+				.withPropertyValues("feign.okhttp.enabled=true", "feign.httpclient.ssl.shared-context=true")
+				.run(ctx -> assertThat(ctx.getBean(okhttp3.OkHttpClient.class).sslSocketFactory())
+						.isSameAs(ctx.getBean(FeignSslContextProvider.class).getSocketFactory()));
+	}
+
 	@Test
 	void shouldInstantiateFeignOAuth2FeignRequestInterceptorWithoutInterceptors() {
 		runner.withPropertyValues("feign.oauth2.enabled=true").withBean(MockOAuth2ClientContext.class, "token")
@@ -0,0 +1,190 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.cloud.openfeign.clientconfig.FeignConnectionPoolMonitor;
+import org.springframework.cloud.openfeign.clientconfig.OkHttpEvictablePool;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.bind.annotation.GetMapping;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for the dedicated connection pools of Feign clients.
+ */
+class FeignClientConnectionPoolTests {
+
+	private static HttpServer server;
+
+	private static int port;
+
+	private ConfigurableApplicationContext context;
+
+	@BeforeAll
+	static void startServer() throws IOException {
+		server = HttpServer.create(new InetSocketAddress(0), 0);
+		server.createContext("/hello", exchange -> {
+			exchange.sendResponseHeaders(200, 5);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write("hello".getBytes());
+			}
+		});
+		server.start();
+		port = server.getAddress().getPort();
+	}
+
+	@AfterAll
+	static void stopServer() {
+		server.stop(0);
+	}
+
+	@AfterEach
+	void tearDown() {
+		if (context != null) {
+			context.close();
+		}
+	}
+
+	@Test
+	void shouldUseDedicatedPoolOnlyForConfiguredClients() {
+		context = run("feign.client.config.isolatedUrlClient.connection-pool.enabled=true",
+				"feign.client.config.isolatedUrlClient.connection-pool.max-connections-per-route=7");
+		FeignConnectionPoolMonitor monitor = context.getBean(FeignConnectionPoolMonitor.class);
+		String route = FeignConnectionPoolMonitor.route("localhost", port);
+
+		assertThat(context.getBean(IsolatedUrlClient.class).hello()).isEqualTo("hello");
+
+		assertThat(monitor.getStats("httpclient-isolatedUrlClient", route).getAvailable()).isEqualTo(1);
+		assertThat(monitor.getStats("httpclient-isolatedUrlClient", route).getMax()).isEqualTo(7);
+		assertThat(monitor.getRoutes("httpclient")).doesNotContain(route);
+
+		assertThat(context.getBean(SharedUrlClient.class).hello()).isEqualTo("hello");
+
+		assertThat(monitor.getStats("httpclient", route).getAvailable()).isEqualTo(1);
+		assertThat(monitor.getRoutes("httpclient-sharedUrlClient")).isEmpty();
+	}
+
+	@Test
+	void shouldKeepLoadBalancingWithDedicatedPool() {
+		context = run("feign.client.config.isolatedServiceClient.connection-pool.enabled=true");
+		FeignConnectionPoolMonitor monitor = context.getBean(FeignConnectionPoolMonitor.class);
+		String route = FeignConnectionPoolMonitor.route("127.0.0.1", port);
+
+		assertThat(context.getBean(IsolatedServiceClient.class).hello()).isEqualTo("hello");
+
+		assertThat(monitor.getStats("httpclient-isolatedServiceClient", route).getAvailable()).isEqualTo(1);
+		assertThat(monitor.getRoutes("httpclient")).doesNotContain(route);
+	}
+
+	@Test
+	void shouldUnregisterDedicatedPoolOnClose() {
+		context = run("feign.client.config.default.connection-pool.enabled=true");
+		FeignConnectionPoolMonitor monitor = context.getBean(FeignConnectionPoolMonitor.class);
+
+		assertThat(context.getBean(SharedUrlClient.class).hello()).isEqualTo("hello");
+		assertThat(monitor.getRoutes("httpclient-sharedUrlClient")).isNotEmpty();
+
+		context.getBean(FeignContext.class).destroy();
+
+		assertThat(monitor.getRoutes("httpclient-sharedUrlClient")).isEmpty();
+	}
+
+	@Test
+	void shouldUseDedicatedOkHttpPool() {
+		context = run("feign.httpclient.enabled=false", "feign.okhttp.enabled=true",
+				"feign.client.config.isolatedUrlClient.connection-pool.enabled=true");
+		FeignConnectionPoolMonitor monitor = context.getBean(FeignConnectionPoolMonitor.class);
+
+		assertThat(context.getBean(IsolatedUrlClient.class).hello()).isEqualTo("hello");
+
+		assertThat(monitor.getStats("okhttp-isolatedUrlClient", OkHttpEvictablePool.ALL_ROUTES).getAvailable())
+				.isEqualTo(1);
+		assertThat(monitor.getStats("okhttp", OkHttpEvictablePool.ALL_ROUTES).getAvailable()).isZero();
+	}
+
+	@Test
+	void shouldRecordAcquisitionsOfDedicatedHc5PoolWithHostPolicy() {
+		context = run("feign.httpclient.enabled=false", "feign.httpclient.hc5.enabled=true",
+				"feign.httpclient.use-keep-alive-header=false",
+				"feign.client.config.isolatedUrlClient.connection-pool.enabled=true");
+		List<String> pools = new CopyOnWriteArrayList<>();
+		context.getBean(FeignConnectionPoolMonitor.class)
+				.addAcquisitionListener((pool, route, waitNanos) -> pools.add(pool));
+
+		assertThat(context.getBean(IsolatedUrlClient.class).hello()).isEqualTo("hello");
+		assertThat(context.getBean(SharedUrlClient.class).hello()).isEqualTo("hello");
+
+		assertThat(pools).containsExactly("hc5-isolatedUrlClient", "hc5");
+	}
+
+	private ConfigurableApplicationContext run(String... properties) {
+		return new SpringApplicationBuilder().web(WebApplicationType.NONE).sources(Application.class).properties(
+				"spring.application.name=feignclientconnectionpooltest", "feign.circuitbreaker.enabled=false",
+				"spring.cloud.loadbalancer.retry.enabled=false", "connection-pool.url=http://localhost:" + port,
+				"spring.cloud.discovery.client.simple.instances.connection-pool-service[0].uri=http://127.0.0.1:"
+						+ port)
+				.properties(properties).run();
+	}
+
+	@FeignClient(name = "isolatedUrlClient", url = "${connection-pool.url}")
+	protected interface IsolatedUrlClient {
+
+		@GetMapping("/hello")
+		String hello();
+
+	}
+
+	@FeignClient(name = "sharedUrlClient", url = "${connection-pool.url}")
+	protected interface SharedUrlClient {
+
+		@GetMapping("/hello")
+		String hello();
+
+	}
+
+	@FeignClient(name = "connection-pool-service", contextId = "isolatedServiceClient")
+	protected interface IsolatedServiceClient {
+
+		@GetMapping("/hello")
+		String hello();
+
+	}
+
+	@Configuration(proxyBeanMethods = false)
+	@EnableAutoConfiguration
+	@EnableFeignClients(clients = { IsolatedUrlClient.class, SharedUrlClient.class, IsolatedServiceClient.class })
+	protected static class Application {
+
+	}
+
+}
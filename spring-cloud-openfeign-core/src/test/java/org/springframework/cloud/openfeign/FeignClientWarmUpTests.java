@@ -0,0 +1,146 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+
+import com.sun.net.httpserver.HttpServer;
+import org.apache.http.HttpHost;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.bind.annotation.GetMapping;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link FeignClientWarmUp}.
+ */
+class FeignClientWarmUpTests {
+
+	private static HttpServer server;
+
+	private static int port;
+
+	private ConfigurableApplicationContext context;
+
+	@BeforeAll
+	static void startServer() throws IOException {
+		server = HttpServer.create(new InetSocketAddress(0), 0);
+		server.createContext("/hello", exchange -> {
+			exchange.sendResponseHeaders(200, 5);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write("hello".getBytes());
+			}
+		});
+		server.start();
+		port = server.getAddress().getPort();
+	}
+
+	@AfterAll
+	static void stopServer() {
+		server.stop(0);
+	}
+
+	@AfterEach
+	void tearDown() {
+		if (context != null) {
+			context.close();
+		}
+	}
+
+	@Test
+	void shouldOpenConnectionsToUrlAndServiceInstances() {
+		context = run("feign.client.config.warmUpUrlClient.warm-up.enabled=true",
+				"feign.client.config.warmUpUrlClient.warm-up.connections=3",
+				"feign.client.config.warmUpServiceClient.warm-up.enabled=true");
+
+		PoolingHttpClientConnectionManager connectionManager = context
+				.getBean(PoolingHttpClientConnectionManager.class);
+		assertThat(connectionManager.getStats(route("localhost")).getAvailable()).isEqualTo(3);
+		assertThat(connectionManager.getStats(route("127.0.0.1")).getAvailable()).isEqualTo(1);
+		assertThat(context.getBean(WarmUpUrlClient.class).hello()).isEqualTo("hello");
+	}
+
+	@Test
+	void shouldUseDefaultConfig() {
+		context = run("feign.client.config.default.warm-up.enabled=true",
+				"feign.client.config.default.warm-up.connections=2",
+				"feign.client.config.warmUpServiceClient.warm-up.enabled=false");
+
+		PoolingHttpClientConnectionManager connectionManager = context
+				.getBean(PoolingHttpClientConnectionManager.class);
+		assertThat(connectionManager.getStats(route("localhost")).getAvailable()).isEqualTo(2);
+		assertThat(connectionManager.getStats(route("127.0.0.1")).getAvailable()).isZero();
+	}
+
+	@Test
+	void shouldNotOpenConnectionsByDefault() {
+		context = run();
+
+		PoolingHttpClientConnectionManager connectionManager = context
+				.getBean(PoolingHttpClientConnectionManager.class);
+		assertThat(connectionManager.getTotalStats().getAvailable()).isZero();
+	}
+
+	private ConfigurableApplicationContext run(String... properties) {
+		return new SpringApplicationBuilder().web(WebApplicationType.NONE).sources(Application.class).properties(
+				"spring.application.name=feignclientwarmuptest", "feign.circuitbreaker.enabled=false",
+				"spring.cloud.loadbalancer.retry.enabled=false", "warm-up.url=http://localhost:" + port,
+				"spring.cloud.discovery.client.simple.instances.warm-up-service[0].uri=http://127.0.0.1:" + port)
+				.properties(properties).run();
+	}
+
+	private static HttpRoute route(String host) {
+		return new HttpRoute(new HttpHost(host, port, "http"));
+	}
+
+	@FeignClient(name = "warmUpUrlClient", url = "${warm-up.url}")
+	protected interface WarmUpUrlClient {
+
+		@GetMapping("/hello")
+		String hello();
+
+	}
+
+	@FeignClient(name = "warm-up-service", contextId = "warmUpServiceClient")
+	protected interface WarmUpServiceClient {
+
+		@GetMapping("/hello")
+		String hello();
+
+	}
+
+	@Configuration(proxyBeanMethods = false)
+	@EnableAutoConfiguration
+	@EnableFeignClients(clients = { WarmUpUrlClient.class, WarmUpServiceClient.class })
+	protected static class Application {
+
+	}
+
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import feign.AsyncClient;
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import feign.Util;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.EntityDetails;
+import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.Message;
+import org.apache.hc.core5.http.ProtocolVersion;
+import org.apache.hc.core5.http.impl.bootstrap.HttpAsyncServer;
+import org.apache.hc.core5.http.nio.AsyncRequestConsumer;
+import org.apache.hc.core5.http.nio.AsyncServerRequestHandler;
+import org.apache.hc.core5.http.nio.entity.StringAsyncEntityConsumer;
+import org.apache.hc.core5.http.nio.support.AsyncResponseBuilder;
+import org.apache.hc.core5.http.nio.support.BasicRequestConsumer;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.http.protocol.HttpCoreContext;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
+import org.apache.hc.core5.http2.impl.nio.bootstrap.H2ServerBootstrap;
+import org.apache.hc.core5.io.CloseMode;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.cloud.commons.httpclient.HttpClientConfiguration;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for the HTTP/2 transports against a local h2c server.
+ */
+class FeignHttp2Tests {
+
+	private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor();
+
+	private static final List<ProtocolVersion> VERSIONS = new CopyOnWriteArrayList<>();
+
+	private static final Set<SocketAddress> CONNECTIONS = ConcurrentHashMap.newKeySet();
+
+	private static final AtomicInteger IN_FLIGHT = new AtomicInteger();
+
+	private static final AtomicInteger MAX_IN_FLIGHT = new AtomicInteger();
+
+	private static HttpAsyncServer server;
+
+	private static String url;
+
+	@BeforeAll
+	static void startServer() throws Exception {
+		server = H2ServerBootstrap.bootstrap().setVersionPolicy(HttpVersionPolicy.FORCE_HTTP_2)
+				.register("*", new DelayedHelloHandler()).create();
+		server.start();
+		InetSocketAddress address = (InetSocketAddress) server.listen(new InetSocketAddress("localhost", 0)).get()
+				.getAddress();
+		url = "http://localhost:" + address.getPort() + "/hello";
+	}
+
+	@AfterAll
+	static void stopServer() {
+		server.close(CloseMode.GRACEFUL);
+		SCHEDULER.shutdownNow();
+	}
+
+	@BeforeEach
+	void reset() {
+		VERSIONS.clear();
+		CONNECTIONS.clear();
+		MAX_IN_FLIGHT.set(0);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void shouldMultiplexAsyncRequestsOverOneConnection() throws Exception {
+		try (ConfigurableApplicationContext context = new SpringApplicationBuilder()
+				.properties("feign.httpclient.hc5.async.enabled=true", "feign.httpclient.http2.enabled=true",
+						"feign.httpclient.http2.max-concurrent-streams=2")
+				.web(WebApplicationType.NONE).sources(HttpClientConfiguration.class, FeignAutoConfiguration.class)
+				.run()) {
+			AsyncClient<Object> client = context.getBean(AsyncClient.class);
+			// Establishes the connection first, so that the requests below cannot race to
+			// open one each
+			client.execute(request(), new Request.Options(), Optional.empty()).get(5, TimeUnit.SECONDS).close();
+			reset();
+			List<CompletableFuture<Response>> responses = new ArrayList<>();
+			for (int i = 0; i < 6; i++) {
+				responses.add(client.execute(request(), new Request.Options(), Optional.empty()));
+			}
+
+			for (CompletableFuture<Response> response : responses) {
+				assertThat(body(response.get(5, TimeUnit.SECONDS))).isEqualTo("hello");
+			}
+			assertThat(VERSIONS).hasSize(6).allMatch(version -> version.getMajor() == 2);
+			assertThat(CONNECTIONS).hasSize(1);
+			assertThat(MAX_IN_FLIGHT.get()).isEqualTo(2);
+		}
+	}
+
+	@Test
+	void shouldUseHttp2WithPriorKnowledgeForOkHttp() throws Exception {
+		try (ConfigurableApplicationContext context = new SpringApplicationBuilder()
+				.properties("feign.okhttp.enabled=true", "feign.httpclient.enabled=false",
+						"feign.httpclient.http2.enabled=true", "feign.httpclient.http2.prior-knowledge=true")
+				.web(WebApplicationType.NONE).sources(HttpClientConfiguration.class, FeignAutoConfiguration.class)
+				.run()) {
+			Client client = context.getBean(Client.class);
+
+			Response response = client.execute(request(), new Request.Options());
+
+			assertThat(body(response)).isEqualTo("hello");
+			assertThat(VERSIONS).hasSize(1).allMatch(version -> version.getMajor() == 2);
+		}
+	}
+
+	private static Request request() {
+		return Request.create(Request.HttpMethod.GET, url, Collections.emptyMap(), null, StandardCharsets.UTF_8, null);
+	}
+
+	private static String body(Response response) throws IOException {
+		return Util.toString(response.body().asReader(StandardCharsets.UTF_8));
+	}
+
+	private static class DelayedHelloHandler implements AsyncServerRequestHandler<Message<HttpRequest, String>> {
+
+		@Override
+		public AsyncRequestConsumer<Message<HttpRequest, String>> prepare(HttpRequest request,
+				EntityDetails entityDetails, HttpContext context) {
+			return new BasicRequestConsumer<>(entityDetails != null ? new StringAsyncEntityConsumer() : null);
+		}
+
+		@Override
+		public void handle(Message<HttpRequest, String> message, ResponseTrigger responseTrigger, HttpContext context) {
+			HttpCoreContext coreContext = HttpCoreContext.adapt(context);
+			VERSIONS.add(coreContext.getProtocolVersion());
+			CONNECTIONS.add(coreContext.getEndpointDetails().getRemoteAddress());
+			MAX_IN_FLIGHT.accumulateAndGet(IN_FLIGHT.incrementAndGet(), Math::max);
+			SCHEDULER.schedule(() -> {
+				IN_FLIGHT.decrementAndGet();
+				try {
+					responseTrigger.submitResponse(
+							AsyncResponseBuilder.create(200).setEntity("hello", ContentType.TEXT_PLAIN).build(),
+							context);
+				}
+				catch (HttpException | IOException ex) {
+					throw new IllegalStateException(ex);
+				}
+			}, 100, TimeUnit.MILLISECONDS);
+		}
+
+	}
+
+}
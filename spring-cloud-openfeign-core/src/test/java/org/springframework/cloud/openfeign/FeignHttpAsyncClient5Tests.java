@@ -0,0 +1,115 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.openfeign.test.NoSecurityConfiguration;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.util.SocketUtils;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.DEFINED_PORT;
+
+/**
+ * Tests for Feign clients using the Apache HttpClient 5 async client.
+ */
+@SpringBootTest(classes = FeignHttpAsyncClient5Tests.TestConfig.class, webEnvironment = DEFINED_PORT,
+		value = { "spring.application.name=feignhttpasyncclient5test", "feign.circuitbreaker.enabled=false",
+				"feign.httpclient.hc5.async.enabled=true" })
+@DirtiesContext
+class FeignHttpAsyncClient5Tests {
+
+	static int port;
+
+	static final CountDownLatch RELEASE = new CountDownLatch(1);
+
+	@Autowired
+	private AsyncClient asyncClient;
+
+	@BeforeAll
+	static void beforeClass() {
+		port = SocketUtils.findAvailableTcpPort();
+		System.setProperty("server.port", String.valueOf(port));
+	}
+
+	@AfterAll
+	static void afterClass() {
+		System.clearProperty("server.port");
+	}
+
+	@Test
+	void shouldCompleteFutureWithoutBlockingCaller() throws Exception {
+		CompletableFuture<String> hello = asyncClient.getSlowHello();
+
+		assertThat(hello).isNotDone();
+
+		RELEASE.countDown();
+
+		assertThat(hello.get(5, TimeUnit.SECONDS)).isEqualTo("hello slow");
+	}
+
+	@Test
+	void shouldSupportSynchronousMethods() {
+		assertThat(asyncClient.getHello()).isEqualTo("hello");
+	}
+
+	@FeignClient(name = "asyncclient", url = "http://localhost:${server.port}/")
+	protected interface AsyncClient {
+
+		@GetMapping("/slowhello")
+		CompletableFuture<String> getSlowHello();
+
+		@GetMapping("/hello")
+		String getHello();
+
+	}
+
+	@Configuration(proxyBeanMethods = false)
+	@EnableAutoConfiguration
+	@RestController
+	@EnableFeignClients(clients = AsyncClient.class)
+	@Import(NoSecurityConfiguration.class)
+	protected static class TestConfig {
+
+		@GetMapping("/hello")
+		public String getHello() {
+			return "hello";
+		}
+
+		@GetMapping("/slowhello")
+		public String getSlowHello() throws InterruptedException {
+			RELEASE.await(5, TimeUnit.SECONDS);
+			return "hello slow";
+		}
+
+	}
+
+}
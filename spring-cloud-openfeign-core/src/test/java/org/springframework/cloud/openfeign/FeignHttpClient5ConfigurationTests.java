@@ -16,17 +16,27 @@
 
 package org.springframework.cloud.openfeign;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import feign.AsyncClient;
 import feign.Client;
 import feign.hc5.ApacheHttp5Client;
+import feign.hc5.AsyncApacheHttp5Client;
 import feign.httpclient.ApacheHttpClient;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
 import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManager;
 import org.apache.hc.client5.http.io.HttpClientConnectionManager;
+import org.apache.hc.client5.http.nio.AsyncClientConnectionManager;
+import org.apache.hc.core5.reactor.IOReactorStatus;
 import org.junit.jupiter.api.Test;
 
 import org.springframework.boot.WebApplicationType;
 import org.springframework.boot.builder.SpringApplicationBuilder;
 import org.springframework.cloud.commons.httpclient.HttpClientConfiguration;
+import org.springframework.cloud.openfeign.clientconfig.FeignConnectionEvictor;
 import org.springframework.cloud.test.ClassPathExclusions;
 import org.springframework.context.ConfigurableApplicationContext;
 
@@ -100,6 +110,26 @@ class FeignHttpClient5ConfigurationTests {
 		}
 	}
 
+	@Test
+	void verifyHttpAsyncClient5AutoConfig() {
+		ConfigurableApplicationContext context = new SpringApplicationBuilder()
+				.properties("feign.httpclient.hc5.async.enabled=true").web(WebApplicationType.NONE)
+				.sources(HttpClientConfiguration.class, FeignAutoConfiguration.class).run();
+
+		CloseableHttpAsyncClient httpAsyncClient = context.getBean(CloseableHttpAsyncClient.class);
+		assertThat(httpAsyncClient.getStatus()).isEqualTo(IOReactorStatus.ACTIVE);
+		assertThat(context.getBean(AsyncClientConnectionManager.class))
+				.isInstanceOf(PoolingAsyncClientConnectionManager.class);
+		assertThat(context.getBean(AsyncClient.class)).isInstanceOf(AsyncApacheHttp5Client.class);
+		List<String> pools = new ArrayList<>();
+		context.getBean(FeignConnectionEvictor.class).addListener(pools::add);
+		assertThat(pools).contains("hc5-async");
+
+		context.close();
+
+		assertThat(httpAsyncClient.getStatus()).isNotEqualTo(IOReactorStatus.ACTIVE);
+	}
+
 	@ClassPathExclusions({ "feign-hc5-{version:\\d.*}.jar", "httpclient5-{version:\\d.*}.jar",
 			"httpcore5-{version:\\d.*}.jar", "httpcore5-h2-{version:\\d.*}.jar" })
 	static class WithoutLoadBalancerAndHc5InClasspath {
@@ -17,6 +17,8 @@
 package org.springframework.cloud.openfeign;
 
 import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
 
 import javax.net.ssl.SSLContextSpi;
 import javax.net.ssl.SSLSocketFactory;
@@ -33,6 +35,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.boot.WebApplicationType;
 import org.springframework.boot.builder.SpringApplicationBuilder;
 import org.springframework.cloud.commons.httpclient.HttpClientConfiguration;
+import org.springframework.cloud.openfeign.clientconfig.FeignConnectionEvictor;
 import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.util.ReflectionUtils;
 
@@ -75,6 +78,14 @@ class FeignHttpClientConfigurationTests {
 		}
 	}
 
+	@Test
+	void shouldRegisterConnectionManagerWithEvictor() {
+		List<String> pools = new ArrayList<>();
+		this.context.getBean(FeignConnectionEvictor.class).addListener(pools::add);
+
+		assertThat(pools).containsExactly("httpclient");
+	}
+
 	private Lookup<ConnectionSocketFactory> getConnectionSocketFactoryLookup(
 			HttpClientConnectionManager connectionManager) {
 		DefaultHttpClientConnectionOperator connectionOperator = (DefaultHttpClientConnectionOperator) this
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign.clientconfig;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link FeignConnectionEvictor}.
+ */
+class FeignConnectionEvictorTests {
+
+	// Scheduled evictions do not interfere with the explicit ones
+	private final FeignConnectionEvictor evictor = new FeignConnectionEvictor(60000, 30000);
+
+	private final FeignConnectionEvictor periodicEvictor = new FeignConnectionEvictor(10, 30000);
+
+	@AfterEach
+	void tearDown() {
+		evictor.destroy();
+		periodicEvictor.destroy();
+	}
+
+	@Test
+	void shouldEvictConnectionsOfRegisteredPools() {
+		List<Long> idleTimeouts = new ArrayList<>();
+		evictor.register("first", idleTimeoutMillis -> {
+			idleTimeouts.add(idleTimeoutMillis);
+			return 2;
+		});
+		evictor.register("second", idleTimeoutMillis -> -1);
+
+		evictor.evict();
+		evictor.evict();
+
+		assertThat(idleTimeouts).containsExactly(30000L, 30000L);
+		assertThat(evictor.getEvictedCount("first")).isEqualTo(4);
+		assertThat(evictor.getEvictedCount("second")).isZero();
+	}
+
+	@Test
+	void shouldKeepEvictingAfterPoolFailed() {
+		AtomicLong evictions = new AtomicLong();
+		evictor.register("failing", idleTimeoutMillis -> {
+			throw new IllegalStateException("Connection pool shut down");
+		});
+		evictor.register("working", idleTimeoutMillis -> (int) evictions.incrementAndGet());
+
+		evictor.evict();
+		evictor.evict();
+
+		assertThat(evictions.get()).isEqualTo(2);
+	}
+
+	@Test
+	void shouldEvictPeriodicallyUntilUnregistered() throws InterruptedException {
+		CountDownLatch latch = new CountDownLatch(3);
+		periodicEvictor.register("test", idleTimeoutMillis -> {
+			latch.countDown();
+			return 1;
+		});
+
+		assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+
+		periodicEvictor.unregister("test");
+		long evicted = periodicEvictor.getEvictedCount("test");
+		periodicEvictor.evict();
+
+		assertThat(periodicEvictor.getEvictedCount("test")).isEqualTo(evicted);
+	}
+
+	@Test
+	void shouldReleaseUnregisteredPoolAndKeepItsCount() {
+		List<String> names = new ArrayList<>();
+		evictor.addListener(names::add);
+		AtomicLong evictions = new AtomicLong();
+		evictor.register("test", idleTimeoutMillis -> (int) evictions.incrementAndGet());
+		evictor.evict();
+
+		evictor.unregister("test");
+		evictor.evict();
+
+		assertThat(evictions.get()).isEqualTo(1);
+		assertThat((Map<?, ?>) ReflectionTestUtils.getField(evictor, "pools")).isEmpty();
+		assertThat(evictor.getEvictedCount("test")).isEqualTo(1);
+
+		evictor.register("test", idleTimeoutMillis -> 2);
+		evictor.evict();
+
+		assertThat(evictor.getEvictedCount("test")).isEqualTo(3);
+		assertThat(names).containsExactly("test");
+	}
+
+	@Test
+	void shouldNotifyListenersOfPools() {
+		List<String> names = new ArrayList<>();
+		evictor.register("first", idleTimeoutMillis -> 0);
+		evictor.addListener(names::add);
+		evictor.register("second", idleTimeoutMillis -> 0);
+		evictor.register("second", idleTimeoutMillis -> 0);
+
+		assertThat(names).containsExactly("first", "second");
+	}
+
+}
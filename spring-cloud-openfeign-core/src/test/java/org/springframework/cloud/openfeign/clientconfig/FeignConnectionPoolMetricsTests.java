@@ -0,0 +1,109 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign.clientconfig;
+
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.ConnectionPool;
+import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpHost;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link FeignConnectionPoolMetrics}.
+ */
+class FeignConnectionPoolMetricsTests {
+
+	private final FeignConnectionPoolMonitor monitor = new FeignConnectionPoolMonitor();
+
+	private final MeterRegistry registry = new SimpleMeterRegistry();
+
+	private final PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+
+	@AfterEach
+	void tearDown() {
+		connectionManager.shutdown();
+	}
+
+	@Test
+	void shouldExposeRouteStatisticsAndAcquisitionTime() throws Exception {
+		connectionManager.setDefaultMaxPerRoute(3);
+		monitor.register("httpclient", new HttpClientEvictablePool(connectionManager));
+		new FeignConnectionPoolMetrics(monitor).bindTo(registry);
+		InstrumentedHttpClientConnectionManager instrumented = new InstrumentedHttpClientConnectionManager(
+				connectionManager, monitor, "httpclient");
+		HttpRoute route = new HttpRoute(new HttpHost("localhost", 8080));
+
+		HttpClientConnection connection = instrumented.requestConnection(route, null).get(1, TimeUnit.SECONDS);
+
+		assertThat(gauge("leased", "localhost:8080")).isEqualTo(1);
+		assertThat(gauge("available", "localhost:8080")).isZero();
+		assertThat(gauge("pending", "localhost:8080")).isZero();
+		assertThat(gauge("max", "localhost:8080")).isEqualTo(3);
+		Timer timer = registry.find("feign.httpclient.connections.acquire")
+				.tags("pool", "httpclient", "route", "localhost:8080").timer();
+		assertThat(timer).isNotNull();
+		assertThat(timer.count()).isEqualTo(1);
+
+		instrumented.releaseConnection(connection, null, 1, TimeUnit.MINUTES);
+
+		assertThat(gauge("leased", "localhost:8080")).isZero();
+	}
+
+	@Test
+	void shouldReportOkHttpStatisticsForAllRoutes() {
+		ConnectionPool connectionPool = new ConnectionPool();
+		monitor.register("okhttp", new OkHttpEvictablePool(connectionPool));
+		new FeignConnectionPoolMetrics(monitor).bindTo(registry);
+
+		monitor.recordAcquisition("okhttp", "localhost:8080", 1000);
+
+		assertThat(registry.find("feign.httpclient.connections.leased").tags("pool", "okhttp", "route", "*").gauge())
+				.isNotNull();
+		assertThat(registry.find("feign.httpclient.connections.available").tags("route", "*").gauge()).isNotNull();
+		assertThat(registry.find("feign.httpclient.connections.pending").gauge()).isNull();
+		assertThat(registry.find("feign.httpclient.connections.max").gauge()).isNull();
+		assertThat(registry.find("feign.httpclient.connections.leased").tags("route", "localhost:8080").gauge())
+				.isNull();
+		assertThat(
+				registry.find("feign.httpclient.connections.acquire").tags("route", "localhost:8080").timer().count())
+						.isEqualTo(1);
+	}
+
+	@Test
+	void shouldStopReportingUnregisteredPool() {
+		monitor.register("httpclient", new HttpClientEvictablePool(connectionManager));
+		monitor.unregister("httpclient");
+
+		assertThat(monitor.getRoutes("httpclient")).isEmpty();
+		assertThat(monitor.getStats("httpclient", "localhost:8080")).isNull();
+	}
+
+	private double gauge(String name, String route) {
+		return registry.get("feign.httpclient.connections." + name).tags("pool", "httpclient", "route", route).gauge()
+				.value();
+	}
+
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign.clientconfig;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.cloud.openfeign.support.FeignHttpClientProperties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+/**
+ * Tests for {@link FeignDnsCache}.
+ */
+class FeignDnsCacheTests {
+
+	private final FeignHttpClientProperties.Dns properties = new FeignHttpClientProperties.Dns();
+
+	private final AtomicLong nanoTime = new AtomicLong();
+
+	private final AtomicInteger lookups = new AtomicInteger();
+
+	private final List<Runnable> refreshes = new ArrayList<>();
+
+	private volatile boolean failing;
+
+	FeignDnsCacheTests() {
+		properties.setTimeToLive(Duration.ofSeconds(60));
+		properties.setRefreshAhead(Duration.ofSeconds(10));
+		properties.setStaleTimeToLive(Duration.ofSeconds(30));
+	}
+
+	@Test
+	void shouldCacheAddressesForTimeToLive() throws UnknownHostException {
+		FeignDnsCache dnsCache = dnsCache();
+
+		InetAddress[] addresses = dnsCache.resolve("example.com");
+		advance(Duration.ofSeconds(45));
+
+		assertThat(dnsCache.resolve("example.com")).containsExactly(addresses);
+		assertThat(lookups).hasValue(1);
+
+		advance(Duration.ofSeconds(20));
+
+		assertThat(dnsCache.resolve("example.com")[0].getAddress()[3]).isEqualTo((byte) 2);
+		assertThat(lookups).hasValue(2);
+		assertThat(refreshes).isEmpty();
+	}
+
+	@Test
+	void shouldRefreshRequestedHostInBackgroundBeforeExpiry() throws UnknownHostException {
+		FeignDnsCache dnsCache = dnsCache();
+		dnsCache.resolve("example.com");
+		advance(Duration.ofSeconds(55));
+
+		assertThat(dnsCache.resolve("example.com")[0].getAddress()[3]).isEqualTo((byte) 1);
+		assertThat(dnsCache.resolve("example.com")[0].getAddress()[3]).isEqualTo((byte) 1);
+		assertThat(refreshes).hasSize(1);
+
+		refreshes.get(0).run();
+		advance(Duration.ofSeconds(30));
+
+		assertThat(dnsCache.resolve("example.com")[0].getAddress()[3]).isEqualTo((byte) 2);
+		assertThat(lookups).hasValue(2);
+	}
+
+	@Test
+	void shouldKeepAddressesIfBackgroundRefreshFails() throws UnknownHostException {
+		FeignDnsCache dnsCache = dnsCache();
+		dnsCache.resolve("example.com");
+		advance(Duration.ofSeconds(55));
+		dnsCache.resolve("example.com");
+		failing = true;
+
+		refreshes.get(0).run();
+		dnsCache.resolve("example.com");
+
+		assertThat(dnsCache.resolve("example.com")[0].getAddress()[3]).isEqualTo((byte) 1);
+		assertThat(refreshes).hasSize(2);
+	}
+
+	@Test
+	void shouldServeStaleAddressesIfResolvingFails() throws UnknownHostException {
+		FeignDnsCache dnsCache = dnsCache();
+		dnsCache.resolve("example.com");
+		failing = true;
+		advance(Duration.ofSeconds(80));
+
+		assertThat(dnsCache.resolve("example.com")[0].getAddress()[3]).isEqualTo((byte) 1);
+
+		advance(Duration.ofSeconds(15));
+
+		assertThatExceptionOfType(UnknownHostException.class).isThrownBy(() -> dnsCache.resolve("example.com"));
+		assertThatExceptionOfType(UnknownHostException.class).isThrownBy(() -> dnsCache.resolve("other.com"));
+	}
+
+	@Test
+	void shouldResolveAgainAfterInvalidation() throws UnknownHostException {
+		FeignDnsCache dnsCache = dnsCache();
+		dnsCache.resolve("example.com");
+
+		dnsCache.invalidate("example.com");
+
+		assertThat(dnsCache.resolve("example.com")[0].getAddress()[3]).isEqualTo((byte) 2);
+	}
+
+	private FeignDnsCache dnsCache() {
+		return new FeignDnsCache(properties, host -> {
+			if (failing) {
+				throw new UnknownHostException(host);
+			}
+			int lookup = lookups.incrementAndGet();
+			return new InetAddress[] { InetAddress.getByAddress(host, new byte[] { 10, 0, 0, (byte) lookup }) };
+		}, nanoTime::get, refreshes::add);
+	}
+
+	private void advance(Duration duration) {
+		nanoTime.addAndGet(duration.toNanos());
+	}
+
+}
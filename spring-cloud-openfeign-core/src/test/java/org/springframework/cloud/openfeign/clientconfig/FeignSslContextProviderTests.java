@@ -0,0 +1,101 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign.clientconfig;
+
+import java.net.Socket;
+import java.security.cert.X509Certificate;
+import java.time.Duration;
+
+import javax.net.ssl.HandshakeCompletedEvent;
+import javax.net.ssl.SSLSessionContext;
+import javax.net.ssl.SSLSocket;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.cloud.openfeign.support.FeignHttpClientProperties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Tests for {@link FeignSslContextProvider}.
+ */
+class FeignSslContextProviderTests {
+
+	private final FeignHttpClientProperties properties = new FeignHttpClientProperties();
+
+	@Test
+	void shouldConfigureSessionCache() {
+		properties.getSsl().setSessionCacheSize(500);
+		properties.getSsl().setSessionTimeout(Duration.ofMinutes(10));
+
+		SSLSessionContext sessionContext = new FeignSslContextProvider(properties).getSslContext()
+				.getClientSessionContext();
+
+		assertThat(sessionContext.getSessionCacheSize()).isEqualTo(500);
+		assertThat(sessionContext.getSessionTimeout()).isEqualTo(600);
+	}
+
+	@Test
+	void shouldTrustJvmTrustStoreByDefault() {
+		FeignSslContextProvider sslContextProvider = new FeignSslContextProvider(properties);
+
+		assertThat(sslContextProvider.getTrustManager())
+				.isNotInstanceOf(HttpClient5FeignConfiguration.DisabledValidationTrustManager.class);
+		assertThat(sslContextProvider.getTrustManager().getAcceptedIssuers()).isNotEmpty();
+	}
+
+	@Test
+	void shouldTrustAnyCertificateIfSslValidationIsDisabled() throws Exception {
+		properties.setDisableSslValidation(true);
+		FeignSslContextProvider sslContextProvider = new FeignSslContextProvider(properties);
+
+		sslContextProvider.getTrustManager().checkServerTrusted(new X509Certificate[0], "RSA");
+
+		assertThat(sslContextProvider.getTrustManager())
+				.isInstanceOf(HttpClient5FeignConfiguration.DisabledValidationTrustManager.class);
+	}
+
+	@Test
+	void shouldCreateSocketsOfSharedContextAndCountHandshakes() throws Exception {
+		FeignSslContextProvider sslContextProvider = new FeignSslContextProvider(properties);
+
+		try (Socket socket = sslContextProvider.getSocketFactory().createSocket()) {
+			assertThat(socket).isInstanceOf(SSLSocket.class);
+		}
+		sslContextProvider.onHandshakeCompleted(mock(HandshakeCompletedEvent.class));
+		sslContextProvider.onHandshakeCompleted(mock(HandshakeCompletedEvent.class));
+
+		assertThat(sslContextProvider.getHandshakeCount()).isEqualTo(2);
+		assertThat(sslContextProvider.getCachedSessionCount()).isZero();
+	}
+
+	@Test
+	void shouldExposeHandshakesAndCachedSessions() {
+		FeignSslContextProvider sslContextProvider = new FeignSslContextProvider(properties);
+		MeterRegistry registry = new SimpleMeterRegistry();
+		new FeignSslMetrics(sslContextProvider).bindTo(registry);
+
+		sslContextProvider.onHandshakeCompleted(mock(HandshakeCompletedEvent.class));
+
+		assertThat(registry.get("feign.httpclient.ssl.handshakes").functionCounter().count()).isEqualTo(1);
+		assertThat(registry.get("feign.httpclient.ssl.sessions.cached").gauge().value()).isZero();
+	}
+
+}
@@ -0,0 +1,213 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign.clientconfig;
+
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import feign.AsyncClient;
+import feign.Request;
+import feign.Response;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.cloud.openfeign.support.FeignHttpClientProperties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for {@link Http2StreamLimitingAsyncClient}.
+ */
+class Http2StreamLimitingAsyncClientTests {
+
+	private final List<CompletableFuture<Response>> sent = new ArrayList<>();
+
+	private final AsyncClient<Object> delegate = (request, options, context) -> {
+		CompletableFuture<Response> response = new CompletableFuture<>();
+		sent.add(response);
+		return response;
+	};
+
+	private final FeignHttpClientProperties.Http2 properties = new FeignHttpClientProperties.Http2();
+
+	private final Http2StreamLimitingAsyncClient<Object> client = new Http2StreamLimitingAsyncClient<>(delegate,
+			properties);
+
+	@Test
+	void shouldQueueRequestsAboveStreamLimit() {
+		properties.setMaxConcurrentStreams(2);
+
+		CompletableFuture<Response> first = execute("http://a/path");
+		execute("http://a/path");
+		CompletableFuture<Response> third = execute("http://a/path");
+
+		assertThat(sent).hasSize(2);
+		assertThat(client.getActiveStreams("a:80")).isEqualTo(2);
+		assertThat(client.getPendingRequests("a:80")).isEqualTo(1);
+
+		sent.get(0).complete(response());
+
+		assertThat(first).isCompleted();
+		assertThat(third).isNotDone();
+		assertThat(sent).hasSize(3);
+		assertThat(client.getActiveStreams("a:80")).isEqualTo(2);
+		assertThat(client.getPendingRequests("a:80")).isZero();
+
+		sent.get(1).complete(response());
+		sent.get(2).complete(response());
+
+		assertThat(third).isCompleted();
+		assertThat(client.getActiveStreams("a:80")).isZero();
+	}
+
+	@Test
+	void shouldLimitRoutesIndependently() {
+		properties.setMaxConcurrentStreams(1);
+		properties.getMaxConcurrentStreamsPerRoute().put("b:8443", 2);
+
+		execute("http://a/path");
+		execute("http://a:8080/path");
+		execute("https://b:8443/path");
+		execute("https://b:8443/path");
+		execute("https://b:8443/path");
+
+		assertThat(sent).hasSize(4);
+		assertThat(client.getPendingRequests("b:8443")).isEqualTo(1);
+	}
+
+	@Test
+	void shouldPropagateFailureAndReleaseStream() {
+		properties.setMaxConcurrentStreams(1);
+
+		CompletableFuture<Response> first = execute("http://a/path");
+		CompletableFuture<Response> second = execute("http://a/path");
+		sent.get(0).completeExceptionally(new IllegalStateException("test"));
+
+		assertThat(first).isCompletedExceptionally();
+		assertThat(second).isNotDone();
+		assertThat(sent).hasSize(2);
+	}
+
+	@Test
+	void shouldNotSendRequestCancelledWhileQueued() {
+		properties.setMaxConcurrentStreams(1);
+
+		execute("http://a/path");
+		CompletableFuture<Response> second = execute("http://a/path");
+		second.cancel(true);
+		sent.get(0).complete(response());
+
+		assertThat(sent).hasSize(1);
+		assertThat(client.getActiveStreams("a:80")).isZero();
+	}
+
+	@Test
+	void shouldCancelSentRequest() {
+		CompletableFuture<Response> response = execute("http://a/path");
+
+		response.cancel(true);
+
+		assertThat(sent.get(0)).isCancelled();
+		assertThat(client.getActiveStreams("a:80")).isZero();
+	}
+
+	@Test
+	void shouldRejectRequestsAboveQueueLimit() {
+		properties.setMaxConcurrentStreams(1);
+		properties.setMaxPendingRequests(1);
+
+		execute("http://a/path");
+		CompletableFuture<Response> second = execute("http://a/path");
+		CompletableFuture<Response> third = execute("http://a/path");
+
+		assertThat(second).isNotDone();
+		assertThatThrownBy(third::get).isInstanceOf(ExecutionException.class)
+				.hasCauseInstanceOf(RejectedExecutionException.class);
+		assertThat(client.getPendingRequests("a:80")).isEqualTo(1);
+	}
+
+	@Test
+	void shouldFailQueuedRequestAfterReadTimeout() {
+		properties.setMaxConcurrentStreams(1);
+		Request.Options options = new Request.Options(1, TimeUnit.SECONDS, 50, TimeUnit.MILLISECONDS, true);
+
+		execute("http://a/path", options);
+		CompletableFuture<Response> second = execute("http://a/path", options);
+
+		assertThatThrownBy(() -> second.get(5, TimeUnit.SECONDS)).isInstanceOf(ExecutionException.class)
+				.hasCauseInstanceOf(SocketTimeoutException.class);
+		assertThat(client.getPendingRequests("a:80")).isZero();
+
+		sent.get(0).complete(response());
+
+		assertThat(sent).hasSize(1);
+		assertThat(client.getActiveStreams("a:80")).isZero();
+		client.destroy();
+	}
+
+	@Test
+	void shouldHandOverStreamsIterativelyWhenDelegateFailsFast() {
+		properties.setMaxConcurrentStreams(1);
+		properties.setMaxPendingRequests(100_000);
+		CompletableFuture<Response> first = new CompletableFuture<>();
+		List<CompletableFuture<Response>> results = new ArrayList<>();
+		Http2StreamLimitingAsyncClient<Object> failingClient = new Http2StreamLimitingAsyncClient<>(
+				(request, options, context) -> {
+					if (results.isEmpty()) {
+						return first;
+					}
+					throw new IllegalStateException("test");
+				}, properties);
+		Request request = Request.create(Request.HttpMethod.GET, "http://a/path", Collections.emptyMap(), null,
+				StandardCharsets.UTF_8, null);
+		Request.Options options = new Request.Options(1, TimeUnit.SECONDS, 0, TimeUnit.MILLISECONDS, true);
+		for (int i = 0; i < 100_000; i++) {
+			results.add(failingClient.execute(request, options, Optional.empty()));
+		}
+
+		first.complete(response());
+
+		assertThat(results).allMatch(CompletableFuture::isDone);
+		assertThat(results.get(results.size() - 1)).isCompletedExceptionally();
+		assertThat(failingClient.getActiveStreams("a:80")).isZero();
+		assertThat(failingClient.getPendingRequests("a:80")).isZero();
+	}
+
+	private CompletableFuture<Response> execute(String url) {
+		return execute(url, new Request.Options());
+	}
+
+	private CompletableFuture<Response> execute(String url, Request.Options options) {
+		Request request = Request.create(Request.HttpMethod.GET, url, Collections.emptyMap(), null,
+				StandardCharsets.UTF_8, null);
+		return client.execute(request, options, Optional.empty());
+	}
+
+	private Response response() {
+		return Response.builder().status(200).request(Request.create(Request.HttpMethod.GET, "http://a/path",
+				Collections.emptyMap(), null, StandardCharsets.UTF_8, null)).build();
+	}
+
+}
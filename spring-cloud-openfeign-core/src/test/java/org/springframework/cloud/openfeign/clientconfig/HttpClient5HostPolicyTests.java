@@ -0,0 +1,118 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign.clientconfig;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.message.BasicHttpResponse;
+import org.apache.hc.core5.util.TimeValue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.cloud.openfeign.support.FeignHttpClientProperties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link HttpClient5HostPolicy}.
+ */
+class HttpClient5HostPolicyTests {
+
+	private final FeignHttpClientProperties properties = new FeignHttpClientProperties();
+
+	private PoolingHttpClientConnectionManager connectionManager;
+
+	@BeforeEach
+	void setUp() {
+		connectionManager = new PoolingHttpClientConnectionManager();
+		connectionManager.setDefaultMaxPerRoute(20);
+	}
+
+	@AfterEach
+	void tearDown() {
+		connectionManager.close();
+	}
+
+	@Test
+	void shouldApplyMaxConnectionsOfHostToPlannedRoute() throws Exception {
+		FeignHttpClientProperties.Host host = new FeignHttpClientProperties.Host();
+		host.setMaxConnectionsPerRoute(5);
+		properties.getHosts().put("slow.example.com", host);
+		HttpClient5HostPolicy policy = new HttpClient5HostPolicy(properties, connectionManager);
+
+		HttpRoute route = policy.determineRoute(new HttpHost("http", "slow.example.com", 8080),
+				HttpClientContext.create());
+		HttpRoute otherRoute = policy.determineRoute(new HttpHost("http", "other.example.com", 8080),
+				HttpClientContext.create());
+
+		assertThat(connectionManager.getMaxPerRoute(route)).isEqualTo(5);
+		assertThat(connectionManager.getMaxPerRoute(otherRoute)).isEqualTo(20);
+	}
+
+	@Test
+	void shouldLimitKeepAliveToIdleTimeoutOfHost() {
+		FeignHttpClientProperties.Host host = new FeignHttpClientProperties.Host();
+		host.setIdleTimeout(Duration.ofSeconds(10));
+		properties.getHosts().put("api.example.com", host);
+		HttpClient5HostPolicy policy = new HttpClient5HostPolicy(properties, connectionManager);
+
+		assertThat(policy.getKeepAliveDuration(response("timeout=30"), context("api.example.com")))
+				.isEqualTo(TimeValue.ofSeconds(10));
+		assertThat(policy.getKeepAliveDuration(response("timeout=5"), context("api.example.com")))
+				.isEqualTo(TimeValue.ofSeconds(5));
+		assertThat(policy.getKeepAliveDuration(response("timeout=30"), context("other.example.com")))
+				.isEqualTo(TimeValue.ofSeconds(30));
+	}
+
+	@Test
+	void shouldUseKeepAliveOfRequestConfigIfHeaderIsIgnored() {
+		properties.setUseKeepAliveHeader(false);
+		FeignHttpClientProperties.Host host = new FeignHttpClientProperties.Host();
+		host.setIdleTimeout(Duration.ofSeconds(10));
+		properties.getHosts().put("api.example.com", host);
+		HttpClient5HostPolicy policy = new HttpClient5HostPolicy(properties, connectionManager);
+
+		assertThat(policy.getKeepAliveDuration(response("timeout=5"), context("api.example.com")))
+				.isEqualTo(TimeValue.ofSeconds(10));
+		assertThat(policy.getKeepAliveDuration(response("timeout=5"), context("other.example.com")))
+				.isEqualTo(TimeValue.of(1, TimeUnit.MINUTES));
+	}
+
+	private static HttpResponse response(String keepAlive) {
+		HttpResponse response = new BasicHttpResponse(200);
+		if (keepAlive != null) {
+			response.setHeader("Keep-Alive", keepAlive);
+		}
+		return response;
+	}
+
+	private static HttpClientContext context(String host) {
+		HttpClientContext context = HttpClientContext.create();
+		context.setAttribute(HttpClientContext.HTTP_ROUTE, new HttpRoute(new HttpHost("http", host, 80)));
+		context.setRequestConfig(RequestConfig.custom().setConnectionKeepAlive(TimeValue.ofMinutes(1)).build());
+		return context;
+	}
+
+}
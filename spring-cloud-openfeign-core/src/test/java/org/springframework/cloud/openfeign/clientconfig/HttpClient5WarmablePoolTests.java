@@ -0,0 +1,85 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign.clientconfig;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+
+import com.sun.net.httpserver.HttpServer;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.core5.http.HttpHost;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link HttpClient5WarmablePool}.
+ */
+class HttpClient5WarmablePoolTests {
+
+	private HttpServer server;
+
+	private PoolingHttpClientConnectionManager connectionManager;
+
+	@BeforeEach
+	void setUp() throws IOException {
+		server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.start();
+		connectionManager = new PoolingHttpClientConnectionManager();
+		connectionManager.setDefaultMaxPerRoute(4);
+	}
+
+	@AfterEach
+	void tearDown() {
+		connectionManager.close();
+		server.stop(0);
+	}
+
+	@Test
+	void shouldOpenMissingConnectionsUpToMaxPerRoute() throws IOException {
+		FeignConnectionWarmer warmer = new FeignConnectionWarmer();
+		warmer.register("hc5", new HttpClient5WarmablePool(connectionManager, 1000));
+		URI target = URI.create("http://localhost:" + server.getAddress().getPort());
+		HttpRoute route = new HttpRoute(new HttpHost("http", "localhost", server.getAddress().getPort()));
+
+		assertThat(warmer.warmUp(target, 2)).isEqualTo(2);
+		assertThat(connectionManager.getStats(route).getAvailable()).isEqualTo(2);
+		assertThat(warmer.warmUp(target, 3)).isEqualTo(1);
+		assertThat(warmer.warmUp(target, 10)).isEqualTo(1);
+		assertThat(connectionManager.getStats(route).getAvailable()).isEqualTo(4);
+	}
+
+	@Test
+	void shouldNotFailIfTargetIsUnreachable() throws IOException {
+		FeignConnectionWarmer warmer = new FeignConnectionWarmer();
+		warmer.register("hc5", new HttpClient5WarmablePool(connectionManager, 1000));
+		// A bound socket that does not listen refuses connections, and keeps its port
+		// from being reused by another test meanwhile
+		try (Socket socket = new Socket()) {
+			socket.bind(new InetSocketAddress("127.0.0.1", 0));
+
+			assertThat(warmer.warmUp(URI.create("http://127.0.0.1:" + socket.getLocalPort()), 2)).isZero();
+		}
+		assertThat(connectionManager.getTotalStats().getAvailable()).isZero();
+	}
+
+}
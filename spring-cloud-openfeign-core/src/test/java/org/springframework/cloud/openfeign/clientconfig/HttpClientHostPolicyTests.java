@@ -0,0 +1,147 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign.clientconfig;
+
+import java.time.Duration;
+
+import org.apache.http.HttpHost;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.config.SocketConfig;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.message.BasicHttpResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.cloud.openfeign.support.FeignHttpClientProperties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link HttpClientHostPolicy}.
+ */
+class HttpClientHostPolicyTests {
+
+	private final FeignHttpClientProperties properties = new FeignHttpClientProperties();
+
+	private PoolingHttpClientConnectionManager connectionManager;
+
+	@BeforeEach
+	void setUp() {
+		connectionManager = new PoolingHttpClientConnectionManager();
+		connectionManager.setDefaultMaxPerRoute(20);
+	}
+
+	@AfterEach
+	void tearDown() {
+		connectionManager.close();
+	}
+
+	@Test
+	void shouldOnlyBeRequiredIfDefaultsAreChanged() {
+		assertThat(HttpClientHostPolicy.isRequired(properties)).isFalse();
+
+		properties.setUseKeepAliveHeader(false);
+
+		assertThat(HttpClientHostPolicy.isRequired(properties)).isTrue();
+	}
+
+	@Test
+	void shouldApplyHostSettingsToPlannedRoute() throws Exception {
+		FeignHttpClientProperties.Host host = new FeignHttpClientProperties.Host();
+		host.setMaxConnectionsPerRoute(5);
+		host.setSocketTimeout(Duration.ofSeconds(3));
+		host.setTcpNoDelay(false);
+		properties.getHosts().put("slow.example.com", host);
+		HttpClientHostPolicy policy = new HttpClientHostPolicy(properties, connectionManager);
+
+		HttpRoute route = policy.determineRoute(new HttpHost("slow.example.com", 8080),
+				new HttpGet("http://slow.example.com:8080/"), HttpClientContext.create());
+		HttpRoute otherRoute = policy.determineRoute(new HttpHost("other.example.com", 8080),
+				new HttpGet("http://other.example.com:8080/"), HttpClientContext.create());
+
+		assertThat(connectionManager.getMaxPerRoute(route)).isEqualTo(5);
+		assertThat(connectionManager.getMaxPerRoute(otherRoute)).isEqualTo(20);
+		SocketConfig socketConfig = connectionManager.getSocketConfig(route.getTargetHost());
+		assertThat(socketConfig.getSoTimeout()).isEqualTo(3000);
+		assertThat(socketConfig.isTcpNoDelay()).isFalse();
+		assertThat(connectionManager.getSocketConfig(otherRoute.getTargetHost())).isNull();
+	}
+
+	@Test
+	void shouldPreferHostAndPortSettings() throws Exception {
+		FeignHttpClientProperties.Host host = new FeignHttpClientProperties.Host();
+		host.setMaxConnectionsPerRoute(5);
+		FeignHttpClientProperties.Host hostAndPort = new FeignHttpClientProperties.Host();
+		hostAndPort.setMaxConnectionsPerRoute(2);
+		properties.getHosts().put("api.example.com", host);
+		properties.getHosts().put("api.example.com:8443", hostAndPort);
+		HttpClientHostPolicy policy = new HttpClientHostPolicy(properties, connectionManager);
+
+		HttpRoute route = policy.determineRoute(new HttpHost("api.example.com", 8443),
+				new HttpGet("http://api.example.com:8443/"), HttpClientContext.create());
+		HttpRoute defaultPortRoute = policy.determineRoute(new HttpHost("api.example.com"),
+				new HttpGet("http://api.example.com/"), HttpClientContext.create());
+
+		assertThat(connectionManager.getMaxPerRoute(route)).isEqualTo(2);
+		assertThat(connectionManager.getMaxPerRoute(defaultPortRoute)).isEqualTo(5);
+	}
+
+	@Test
+	void shouldLimitKeepAliveToIdleTimeoutOfHost() {
+		FeignHttpClientProperties.Host host = new FeignHttpClientProperties.Host();
+		host.setIdleTimeout(Duration.ofSeconds(10));
+		properties.getHosts().put("api.example.com", host);
+		HttpClientHostPolicy policy = new HttpClientHostPolicy(properties, connectionManager);
+
+		assertThat(policy.getKeepAliveDuration(response("timeout=30"), context("api.example.com"))).isEqualTo(10000);
+		assertThat(policy.getKeepAliveDuration(response("timeout=5"), context("api.example.com"))).isEqualTo(5000);
+		assertThat(policy.getKeepAliveDuration(response(null), context("api.example.com"))).isEqualTo(10000);
+		assertThat(policy.getKeepAliveDuration(response("timeout=30"), context("other.example.com"))).isEqualTo(30000);
+	}
+
+	@Test
+	void shouldIgnoreKeepAliveHeaderIfDisabled() {
+		properties.setUseKeepAliveHeader(false);
+		FeignHttpClientProperties.Host host = new FeignHttpClientProperties.Host();
+		host.setIdleTimeout(Duration.ofSeconds(10));
+		properties.getHosts().put("api.example.com", host);
+		HttpClientHostPolicy policy = new HttpClientHostPolicy(properties, connectionManager);
+
+		assertThat(policy.getKeepAliveDuration(response("timeout=5"), context("api.example.com"))).isEqualTo(10000);
+		assertThat(policy.getKeepAliveDuration(response("timeout=5"), context("other.example.com"))).isEqualTo(-1);
+	}
+
+	private static HttpResponse response(String keepAlive) {
+		HttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK");
+		if (keepAlive != null) {
+			response.setHeader("Keep-Alive", keepAlive);
+		}
+		return response;
+	}
+
+	private static HttpClientContext context(String host) {
+		HttpClientContext context = HttpClientContext.create();
+		context.setAttribute(HttpClientContext.HTTP_ROUTE, new HttpRoute(new HttpHost(host, 80)));
+		return context;
+	}
+
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign.clientconfig;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.TimeUnit;
+
+import com.sun.net.httpserver.HttpServer;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+/**
+ * Tests for {@link OkHttpConnectionLimitInterceptor}.
+ */
+class OkHttpConnectionLimitInterceptorTests {
+
+	private HttpServer server;
+
+	@BeforeEach
+	void startServer() throws IOException {
+		server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.createContext("/hello", exchange -> {
+			exchange.sendResponseHeaders(200, 5);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write("hello".getBytes());
+			}
+		});
+		server.start();
+	}
+
+	@AfterEach
+	void stopServer() {
+		server.stop(0);
+	}
+
+	@Test
+	void shouldLimitRequestsPerRouteUntilResponseIsClosed() throws IOException {
+		OkHttpClient client = client(10, 1);
+
+		Response first = client.newCall(request("localhost")).execute();
+		assertThatExceptionOfType(SocketTimeoutException.class)
+				.isThrownBy(() -> client.newCall(request("localhost")).execute());
+		client.newCall(request("127.0.0.1")).execute().close();
+		first.close();
+
+		try (Response next = client.newCall(request("localhost")).execute()) {
+			assertThat(next.body().string()).isEqualTo("hello");
+		}
+	}
+
+	@Test
+	void shouldLimitRequestsOfAllRoutes() throws IOException {
+		OkHttpClient client = client(1, 10);
+
+		Response first = client.newCall(request("localhost")).execute();
+		assertThatExceptionOfType(SocketTimeoutException.class)
+				.isThrownBy(() -> client.newCall(request("127.0.0.1")).execute());
+		assertThat(first.body().string()).isEqualTo("hello");
+
+		client.newCall(request("127.0.0.1")).execute().close();
+	}
+
+	private OkHttpClient client(int maxRequests, int maxRequestsPerRoute) {
+		return new OkHttpClient.Builder().connectTimeout(200, TimeUnit.MILLISECONDS)
+				.addInterceptor(new OkHttpConnectionLimitInterceptor(maxRequests, maxRequestsPerRoute)).build();
+	}
+
+	private Request request(String host) {
+		return new Request.Builder().url("http://" + host + ":" + server.getAddress().getPort() + "/hello").build();
+	}
+
+}
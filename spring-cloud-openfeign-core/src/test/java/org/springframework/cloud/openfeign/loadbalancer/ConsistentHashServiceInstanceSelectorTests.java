@@ -0,0 +1,125 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign.loadbalancer;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.RequestData;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.openfeign.RoutingKey;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link ConsistentHashServiceInstanceSelector}.
+ */
+@SuppressWarnings({ "unchecked", "rawtypes" })
+class ConsistentHashServiceInstanceSelectorTests {
+
+	private final List<ServiceInstance> instances = Arrays.asList(
+			new DefaultServiceInstance("test-1", "test", "first", 8080, false),
+			new DefaultServiceInstance("test-2", "test", "second", 8080, false),
+			new DefaultServiceInstance("test-3", "test", "third", 8080, false),
+			new DefaultServiceInstance("test-4", "test", "fourth", 8080, false));
+
+	private final InFlightRequestCounter inFlightRequests = new InFlightRequestCounter();
+
+	private final ConsistentHashServiceInstanceSelector selector = new ConsistentHashServiceInstanceSelector(
+			new RoundRobinServiceInstanceSelector(), inFlightRequests,
+			new FeignLoadBalancerProperties.ConsistentHash());
+
+	@Test
+	void shouldSendRequestsWithSameKeyToSameInstance() {
+		ServiceInstance selected = selector.select(instances, request("user-42"));
+
+		for (int i = 0; i < 10; i++) {
+			assertThat(selector.select(instances, request("user-42"))).isSameAs(selected);
+		}
+	}
+
+	@Test
+	void shouldSpreadKeysOverInstances() {
+		Set<ServiceInstance> selected = new HashSet<>();
+		for (int i = 0; i < 100; i++) {
+			selected.add(selector.select(instances, request("user-" + i)));
+		}
+
+		assertThat(selected).containsExactlyInAnyOrderElementsOf(instances);
+	}
+
+	@Test
+	void shouldUseDelegateForRequestsWithoutKey() {
+		Set<ServiceInstance> selected = new HashSet<>();
+		for (int i = 0; i < 4; i++) {
+			selected.add(selector.select(instances, request(null)));
+		}
+
+		assertThat(selected).containsExactlyInAnyOrderElementsOf(instances);
+	}
+
+	@Test
+	void shouldMoveToNextInstanceWhenLoadIsExceeded() {
+		ServiceInstance selected = selector.select(instances, request("user-42"));
+		for (int i = 0; i < 3; i++) {
+			inFlightRequests.onStartRequest(new DefaultRequest<>(), new DefaultResponse(selected));
+		}
+
+		assertThat(selector.select(instances, request("user-42"))).isNotSameAs(selected);
+	}
+
+	@Test
+	void shouldOnlyRemapKeysOfUnavailableInstance() {
+		List<String> keys = new ArrayList<>();
+		List<ServiceInstance> selected = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			keys.add("user-" + i);
+			selected.add(selector.select(instances, request("user-" + i)));
+		}
+		List<ServiceInstance> remaining = instances.subList(1, instances.size());
+
+		for (int i = 0; i < keys.size(); i++) {
+			ServiceInstance instance = selector.select(remaining, request(keys.get(i)));
+			assertThat(instance).isIn(remaining);
+			if (selected.get(i) != instances.get(0)) {
+				assertThat(instance).isSameAs(selected.get(i));
+			}
+		}
+	}
+
+	private DefaultRequest<RequestDataContext> request(String routingKey) {
+		HttpHeaders headers = new HttpHeaders();
+		if (routingKey != null) {
+			headers.add(RoutingKey.DEFAULT_HEADER_NAME, routingKey);
+		}
+		return new DefaultRequest<>(new RequestDataContext(
+				new RequestData(HttpMethod.GET, URI.create("http://test"), headers, null, null)));
+	}
+
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign.loadbalancer;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import feign.AsyncClient;
+import feign.Request;
+import feign.Response;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerProperties;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+import org.springframework.cloud.loadbalancer.blocking.client.BlockingLoadBalancerClient;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.http.HttpStatus;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for {@link FeignAsyncLoadBalancerClient}.
+ */
+@SuppressWarnings("unchecked")
+class FeignAsyncLoadBalancerClientTests {
+
+	private final AsyncClient<Object> delegate = mock(AsyncClient.class);
+
+	private final BlockingLoadBalancerClient loadBalancerClient = mock(BlockingLoadBalancerClient.class);
+
+	private final LoadBalancerClientFactory loadBalancerClientFactory = mock(LoadBalancerClientFactory.class);
+
+	private final RecordingLoadBalancerLifecycle lifecycle = new RecordingLoadBalancerLifecycle();
+
+	private final FeignAsyncLoadBalancerClient<Object> client = new FeignAsyncLoadBalancerClient<>(delegate,
+			loadBalancerClient, new FeignLoadBalancerServiceDescriptorCache(loadBalancerClientFactory));
+
+	private final ServiceInstance instance = new DefaultServiceInstance("test-1", "test", "test-host", 8888, false);
+
+	@BeforeEach
+	void setUp() {
+		when(loadBalancerClientFactory.getProperties(any(String.class))).thenReturn(new LoadBalancerProperties());
+		when(loadBalancerClientFactory.getInstances("test", LoadBalancerLifecycle.class))
+				.thenReturn(Collections.singletonMap("lifecycle", lifecycle));
+	}
+
+	@Test
+	void shouldSendRequestToChosenInstance() {
+		CompletableFuture<Response> response = new CompletableFuture<>();
+		when(delegate.execute(any(), any(), any())).thenReturn(response);
+		chooseInstance();
+		Request.Options options = new Request.Options();
+
+		assertThat(client.execute(testRequest(), options, Optional.empty())).isSameAs(response);
+
+		verify(delegate).execute(argThat(request -> request.url().equals("http://test-host:8888/path")), eq(options),
+				eq(Optional.empty()));
+	}
+
+	@Test
+	void shouldCompleteLifecycleWhenResponseCompletes() {
+		CompletableFuture<Response> response = new CompletableFuture<>();
+		when(delegate.execute(any(), any(), any())).thenReturn(response);
+		chooseInstance();
+
+		client.execute(testRequest(), new Request.Options(), Optional.empty());
+
+		assertThat(lifecycle.started).hasSize(1);
+		assertThat(lifecycle.completed).isEmpty();
+
+		response.complete(Response.builder().status(200).request(testRequest()).build());
+
+		assertThat(lifecycle.completed).hasSize(1);
+		assertThat(lifecycle.completed.get(0).status()).isEqualTo(CompletionContext.Status.SUCCESS);
+		assertThat(lifecycle.completed.get(0).getClientResponse().getHttpStatus()).isEqualTo(HttpStatus.OK);
+	}
+
+	@Test
+	void shouldCompleteLifecycleWhenResponseFails() {
+		CompletableFuture<Response> response = new CompletableFuture<>();
+		when(delegate.execute(any(), any(), any())).thenReturn(response);
+		chooseInstance();
+
+		CompletableFuture<Response> result = client.execute(testRequest(), new Request.Options(), Optional.empty());
+		response.completeExceptionally(new IOException("test"));
+
+		assertThat(result).isCompletedExceptionally();
+		assertThat(lifecycle.completed).hasSize(1);
+		assertThat(lifecycle.completed.get(0).status()).isEqualTo(CompletionContext.Status.FAILED);
+	}
+
+	@Test
+	void shouldRespondWithServiceUnavailableIfInstanceNotFound() {
+		CompletableFuture<Response> result = client.execute(testRequest(), new Request.Options(), Optional.empty());
+
+		assertThat(result).isCompleted();
+		assertThat(result.join().status()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE.value());
+		assertThat(lifecycle.completed.get(0).status()).isEqualTo(CompletionContext.Status.DISCARD);
+		verify(delegate, never()).execute(any(), any(), any());
+	}
+
+	private void chooseInstance() {
+		when(loadBalancerClient.choose(eq("test"), any())).thenReturn(instance);
+		when(loadBalancerClient.reconstructURI(instance, URI.create("http://test/path")))
+				.thenReturn(URI.create("http://test-host:8888/path"));
+	}
+
+	private Request testRequest() {
+		return Request.create(Request.HttpMethod.GET, "http://test/path", Collections.emptyMap(), "hello".getBytes(),
+				StandardCharsets.UTF_8, null);
+	}
+
+	private static class RecordingLoadBalancerLifecycle
+			implements LoadBalancerLifecycle<RequestDataContext, ResponseData, ServiceInstance> {
+
+		private final List<org.springframework.cloud.client.loadbalancer.Request<RequestDataContext>> started = new ArrayList<>();
+
+		private final List<CompletionContext<ResponseData, ServiceInstance, RequestDataContext>> completed = new ArrayList<>();
+
+		@Override
+		public void onStart(org.springframework.cloud.client.loadbalancer.Request<RequestDataContext> request) {
+			started.add(request);
+		}
+
+		@Override
+		public void onStartRequest(org.springframework.cloud.client.loadbalancer.Request<RequestDataContext> request,
+				org.springframework.cloud.client.loadbalancer.Response<ServiceInstance> lbResponse) {
+		}
+
+		@Override
+		public void onComplete(CompletionContext<ResponseData, ServiceInstance, RequestDataContext> completionContext) {
+			completed.add(completionContext);
+		}
+
+	}
+
+}
@@ -20,6 +20,7 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.net.URI;
+import java.time.Duration;
 import java.nio.charset.StandardCharsets;
 import java.util.Collection;
 import java.util.Collections;
@@ -27,6 +28,7 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 import feign.Client;
 import feign.Request;
@@ -36,6 +38,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
 
 import org.springframework.cloud.client.DefaultServiceInstance;
 import org.springframework.cloud.client.ServiceInstance;
@@ -45,16 +48,20 @@ import org.springframework.cloud.client.loadbalancer.LoadBalancerProperties;
 import org.springframework.cloud.client.loadbalancer.RequestDataContext;
 import org.springframework.cloud.client.loadbalancer.ResponseData;
 import org.springframework.cloud.loadbalancer.blocking.client.BlockingLoadBalancerClient;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
 import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -97,6 +104,19 @@ class FeignBlockingLoadBalancerClientTests {
 		verify(loadBalancerClient).choose(eq("test"), any());
 	}
 
+	@Test
+	void shouldOnlyDestroyOwnServiceDescriptorCache() {
+		FeignLoadBalancerServiceDescriptorCache sharedCache = mock(FeignLoadBalancerServiceDescriptorCache.class);
+		FeignLoadBalancerServiceDescriptorCache ownCache = mock(FeignLoadBalancerServiceDescriptorCache.class);
+		ReflectionTestUtils.setField(feignBlockingLoadBalancerClient, "serviceDescriptorCache", ownCache);
+
+		new FeignBlockingLoadBalancerClient(delegate, loadBalancerClient, sharedCache).destroy();
+		feignBlockingLoadBalancerClient.destroy();
+
+		verify(sharedCache, never()).destroy();
+		verify(ownCache).destroy();
+	}
+
 	@Test
 	void shouldThrowExceptionIfNoServiceId() {
 		Request request = testRequest("");
@@ -174,6 +194,76 @@ class FeignBlockingLoadBalancerClientTests {
 				.contains(HttpStatus.OK);
 	}
 
+	@Test
+	void shouldResolveServiceDescriptorOnce() throws IOException {
+		Request request = testRequest();
+
+		feignBlockingLoadBalancerClient.execute(request, new Request.Options());
+		feignBlockingLoadBalancerClient.execute(request, new Request.Options());
+
+		verify(loadBalancerClientFactory, times(1)).getProperties("test");
+		verify(loadBalancerClientFactory, times(1)).getInstances("test", LoadBalancerLifecycle.class);
+	}
+
+	@Test
+	void shouldSelectInstanceWithFeignInstanceSelector() throws IOException {
+		FeignLoadBalancerClientsProperties feignProperties = new FeignLoadBalancerClientsProperties();
+		feignProperties.setInstanceSelection(FeignLoadBalancerProperties.InstanceSelection.PEAK_EWMA);
+		ServiceInstance serviceInstance = new DefaultServiceInstance("test-1", "test", "test-host", 8888, false);
+		ServiceInstanceListSupplier supplier = mock(ServiceInstanceListSupplier.class);
+		when(supplier.get(any())).thenReturn(Flux.just(Collections.singletonList(serviceInstance)));
+		when(loadBalancerClientFactory.getInstance("test", ServiceInstanceListSupplier.class)).thenReturn(supplier);
+		when(loadBalancerClient.reconstructURI(serviceInstance, URI.create("http://test/path")))
+				.thenReturn(URI.create("http://test-host:8888/path"));
+		FeignBlockingLoadBalancerClient client = new FeignBlockingLoadBalancerClient(delegate, loadBalancerClient,
+				new FeignLoadBalancerServiceDescriptorCache(loadBalancerClientFactory, feignProperties));
+		Request.Options options = new Request.Options();
+		when(delegate.execute(any(), eq(options)))
+				.thenReturn(Response.builder().request(testRequest()).status(200).headers(new HashMap<>()).build());
+
+		client.execute(testRequest(), options);
+
+		verify(loadBalancerClient, never()).choose(any(), any());
+		ArgumentCaptor<Request> captor = ArgumentCaptor.forClass(Request.class);
+		verify(delegate).execute(captor.capture(), eq(options));
+		assertThat(captor.getValue().url()).isEqualTo("http://test-host:8888/path");
+	}
+
+	@Test
+	void shouldLimitTimeoutsToDeadlineAndSendRemainingTime() throws IOException {
+		FeignLoadBalancerClientsProperties feignProperties = new FeignLoadBalancerClientsProperties();
+		feignProperties.getDeadline().setTimeout(Duration.ofSeconds(2));
+		feignProperties.getDeadline().setHeaderName("X-Deadline");
+		ServiceInstance serviceInstance = new DefaultServiceInstance("test-1", "test", "test-host", 8888, false);
+		when(loadBalancerClient.choose(eq("test"), any())).thenReturn(serviceInstance);
+		when(loadBalancerClient.reconstructURI(serviceInstance, URI.create("http://test/path")))
+				.thenReturn(URI.create("http://test-host:8888/path"));
+		FeignBlockingLoadBalancerClient client = new FeignBlockingLoadBalancerClient(delegate, loadBalancerClient,
+				new FeignLoadBalancerServiceDescriptorCache(loadBalancerClientFactory, feignProperties));
+
+		client.execute(testRequest(), new Request.Options(10, TimeUnit.SECONDS, 60, TimeUnit.SECONDS, true));
+
+		ArgumentCaptor<Request> requestCaptor = ArgumentCaptor.forClass(Request.class);
+		ArgumentCaptor<Request.Options> optionsCaptor = ArgumentCaptor.forClass(Request.Options.class);
+		verify(delegate).execute(requestCaptor.capture(), optionsCaptor.capture());
+		assertThat(optionsCaptor.getValue().connectTimeoutMillis()).isBetween(1, 2000);
+		assertThat(optionsCaptor.getValue().readTimeoutMillis()).isBetween(1, 2000);
+		assertThat(optionsCaptor.getValue().isFollowRedirects()).isTrue();
+		assertThat(Long.parseLong(requestCaptor.getValue().headers().get("X-Deadline").iterator().next())).isBetween(1L,
+				2000L);
+	}
+
+	@Test
+	void shouldNotSendRequestAfterDeadline() throws IOException {
+		try (RequestDeadline.Scope scope = RequestDeadline.after(Duration.ZERO).attach()) {
+			assertThatExceptionOfType(RequestDeadlineExceededException.class)
+					.isThrownBy(() -> feignBlockingLoadBalancerClient.execute(testRequest(), new Request.Options()));
+		}
+
+		verify(loadBalancerClient, never()).choose(any(), any());
+		verify(delegate, never()).execute(any(), any());
+	}
+
 	private String read(Response response) throws IOException {
 		BufferedReader reader = new BufferedReader(
 				new InputStreamReader(response.body().asInputStream(), StandardCharsets.UTF_8));
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign.loadbalancer;
+
+import java.util.Collections;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerProperties;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for {@link FeignLoadBalancerServiceDescriptorCache}.
+ */
+class FeignLoadBalancerServiceDescriptorCacheTests {
+
+	private final LoadBalancerClientFactory loadBalancerClientFactory = mock(LoadBalancerClientFactory.class);
+
+	private final LoadBalancerProperties properties = new LoadBalancerProperties();
+
+	private final FeignLoadBalancerServiceDescriptorCache cache = new FeignLoadBalancerServiceDescriptorCache(
+			loadBalancerClientFactory);
+
+	@BeforeEach
+	void setUp() {
+		when(loadBalancerClientFactory.getProperties(any(String.class))).thenReturn(properties);
+	}
+
+	@Test
+	void shouldResolveHint() {
+		properties.getHint().put("default", "defaultHint");
+		properties.getHint().put("test", "testHint");
+
+		assertThat(cache.getDescriptor("test").getHint()).isEqualTo("testHint");
+		assertThat(cache.getDescriptor("other").getHint()).isEqualTo("defaultHint");
+	}
+
+	@Test
+	void shouldReuseDescriptor() {
+		FeignLoadBalancerServiceDescriptor descriptor = cache.getDescriptor("test");
+
+		assertThat(cache.getDescriptor("test")).isSameAs(descriptor);
+	}
+
+	@Test
+	void shouldInvalidateDescriptorWhenLoadBalancerContextRefreshed() {
+		FeignLoadBalancerServiceDescriptor testDescriptor = cache.getDescriptor("test");
+		FeignLoadBalancerServiceDescriptor otherDescriptor = cache.getDescriptor("other");
+
+		cache.onApplicationEvent(new ContextRefreshedEvent(loadBalancerContext("test")));
+
+		assertThat(cache.getDescriptor("test")).isNotSameAs(testDescriptor);
+		assertThat(cache.getDescriptor("other")).isSameAs(otherDescriptor);
+	}
+
+	@Test
+	void shouldWrapRoundRobinSelectorForSlowStart() {
+		FeignLoadBalancerClientsProperties feignProperties = new FeignLoadBalancerClientsProperties();
+		feignProperties.getSlowStart().setEnabled(true);
+		ServiceInstanceListSupplier supplier = mock(ServiceInstanceListSupplier.class);
+		when(loadBalancerClientFactory.getInstance("test", ServiceInstanceListSupplier.class)).thenReturn(supplier);
+		FeignLoadBalancerServiceDescriptorCache slowStartCache = new FeignLoadBalancerServiceDescriptorCache(
+				loadBalancerClientFactory, feignProperties);
+
+		FeignLoadBalancerServiceDescriptor descriptor = slowStartCache.getDescriptor("test");
+
+		assertThat(descriptor.getInstanceSelector()).isInstanceOf(SlowStartServiceInstanceSelector.class);
+		assertThat(descriptor.getServiceInstanceListSupplier()).isSameAs(supplier);
+	}
+
+	@Test
+	void shouldUsePeakEwmaSelectorOnlyForConfiguredService() {
+		FeignLoadBalancerClientsProperties feignProperties = new FeignLoadBalancerClientsProperties();
+		FeignLoadBalancerProperties testProperties = new FeignLoadBalancerProperties();
+		testProperties.setInstanceSelection(FeignLoadBalancerProperties.InstanceSelection.PEAK_EWMA);
+		feignProperties.getClients().put("test", testProperties);
+		ServiceInstanceListSupplier supplier = mock(ServiceInstanceListSupplier.class);
+		when(loadBalancerClientFactory.getInstance("test", ServiceInstanceListSupplier.class)).thenReturn(supplier);
+		FeignLoadBalancerServiceDescriptorCache peakEwmaCache = new FeignLoadBalancerServiceDescriptorCache(
+				loadBalancerClientFactory, feignProperties);
+
+		FeignLoadBalancerServiceDescriptor testDescriptor = peakEwmaCache.getDescriptor("test");
+		FeignLoadBalancerServiceDescriptor otherDescriptor = peakEwmaCache.getDescriptor("other");
+
+		assertThat(testDescriptor.getInstanceSelector()).isInstanceOf(PeakEwmaServiceInstanceSelector.class);
+		assertThat(testDescriptor.getServiceInstanceListSupplier()).isSameAs(supplier);
+		assertThat(testDescriptor.getSupportedLifecycleProcessors(RequestDataContext.class))
+				.hasOnlyElementsOfType(PeakEwmaStatistics.class).hasSize(1);
+		assertThat(otherDescriptor.getInstanceSelector()).isNull();
+		assertThat(otherDescriptor.getSupportedLifecycleProcessors(RequestDataContext.class)).isEmpty();
+	}
+
+	@Test
+	void shouldKeepStatisticsAcrossInvalidation() {
+		FeignLoadBalancerClientsProperties feignProperties = new FeignLoadBalancerClientsProperties();
+		feignProperties.setInstanceSelection(FeignLoadBalancerProperties.InstanceSelection.PEAK_EWMA);
+		feignProperties.getConsistentHash().setEnabled(true);
+		feignProperties.getOutlierDetection().setEnabled(true);
+		when(loadBalancerClientFactory.getInstance("test", ServiceInstanceListSupplier.class))
+				.thenReturn(mock(ServiceInstanceListSupplier.class));
+		FeignLoadBalancerServiceDescriptorCache statefulCache = new FeignLoadBalancerServiceDescriptorCache(
+				loadBalancerClientFactory, feignProperties);
+		Set<LoadBalancerLifecycle> processors = statefulCache.getDescriptor("test")
+				.getSupportedLifecycleProcessors(RequestDataContext.class);
+
+		statefulCache.onApplicationEvent(new ContextRefreshedEvent(loadBalancerContext("test")));
+		statefulCache.clear();
+
+		assertThat(statefulCache.getDescriptor("test").getSupportedLifecycleProcessors(RequestDataContext.class))
+				.hasSize(3).containsExactlyInAnyOrderElementsOf(processors);
+	}
+
+	@Test
+	void shouldOnlyClearDescriptorsWhenLoadBalancerPropertiesChange() {
+		FeignLoadBalancerServiceDescriptor descriptor = cache.getDescriptor("test");
+
+		cache.onApplicationEvent(new EnvironmentChangeEvent(Collections.singleton("server.port")));
+		assertThat(cache.getDescriptor("test")).isSameAs(descriptor);
+
+		cache.onApplicationEvent(
+				new EnvironmentChangeEvent(Collections.singleton("feign.loadbalancer.hedging.enabled")));
+		assertThat(cache.getDescriptor("test")).isNotSameAs(descriptor);
+	}
+
+	private GenericApplicationContext loadBalancerContext(String serviceId) {
+		GenericApplicationContext context = new GenericApplicationContext();
+		context.getEnvironment().getPropertySources()
+				.addFirst(new MapPropertySource(LoadBalancerClientFactory.NAMESPACE,
+						Collections.singletonMap(LoadBalancerClientFactory.PROPERTY_NAME, serviceId)));
+		return context;
+	}
+
+}
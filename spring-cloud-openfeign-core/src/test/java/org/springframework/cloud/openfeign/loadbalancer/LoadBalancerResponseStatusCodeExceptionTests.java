@@ -0,0 +1,82 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign.loadbalancer;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+import feign.Request;
+import feign.Response;
+import feign.Util;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link LoadBalancerResponseStatusCodeException}.
+ */
+class LoadBalancerResponseStatusCodeExceptionTests {
+
+	@Test
+	void shouldKeepUnreadResponse() {
+		Response response = testResponse("body");
+
+		LoadBalancerResponseStatusCodeException exception = new LoadBalancerResponseStatusCodeException("test",
+				response, URI.create("http://test/path"));
+
+		assertThat(exception.getResponse()).isSameAs(response);
+	}
+
+	@Test
+	void shouldCaptureStartOfBodyWhenReleased() throws IOException {
+		LoadBalancerResponseStatusCodeException exception = new LoadBalancerResponseStatusCodeException("test",
+				testResponse("0123456789"), URI.create("http://test/path"));
+
+		exception.releaseResponse(4, 100);
+		exception.releaseResponse(2, 100);
+
+		Response response = exception.getResponse();
+		assertThat(response.status()).isEqualTo(503);
+		assertThat(Util.toString(response.body().asReader(StandardCharsets.UTF_8))).isEqualTo("0123");
+	}
+
+	@Test
+	void shouldDrainBodyOnlyUpToLimitWhenReleased() {
+		ByteArrayInputStream body = new ByteArrayInputStream(new byte[1000]);
+		Response response = Response.builder().request(testResponse("").request()).status(503)
+				.headers(Collections.emptyMap()).body(body, 1000).build();
+		LoadBalancerResponseStatusCodeException exception = new LoadBalancerResponseStatusCodeException("test",
+				response, URI.create("http://test/path"));
+
+		exception.releaseResponse(100, 200);
+
+		assertThat(body.available()).isEqualTo(700);
+		assertThat(exception.getResponse().body().length()).isEqualTo(100);
+	}
+
+	private Response testResponse(String body) {
+		Request request = Request.create(Request.HttpMethod.GET, "http://test/path", Collections.emptyMap(), null,
+				StandardCharsets.UTF_8, null);
+		byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+		return Response.builder().request(request).status(503).headers(Collections.emptyMap())
+				.body(new ByteArrayInputStream(bytes), bytes.length).build();
+	}
+
+}
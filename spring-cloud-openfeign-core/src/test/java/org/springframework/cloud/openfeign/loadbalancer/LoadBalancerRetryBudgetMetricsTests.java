@@ -0,0 +1,54 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign.loadbalancer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.cloud.client.loadbalancer.LoadBalancerProperties;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for {@link LoadBalancerRetryBudgetMetrics}.
+ */
+class LoadBalancerRetryBudgetMetricsTests {
+
+	@Test
+	void shouldRegisterMetersForRetryBudgets() {
+		LoadBalancerClientFactory loadBalancerClientFactory = mock(LoadBalancerClientFactory.class);
+		when(loadBalancerClientFactory.getProperties(any(String.class))).thenReturn(new LoadBalancerProperties());
+		FeignLoadBalancerClientsProperties feignProperties = new FeignLoadBalancerClientsProperties();
+		feignProperties.getRetryBudget().setEnabled(true);
+		FeignLoadBalancerServiceDescriptorCache cache = new FeignLoadBalancerServiceDescriptorCache(
+				loadBalancerClientFactory, feignProperties);
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		new LoadBalancerRetryBudgetMetrics(cache).bindTo(registry);
+
+		cache.getDescriptor("test").getRetryBudget().onRequest();
+
+		assertThat(registry.get("feign.loadbalancer.retry.budget.requests").tag("serviceId", "test").functionCounter()
+				.count()).isEqualTo(1);
+		assertThat(registry.get("feign.loadbalancer.retry.budget.balance").tag("serviceId", "test").gauge().value())
+				.isGreaterThan(0);
+	}
+
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign.loadbalancer;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link LoadBalancerRetryBudget}.
+ */
+class LoadBalancerRetryBudgetTests {
+
+	private final FeignLoadBalancerProperties.RetryBudget properties = new FeignLoadBalancerProperties.RetryBudget();
+
+	@Test
+	void shouldAllowMinimumRetries() {
+		properties.setMinRetriesPerSecond(1);
+		LoadBalancerRetryBudget retryBudget = new LoadBalancerRetryBudget("test", properties);
+
+		for (int i = 0; i < 10; i++) {
+			assertThat(retryBudget.tryAcquireRetry()).isTrue();
+		}
+		assertThat(retryBudget.tryAcquireRetry()).isFalse();
+		assertThat(retryBudget.getRetryCount()).isEqualTo(10);
+		assertThat(retryBudget.getExhaustedCount()).isEqualTo(1);
+	}
+
+	@Test
+	void shouldAllowRatioOfRequestsToBeRetried() {
+		properties.setMinRetriesPerSecond(0);
+		properties.setRatio(0.1);
+		LoadBalancerRetryBudget retryBudget = new LoadBalancerRetryBudget("test", properties);
+
+		for (int i = 0; i < 50; i++) {
+			retryBudget.onRequest();
+		}
+
+		assertThat(retryBudget.getBalance()).isEqualTo(5d);
+		for (int i = 0; i < 5; i++) {
+			assertThat(retryBudget.tryAcquireRetry()).isTrue();
+		}
+		assertThat(retryBudget.tryAcquireRetry()).isFalse();
+		assertThat(retryBudget.getRequestCount()).isEqualTo(50);
+	}
+
+	@Test
+	void shouldKeepRecordedRequestsWhenReconfigured() {
+		properties.setMinRetriesPerSecond(0);
+		LoadBalancerRetryBudget retryBudget = new LoadBalancerRetryBudget("test", properties);
+		for (int i = 0; i < 10; i++) {
+			retryBudget.onRequest();
+		}
+
+		properties.setRatio(0.5);
+		retryBudget.configure(properties);
+
+		assertThat(retryBudget.getBalance()).isEqualTo(5d);
+	}
+
+}
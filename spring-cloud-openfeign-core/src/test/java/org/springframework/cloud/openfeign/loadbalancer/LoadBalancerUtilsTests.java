@@ -0,0 +1,136 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign.loadbalancer;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import feign.Request;
+import feign.Response;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.cloud.client.loadbalancer.RequestData;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+/**
+ * Tests for {@link LoadBalancerUtils}.
+ */
+class LoadBalancerUtilsTests {
+
+	@Test
+	void shouldBuildRequestDataFromFeignRequest() {
+		Request request = testRequest();
+
+		RequestData requestData = LoadBalancerUtils.buildRequestData(request);
+
+		assertThat(requestData.getHttpMethod()).isEqualTo(HttpMethod.GET);
+		assertThat(requestData.getUrl()).isEqualTo(URI.create("http://test/path"));
+		assertThat(requestData.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_JSON);
+		assertThat(requestData.getHeaders().get("x-multi")).containsExactly("a", "b");
+		assertThat(requestData.getAttributes()).isEmpty();
+	}
+
+	@Test
+	void shouldNotAllowModifyingRequestHeaders() {
+		RequestData requestData = LoadBalancerUtils.buildRequestData(testRequest());
+
+		assertThatExceptionOfType(UnsupportedOperationException.class)
+				.isThrownBy(() -> requestData.getHeaders().add("X-Test", "test"));
+	}
+
+	@Test
+	void shouldBuildEqualRequestData() {
+		Request request = testRequest();
+
+		assertThat(LoadBalancerUtils.buildRequestData(request)).isEqualTo(LoadBalancerUtils.buildRequestData(request));
+	}
+
+	@Test
+	void shouldBuildResponseData() {
+		Response response = Response.builder().request(testRequest()).status(200).headers(Collections
+				.singletonMap(HttpHeaders.CONTENT_TYPE, Collections.singletonList(MediaType.TEXT_PLAIN_VALUE))).build();
+
+		ResponseData responseData = LoadBalancerUtils.buildResponseData(response, false);
+
+		assertThat(responseData.getHttpStatus()).isEqualTo(HttpStatus.OK);
+		assertThat(responseData.getHeaders().getContentType()).isEqualTo(MediaType.TEXT_PLAIN);
+		assertThat(responseData.getRequestData().getUrl()).isEqualTo(URI.create("http://test/path"));
+	}
+
+	@Test
+	void shouldBuildResponseDataWithRawStatusCode() {
+		Response response = Response.builder().request(testRequest()).status(599).headers(Collections.emptyMap())
+				.build();
+
+		ResponseData responseData = LoadBalancerUtils.buildResponseData(response, true);
+
+		assertThat(responseData.getRawHttpStatus()).isEqualTo(599);
+		assertThat(responseData.getHeaders()).isEmpty();
+	}
+
+	@Test
+	void shouldLimitTimeoutsToRemainingTime() {
+		Request.Options options = new Request.Options(1, TimeUnit.SECONDS, 0, TimeUnit.SECONDS, false);
+
+		Request.Options limited = LoadBalancerUtils.limitOptions(options, 500);
+
+		assertThat(limited.connectTimeoutMillis()).isEqualTo(500);
+		assertThat(limited.readTimeoutMillis()).isEqualTo(500);
+		assertThat(limited.isFollowRedirects()).isFalse();
+		assertThat(LoadBalancerUtils.limitOptions(options, 5000).connectTimeoutMillis()).isEqualTo(1000);
+		assertThat(LoadBalancerUtils.limitOptions(options, 5000).readTimeoutMillis()).isEqualTo(5000);
+		assertThat(LoadBalancerUtils.limitOptions(options, -1)).isSameAs(options);
+	}
+
+	@Test
+	void shouldAddDeadlineHeaderIfConfigured() {
+		FeignLoadBalancerProperties.Deadline properties = new FeignLoadBalancerProperties.Deadline();
+		Request request = testRequest();
+
+		assertThat(LoadBalancerUtils.withDeadlineHeader(request, properties, 500)).isSameAs(request);
+
+		properties.setHeaderName("X-Deadline");
+		Request withHeader = LoadBalancerUtils.withDeadlineHeader(request, properties, 500);
+
+		assertThat(withHeader.headers().get("X-Deadline")).containsExactly("500");
+		assertThat(withHeader.headers().get("X-Multi")).containsExactly("a", "b");
+		assertThat(LoadBalancerUtils.withDeadlineHeader(request, properties, -1)).isSameAs(request);
+	}
+
+	private Request testRequest() {
+		Map<String, Collection<String>> headers = new HashMap<>();
+		headers.put(HttpHeaders.CONTENT_TYPE, Collections.singletonList(MediaType.APPLICATION_JSON_VALUE));
+		headers.put("X-Multi", new LinkedHashSet<>(Arrays.asList("a", "b")));
+		return Request.create(Request.HttpMethod.GET, "http://test/path", headers, "hello".getBytes(),
+				StandardCharsets.UTF_8, null);
+	}
+
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign.loadbalancer;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.http.conn.ConnectTimeoutException;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link OutlierDetector} and {@link OutlierEjectingServiceInstanceSelector}.
+ */
+@SuppressWarnings({ "unchecked", "rawtypes" })
+class OutlierDetectorTests {
+
+	private final ServiceInstance first = new DefaultServiceInstance("test-1", "test", "first", 8080, false);
+
+	private final ServiceInstance second = new DefaultServiceInstance("test-2", "test", "second", 8080, false);
+
+	private final ServiceInstance third = new DefaultServiceInstance("test-3", "test", "third", 8080, false);
+
+	private final FeignLoadBalancerProperties.OutlierDetection properties = new FeignLoadBalancerProperties.OutlierDetection();
+
+	private final AtomicLong clock = new AtomicLong();
+
+	private final OutlierDetector detector = new OutlierDetector(properties, clock::get);
+
+	@Test
+	void shouldEjectInstanceAfterConsecutiveServerErrors() {
+		for (int i = 0; i < 4; i++) {
+			complete(first, HttpStatus.SERVICE_UNAVAILABLE, Duration.ofMillis(1));
+		}
+		complete(first, HttpStatus.OK, Duration.ofMillis(1));
+		for (int i = 0; i < 4; i++) {
+			complete(first, HttpStatus.INTERNAL_SERVER_ERROR, Duration.ofMillis(1));
+		}
+
+		assertThat(detector.isEjected(first)).isFalse();
+
+		complete(first, HttpStatus.BAD_GATEWAY, Duration.ofMillis(1));
+
+		assertThat(detector.isEjected(first)).isTrue();
+		assertThat(detector.isEjected(second)).isFalse();
+	}
+
+	@Test
+	void shouldEjectInstanceAfterConsecutiveConnectFailures() {
+		fail(first, new ConnectException("Connection refused"));
+		fail(first, new ConnectException("Connection refused"));
+
+		assertThat(detector.isEjected(first)).isFalse();
+
+		fail(first, new ConnectException("Connection refused"));
+
+		assertThat(detector.isEjected(first)).isTrue();
+	}
+
+	@Test
+	void shouldNotCountOtherFailuresAsConnectFailures() {
+		fail(first, new ConnectException("Connection refused"));
+		fail(first, new ConnectException("Connection refused"));
+		fail(first, new SocketException("Connection reset"));
+
+		assertThat(detector.isEjected(first)).isFalse();
+	}
+
+	@Test
+	void shouldCountConnectTimeoutsAsConnectFailures() {
+		fail(first, new SocketTimeoutException("connect timed out"));
+		fail(first, new ConnectTimeoutException("Connect to first:8080 timed out"));
+		fail(first, new IOException(new org.apache.hc.client5.http.ConnectTimeoutException("timed out")));
+
+		assertThat(detector.isEjected(first)).isTrue();
+	}
+
+	@Test
+	void shouldKeepEjectionWhenReconfigured() {
+		ejectWithConnectFailures(first);
+		FeignLoadBalancerProperties.OutlierDetection reconfigured = new FeignLoadBalancerProperties.OutlierDetection();
+		reconfigured.setConsecutiveErrors(10);
+
+		detector.configure(reconfigured);
+
+		assertThat(detector.isEjected(first)).isTrue();
+	}
+
+	@Test
+	void shouldDoubleEjectionTimeOfRepeatedlyEjectedInstance() {
+		long baseEjectionTime = properties.getBaseEjectionTime().toNanos();
+		ejectWithConnectFailures(first);
+		clock.addAndGet(baseEjectionTime);
+
+		assertThat(detector.isEjected(first)).isFalse();
+
+		ejectWithConnectFailures(first);
+		clock.addAndGet(baseEjectionTime);
+
+		assertThat(detector.isEjected(first)).isTrue();
+
+		clock.addAndGet(baseEjectionTime);
+
+		assertThat(detector.isEjected(first)).isFalse();
+	}
+
+	@Test
+	void shouldResetEjectionTimeAfterMaxEjectionTime() {
+		long baseEjectionTime = properties.getBaseEjectionTime().toNanos();
+		ejectWithConnectFailures(first);
+		clock.addAndGet(baseEjectionTime + properties.getMaxEjectionTime().toNanos() + 1);
+
+		ejectWithConnectFailures(first);
+		clock.addAndGet(baseEjectionTime);
+
+		assertThat(detector.isEjected(first)).isFalse();
+	}
+
+	@Test
+	void shouldEjectInstanceWithLatencyFarAboveMedian() {
+		for (int i = 0; i < 10; i++) {
+			complete(first, HttpStatus.OK, Duration.ofMillis(10));
+			complete(second, HttpStatus.OK, Duration.ofMillis(12));
+			complete(third, HttpStatus.OK, Duration.ofMillis(200));
+		}
+		// The median latency is refreshed at most once per second
+		clock.addAndGet(Duration.ofSeconds(1).toNanos());
+		complete(first, HttpStatus.OK, Duration.ofMillis(10));
+		complete(third, HttpStatus.OK, Duration.ofMillis(200));
+
+		assertThat(detector.isEjected(first)).isFalse();
+		assertThat(detector.isEjected(second)).isFalse();
+		assertThat(detector.isEjected(third)).isTrue();
+	}
+
+	@Test
+	void shouldNotSelectEjectedInstance() {
+		OutlierEjectingServiceInstanceSelector selector = new OutlierEjectingServiceInstanceSelector(
+				new RoundRobinServiceInstanceSelector(), detector, properties.getMaxEjectedRatio());
+		List<ServiceInstance> instances = Arrays.asList(first, second, third);
+		ejectWithConnectFailures(second);
+
+		for (int i = 0; i < 10; i++) {
+			assertThat(selector.select(instances, new DefaultRequest<>())).isNotSameAs(second);
+		}
+	}
+
+	@Test
+	void shouldNotEjectMoreThanMaxEjectedRatio() {
+		OutlierEjectingServiceInstanceSelector selector = new OutlierEjectingServiceInstanceSelector(
+				new RoundRobinServiceInstanceSelector(), detector, properties.getMaxEjectedRatio());
+		List<ServiceInstance> instances = Arrays.asList(first, second);
+		ejectWithConnectFailures(first);
+		ejectWithConnectFailures(second);
+
+		for (int i = 0; i < 10; i++) {
+			assertThat(selector.select(instances, new DefaultRequest<>())).isSameAs(second);
+		}
+	}
+
+	private void ejectWithConnectFailures(ServiceInstance instance) {
+		for (int i = 0; i < properties.getConsecutiveConnectFailures(); i++) {
+			fail(instance, new ConnectException("Connection refused"));
+		}
+		assertThat(detector.isEjected(instance)).isTrue();
+	}
+
+	private void complete(ServiceInstance instance, HttpStatus status, Duration latency) {
+		RequestDataContext context = new RequestDataContext();
+		DefaultRequest<RequestDataContext> request = new DefaultRequest<>(context);
+		DefaultResponse response = new DefaultResponse(instance);
+		detector.onStartRequest((DefaultRequest) request, response);
+		context.setRequestStartTime(System.nanoTime() - latency.toNanos());
+		detector.onComplete(new CompletionContext(CompletionContext.Status.SUCCESS, request, response,
+				new ResponseData(status, HttpHeaders.EMPTY, null, null)));
+	}
+
+	private void fail(ServiceInstance instance, Exception exception) {
+		DefaultRequest<RequestDataContext> request = new DefaultRequest<>(new RequestDataContext());
+		DefaultResponse response = new DefaultResponse(instance);
+		detector.onStartRequest((DefaultRequest) request, response);
+		detector.onComplete(new CompletionContext(CompletionContext.Status.FAILED, exception, request, response));
+	}
+
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign.loadbalancer;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link PeakEwmaServiceInstanceSelector} and {@link PeakEwmaStatistics}.
+ */
+@SuppressWarnings({ "unchecked", "rawtypes" })
+class PeakEwmaServiceInstanceSelectorTests {
+
+	private final ServiceInstance fast = new DefaultServiceInstance("test-1", "test", "fast", 8080, false);
+
+	private final ServiceInstance slow = new DefaultServiceInstance("test-2", "test", "slow", 8080, false);
+
+	private final FeignLoadBalancerProperties.PeakEwma properties = new FeignLoadBalancerProperties.PeakEwma();
+
+	private final PeakEwmaStatistics statistics = new PeakEwmaStatistics(properties);
+
+	private final PeakEwmaServiceInstanceSelector selector = new PeakEwmaServiceInstanceSelector(statistics);
+
+	@Test
+	void shouldSelectInstanceWithLowerLatency() {
+		record(fast, CompletionContext.Status.SUCCESS, Duration.ofMillis(5));
+		record(slow, CompletionContext.Status.SUCCESS, Duration.ofMillis(500));
+		List<ServiceInstance> instances = Arrays.asList(fast, slow);
+
+		for (int i = 0; i < 10; i++) {
+			assertThat(selector.select(instances, new DefaultRequest<>())).isSameAs(fast);
+		}
+	}
+
+	@Test
+	void shouldPreferInstanceWithoutRequestsInFlight() {
+		DefaultRequest<RequestDataContext> request = new DefaultRequest<>(new RequestDataContext());
+		statistics.onStartRequest((DefaultRequest) request, new DefaultResponse(fast));
+
+		assertThat(selector.select(Arrays.asList(fast, slow), new DefaultRequest<>())).isSameAs(slow);
+	}
+
+	@Test
+	void shouldApplyFailurePenalty() {
+		properties.setFailurePenalty(Duration.ofSeconds(5));
+		PeakEwmaStatistics penalizingStatistics = new PeakEwmaStatistics(properties);
+		DefaultRequest<RequestDataContext> request = new DefaultRequest<>(new RequestDataContext());
+		DefaultResponse response = new DefaultResponse(fast);
+		penalizingStatistics.onStartRequest((DefaultRequest) request, response);
+
+		penalizingStatistics.onComplete(
+				new CompletionContext(CompletionContext.Status.FAILED, new RuntimeException(), request, response));
+
+		assertThat(penalizingStatistics.getCost(fast, System.nanoTime()))
+				.isGreaterThan(Duration.ofSeconds(4).toNanos());
+	}
+
+	@Test
+	void shouldDecayLatency() {
+		record(fast, CompletionContext.Status.SUCCESS, Duration.ofMillis(100));
+		long now = System.nanoTime();
+
+		assertThat(statistics.getCost(fast, now + properties.getDecayTime().toNanos() * 10))
+				.isLessThan(statistics.getCost(fast, now));
+	}
+
+	private void record(ServiceInstance instance, CompletionContext.Status status, Duration latency) {
+		RequestDataContext context = new RequestDataContext();
+		DefaultRequest<RequestDataContext> request = new DefaultRequest<>(context);
+		DefaultResponse response = new DefaultResponse(instance);
+		statistics.onStartRequest((DefaultRequest) request, response);
+		context.setRequestStartTime(System.nanoTime() - latency.toNanos());
+		statistics.onComplete(new CompletionContext(status, request, response));
+	}
+
+}
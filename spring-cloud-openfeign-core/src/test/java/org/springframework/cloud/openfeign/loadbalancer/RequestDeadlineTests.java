@@ -0,0 +1,68 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign.loadbalancer;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link RequestDeadline}.
+ */
+class RequestDeadlineTests {
+
+	@Test
+	void shouldAttachDeadlineToCurrentThread() {
+		RequestDeadline deadline = RequestDeadline.after(Duration.ofSeconds(10));
+
+		try (RequestDeadline.Scope scope = deadline.attach()) {
+			assertThat(RequestDeadline.current()).isSameAs(deadline);
+			assertThat(deadline.remainingMillis()).isBetween(1L, 10000L);
+			assertThat(deadline.isExpired()).isFalse();
+		}
+
+		assertThat(RequestDeadline.current()).isNull();
+	}
+
+	@Test
+	void shouldOnlyShortenAttachedDeadline() {
+		RequestDeadline outer = RequestDeadline.after(Duration.ofSeconds(1));
+		RequestDeadline later = RequestDeadline.after(Duration.ofSeconds(10));
+		RequestDeadline earlier = RequestDeadline.after(Duration.ofMillis(100));
+
+		try (RequestDeadline.Scope outerScope = outer.attach()) {
+			try (RequestDeadline.Scope scope = later.attach()) {
+				assertThat(RequestDeadline.current()).isSameAs(outer);
+			}
+			try (RequestDeadline.Scope scope = earlier.attach()) {
+				assertThat(RequestDeadline.current()).isSameAs(earlier);
+			}
+			assertThat(RequestDeadline.current()).isSameAs(outer);
+		}
+	}
+
+	@Test
+	void shouldHaveNoRemainingTimeOncePassed() {
+		RequestDeadline deadline = RequestDeadline.after(Duration.ofMillis(-1));
+
+		assertThat(deadline.isExpired()).isTrue();
+		assertThat(deadline.remainingMillis()).isZero();
+	}
+
+}
@@ -0,0 +1,306 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign.loadbalancer;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.sun.net.httpserver.HttpServer;
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIOException;
+
+/**
+ * Tests for {@link RequestHedger}. The attempts are sent with {@link Client.Default} to a
+ * local server, so that a stalled attempt blocks on a socket read that does not react to
+ * interrupts.
+ */
+class RequestHedgerTests {
+
+	private final HedgingExecutor executor = new HedgingExecutor(4, null);
+
+	private final FeignLoadBalancerProperties.Hedging properties = new FeignLoadBalancerProperties.Hedging();
+
+	private final CountDownLatch stalled = new CountDownLatch(1);
+
+	private final ExecutorService serverExecutor = Executors.newCachedThreadPool();
+
+	private final Client client = new Client.Default(null, null);
+
+	private HttpServer server;
+
+	@BeforeEach
+	void startServer() throws IOException {
+		server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.setExecutor(serverExecutor);
+		server.createContext("/stalled", exchange -> {
+			try {
+				stalled.await(10, TimeUnit.SECONDS);
+			}
+			catch (InterruptedException exception) {
+				Thread.currentThread().interrupt();
+			}
+			exchange.sendResponseHeaders(200, -1);
+			exchange.close();
+		});
+		server.createContext("/status", exchange -> {
+			MultiValueMap<String, String> params = UriComponentsBuilder.fromUri(exchange.getRequestURI()).build()
+					.getQueryParams();
+			String delay = params.getFirst("delay");
+			try {
+				Thread.sleep(delay != null ? Long.parseLong(delay) : 0);
+			}
+			catch (InterruptedException exception) {
+				Thread.currentThread().interrupt();
+			}
+			exchange.sendResponseHeaders(Integer.parseInt(params.getFirst("status")), -1);
+			exchange.close();
+		});
+		server.start();
+	}
+
+	@AfterEach
+	void tearDown() {
+		stalled.countDown();
+		server.stop(0);
+		serverExecutor.shutdownNow();
+		executor.shutdown();
+	}
+
+	@Test
+	void shouldReturnHedgedResponseWhilePrimaryIsBlockedOnSocket() throws Exception {
+		RequestHedger hedger = new RequestHedger(properties, executor);
+		warmUp(hedger);
+		CountDownLatch primaryClosed = new CountDownLatch(1);
+
+		long start = System.nanoTime();
+		Response response = hedger.execute(testRequest(), () -> {
+			try (Response stalledResponse = send("/stalled")) {
+				return trackClose(stalledResponse, primaryClosed);
+			}
+		}, () -> () -> send("/status?status=202"));
+		long elapsed = System.nanoTime() - start;
+
+		assertThat(response.status()).isEqualTo(202);
+		assertThat(Duration.ofNanos(elapsed)).isLessThan(Duration.ofSeconds(5));
+		assertThat(primaryClosed.getCount()).isEqualTo(1);
+		stalled.countDown();
+		assertThat(primaryClosed.await(5, TimeUnit.SECONDS)).isTrue();
+	}
+
+	@Test
+	void shouldNotHedgeWithoutBudget() throws Exception {
+		properties.setBudgetRatio(0);
+		RequestHedger hedger = new RequestHedger(properties, executor);
+		warmUp(hedger);
+		AtomicBoolean hedged = new AtomicBoolean();
+
+		Response response = hedger.execute(testRequest(), () -> send("/status?status=200&delay=200"), () -> {
+			hedged.set(true);
+			return () -> send("/status?status=202");
+		});
+
+		assertThat(response.status()).isEqualTo(200);
+		assertThat(hedged).isFalse();
+	}
+
+	@Test
+	void shouldSendPrimaryFromCallingThreadBeforeLatenciesAreKnown() throws Exception {
+		RequestHedger hedger = new RequestHedger(properties, executor);
+		AtomicBoolean hedged = new AtomicBoolean();
+		AtomicReference<Thread> primaryThread = new AtomicReference<>();
+
+		Response response = hedger.execute(testRequest(), () -> {
+			primaryThread.set(Thread.currentThread());
+			return send("/status?status=200&delay=200");
+		}, () -> {
+			hedged.set(true);
+			return () -> send("/status?status=202");
+		});
+
+		assertThat(response.status()).isEqualTo(200);
+		assertThat(hedged).isFalse();
+		assertThat(primaryThread.get()).isSameAs(Thread.currentThread());
+	}
+
+	@Test
+	void shouldSendPrimaryFromCallingThreadWhenNoThreadIsFree() throws Exception {
+		HedgingExecutor saturatedExecutor = new HedgingExecutor(1, null);
+		CountDownLatch busy = new CountDownLatch(1);
+		try {
+			saturatedExecutor.submit(() -> {
+				try {
+					busy.await(10, TimeUnit.SECONDS);
+				}
+				catch (InterruptedException exception) {
+					Thread.currentThread().interrupt();
+				}
+			});
+			RequestHedger hedger = new RequestHedger(properties, saturatedExecutor);
+			warmUp(hedger);
+			AtomicReference<Thread> primaryThread = new AtomicReference<>();
+
+			hedger.execute(testRequest(), () -> {
+				primaryThread.set(Thread.currentThread());
+				return send("/status?status=200");
+			}, () -> () -> send("/status?status=202")).close();
+
+			assertThat(primaryThread.get()).isSameAs(Thread.currentThread());
+		}
+		finally {
+			busy.countDown();
+			saturatedExecutor.shutdown();
+		}
+	}
+
+	@Test
+	void shouldUseHedgedResponseWhenPrimaryFails() throws Exception {
+		RequestHedger hedger = new RequestHedger(properties, executor);
+		warmUp(hedger);
+		properties.setMinDelay(Duration.ZERO);
+		hedger.configure(properties);
+
+		Response response = hedger.execute(testRequest(), () -> {
+			send("/status?status=200&delay=200").close();
+			throw new IOException("test");
+		}, () -> () -> send("/status?status=202"));
+
+		assertThat(response.status()).isEqualTo(202);
+	}
+
+	@Test
+	void shouldNotUseHedgedServerError() throws Exception {
+		RequestHedger hedger = new RequestHedger(properties, executor);
+		warmUp(hedger);
+		CountDownLatch hedged = new CountDownLatch(1);
+
+		Response response = hedger.execute(testRequest(), () -> send("/status?status=200&delay=300"), () -> () -> {
+			hedged.countDown();
+			return send("/status?status=503");
+		});
+
+		assertThat(response.status()).isEqualTo(200);
+		assertThat(hedged.await(5, TimeUnit.SECONDS)).isTrue();
+	}
+
+	@Test
+	void shouldWaitForHedgedResponseWhenPrimaryReturnsServerError() throws Exception {
+		RequestHedger hedger = new RequestHedger(properties, executor);
+		warmUp(hedger);
+
+		Response response = hedger.execute(testRequest(), () -> send("/status?status=503&delay=200"),
+				() -> () -> send("/status?status=202&delay=300"));
+
+		assertThat(response.status()).isEqualTo(202);
+	}
+
+	@Test
+	void shouldPropagateContextToBothAttempts() throws Exception {
+		RequestHedger hedger = new RequestHedger(properties, executor);
+		warmUp(hedger);
+		AtomicReference<String> primaryMdc = new AtomicReference<>();
+		AtomicReference<String> hedgedMdc = new AtomicReference<>();
+		MDC.put("traceId", "test");
+		try {
+			hedger.execute(testRequest(), () -> {
+				primaryMdc.set(MDC.get("traceId"));
+				return send("/stalled");
+			}, () -> {
+				hedgedMdc.set(MDC.get("traceId"));
+				return () -> send("/status?status=202");
+			}).close();
+		}
+		finally {
+			MDC.remove("traceId");
+		}
+
+		assertThat(primaryMdc.get()).isEqualTo("test");
+		assertThat(hedgedMdc.get()).isEqualTo("test");
+	}
+
+	@Test
+	void shouldRethrowFailureOfPrimaryRequest() {
+		RequestHedger hedger = new RequestHedger(properties, executor);
+
+		assertThatIOException().isThrownBy(() -> hedger.execute(testRequest(), () -> {
+			throw new IOException("test");
+		}, () -> null)).withMessage("test");
+	}
+
+	@Test
+	void shouldOnlyHedgeGetRequests() {
+		RequestHedger hedger = new RequestHedger(properties, executor);
+
+		assertThat(hedger.isHedgeable(testRequest())).isTrue();
+		assertThat(hedger.isHedgeable(Request.create(Request.HttpMethod.POST, "http://test/path",
+				Collections.emptyMap(), null, StandardCharsets.UTF_8, null))).isFalse();
+	}
+
+	// Records just enough latencies to hedge, so that the warm-up requests are all sent
+	// from the calling thread and leave the threads of the executor free
+	private void warmUp(RequestHedger hedger) throws IOException {
+		for (int i = 0; i < 32; i++) {
+			hedger.execute(testRequest(), () -> response(200), () -> null).close();
+		}
+	}
+
+	private Response send(String path) throws IOException {
+		Request request = Request.create(Request.HttpMethod.GET,
+				"http://localhost:" + server.getAddress().getPort() + path, Collections.emptyMap(), null,
+				StandardCharsets.UTF_8, null);
+		return client.execute(request, new Request.Options(1, TimeUnit.SECONDS, 30, TimeUnit.SECONDS, false));
+	}
+
+	private Response trackClose(Response response, CountDownLatch closed) {
+		return response.toBuilder().body(new ByteArrayInputStream(new byte[0]) {
+			@Override
+			public void close() {
+				closed.countDown();
+			}
+		}, 0).build();
+	}
+
+	private Response response(int status) {
+		return Response.builder().request(testRequest()).status(status).headers(Collections.emptyMap()).build();
+	}
+
+	private Request testRequest() {
+		return Request.create(Request.HttpMethod.GET, "http://test/path", Collections.emptyMap(), null,
+				StandardCharsets.UTF_8, null);
+	}
+
+}
@@ -21,6 +21,7 @@ import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
+import java.time.Duration;
 import java.nio.charset.StandardCharsets;
 import java.util.Collection;
 import java.util.Collections;
@@ -28,6 +29,7 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import feign.Client;
 import feign.Request;
@@ -53,6 +55,11 @@ import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryListener;
+import org.springframework.retry.backoff.FixedBackOffPolicy;
+import org.springframework.retry.listener.RetryListenerSupport;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -162,6 +169,88 @@ class RetryableFeignBlockingLoadBalancerClientTests {
 		verify(delegate, times(2)).execute(any(), any());
 	}
 
+	@Test
+	void shouldNotRetryWhenRetryBudgetExhausted() throws IOException {
+		properties.getRetry().getRetryableStatusCodes().add(503);
+		FeignLoadBalancerClientsProperties feignProperties = new FeignLoadBalancerClientsProperties();
+		feignProperties.getRetryBudget().setEnabled(true);
+		feignProperties.getRetryBudget().setRatio(0);
+		feignProperties.getRetryBudget().setMinRetriesPerSecond(0);
+		FeignLoadBalancerServiceDescriptorCache serviceDescriptorCache = new FeignLoadBalancerServiceDescriptorCache(
+				loadBalancerClientFactory, feignProperties);
+		RetryableFeignBlockingLoadBalancerClient client = new RetryableFeignBlockingLoadBalancerClient(delegate,
+				loadBalancerClient, retryFactory, serviceDescriptorCache);
+		when(delegate.execute(any(), any())).thenReturn(testResponse(503));
+		when(loadBalancerClient.reconstructURI(serviceInstance, URI.create("http://test/path")))
+				.thenReturn(URI.create("http://testhost:80/path"));
+
+		Response response = client.execute(testRequest(), new Request.Options());
+
+		assertThat(response.status()).isEqualTo(503);
+		verify(delegate, times(1)).execute(any(), any());
+		LoadBalancerRetryBudget retryBudget = serviceDescriptorCache.getRetryBudgets().get("test");
+		assertThat(retryBudget.getRequestCount()).isEqualTo(1);
+		assertThat(retryBudget.getExhaustedCount()).isEqualTo(1);
+	}
+
+	@Test
+	void shouldRetryWithinRetryBudget() throws IOException {
+		properties.getRetry().getRetryableStatusCodes().add(503);
+		FeignLoadBalancerClientsProperties feignProperties = new FeignLoadBalancerClientsProperties();
+		feignProperties.getRetryBudget().setEnabled(true);
+		FeignLoadBalancerServiceDescriptorCache serviceDescriptorCache = new FeignLoadBalancerServiceDescriptorCache(
+				loadBalancerClientFactory, feignProperties);
+		RetryableFeignBlockingLoadBalancerClient client = new RetryableFeignBlockingLoadBalancerClient(delegate,
+				loadBalancerClient, retryFactory, serviceDescriptorCache);
+		when(delegate.execute(any(), any())).thenReturn(testResponse(503));
+		when(loadBalancerClient.reconstructURI(serviceInstance, URI.create("http://test/path")))
+				.thenReturn(URI.create("http://testhost:80/path"));
+
+		client.execute(testRequest(), new Request.Options());
+
+		verify(delegate, times(2)).execute(any(), any());
+		assertThat(serviceDescriptorCache.getRetryBudgets().get("test").getRetryCount()).isEqualTo(1);
+	}
+
+	@Test
+	void shouldBuildRetryComponentsOncePerService() throws IOException {
+		properties.getRetry().getRetryableStatusCodes().add(503);
+		when(retryFactory.createRetryPolicy(any(), eq(loadBalancerClient)))
+				.thenAnswer(invocation -> new BlockingLoadBalancedRetryPolicy(properties));
+		when(delegate.execute(any(), any())).thenReturn(testResponse(503));
+		when(loadBalancerClient.reconstructURI(serviceInstance, URI.create("http://test/path")))
+				.thenReturn(URI.create("http://testhost:80/path"));
+
+		feignBlockingLoadBalancerClient.execute(testRequest(), new Request.Options());
+		feignBlockingLoadBalancerClient.execute(testRequest(), new Request.Options());
+
+		verify(retryFactory, times(2)).createRetryPolicy("test", loadBalancerClient);
+		verify(retryFactory, times(1)).createBackOffPolicy("test");
+		verify(retryFactory, times(1)).createRetryListeners("test");
+		verify(delegate, times(4)).execute(any(), any());
+	}
+
+	@Test
+	void shouldNotRetryAfterDeadline() throws IOException {
+		properties.getRetry().getRetryableStatusCodes().add(503);
+		when(delegate.execute(any(), any())).thenAnswer(invocation -> {
+			Thread.sleep(100);
+			return testResponse(503);
+		});
+		when(loadBalancerClient.reconstructURI(serviceInstance, URI.create("http://test/path")))
+				.thenReturn(URI.create("http://testhost:80/path"));
+
+		Response response;
+		try (RequestDeadline.Scope scope = RequestDeadline.after(Duration.ofMillis(50)).attach()) {
+			response = feignBlockingLoadBalancerClient.execute(testRequest(), new Request.Options());
+		}
+
+		assertThat(response.status()).isEqualTo(503);
+		ArgumentCaptor<Request.Options> optionsCaptor = ArgumentCaptor.forClass(Request.Options.class);
+		verify(delegate, times(1)).execute(any(), optionsCaptor.capture());
+		assertThat(optionsCaptor.getValue().readTimeoutMillis()).isBetween(1, 50);
+	}
+
 	@Test
 	void shouldNotRetryOnDisabled() throws IOException {
 		properties.getRetry().setEnabled(false);
@@ -192,6 +281,92 @@ class RetryableFeignBlockingLoadBalancerClientTests {
 		assertThat(bodyContent).isEqualTo("foo");
 	}
 
+	@Test
+	void shouldReleaseRetriedResponseAndReturnUnbufferedFinalResponse() throws IOException {
+		properties.getRetry().getRetryableStatusCodes().add(503);
+		CloseTrackingInputStream retriedBody = new CloseTrackingInputStream(new byte[100000]);
+		Response retriedResponse = Response.builder().request(testRequest()).status(503).body(retriedBody, 100000)
+				.build();
+		InputStream finalBody = new ByteArrayInputStream("final".getBytes(StandardCharsets.UTF_8));
+		Response finalResponse = Response.builder().request(testRequest()).status(503).body(finalBody, 5).build();
+		when(delegate.execute(any(), any())).thenReturn(retriedResponse, finalResponse);
+		when(loadBalancerClient.reconstructURI(serviceInstance, URI.create("http://test/path")))
+				.thenReturn(URI.create("http://testhost:80/path"));
+
+		Response response = feignBlockingLoadBalancerClient.execute(testRequest(), new Request.Options());
+
+		assertThat(retriedBody.closed).isTrue();
+		assertThat(retriedBody.available()).isEqualTo(100000 - 64 * 1024 - 4 * 1024);
+		assertThat(response.body().asInputStream()).isSameAs(finalBody);
+	}
+
+	@Test
+	void shouldReleaseRetriedResponseBeforeBackingOff() throws IOException {
+		properties.getRetry().getRetryableStatusCodes().add(503);
+		CloseTrackingInputStream retriedBody = new CloseTrackingInputStream(new byte[10000]);
+		Response retriedResponse = Response.builder().request(testRequest()).status(503).body(retriedBody, 10000)
+				.build();
+		when(delegate.execute(any(), any())).thenReturn(retriedResponse, testResponse(200));
+		when(loadBalancerClient.reconstructURI(serviceInstance, URI.create("http://test/path")))
+				.thenReturn(URI.create("http://testhost:80/path"));
+		AtomicBoolean releasedBeforeBackOff = new AtomicBoolean();
+		FixedBackOffPolicy backOffPolicy = new FixedBackOffPolicy();
+		backOffPolicy.setBackOffPeriod(200);
+		backOffPolicy.setSleeper(backOffPeriod -> {
+			releasedBeforeBackOff.set(retriedBody.closed);
+			Thread.sleep(backOffPeriod);
+		});
+		when(retryFactory.createBackOffPolicy("test")).thenReturn(backOffPolicy);
+
+		Response response = feignBlockingLoadBalancerClient.execute(testRequest(), new Request.Options());
+
+		assertThat(response.status()).isEqualTo(200);
+		assertThat(releasedBeforeBackOff).isTrue();
+	}
+
+	@Test
+	void shouldReleaseRetriedResponseWhenListenerEndsRetries() throws IOException {
+		properties.getRetry().getRetryableStatusCodes().add(503);
+		CloseTrackingInputStream retriedBody = new CloseTrackingInputStream(new byte[10000]);
+		Response retriedResponse = Response.builder().request(testRequest()).status(503).body(retriedBody, 10000)
+				.build();
+		when(delegate.execute(any(), any())).thenReturn(retriedResponse);
+		when(loadBalancerClient.reconstructURI(serviceInstance, URI.create("http://test/path")))
+				.thenReturn(URI.create("http://testhost:80/path"));
+		when(retryFactory.createRetryListeners("test")).thenReturn(new RetryListener[] { new RetryListenerSupport() {
+			@Override
+			public <T, E extends Throwable> void onError(RetryContext context, RetryCallback<T, E> callback,
+					Throwable throwable) {
+				throw new IllegalStateException("test");
+			}
+		} });
+
+		assertThatThrownBy(() -> feignBlockingLoadBalancerClient.execute(testRequest(), new Request.Options()))
+				.isInstanceOf(IllegalStateException.class);
+		assertThat(retriedBody.closed).isTrue();
+	}
+
+	@Test
+	void shouldReturnUnreleasedResponseWhenRetryIsAbandoned() throws IOException {
+		properties.getRetry().getRetryableStatusCodes().add(503);
+		InputStream body = new ByteArrayInputStream(new byte[10000]);
+		when(delegate.execute(any(), any())).thenAnswer(invocation -> {
+			Thread.sleep(100);
+			return Response.builder().request(testRequest()).status(503).body(body, 10000).build();
+		});
+		when(loadBalancerClient.reconstructURI(serviceInstance, URI.create("http://test/path")))
+				.thenReturn(URI.create("http://testhost:80/path"));
+
+		Response response;
+		try (RequestDeadline.Scope scope = RequestDeadline.after(Duration.ofMillis(50)).attach()) {
+			response = feignBlockingLoadBalancerClient.execute(testRequest(), new Request.Options());
+		}
+
+		verify(delegate, times(1)).execute(any(), any());
+		assertThat(response.body().asInputStream()).isSameAs(body);
+		assertThat(body.available()).isEqualTo(10000);
+	}
+
 	@Test
 	void shouldPassCorrectRequestToDelegate() throws IOException {
 		Request request = testRequest();
@@ -326,4 +501,20 @@ class RetryableFeignBlockingLoadBalancerClientTests {
 
 	}
 
+	private static class CloseTrackingInputStream extends ByteArrayInputStream {
+
+		private boolean closed;
+
+		CloseTrackingInputStream(byte[] buf) {
+			super(buf);
+		}
+
+		@Override
+		public void close() throws IOException {
+			closed = true;
+			super.close();
+		}
+
+	}
+
 }
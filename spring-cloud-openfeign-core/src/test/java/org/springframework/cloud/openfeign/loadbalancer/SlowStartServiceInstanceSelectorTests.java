@@ -0,0 +1,118 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign.loadbalancer;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Tests for {@link SlowStartServiceInstanceSelector}.
+ */
+class SlowStartServiceInstanceSelectorTests {
+
+	private final ServiceInstance warm = new DefaultServiceInstance("test-1", "test", "warm", 8080, false);
+
+	private final ServiceInstance added = new DefaultServiceInstance("test-2", "test", "added", 8080, false);
+
+	private final FeignLoadBalancerProperties.SlowStart properties = new FeignLoadBalancerProperties.SlowStart();
+
+	private final AtomicLong clock = new AtomicLong();
+
+	private final SlowStartServiceInstanceSelector selector = new SlowStartServiceInstanceSelector(
+			new RoundRobinServiceInstanceSelector(), properties, clock::get);
+
+	@Test
+	void shouldConsiderInitialInstancesWarm() {
+		selector.select(Arrays.asList(warm, added), new DefaultRequest<>());
+
+		assertThat(selector.getWeight(warm, clock.get())).isEqualTo(1);
+		assertThat(selector.getWeight(added, clock.get())).isEqualTo(1);
+	}
+
+	@Test
+	void shouldRampUpWeightLinearly() {
+		selector.select(Collections.singletonList(warm), new DefaultRequest<>());
+		long window = properties.getWindow().toNanos();
+
+		assertThat(selector.getWeight(added, 0)).isEqualTo(0.1, within(1e-9));
+		assertThat(selector.getWeight(added, window / 2)).isEqualTo(0.55, within(1e-9));
+		assertThat(selector.getWeight(added, window)).isEqualTo(1);
+	}
+
+	@Test
+	void shouldRampUpWeightExponentially() {
+		properties.setRamp(FeignLoadBalancerProperties.SlowStart.Ramp.EXPONENTIAL);
+		selector.select(Collections.singletonList(warm), new DefaultRequest<>());
+		long window = properties.getWindow().toNanos();
+
+		assertThat(selector.getWeight(added, 0)).isEqualTo(0.1, within(1e-9));
+		assertThat(selector.getWeight(added, window / 2)).isEqualTo(Math.sqrt(0.1), within(1e-9));
+		assertThat(selector.getWeight(added, window)).isEqualTo(1);
+	}
+
+	@Test
+	void shouldSendReducedShareToNewInstanceUntilWindowHasPassed() {
+		properties.setWindow(Duration.ofSeconds(10));
+		selector.select(Collections.singletonList(warm), new DefaultRequest<>());
+		List<ServiceInstance> instances = Arrays.asList(warm, added);
+
+		int selectedAdded = countSelections(instances, added, 10000);
+		assertThat(selectedAdded).isBetween(250, 800);
+
+		clock.addAndGet(properties.getWindow().toNanos());
+		selectedAdded = countSelections(instances, added, 10000);
+		assertThat(selectedAdded).isEqualTo(5000);
+	}
+
+	@Test
+	void shouldKeepFirstSeenTimesForRecreatedSelector() {
+		SlowStartServiceInstanceSelector.FirstSeenTimes firstSeenTimes = new SlowStartServiceInstanceSelector.FirstSeenTimes();
+		new SlowStartServiceInstanceSelector(new RoundRobinServiceInstanceSelector(), properties, firstSeenTimes)
+				.select(Collections.singletonList(warm), new DefaultRequest<>());
+		SlowStartServiceInstanceSelector recreated = new SlowStartServiceInstanceSelector(
+				new RoundRobinServiceInstanceSelector(), properties, firstSeenTimes);
+
+		recreated.select(Arrays.asList(warm, added), new DefaultRequest<>());
+
+		long now = System.nanoTime();
+		assertThat(recreated.getWeight(warm, now)).isEqualTo(1);
+		assertThat(recreated.getWeight(added, now)).isLessThan(1);
+	}
+
+	private int countSelections(List<ServiceInstance> instances, ServiceInstance instance, int requests) {
+		int count = 0;
+		for (int i = 0; i < requests; i++) {
+			if (selector.select(instances, new DefaultRequest<>()) == instance) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign.loadbalancer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link SubsettingServiceInstanceSelector}.
+ */
+class SubsettingServiceInstanceSelectorTests {
+
+	private final List<ServiceInstance> instances = instances(400);
+
+	@Test
+	void shouldSelectOnlyFromStableSubset() {
+		SubsettingServiceInstanceSelector selector = new SubsettingServiceInstanceSelector(
+				new RoundRobinServiceInstanceSelector(), 10, "client-1");
+		List<ServiceInstance> subset = selector.getSubset(instances);
+		List<ServiceInstance> shuffled = new ArrayList<>(instances);
+		Collections.shuffle(shuffled, new Random(42));
+
+		assertThat(subset).hasSize(10);
+		assertThat(selector.getSubset(shuffled)).containsExactlyInAnyOrderElementsOf(subset);
+		assertThat(new SubsettingServiceInstanceSelector(new RoundRobinServiceInstanceSelector(), 10, "client-1")
+				.getSubset(instances)).isEqualTo(subset);
+		for (int i = 0; i < 100; i++) {
+			assertThat(selector.select(instances, new DefaultRequest<>())).isIn(subset);
+		}
+	}
+
+	@Test
+	void shouldKeepSubsetWhenOtherInstanceIsRemoved() {
+		SubsettingServiceInstanceSelector selector = new SubsettingServiceInstanceSelector(
+				new RoundRobinServiceInstanceSelector(), 10, "client-1");
+		List<ServiceInstance> subset = selector.getSubset(instances);
+		List<ServiceInstance> remaining = new ArrayList<>(instances);
+		remaining.removeIf(instance -> !subset.contains(instance) && instance.getPort() % 2 == 0);
+
+		assertThat(selector.getSubset(remaining)).isEqualTo(subset);
+	}
+
+	@Test
+	void shouldSelectOtherInstanceOfSubsetWhenExcluding() {
+		SubsettingServiceInstanceSelector selector = new SubsettingServiceInstanceSelector(
+				new RoundRobinServiceInstanceSelector(), 2, "client-1");
+		List<ServiceInstance> subset = selector.getSubset(instances);
+
+		for (int i = 0; i < 10; i++) {
+			assertThat(selector.select(instances, new DefaultRequest<>(), subset.get(0))).isEqualTo(subset.get(1));
+		}
+		SubsettingServiceInstanceSelector singleInstanceSelector = new SubsettingServiceInstanceSelector(
+				new RoundRobinServiceInstanceSelector(), 1, "client-1");
+		ServiceInstance single = singleInstanceSelector.getSubset(instances).get(0);
+		assertThat(singleInstanceSelector.select(instances, new DefaultRequest<>(), single)).isNull();
+	}
+
+	@Test
+	void shouldUseAllInstancesOfSmallService() {
+		SubsettingServiceInstanceSelector selector = new SubsettingServiceInstanceSelector(
+				new RoundRobinServiceInstanceSelector(), 10, "client-1");
+		List<ServiceInstance> smallService = instances.subList(0, 5);
+
+		assertThat(selector.getSubset(smallService)).isSameAs(smallService);
+	}
+
+	@Test
+	void shouldSpreadSubsetsOfClientsOverInstances() {
+		Map<ServiceInstance, Integer> clientsPerInstance = new HashMap<>();
+		for (int client = 0; client < 300; client++) {
+			SubsettingServiceInstanceSelector selector = new SubsettingServiceInstanceSelector(
+					new RoundRobinServiceInstanceSelector(), 10, "client-pod-" + client);
+			selector.getSubset(instances).forEach(instance -> clientsPerInstance.merge(instance, 1, Integer::sum));
+		}
+
+		// 300 clients * 10 instances / 400 instances = 7.5 clients per instance on
+		// average, binomially distributed
+		assertThat(clientsPerInstance.size()).isGreaterThan(390);
+		assertThat(Collections.max(clientsPerInstance.values())).isLessThan(20);
+	}
+
+	@Test
+	void shouldBalanceClientsOverInstancesWithClientIndex() {
+		assertBalanced(400, 10, 300);
+		assertBalanced(37, 5, 23);
+		assertBalanced(10, 3, 4);
+		assertBalanced(12, 4, 3);
+	}
+
+	@Test
+	void shouldSelectSameSubsetWithClientIndexWhateverInstanceOrder() {
+		SubsettingServiceInstanceSelector selector = new SubsettingServiceInstanceSelector(
+				new RoundRobinServiceInstanceSelector(), 10, "client-1", 7);
+		List<ServiceInstance> subset = selector.getSubset(instances);
+		List<ServiceInstance> shuffled = new ArrayList<>(instances);
+		Collections.shuffle(shuffled, new Random(42));
+
+		assertThat(subset).hasSize(10);
+		assertThat(new SubsettingServiceInstanceSelector(new RoundRobinServiceInstanceSelector(), 10, "client-2", 7)
+				.getSubset(shuffled)).containsExactlyInAnyOrderElementsOf(subset);
+	}
+
+	private static void assertBalanced(int instanceCount, int subsetSize, int clientCount) {
+		List<ServiceInstance> instances = instances(instanceCount);
+		Map<ServiceInstance, Integer> clientsPerInstance = new HashMap<>();
+		instances.forEach(instance -> clientsPerInstance.put(instance, 0));
+		for (int client = 0; client < clientCount; client++) {
+			SubsettingServiceInstanceSelector selector = new SubsettingServiceInstanceSelector(
+					new RoundRobinServiceInstanceSelector(), subsetSize, "client-pod-" + client, client);
+			List<ServiceInstance> subset = selector.getSubset(instances);
+			assertThat(subset).hasSize(subsetSize);
+			subset.forEach(instance -> clientsPerInstance.merge(instance, 1, Integer::sum));
+		}
+
+		assertThat(Collections.max(clientsPerInstance.values()) - Collections.min(clientsPerInstance.values()))
+				.as("clients per instance for %d instances, subsets of %d and %d clients", instanceCount, subsetSize,
+						clientCount)
+				.isLessThanOrEqualTo(1);
+	}
+
+	private static List<ServiceInstance> instances(int count) {
+		List<ServiceInstance> instances = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			instances.add(new DefaultServiceInstance("test-" + i, "test", "10.0." + (i / 256) + "." + (i % 256),
+					8080 + i, false));
+		}
+		return instances;
+	}
+
+}
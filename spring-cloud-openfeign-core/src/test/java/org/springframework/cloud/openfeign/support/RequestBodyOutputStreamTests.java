@@ -0,0 +1,108 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign.support;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link RequestBodyOutputStream}.
+ */
+class RequestBodyOutputStreamTests {
+
+	@Test
+	void shouldKeepBodyOfExpectedLengthWrittenAtOnce() {
+		byte[] body = "hello".getBytes(StandardCharsets.UTF_8);
+		RequestBodyOutputStream outputStream = new RequestBodyOutputStream(body.length, true);
+
+		outputStream.write(body, 0, body.length);
+
+		assertThat(outputStream.toByteArray()).isSameAs(body);
+	}
+
+	@Test
+	void shouldCopyArrayWrittenAtOnceByDefault() throws IOException {
+		byte[] buffer = "hello".getBytes(StandardCharsets.UTF_8);
+		RequestBodyOutputStream outputStream = new RequestBodyOutputStream(buffer.length);
+
+		outputStream.write(buffer);
+		// The writer reuses its buffer
+		Arrays.fill(buffer, (byte) 0);
+
+		assertThat(new String(outputStream.toByteArray(), StandardCharsets.UTF_8)).isEqualTo("hello");
+	}
+
+	@Test
+	void shouldWriteBodyOfExpectedLengthIntoSingleArray() {
+		RequestBodyOutputStream outputStream = new RequestBodyOutputStream(5);
+
+		outputStream.write('h');
+		outputStream.write("ello".getBytes(StandardCharsets.UTF_8), 0, 4);
+		byte[] body = outputStream.toByteArray();
+
+		assertThat(new String(body, StandardCharsets.UTF_8)).isEqualTo("hello");
+		assertThat(outputStream.toByteArray()).isSameAs(body);
+	}
+
+	@Test
+	void shouldCopyBodyWrittenAtOnceIfMoreIsWritten() {
+		byte[] hello = "hello".getBytes(StandardCharsets.UTF_8);
+		RequestBodyOutputStream outputStream = new RequestBodyOutputStream(hello.length, true);
+
+		outputStream.write(hello, 0, hello.length);
+		outputStream.write('!');
+
+		assertThat(new String(outputStream.toByteArray(), StandardCharsets.UTF_8)).isEqualTo("hello!");
+		assertThat(hello).isEqualTo("hello".getBytes(StandardCharsets.UTF_8));
+	}
+
+	@Test
+	void shouldCollectBodyOfUnknownLength() {
+		byte[] data = new byte[3 * 1024 * 1024 + 17];
+		for (int i = 0; i < data.length; i++) {
+			data[i] = (byte) i;
+		}
+		RequestBodyOutputStream outputStream = new RequestBodyOutputStream(-1);
+
+		for (int offset = 0; offset < data.length; offset += 1000) {
+			outputStream.write(data, offset, Math.min(1000, data.length - offset));
+		}
+
+		assertThat(outputStream.size()).isEqualTo(data.length);
+		assertThat(Arrays.equals(outputStream.toByteArray(), data)).isTrue();
+	}
+
+	@Test
+	void shouldCollectMoreThanExpectedLength() {
+		RequestBodyOutputStream outputStream = new RequestBodyOutputStream(2);
+
+		outputStream.write("hello".getBytes(StandardCharsets.UTF_8), 1, 3);
+
+		assertThat(new String(outputStream.toByteArray(), StandardCharsets.UTF_8)).isEqualTo("ell");
+	}
+
+	@Test
+	void shouldReturnEmptyBodyIfNothingIsWritten() {
+		assertThat(new RequestBodyOutputStream(-1).toByteArray()).isEmpty();
+	}
+
+}
@@ -146,6 +146,17 @@ class SpringEncoderTests {
 				.isEqualTo(APPLICATION_OCTET_STREAM_VALUE);
 	}
 
+	@Test
+	void testBinaryDataIsNotCopied() {
+		Encoder encoder = this.context.getInstance("foo", Encoder.class);
+		byte[] body = "hi".getBytes();
+		RequestTemplate request = new RequestTemplate();
+
+		encoder.encode(body, null, request);
+
+		assertThat(request.body()).isSameAs(body);
+	}
+
 	@Test
 	void testMultipartFile1() {
 		Encoder encoder = this.context.getInstance("foo", Encoder.class);
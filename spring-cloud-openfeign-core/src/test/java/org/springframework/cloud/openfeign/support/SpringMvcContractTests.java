@@ -34,7 +34,9 @@ import feign.Param;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import org.springframework.cloud.openfeign.CoalesceRequests;
 import org.springframework.cloud.openfeign.CollectionFormat;
+import org.springframework.cloud.openfeign.RoutingKey;
 import org.springframework.cloud.openfeign.SpringQueryMap;
 import org.springframework.core.convert.ConversionService;
 import org.springframework.format.annotation.DateTimeFormat;
@@ -67,6 +69,7 @@ import static feign.CollectionFormat.SSV;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
 import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 /**
@@ -625,6 +628,34 @@ class SpringMvcContractTests {
 				.isEqualTo("cookie1={cookie1}; cookie2={cookie2}");
 	}
 
+	@Test
+	void testCoalesceRequestsOnGetMethod() throws NoSuchMethodException {
+		Method method = TestTemplate_CoalesceRequests.class.getDeclaredMethod("getTest");
+
+		MethodMetadata data = contract.parseAndValidateMetadata(method.getDeclaringClass(), method);
+		assertThat(data.template().method()).isEqualTo("GET");
+	}
+
+	@Test
+	void testCoalesceRequestsNotAllowedOnPostMethod() {
+		assertThatIllegalStateException().isThrownBy(() -> {
+			Method method = TestTemplate_CoalesceRequests.class.getDeclaredMethod("postTest");
+			contract.parseAndValidateMetadata(method.getDeclaringClass(), method);
+		});
+	}
+
+	@Test
+	void testProcessRoutingKey() throws NoSuchMethodException {
+		Method method = TestTemplate_RoutingKey.class.getDeclaredMethod("getTest", String.class, String.class);
+
+		MethodMetadata data = contract.parseAndValidateMetadata(method.getDeclaringClass(), method);
+		assertThat(data.template().url()).isEqualTo("/test/{id}");
+		assertThat(data.template().headers().get(RoutingKey.DEFAULT_HEADER_NAME)).containsExactly("{X-Routing-Key}");
+		assertThat(data.template().headers().get("X-Tenant")).containsExactly("{X-Tenant}");
+		assertThat(data.indexToName().get(0)).containsExactly("id", RoutingKey.DEFAULT_HEADER_NAME);
+		assertThat(data.indexToName().get(1)).containsExactly("X-Tenant");
+	}
+
 	private ConversionService getConversionService() {
 		FormattingConversionServiceFactoryBean conversionServiceFactoryBean = new FormattingConversionServiceFactoryBean();
 		conversionServiceFactoryBean.afterPropertiesSet();
@@ -826,6 +857,25 @@ class SpringMvcContractTests {
 
 	}
 
+	public interface TestTemplate_CoalesceRequests {
+
+		@CoalesceRequests
+		@GetMapping("/test")
+		String getTest();
+
+		@CoalesceRequests
+		@PostMapping("/test")
+		String postTest();
+
+	}
+
+	public interface TestTemplate_RoutingKey {
+
+		@GetMapping("/test/{id}")
+		String getTest(@PathVariable("id") @RoutingKey String id, @RoutingKey(headerName = "X-Tenant") String tenant);
+
+	}
+
 	@JsonAutoDetect(fieldVisibility = ANY, getterVisibility = NONE, setterVisibility = NONE)
 	public class TestObject {
 
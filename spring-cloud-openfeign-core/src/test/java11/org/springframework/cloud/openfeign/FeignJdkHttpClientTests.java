@@ -0,0 +1,146 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.openfeign;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.sun.net.httpserver.HttpServer;
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import feign.Util;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.cloud.commons.httpclient.HttpClientConfiguration;
+import org.springframework.cloud.openfeign.clientconfig.JdkHttpClient;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for the JDK {@link java.net.http.HttpClient} based Feign client.
+ */
+class FeignJdkHttpClientTests {
+
+	private static HttpServer server;
+
+	private static String baseUrl;
+
+	private ConfigurableApplicationContext context;
+
+	@BeforeAll
+	static void startServer() throws IOException {
+		server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.createContext("/echo", exchange -> {
+			byte[] body = Util.toByteArray(exchange.getRequestBody());
+			String response = exchange.getRequestMethod() + " " + exchange.getRequestHeaders().getFirst("X-Test") + " "
+					+ new String(body, StandardCharsets.UTF_8);
+			byte[] bytes = response.getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().add("Content-Type", "text/plain");
+			exchange.sendResponseHeaders(200, bytes.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(bytes);
+			}
+		});
+		server.createContext("/redirect", exchange -> {
+			exchange.getResponseHeaders().add("Location", "/echo");
+			exchange.sendResponseHeaders(302, -1);
+			exchange.close();
+		});
+		server.start();
+		baseUrl = "http://localhost:" + server.getAddress().getPort();
+	}
+
+	@AfterAll
+	static void stopServer() {
+		server.stop(0);
+	}
+
+	@BeforeEach
+	void setUp() {
+		context = new SpringApplicationBuilder()
+				.properties("feign.httpclient.jdk.enabled=true", "feign.httpclient.enabled=false",
+						"feign.httpclient.connection-timeout=1234", "feign.httpclient.jdk.virtual-thread-executor=true")
+				.web(WebApplicationType.NONE).sources(HttpClientConfiguration.class, FeignAutoConfiguration.class)
+				.run();
+	}
+
+	@AfterEach
+	void tearDown() {
+		if (context != null) {
+			context.close();
+		}
+	}
+
+	@Test
+	void shouldConfigureJdkHttpClient() {
+		java.net.http.HttpClient httpClient = context.getBean(java.net.http.HttpClient.class);
+
+		assertThat(context.getBean(Client.class)).isInstanceOf(JdkHttpClient.class);
+		assertThat(httpClient.connectTimeout()).contains(Duration.ofMillis(1234));
+		assertThat(httpClient.followRedirects()).isEqualTo(java.net.http.HttpClient.Redirect.NORMAL);
+		assertThat(httpClient.version()).isEqualTo(java.net.http.HttpClient.Version.HTTP_1_1);
+	}
+
+	@Test
+	void shouldExecuteRequest() throws IOException {
+		Map<String, Collection<String>> headers = new HashMap<>();
+		headers.put("X-Test", Collections.singletonList("header"));
+		headers.put("Content-Length", Collections.singletonList("5"));
+		Request request = Request.create(Request.HttpMethod.POST, baseUrl + "/echo", headers,
+				"hello".getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8, null);
+
+		Response response = context.getBean(Client.class).execute(request, new Request.Options());
+
+		assertThat(response.status()).isEqualTo(200);
+		assertThat(response.reason()).isEqualTo("OK");
+		assertThat(response.headers().get("content-type")).containsExactly("text/plain");
+		assertThat(response.body().length()).isEqualTo(17);
+		assertThat(Util.toString(response.body().asReader(StandardCharsets.UTF_8))).isEqualTo("POST header hello");
+	}
+
+	@Test
+	void shouldFollowRedirectsAsConfiguredPerRequest() throws IOException {
+		Client client = context.getBean(Client.class);
+		Request request = Request.create(Request.HttpMethod.GET, baseUrl + "/redirect", Collections.emptyMap(), null,
+				StandardCharsets.UTF_8, null);
+
+		Response followed = client.execute(request, new Request.Options());
+		Response notFollowed = client.execute(request,
+				new Request.Options(1, TimeUnit.SECONDS, 1, TimeUnit.SECONDS, false));
+
+		assertThat(followed.status()).isEqualTo(200);
+		assertThat(notFollowed.status()).isEqualTo(302);
+		assertThat(notFollowed.headers().get("location")).containsExactly("/echo");
+	}
+
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2013-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.cloud.openfeign.loadbalancer;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.cloud.commons.httpclient.HttpClientConfiguration;
+import org.springframework.cloud.loadbalancer.config.BlockingLoadBalancerClientAutoConfiguration;
+import org.springframework.cloud.loadbalancer.config.LoadBalancerAutoConfiguration;
+import org.springframework.cloud.openfeign.clientconfig.JdkHttpClient;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link JdkHttpClientFeignLoadBalancerConfiguration}.
+ */
+class JdkHttpClientFeignLoadBalancerConfigurationTests {
+
+	@Test
+	void shouldInstantiateJdkHttpClientWhenEnabled() {
+		try (ConfigurableApplicationContext context = initContext("feign.httpclient.jdk.enabled=true",
+				"feign.httpclient.enabled=false", "spring.cloud.loadbalancer.retry.enabled=false")) {
+			assertThat(context.getBean(FeignBlockingLoadBalancerClient.class).getDelegate())
+					.isInstanceOf(JdkHttpClient.class);
+		}
+	}
+
+	@Test
+	void shouldInstantiateRetryableJdkHttpClientWhenEnabled() {
+		try (ConfigurableApplicationContext context = initContext("feign.httpclient.jdk.enabled=true",
+				"feign.httpclient.enabled=false")) {
+			assertThat(context.getBean(RetryableFeignBlockingLoadBalancerClient.class).getDelegate())
+					.isInstanceOf(JdkHttpClient.class);
+		}
+	}
+
+	@Test
+	void shouldNotImportJdkHttpClientWhenDisabled() {
+		try (ConfigurableApplicationContext context = initContext("feign.httpclient.enabled=false",
+				"spring.cloud.loadbalancer.retry.enabled=false")) {
+			assertThat(context.getBeansOfType(java.net.http.HttpClient.class)).isEmpty();
+			assertThat(context.getBean(FeignBlockingLoadBalancerClient.class).getDelegate())
+					.isNotInstanceOf(JdkHttpClient.class);
+		}
+	}
+
+	private ConfigurableApplicationContext initContext(String... properties) {
+		return new SpringApplicationBuilder().web(WebApplicationType.NONE).properties(properties)
+				.sources(HttpClientConfiguration.class, LoadBalancerAutoConfiguration.class,
+						BlockingLoadBalancerClientAutoConfiguration.class, FeignLoadBalancerAutoConfiguration.class)
+				.run();
+	}
+
+}